@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+# Throwaway sharded cluster on localhost for the partitioning benchmarks. Each shard and the config
+# server are single-node replica sets; mongos listens on 27100.
+#
+#   scripts/local-sharded-cluster.sh start 4      # config server, 4 shards, mongos; collections sharded
+#   scripts/local-sharded-cluster.sh stop
+#   scripts/local-sharded-cluster.sh bench 1 2 4  # ShardScalingLoadTest against each shard count in turn
+#
+# accounts and postings are sharded on a range of accountNumber and pre-split at the account number
+# prefixes (see AccountPartitions), one equal run of prefixes per shard, so the load is spread from
+# the first request. transactions stays unsharded: it is written once per movement and no longer
+# read per account.
+set -euo pipefail
+
+DIR=${CLUSTER_DIR:-/tmp/bank-sharded}
+DB=${CLUSTER_DB:-bank}
+MONGOS_PORT=27100
+CONFIG_PORT=27101
+SHARD_BASE_PORT=27110
+
+wait_for() {
+  for _ in $(seq 1 50); do
+    mongosh --quiet --port "$1" --eval 'db.runCommand({ping: 1}).ok' >/dev/null 2>&1 && return 0
+    sleep 0.2
+  done
+  echo "mongod on port $1 did not come up" >&2
+  exit 1
+}
+
+init_replset() {
+  mongosh --quiet --port "$1" --eval "rs.initiate({_id: '$2', members: [{_id: 0, host: 'localhost:$1'}]}); \
+    while (!db.hello().isWritablePrimary) sleep(100);" >/dev/null
+}
+
+start() {
+  local shards=$1
+  mkdir -p "$DIR/config"
+  mongod --configsvr --replSet config --port $CONFIG_PORT --dbpath "$DIR/config" --bind_ip localhost \
+    --fork --logpath "$DIR/config.log" >/dev/null
+  wait_for $CONFIG_PORT
+  init_replset $CONFIG_PORT config
+
+  for i in $(seq 0 $((shards - 1))); do
+    local port=$((SHARD_BASE_PORT + i))
+    mkdir -p "$DIR/shard$i"
+    mongod --shardsvr --replSet "shard$i" --port $port --dbpath "$DIR/shard$i" --bind_ip localhost \
+      --wiredTigerCacheSizeGB 1 --fork --logpath "$DIR/shard$i.log" >/dev/null
+    wait_for $port
+    init_replset $port "shard$i"
+  done
+
+  mongos --configdb "config/localhost:$CONFIG_PORT" --port $MONGOS_PORT --bind_ip localhost \
+    --fork --logpath "$DIR/mongos.log" >/dev/null
+  wait_for $MONGOS_PORT
+
+  mongosh --quiet --port $MONGOS_PORT --eval "
+    const shards = $shards;
+    for (let i = 0; i < shards; i++) sh.addShard('shard' + i + '/localhost:' + ($SHARD_BASE_PORT + i));
+    sh.enableSharding('$DB');
+    db = db.getSiblingDB('$DB');
+    db.accounts.createIndex({accountNumber: 1}, {unique: true});
+    db.postings.createIndex({accountNumber: 1, transactionId: 1}, {unique: true, name: 'account_transaction'});
+    db.postings.createIndex({accountNumber: 1, timestamp: -1, _id: -1}, {name: 'account_history'});
+    for (const coll of ['accounts', 'postings']) {
+      const ns = '$DB.' + coll;
+      sh.shardCollection(ns, {accountNumber: 1});
+      // Same split points as AccountPartitions.splitPoints(shards).
+      for (let i = 1; i < shards; i++) {
+        const prefix = Math.floor(i * 256 / shards).toString(16).toUpperCase().padStart(2, '0');
+        sh.splitAt(ns, {accountNumber: prefix});
+        sh.moveChunk(ns, {accountNumber: prefix}, 'shard' + i);
+      }
+    }
+    sh.status();
+  " >"$DIR/sharding.log"
+  echo "mongos on mongodb://localhost:$MONGOS_PORT/$DB with $shards shard(s); details in $DIR/sharding.log"
+}
+
+stop() {
+  pkill -f "mongos --configdb config/localhost:$CONFIG_PORT" || true
+  pkill -f "mongod --shardsvr --replSet shard" || true
+  pkill -f "mongod --configsvr --replSet config --port $CONFIG_PORT" || true
+  sleep 2
+  rm -rf "$DIR"
+}
+
+bench() {
+  for shards in "$@"; do
+    stop
+    start "$shards"
+    mvn -q -Pbenchmark test-compile exec:exec -Dbench.main=com.bankingsystem.benchmark.ShardScalingLoadTest \
+      -Dbench.args="mongodb://localhost:$MONGOS_PORT/$DB ${THREADS:-256} ${SECONDS_PER_RUN:-60} ${ACCOUNTS:-100000}"
+  done
+  stop
+}
+
+case "${1:-}" in
+  start) start "${2:-2}" ;;
+  stop) stop ;;
+  bench) shift; [ $# -gt 0 ] || set -- 1 2 4; bench "$@" ;;
+  *) echo "usage: $0 start <shards> | stop | bench <shard counts...>" >&2; exit 2 ;;
+esac
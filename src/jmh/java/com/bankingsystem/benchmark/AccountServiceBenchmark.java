@@ -0,0 +1,161 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.AccountRequest;
+import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.TransactionPage;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.service.AccountCache;
+import com.bankingsystem.service.AccountService;
+import com.bankingsystem.service.BatchTransferEngine;
+import com.bankingsystem.service.HotAccounts;
+import com.bankingsystem.service.OperationMetrics;
+import com.bankingsystem.service.TransferEngine;
+import com.bankingsystem.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccountService end to end (validation, id minting, cache, metrics, transfer engine) over
+ * {@link InMemoryRepositories}, i.e. everything except Mongo itself. Part of the regression
+ * baseline; run with {@code -prof gc} for allocation per op.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="AccountService"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountServiceBenchmark {
+
+    private static final String ALICE = "ALICE-1";
+    private static final String BOB = "BOB-1";
+    private static final String EMPTY = "EMPTY-1";
+
+    private AccountService service;
+    private AccountRequest newAccount;
+    private TransferRequest aliceToBob;
+    private TransferRequest bobToAlice;
+    private boolean forward;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryRepositories repos = new InMemoryRepositories();
+        repos.seedAccount(ALICE, Long.MAX_VALUE / 4);
+        repos.seedAccount(BOB, Long.MAX_VALUE / 4);
+        repos.seedAccount(EMPTY, 0L);
+
+        List<Transaction> history = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < 200; i++) {
+            history.add(Transaction.builder()
+                    .id(String.format("%08d", i))
+                    .transactionId("TXN-" + i)
+                    .type("DEPOSIT")
+                    .amount(100L)
+                    .timestamp(now.minusSeconds(i))
+                    .status("SUCCESS")
+                    .sourceAccount(ALICE)
+                    .build());
+        }
+        repos.seedHistory(ALICE, history);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AccountCache cache = new AccountCache(10_000, Duration.ofMinutes(10), registry);
+        TransactionTemplate tx = new TransactionTemplate(new NoOpTransactionManager());
+        TransactionOutbox noOutbox = new TransactionOutbox(null, false);
+        HotAccounts noHotAccounts = new HotAccounts(null, tx, Set.of(), 1, Duration.ofSeconds(1), true, registry);
+        service = new AccountService(repos.accountRepo, repos.txnRepo,
+                new TransferEngine(repos.accountRepo, repos.txnRepo, tx, cache, noOutbox, repos.postings, noHotAccounts, registry),
+                new BatchTransferEngine(repos.accountRepo, repos.txnRepo, tx, cache, noOutbox, repos.postings),
+                new SnowflakeIdGenerator(1), cache, new OperationMetrics(registry),
+                null, null, noOutbox, repos.postings, null, noHotAccounts); // idempotency keys, statements and balance-at-time are not benchmarked
+
+        newAccount = new AccountRequest();
+        newAccount.setHolderName("Alice Sharma");
+        aliceToBob = transfer(ALICE, BOB);
+        bobToAlice = transfer(BOB, ALICE);
+    }
+
+    private static TransferRequest transfer(String from, String to) {
+        TransferRequest req = new TransferRequest();
+        req.setFromAccount(from);
+        req.setToAccount(to);
+        req.setAmount(100L);
+        return req;
+    }
+
+    @Benchmark
+    public Account createAccount() {
+        return service.createAccount(newAccount);
+    }
+
+    @Benchmark
+    public Account getAccountCached() {
+        return service.getAccount(ALICE);
+    }
+
+    @Benchmark
+    public Account deposit() {
+        return service.deposit(ALICE, 100L);
+    }
+
+    @Benchmark
+    public Account withdraw() {
+        return service.withdraw(ALICE, 100L);
+    }
+
+    /** The failure path: conditional update misses, existence check, exception. */
+    @Benchmark
+    public Object withdrawInsufficient() {
+        try {
+            return service.withdraw(EMPTY, 100L);
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    // Alternates direction so balances stay put over a long run.
+    @Benchmark
+    public ApiResponse transfer() {
+        forward = !forward;
+        return service.transfer(forward ? aliceToBob : bobToAlice);
+    }
+
+    @Benchmark
+    public TransactionPage getTransactions() {
+        return service.getTransactions(ALICE, null, 50);
+    }
+
+    /** TransactionTemplate with nothing behind it, so transfers measure the engine, not a session. */
+    static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.bankingsystem.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result against a recorded baseline and exits non-zero if any benchmark got
+ * slower, or allocates more per op ({@code -prof gc}'s gc.alloc.rate.norm), beyond the tolerance.
+ * A benchmark only counts as slower when the two scores' 99.9% confidence intervals
+ * ({@code scoreError}) do not overlap as well, so both files should come from runs with several
+ * forks. Benchmarks missing from either file are reported but don't fail the check.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec@baseline-check
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.bankingsystem.benchmark.BaselineCheck \
+ *     -Dbench.args="src/jmh/baseline.json target/jmh-result.json [timeTolerance=0.10] [allocTolerance=0.05]"
+ * </pre>
+ */
+public class BaselineCheck {
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+    // Allocation is near-deterministic, but escape analysis can shift a few bytes between runs.
+    private static final double ALLOC_SLACK_BYTES = 16;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineCheck <baseline.json> <result.json> [timeTolerance] [allocTolerance]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.exists()) {
+            System.err.println("No baseline at " + baselineFile + "; record one by copying a trusted target/jmh-result.json there");
+            System.exit(2);
+        }
+        double timeTolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        double allocTolerance = args.length > 3 ? Double.parseDouble(args[3]) : 0.05;
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(baselineFile));
+        Map<String, JsonNode> current = index(mapper.readTree(new File(args[1])));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW   %s%n", entry.getKey());
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            regressions += compareTime(entry.getKey(), before, after, timeTolerance);
+            regressions += compareAlloc(entry.getKey(), before, after, allocTolerance);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("GONE  %s%n", key));
+
+        System.out.printf("%d regression(s) against %s%n", regressions, baselineFile);
+        if (regressions > 0) System.exit(1);
+    }
+
+    private static int compareTime(String key, JsonNode before, JsonNode after, double tolerance) {
+        double was = before.path("primaryMetric").path("score").asDouble();
+        double now = after.path("primaryMetric").path("score").asDouble();
+        double wasError = scoreError(before);
+        double nowError = scoreError(after);
+        String unit = after.path("primaryMetric").path("scoreUnit").asText();
+        // Throughput regresses downwards, every other mode (time per op) upwards.
+        boolean throughput = "thrpt".equals(after.path("mode").asText());
+        double change = throughput ? (was - now) / was : (now - was) / was;
+        boolean apart = throughput ? now + nowError < was - wasError : now - nowError > was + wasError;
+        return report(key, "time ", was, now, unit, apart && change > tolerance);
+    }
+
+    // JMH writes "NaN" when a run had too few iterations to estimate it; that interval is just the score.
+    private static double scoreError(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static int compareAlloc(String key, JsonNode before, JsonNode after, double tolerance) {
+        JsonNode was = before.path("secondaryMetrics").path(ALLOC);
+        JsonNode now = after.path("secondaryMetrics").path(ALLOC);
+        if (was.isMissingNode() || now.isMissingNode()) return 0;
+        double wasBytes = was.path("score").asDouble();
+        double nowBytes = now.path("score").asDouble();
+        boolean worse = nowBytes > wasBytes * (1 + tolerance) + ALLOC_SLACK_BYTES;
+        return report(key, "alloc", wasBytes, nowBytes, "B/op", worse);
+    }
+
+    private static int report(String key, String what, double was, double now, String unit, boolean regressed) {
+        System.out.printf("%s %s %s: %.3f -> %.3f %s%n", regressed ? "WORSE" : "ok   ", what, key, was, now, unit);
+        return regressed ? 1 : 0;
+    }
+
+    // benchmark name plus its @Param values, e.g. "...ExceptionHandlerBenchmark.notFound {stackDepth=100}".
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String key = result.path("benchmark").asText();
+            JsonNode params = result.path("params");
+            if (!params.isMissingNode()) key += " " + params;
+            byKey.put(key, result);
+        }
+        return byKey;
+    }
+}
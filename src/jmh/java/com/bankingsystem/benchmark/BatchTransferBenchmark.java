@@ -0,0 +1,155 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.AccountRepositoryCustomImpl;
+import com.bankingsystem.repository.TransactionRepository;
+import com.bankingsystem.repository.TransactionRepositoryCustomImpl;
+import com.bankingsystem.service.AccountCache;
+import com.bankingsystem.service.BatchTransferEngine;
+import com.bankingsystem.service.HotAccounts;
+import com.bankingsystem.service.PostingWriter;
+import com.bankingsystem.service.TransferEngine;
+import com.bankingsystem.util.SnowflakeIdGenerator;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Payroll-style load: {@code batchSize} transfers from one payer to random payees, applied
+ * either one TransferEngine call at a time or as a single batch. The {@code items} counter
+ * reports transfers per second. Needs a local mongod running as a replica set.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="BatchTransfer"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class BatchTransferBenchmark {
+
+    private static final String PAYER = "PAYER-1";
+    private static final int PAYEES = 1000;
+
+    @Param("mongodb://localhost:27017/?replicaSet=rs0")
+    public String mongoUri;
+
+    @Param({"100", "1000"})
+    public int batchSize;
+
+    private MongoClient client;
+    private MongoTemplate template;
+    private TransferEngine single;
+    private BatchTransferEngine batch;
+    private final SnowflakeIdGenerator ids = new SnowflakeIdGenerator(1);
+    private final Supplier<String> txnIds = () -> "TXN-" + ids.nextId();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Items {
+        public long items;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(mongoUri);
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, "bankingdb_bench");
+        template = new MongoTemplate(factory);
+        template.getDb().drop();
+        template.createCollection(Account.class);
+        template.createCollection(Transaction.class);
+        template.createCollection(Posting.class);
+
+        List<Account> accounts = new ArrayList<>();
+        accounts.add(account(PAYER, Long.MAX_VALUE / 2));
+        for (int i = 0; i < PAYEES; i++) accounts.add(account("PAYEE-" + i, 0L));
+        template.insertAll(accounts);
+
+        MongoRepositoryFactory repos = new MongoRepositoryFactory(template);
+        AccountRepository accountRepo = repos.getRepository(AccountRepository.class, new AccountRepositoryCustomImpl(template));
+        TransactionRepository txnRepo = repos.getRepository(TransactionRepository.class, new TransactionRepositoryCustomImpl(template, ReadPreference.primary()));
+        TransactionTemplate tx = new TransactionTemplate(new MongoTransactionManager(factory));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AccountCache cache = new AccountCache(10_000, Duration.ofMinutes(1), registry);
+        TransactionOutbox noOutbox = new TransactionOutbox(template, false);
+
+        PostingWriter postings = new PostingWriter(template);
+
+        HotAccounts noHotAccounts = new HotAccounts(template, tx, Set.of(), 1, Duration.ofSeconds(1), true, registry);
+
+        single = new TransferEngine(accountRepo, txnRepo, tx, cache, noOutbox, postings, noHotAccounts, registry);
+        batch = new BatchTransferEngine(accountRepo, txnRepo, tx, cache, noOutbox, postings);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        template.getDb().drop();
+        client.close();
+    }
+
+    private static Account account(String accNum, long balance) {
+        return Account.builder()
+                .accountNumber(accNum)
+                .holderName(accNum)
+                .balance(balance)
+                .status("ACTIVE")
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private List<TransferRequest> payroll() {
+        List<TransferRequest> reqs = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            TransferRequest req = new TransferRequest();
+            req.setFromAccount(PAYER);
+            req.setToAccount("PAYEE-" + ThreadLocalRandom.current().nextInt(PAYEES));
+            req.setAmount(100L);
+            reqs.add(req);
+        }
+        return reqs;
+    }
+
+    @Benchmark
+    public void singleTransfers(Items items) {
+        for (TransferRequest req : payroll()) {
+            single.transfer(Transaction.builder()
+                    .transactionId(txnIds.get())
+                    .type("TRANSFER")
+                    .amount(req.getAmount())
+                    .timestamp(Instant.now())
+                    .status("SUCCESS")
+                    .sourceAccount(req.getFromAccount())
+                    .destinationAccount(req.getToAccount())
+                    .build());
+        }
+        items.items += batchSize;
+    }
+
+    @Benchmark
+    public void batchTransfer(Items items) {
+        batch.transfer(payroll(), txnIds);
+        items.items += batchSize;
+    }
+}
@@ -0,0 +1,132 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.AccountRepositoryCustomImpl;
+import com.bankingsystem.repository.TransactionRepository;
+import com.bankingsystem.repository.TransactionRepositoryCustomImpl;
+import com.bankingsystem.service.AccountCache;
+import com.bankingsystem.service.AccountService;
+import com.bankingsystem.service.AccountWriteCoalescer;
+import com.bankingsystem.service.PostingWriter;
+import com.bankingsystem.util.SnowflakeIdGenerator;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent deposits on {@code accounts} accounts, written one request at a time as
+ * {@code AccountService} does by default (conditional $inc, transaction insert, posting insert)
+ * or through {@link AccountWriteCoalescer} with a {@code windowMicros} window. Throughput shows
+ * the gain, the sample-time percentiles what the window costs each caller. Needs a local mongod
+ * running as a replica set.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="CoalescedWrite -t 64"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class CoalescedWriteBenchmark {
+
+    @Param("mongodb://localhost:27017/?replicaSet=rs0")
+    public String mongoUri;
+
+    @Param({"1", "16"})
+    public int accounts;
+
+    @Param({"500", "2000"})
+    public long windowMicros;
+
+    private MongoClient client;
+    private MongoTemplate template;
+    private AccountRepository accountRepo;
+    private TransactionRepository txnRepo;
+    private PostingWriter postings;
+    private AccountWriteCoalescer coalescer;
+    private final SnowflakeIdGenerator ids = new SnowflakeIdGenerator(1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(mongoUri);
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, "bankingdb_bench");
+        template = new MongoTemplate(factory);
+        template.getDb().drop();
+        template.createCollection(Account.class);
+        template.createCollection(Transaction.class);
+        template.createCollection(Posting.class);
+        for (int i = 0; i < accounts; i++) {
+            template.insert(Account.builder()
+                    .accountNumber("HOT-" + i)
+                    .holderName("Hot " + i)
+                    .balance(0L)
+                    .status("ACTIVE")
+                    .createdAt(Instant.now())
+                    .version(0L)
+                    .sequence(0L)
+                    .build());
+        }
+
+        MongoRepositoryFactory repos = new MongoRepositoryFactory(template);
+        accountRepo = repos.getRepository(AccountRepository.class, new AccountRepositoryCustomImpl(template));
+        txnRepo = repos.getRepository(TransactionRepository.class, new TransactionRepositoryCustomImpl(template, ReadPreference.primary()));
+        TransactionTemplate tx = new TransactionTemplate(new MongoTransactionManager(factory));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AccountCache cache = new AccountCache(10_000, Duration.ofMinutes(1), registry);
+        postings = new PostingWriter(template);
+        coalescer = new AccountWriteCoalescer(accountRepo, txnRepo, tx, cache, new TransactionOutbox(template, false), postings,
+                ids, registry, Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(windowMicros)), 64, 4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        coalescer.stop();
+        template.getDb().drop();
+        client.close();
+    }
+
+    private String anyAccount() {
+        return "HOT-" + ThreadLocalRandom.current().nextInt(accounts);
+    }
+
+    /** The default deposit path of AccountService. */
+    @Benchmark
+    public Account perRequest() {
+        String accNum = anyAccount();
+        Account acc = accountRepo.credit(accNum, 1L).orElseThrow();
+        Transaction txn = Transaction.builder()
+                .transactionId(AccountService.txnId(ids))
+                .type("DEPOSIT")
+                .amount(1L)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build();
+        txnRepo.save(txn);
+        postings.record(txn, acc);
+        return acc;
+    }
+
+    @Benchmark
+    public Account coalesced() {
+        return coalescer.deposit(anyAccount(), 1L);
+    }
+}
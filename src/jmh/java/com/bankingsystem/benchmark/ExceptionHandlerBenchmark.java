@@ -0,0 +1,81 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.GlobalExceptionHandler;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.dto.ApiResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Error responses from throw to ResponseEntity. {@code stackDepth} is how many frames sit between
+ * the throw and the handler; capturing the stack trace is usually most of the cost, so 0 vs. a
+ * realistic servlet depth shows how much of an error response is just fillInStackTrace.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="ExceptionHandler"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExceptionHandlerBenchmark {
+
+    @Param({"0", "100"})
+    public int stackDepth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> notFound() {
+        try {
+            throwAt(stackDepth, () -> new AccountNotFoundException("ALICE-1K8Z2QW9TXA"));
+            return null;
+        } catch (AccountNotFoundException ex) {
+            return handler.handle(ex);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> insufficientBalance() {
+        try {
+            throwAt(stackDepth, InsufficientBalanceException::new);
+            return null;
+        } catch (InsufficientBalanceException ex) {
+            return handler.handleBadRequest(ex);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> conflict() {
+        try {
+            throwAt(stackDepth, () -> new OptimisticLockingFailureException("write conflict"));
+            return null;
+        } catch (OptimisticLockingFailureException ex) {
+            return handler.handleOptimistic(ex);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> unexpected() {
+        try {
+            throwAt(stackDepth, () -> new IllegalStateException("boom"));
+            return null;
+        } catch (IllegalStateException ex) {
+            return handler.handleAll(ex);
+        }
+    }
+
+    private static void throwAt(int depth, Supplier<? extends RuntimeException> exception) {
+        if (depth > 0) {
+            throwAt(depth - 1, exception);
+            return;
+        }
+        throw exception.get();
+    }
+}
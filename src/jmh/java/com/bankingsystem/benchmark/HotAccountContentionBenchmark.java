@@ -0,0 +1,153 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.AccountBucket;
+import com.bankingsystem.model.DailyBalance;
+import com.bankingsystem.model.DailyBalanceBucket;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.repository.AccountRepositoryCustomImpl;
+import com.bankingsystem.service.DailyBalanceService;
+import com.bankingsystem.service.HotAccounts;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits against a single hot account from many threads, comparing the old
+ * read/save/retry loop with the conditional $inc path, and with {@link HotAccounts} spreading the
+ * increments over {@code buckets} sub-balance documents. The {@code ...WithSnapshot} variants also
+ * record the deposit in the daily balance snapshots, as the live listener does: one day document
+ * for an ordinary account, a random day bucket for a hot one. Needs a local mongod.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="HotAccountContention -p buckets=1,4,16,64"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class HotAccountContentionBenchmark {
+
+    private static final String HOT = "HOT-00000001";
+    private static final int MAX_RETRIES = 3;
+
+    @Param("mongodb://localhost:27017")
+    public String mongoUri;
+
+    @Param("16")
+    public int buckets;
+
+    private MongoClient client;
+    private MongoTemplate template;
+    private AccountRepositoryCustomImpl atomic;
+    private HotAccounts hotAccounts;
+    private DailyBalanceService bucketedSnapshots;
+    private DailyBalanceService singleSnapshot;
+    private Query hotAccount;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long succeeded;
+        public long rejected;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(mongoUri);
+        template = new MongoTemplate(client, "bankingdb_bench");
+        template.dropCollection(Account.class);
+        template.dropCollection(AccountBucket.class);
+        template.dropCollection(DailyBalance.class);
+        template.dropCollection(DailyBalanceBucket.class);
+        template.insert(Account.builder()
+                .accountNumber(HOT)
+                .holderName("Hot")
+                .balance(0L)
+                .status("ACTIVE")
+                .createdAt(Instant.now())
+                .build());
+        atomic = new AccountRepositoryCustomImpl(template);
+        hotAccount = Query.query(Criteria.where("accountNumber").is(HOT));
+        // Credits never open a transaction, so no transaction manager is needed here.
+        hotAccounts = new HotAccounts(template, new TransactionTemplate(), Set.of(HOT), buckets, Duration.ofSeconds(1), true,
+                new SimpleMeterRegistry());
+        hotAccounts.init();
+        // Statements are not read here, so neither needs the transaction repository.
+        bucketedSnapshots = new DailyBalanceService(template, null, hotAccounts);
+        singleSnapshot = new DailyBalanceService(template, null,
+                new HotAccounts(template, new TransactionTemplate(), Set.of(), 1, Duration.ofSeconds(1), true, new SimpleMeterRegistry()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        template.getDb().drop();
+        client.close();
+    }
+
+    /** The pre-change path: read, set balance, versioned save, retry up to MAX_RETRIES (then 409). */
+    @Benchmark
+    public void readModifyWrite(Outcomes outcomes) {
+        for (int tries = 1; tries <= MAX_RETRIES; tries++) {
+            try {
+                Account acc = template.findOne(hotAccount, Account.class);
+                acc.setBalance(acc.getBalance() + 1);
+                template.save(acc);
+                outcomes.succeeded++;
+                return;
+            } catch (OptimisticLockingFailureException ex) {
+                // retry
+            }
+        }
+        outcomes.rejected++;
+    }
+
+    @Benchmark
+    public void conditionalInc(Outcomes outcomes) {
+        if (atomic.credit(HOT, 1).isPresent()) outcomes.succeeded++;
+        else outcomes.rejected++;
+    }
+
+    @Benchmark
+    public void bucketedInc(Outcomes outcomes) {
+        if (hotAccounts.credit(HOT, 1)) outcomes.succeeded++;
+        else outcomes.rejected++;
+    }
+
+    @Benchmark
+    public void conditionalIncWithSnapshot(Outcomes outcomes) {
+        if (atomic.credit(HOT, 1).isPresent()) {
+            singleSnapshot.record(deposit());
+            outcomes.succeeded++;
+        } else {
+            outcomes.rejected++;
+        }
+    }
+
+    @Benchmark
+    public void bucketedIncWithSnapshot(Outcomes outcomes) {
+        if (hotAccounts.credit(HOT, 1)) {
+            bucketedSnapshots.record(deposit());
+            outcomes.succeeded++;
+        } else {
+            outcomes.rejected++;
+        }
+    }
+
+    private static Transaction deposit() {
+        return Transaction.builder().type("DEPOSIT").amount(1).timestamp(Instant.now()).sourceAccount(HOT).build();
+    }
+}
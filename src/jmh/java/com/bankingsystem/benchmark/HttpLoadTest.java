@@ -0,0 +1,130 @@
+package com.bankingsystem.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop HTTP load generator: each of {@code clients} virtual users sends its next request
+ * as soon as the previous one completes, for {@code seconds}. The mix is 90% balance reads and
+ * 10% deposits spread over {@code accounts} existing accounts ({@code LOAD-0..LOAD-n}).
+ * <p>
+ * Start the server once with the default profile and once with {@code virtual-threads}, then:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.bankingsystem.benchmark.HttpLoadTest \
+ *     -Dbench.args="http://localhost:8081 1000 60 100"
+ * </pre>
+ * and repeat with 5000 and 10000 clients. Raise {@code ulimit -n} on both sides first.
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<CompletableFuture<Void>> users = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            users.add(loop(http, baseUrl, accounts, deadline, latencies, errors));
+        }
+        long start = System.nanoTime();
+        CompletableFuture.allOf(users.toArray(CompletableFuture[]::new)).join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("clients=%d duration=%.1fs requests=%d errors=%d throughput=%.0f req/s%n",
+                clients, elapsed, latencies.count(), errors.get(), latencies.count() / elapsed);
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                latencies.percentile(50) / 1e3, latencies.percentile(90) / 1e3, latencies.percentile(99) / 1e3,
+                latencies.percentile(99.9) / 1e3, latencies.max() / 1e3);
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient http, String baseUrl, int accounts, long deadline,
+                                                LatencyHistogram latencies, AtomicLong errors) {
+        if (System.nanoTime() >= deadline) return CompletableFuture.completedFuture(null);
+
+        long sent = System.nanoTime();
+        return http.sendAsync(nextRequest(baseUrl, accounts), HttpResponse.BodyHandlers.discarding())
+                .handle((res, ex) -> {
+                    latencies.record((System.nanoTime() - sent) / 1000);
+                    if (ex != null || res.statusCode() >= 500) errors.incrementAndGet();
+                    return null;
+                })
+                .thenCompose(ignored -> loop(http, baseUrl, accounts, deadline, latencies, errors));
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, int accounts) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String account = baseUrl + "/api/accounts/LOAD-" + rnd.nextInt(accounts);
+        if (rnd.nextInt(10) == 0) {
+            return HttpRequest.newBuilder(URI.create(account + "/deposit?amount=100"))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create(account)).GET().build();
+    }
+
+    /** Lock-free log-linear histogram of microsecond latencies, 16 sub-buckets per power of two. */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private final AtomicLongArray buckets = new AtomicLongArray(64 << SUB_BITS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long micros) {
+            long v = Math.max(1, micros);
+            buckets.incrementAndGet(index(v));
+            count.incrementAndGet();
+            max.accumulateAndGet(v, Math::max);
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        long percentile(double p) {
+            long target = (long) Math.ceil(count.get() * p / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) return upperBound(i);
+            }
+            return max.get();
+        }
+
+        private static int index(long v) {
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            if (exp < SUB_BITS) return (int) v;
+            int sub = (int) ((v >>> (exp - SUB_BITS)) & ((1 << SUB_BITS) - 1));
+            return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+        }
+
+        private static long upperBound(int index) {
+            if (index < (1 << SUB_BITS)) return index;
+            int exp = (index >>> SUB_BITS) + SUB_BITS - 1;
+            long sub = index & ((1 << SUB_BITS) - 1);
+            return ((1L << SUB_BITS | sub) + 1) << (exp - SUB_BITS);
+        }
+    }
+}
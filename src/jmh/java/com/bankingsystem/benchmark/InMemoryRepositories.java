@@ -0,0 +1,134 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.TransactionCursor;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.TransactionRepository;
+import com.bankingsystem.service.PostingWriter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed stand-ins for the Mongo repositories, so service benchmarks measure our code
+ * rather than the network. Only the methods the service hot paths call are implemented;
+ * anything else throws. Writes return fresh copies, as the driver would.
+ */
+final class InMemoryRepositories {
+
+    private static final Comparator<Transaction> NEWEST_FIRST =
+            Comparator.comparing(Transaction::getTimestamp).thenComparing(Transaction::getId).reversed();
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<String, List<Transaction>> history = new ConcurrentHashMap<>();
+
+    final AccountRepository accountRepo = proxy(AccountRepository.class, (p, m, args) -> switch (m.getName()) {
+        case "findByAccountNumber" -> Optional.ofNullable(accounts.get((String) args[0])).map(InMemoryRepositories::copy);
+        case "existsByAccountNumber" -> accounts.containsKey((String) args[0]);
+        // Only seeded accounts are kept; new ones are returned but dropped, like ledger writes.
+        case "save" -> {
+            Account acc = copy((Account) args[0]);
+            accounts.replace(acc.getAccountNumber(), acc);
+            yield copy(acc);
+        }
+        case "credit" -> adjust((String) args[0], (long) args[1]);
+        case "debit" -> adjust((String) args[0], -(long) args[1]);
+        default -> unsupported(m.getName(), p, args);
+    });
+
+    final TransactionRepository txnRepo = proxy(TransactionRepository.class, (p, m, args) -> switch (m.getName()) {
+        // Ledger writes are dropped, so long runs don't grow the heap and skew the GC numbers.
+        case "save" -> args[0];
+        case "findHistoryPage" -> page((String) args[0], (TransactionCursor) args[1], (int) args[2]);
+        case "streamHistory" -> history.getOrDefault((String) args[0], List.of()).stream();
+        default -> unsupported(m.getName(), p, args);
+    });
+
+    // Postings are numbered as the real writer does, then dropped like the ledger writes.
+    final PostingWriter postings = new PostingWriter(null) {
+        @Override
+        public void record(Transaction txn, Account... after) {
+            postings(List.of(txn), Arrays.asList(after));
+        }
+
+        @Override
+        public void record(List<Transaction> txns, Collection<Account> after) {
+            postings(txns, after);
+        }
+    };
+
+    void seedAccount(String accNum, long balance) {
+        accounts.put(accNum, Account.builder()
+                .id(accNum)
+                .accountNumber(accNum)
+                .holderName(accNum)
+                .balance(balance)
+                .status("ACTIVE")
+                .createdAt(Instant.now())
+                .version(0L)
+                .build());
+    }
+
+    void seedHistory(String accNum, List<Transaction> txns) {
+        history.put(accNum, txns.stream().sorted(NEWEST_FIRST).toList());
+    }
+
+    private Optional<Account> adjust(String accNum, long delta) {
+        Account[] result = new Account[1];
+        accounts.computeIfPresent(accNum, (k, acc) -> {
+            long balance = acc.getBalance() + delta;
+            if (balance < 0 || (delta > 0 && balance < acc.getBalance())) return acc;
+            Account next = copy(acc);
+            next.setBalance(balance);
+            next.setVersion(acc.getVersion() + 1);
+            next.setSequence(acc.getSequence() == null ? 1L : acc.getSequence() + 1);
+            result[0] = next;
+            return next;
+        });
+        return Optional.ofNullable(result[0]).map(InMemoryRepositories::copy);
+    }
+
+    private List<Transaction> page(String accNum, TransactionCursor after, int limit) {
+        return history.getOrDefault(accNum, List.of()).stream()
+                .filter(t -> after == null || t.getTimestamp().isBefore(after.getTimestamp())
+                        || (t.getTimestamp().equals(after.getTimestamp()) && t.getId().compareTo(after.getId()) < 0))
+                .limit(limit)
+                .toList();
+    }
+
+    private static Account copy(Account acc) {
+        return Account.builder()
+                .id(acc.getId())
+                .accountNumber(acc.getAccountNumber())
+                .holderName(acc.getHolderName())
+                .balance(acc.getBalance())
+                .status(acc.getStatus())
+                .createdAt(acc.getCreatedAt())
+                .version(acc.getVersion())
+                .sequence(acc.getSequence())
+                .build();
+    }
+
+    private static Object unsupported(String method, Object proxy, Object[] args) {
+        return switch (method) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryRepository";
+            default -> throw new UnsupportedOperationException(method);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
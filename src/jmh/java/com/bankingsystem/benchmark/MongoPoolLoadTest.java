@@ -0,0 +1,158 @@
+package com.bankingsystem.benchmark;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load against MongoDB itself, to size the client settings in {@code banking.mongo.*}
+ * without the HTTP layer in the way. {@code threads} workers run the same 90% account reads /
+ * 10% balance increments as {@link HttpLoadTest} over {@code LOAD-0..LOAD-999} for
+ * {@code seconds}, then throughput, operation latency and connection checkout wait are printed.
+ * <p>
+ * Arguments: uri, threads, seconds, max pool size, compressors (comma separated or {@code none}),
+ * read preference for the reads. For example, compare
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.bankingsystem.benchmark.MongoPoolLoadTest \
+ *     -Dbench.args="mongodb://localhost:27017/loadtest 400 60 100 none primary"
+ * </pre>
+ * with a smaller or larger pool, {@code zstd} and {@code secondaryPreferred}. A pool that is too
+ * small shows up as checkout wait; one that is too large as rising server-side latency.
+ */
+public class MongoPoolLoadTest {
+
+    private static final int ACCOUNTS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017/loadtest";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int maxPoolSize = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        String compressors = args.length > 4 ? args[4] : "none";
+        ReadPreference readPreference = ReadPreference.valueOf(args.length > 5 ? args[5] : "primary");
+
+        HttpLoadTest.LatencyHistogram checkoutWait = new HttpLoadTest.LatencyHistogram();
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(maxPoolSize)
+                        .maxWaitTime(10, TimeUnit.SECONDS)
+                        .addConnectionPoolListener(new CheckoutTimer(checkoutWait)))
+                .compressorList(compressors(compressors))
+                .writeConcern(WriteConcern.MAJORITY)
+                .build();
+
+        try (MongoClient client = MongoClients.create(settings)) {
+            String database = new ConnectionString(uri).getDatabase();
+            MongoCollection<Document> accounts = client.getDatabase(database == null ? "loadtest" : database)
+                    .getCollection("accounts");
+            seed(accounts);
+
+            HttpLoadTest.LatencyHistogram latencies = new HttpLoadTest.LatencyHistogram();
+            AtomicLong errors = new AtomicLong();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            MongoCollection<Document> reads = accounts.withReadPreference(readPreference);
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String account = "LOAD-" + rnd.nextInt(ACCOUNTS);
+                        long sent = System.nanoTime();
+                        try {
+                            if (rnd.nextInt(10) == 0) {
+                                accounts.updateOne(Filters.eq("accountNumber", account), Updates.inc("balance", 100L));
+                            } else {
+                                reads.find(Filters.eq("accountNumber", account)).first();
+                            }
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.record((System.nanoTime() - sent) / 1000);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) worker.get();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+
+            System.out.printf("threads=%d pool=%d compressors=%s reads=%s duration=%.1fs ops=%d errors=%d throughput=%.0f ops/s%n",
+                    threads, maxPoolSize, compressors, readPreference.getName(), elapsed, latencies.count(), errors.get(),
+                    latencies.count() / elapsed);
+            System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    latencies.percentile(50) / 1e3, latencies.percentile(90) / 1e3, latencies.percentile(99) / 1e3,
+                    latencies.percentile(99.9) / 1e3, latencies.max() / 1e3);
+            System.out.printf("checkout wait ms: p50=%.2f p99=%.2f max=%.2f%n",
+                    checkoutWait.percentile(50) / 1e3, checkoutWait.percentile(99) / 1e3, checkoutWait.max() / 1e3);
+        }
+    }
+
+    private static void seed(MongoCollection<Document> accounts) {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accNum = "LOAD-" + i;
+            accounts.replaceOne(Filters.eq("accountNumber", accNum),
+                    new Document("accountNumber", accNum).append("holderName", "Load " + i)
+                            .append("balance", 0L).append("status", "ACTIVE"),
+                    new ReplaceOptions().upsert(true));
+        }
+    }
+
+    private static List<MongoCompressor> compressors(String names) {
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String name : names.split(",")) {
+            switch (name.trim()) {
+                case "zstd" -> compressors.add(MongoCompressor.createZstdCompressor());
+                case "snappy" -> compressors.add(MongoCompressor.createSnappyCompressor());
+                case "zlib" -> compressors.add(MongoCompressor.createZlibCompressor());
+                default -> { }
+            }
+        }
+        return compressors;
+    }
+
+    // Time from asking the pool for a connection to getting one. The sync driver checks out on the calling
+    // thread, so a thread-local start time pairs the two events.
+    private static final class CheckoutTimer implements ConnectionPoolListener {
+        private final HttpLoadTest.LatencyHistogram waits;
+        private final ThreadLocal<Long> started = new ThreadLocal<>();
+
+        CheckoutTimer(HttpLoadTest.LatencyHistogram waits) {
+            this.waits = waits;
+        }
+
+        @Override
+        public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+            started.set(System.nanoTime());
+        }
+
+        @Override
+        public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+            Long t = started.get();
+            if (t != null) waits.record((System.nanoTime() - t) / 1000);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.bankingsystem.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stands in for the broker behind {@code banking.outbox.sink=http}: accepts the publisher's
+ * NDJSON batches on {@code POST /events} and prints, every second, the events received, how many
+ * were redeliveries (same {@code eventId}) and how many arrived out of order for their account
+ * (a {@code sequence} below the account's previous event's, or for unnumbered events an
+ * {@code occurredAt} earlier than the previous one). A non-zero failure rate
+ * answers that share of batches with 503, to exercise the publisher's retry path.
+ * <p>
+ * Arguments: port, failure rate. Run it next to the application and drive load with
+ * {@link HttpLoadTest}:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.bankingsystem.benchmark.OutboxSinkStub -Dbench.args="9090 0.05"
+ * </pre>
+ */
+public class OutboxSinkStub {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final double failureRate;
+    private final Set<String> seen = new HashSet<>();
+    private final Map<String, Long> lastSequence = new HashMap<>();
+    private final Map<String, Instant> lastByAccount = new HashMap<>();
+    private long events;
+    private long batches;
+    private long duplicates;
+    private long outOfOrder;
+    private long refused;
+
+    private OutboxSinkStub(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        double failureRate = args.length > 1 ? Double.parseDouble(args[1]) : 0.0;
+
+        OutboxSinkStub stub = new OutboxSinkStub(failureRate);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/events", stub::handle);
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.start();
+        System.out.printf("Outbox sink stub on http://localhost:%d/events, failing %.1f%% of batches%n",
+                port, failureRate * 100);
+
+        long previous = 0;
+        while (true) {
+            Thread.sleep(1000);
+            synchronized (stub) {
+                System.out.printf("events %,d (+%,d/s)  batches %,d  redelivered %,d  out-of-order %,d  refused %,d%n",
+                        stub.events, stub.events - previous, stub.batches, stub.duplicates, stub.outOfOrder, stub.refused);
+                previous = stub.events;
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                exchange.getRequestBody().readAllBytes();
+                synchronized (this) {
+                    refused++;
+                }
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            BufferedReader body = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            synchronized (this) {
+                String line;
+                while ((line = body.readLine()) != null) {
+                    if (!line.isBlank()) accept(mapper.readTree(line));
+                }
+                batches++;
+            }
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private void accept(JsonNode event) {
+        events++;
+        if (!seen.add(event.path("eventId").asText())) {
+            duplicates++;
+            return;
+        }
+        String accNum = event.path("accountNumber").asText();
+        if (event.path("sequence").isNumber()) {
+            long sequence = event.path("sequence").asLong();
+            Long previous = lastSequence.put(accNum, sequence);
+            if (previous != null && sequence < previous) outOfOrder++;
+            return;
+        }
+        Instant occurredAt = Instant.parse(event.path("occurredAt").asText());
+        Instant previous = lastByAccount.put(accNum, occurredAt);
+        if (previous != null && occurredAt.isBefore(previous)) outOfOrder++;
+    }
+}
@@ -0,0 +1,91 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.exception.RateLimitExceededException;
+import com.bankingsystem.service.HotAccounts;
+import com.bankingsystem.service.RequestRateLimiter;
+import com.bankingsystem.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of admission control per request; the budget is well under a microsecond. The limits are
+ * set high enough that nothing is refused, except in {@code rejected}, which measures the 429
+ * path. Run with {@code -t 8} as well: {@code hotAccount} then has every thread CASing the same
+ * bucket, while {@code spreadAccounts} spreads them over 100,000 keys.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="RateLimiter -t 8"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateLimiterBenchmark {
+
+    private static final int ACCOUNTS = 100_000;
+
+    private String[] accounts;
+    private TokenBucketLimiter buckets;
+    private TokenBucketLimiter exhausted;
+    private RequestRateLimiter limiter;
+    private RequestRateLimiter throttled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accounts = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) accounts[i] = "LOAD-" + i;
+        buckets = new TokenBucketLimiter(1e12, Integer.MAX_VALUE, 2 * ACCOUNTS);
+        exhausted = new TokenBucketLimiter(1e-3, 1, 16);
+        exhausted.tryAcquire("ALICE-1");
+        // None configured: its constructor touches no database.
+        HotAccounts noHotAccounts = new HotAccounts(null, null, Set.of(), 16, Duration.ofSeconds(1), true, new SimpleMeterRegistry());
+        limiter = new RequestRateLimiter(true, 1e12, Integer.MAX_VALUE, 1e12, Integer.MAX_VALUE, 1e12, Integer.MAX_VALUE, 2 * ACCOUNTS,
+                Integer.MAX_VALUE, noHotAccounts, new SimpleMeterRegistry());
+        throttled = new RequestRateLimiter(true, 1e-3, 1, 1e-3, 1, 1e-3, 1, 16, 0, noHotAccounts, new SimpleMeterRegistry());
+        throttled.acquireClient("mobile-app");
+    }
+
+    @Benchmark
+    public long hotAccount() {
+        return buckets.tryAcquire("ALICE-1");
+    }
+
+    @Benchmark
+    public long spreadAccounts() {
+        return buckets.tryAcquire(accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)]);
+    }
+
+    @Benchmark
+    public long rejected() {
+        return exhausted.tryAcquire("ALICE-1");
+    }
+
+    /** What RateLimitInterceptor does per request: in-flight cap, client bucket, account bucket. */
+    @Benchmark
+    public void admitRequest() {
+        limiter.enter();
+        try {
+            limiter.acquireClient("mobile-app");
+            limiter.acquireAccount(accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)]);
+        } finally {
+            limiter.exit();
+        }
+    }
+
+    /** A refused request, including the exception GlobalExceptionHandler maps to 429. */
+    @Benchmark
+    public Object admitRejected() {
+        try {
+            throttled.acquireClient("mobile-app");
+            return null;
+        } catch (RateLimitExceededException ex) {
+            return ex;
+        }
+    }
+}
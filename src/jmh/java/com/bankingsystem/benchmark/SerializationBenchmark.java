@@ -0,0 +1,100 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.TransactionPage;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the response bodies the API actually returns, with an ObjectMapper configured
+ * the way Spring Boot configures the one used by the message converters.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="Serialization"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    private ObjectMapper mapper;
+    private ApiResponse accountResponse;
+    private ApiResponse transferResponse;
+    private ApiResponse pageResponse;
+    private byte[] transferRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        Instant now = Instant.now();
+        Account account = Account.builder()
+                .id("665f1c2ab4e0a93f5d1e7c21")
+                .accountNumber("ALICE-1K8Z2QW9TXA")
+                .holderName("Alice Sharma")
+                .balance(1_234_567L)
+                .status("ACTIVE")
+                .createdAt(now)
+                .version(42L)
+                .build();
+        accountResponse = new ApiResponse(true, "Success", account);
+        transferResponse = new ApiResponse(true, "Transfer successful", transaction(now, 0));
+
+        // A default-sized history page.
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) rows.add(transaction(now.minusSeconds(i), i));
+        pageResponse = new ApiResponse(true, "Transactions fetched", new TransactionPage(rows, "MTcxNzUwMDAwMDAwMDo2NjVm"));
+
+        transferRequest = "{\"fromAccount\":\"ALICE-1K8Z2QW9TXA\",\"toAccount\":\"BOB-1K8Z2QWA01B\",\"amount\":2500}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Transaction transaction(Instant ts, int i) {
+        return Transaction.builder()
+                .id("665f1c2ab4e0a93f5d1e" + String.format("%04x", i))
+                .transactionId("TXN-" + (7203094823190528000L + i))
+                .type("TRANSFER")
+                .amount(2500L)
+                .timestamp(ts)
+                .status("SUCCESS")
+                .sourceAccount("ALICE-1K8Z2QW9TXA")
+                .destinationAccount("BOB-1K8Z2QWA01B")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] writeAccountResponse() throws IOException {
+        return mapper.writeValueAsBytes(accountResponse);
+    }
+
+    @Benchmark
+    public byte[] writeTransferResponse() throws IOException {
+        return mapper.writeValueAsBytes(transferResponse);
+    }
+
+    @Benchmark
+    public byte[] writeTransactionPage() throws IOException {
+        return mapper.writeValueAsBytes(pageResponse);
+    }
+
+    @Benchmark
+    public TransferRequest readTransferRequest() throws IOException {
+        return mapper.readValue(transferRequest, TransferRequest.class);
+    }
+}
@@ -0,0 +1,172 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.util.AccountPartitions;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load through a {@code mongos}, shaped like the account API after partitioning:
+ * 60% account reads, 30% history pages from {@code postings}, 10% deposits (balance increment,
+ * transaction record, posting). Every read and the balance update name one account number, so
+ * each should be routed to a single shard; the run starts by printing how many shards each query
+ * shape is sent to, from {@code explain}.
+ * <p>
+ * Run it against one, two and four shards with {@code scripts/local-sharded-cluster.sh bench},
+ * which starts the cluster, shards and pre-splits the collections at
+ * {@link AccountPartitions#splitPoints} and calls this class. Throughput should grow with the
+ * shard count for as long as the load generator and the host's cores keep up.
+ * <p>
+ * Arguments: mongos uri, threads, seconds, accounts.
+ */
+public class ShardScalingLoadTest {
+
+    private static final int HISTORY_PER_ACCOUNT = 20;
+
+    public static void main(String[] args) throws Exception {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27100/bank";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int accountCount = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            String database = new ConnectionString(uri).getDatabase();
+            MongoDatabase db = client.getDatabase(database == null ? "bank" : database);
+            MongoCollection<Document> accounts = db.getCollection("accounts");
+            MongoCollection<Document> postings = db.getCollection("postings");
+            MongoCollection<Document> transactions = db.getCollection("transactions");
+
+            String[] numbers = seed(accounts, postings, accountCount);
+            printRouting(db, numbers[0]);
+
+            HttpLoadTest.LatencyHistogram latencies = new HttpLoadTest.LatencyHistogram();
+            AtomicLong errors = new AtomicLong();
+            AtomicLong txnIds = new AtomicLong(System.currentTimeMillis() << 20);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String account = numbers[rnd.nextInt(numbers.length)];
+                        int op = rnd.nextInt(10);
+                        long sent = System.nanoTime();
+                        try {
+                            if (op < 6) {
+                                accounts.find(Filters.eq("accountNumber", account)).first();
+                            } else if (op < 9) {
+                                postings.find(Filters.eq("accountNumber", account))
+                                        .sort(Sorts.descending("timestamp", "_id")).limit(HISTORY_PER_ACCOUNT)
+                                        .into(new ArrayList<>());
+                            } else {
+                                deposit(accounts, transactions, postings, account, "TXN-" + txnIds.incrementAndGet());
+                            }
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.record((System.nanoTime() - sent) / 1000);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) worker.get();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+
+            System.out.printf("shards=%d threads=%d accounts=%d duration=%.1fs ops=%d errors=%d throughput=%.0f ops/s%n",
+                    shardCount(client), threads, accountCount, elapsed, latencies.count(), errors.get(), latencies.count() / elapsed);
+            System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    latencies.percentile(50) / 1e3, latencies.percentile(90) / 1e3, latencies.percentile(99) / 1e3,
+                    latencies.percentile(99.9) / 1e3, latencies.max() / 1e3);
+        }
+    }
+
+    private static void deposit(MongoCollection<Document> accounts, MongoCollection<Document> transactions,
+                                MongoCollection<Document> postings, String account, String txnId) {
+        Instant now = Instant.now();
+        accounts.updateOne(Filters.eq("accountNumber", account), Updates.combine(Updates.inc("balance", 100L), Updates.inc("version", 1L)));
+        transactions.insertOne(new Document("transactionId", txnId).append("type", "DEPOSIT").append("amount", 100L)
+                .append("timestamp", now).append("status", "SUCCESS").append("sourceAccount", account));
+        postings.insertOne(posting(account, txnId, now));
+    }
+
+    private static String[] seed(MongoCollection<Document> accounts, MongoCollection<Document> postings, int count) {
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) numbers[i] = AccountPartitions.prefix(i) + "-LOAD-" + Integer.toString(i, 36).toUpperCase();
+        if (accounts.countDocuments() >= count) return numbers;
+
+        InsertManyOptions unordered = new InsertManyOptions().ordered(false);
+        List<Document> accountBatch = new ArrayList<>();
+        List<Document> postingBatch = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < count; i++) {
+            accountBatch.add(new Document("accountNumber", numbers[i]).append("holderName", "Load " + i)
+                    .append("balance", 100L * HISTORY_PER_ACCOUNT).append("status", "ACTIVE").append("version", 0L));
+            for (int h = 0; h < HISTORY_PER_ACCOUNT; h++) postingBatch.add(posting(numbers[i], "SEED-" + i + "-" + h, now.minusSeconds(h)));
+            if (accountBatch.size() == 1000) {
+                accounts.insertMany(accountBatch, unordered);
+                postings.insertMany(postingBatch, unordered);
+                accountBatch.clear();
+                postingBatch.clear();
+            }
+        }
+        if (!accountBatch.isEmpty()) {
+            accounts.insertMany(accountBatch, unordered);
+            postings.insertMany(postingBatch, unordered);
+        }
+        return numbers;
+    }
+
+    private static Document posting(String account, String txnId, Instant timestamp) {
+        return new Document("accountNumber", account).append("transactionId", txnId).append("type", "DEPOSIT")
+                .append("credit", 100L).append("debit", 0L).append("timestamp", timestamp).append("status", "SUCCESS");
+    }
+
+    // A query sent to one shard explains as a SINGLE_SHARD stage; one sent to several lists each of them.
+    private static void printRouting(MongoDatabase db, String account) {
+        Bson byAccount = Filters.eq("accountNumber", account);
+        Document accountPlan = db.getCollection("accounts").find(byAccount).explain();
+        Document historyPlan = db.getCollection("postings").find(byAccount).sort(Sorts.descending("timestamp", "_id")).limit(20).explain();
+        Document legacyPlan = db.getCollection("transactions")
+                .find(Filters.or(Filters.eq("sourceAccount", account), Filters.eq("destinationAccount", account))).limit(20).explain();
+        System.out.printf("shards targeted: account read=%d, postings history=%d, transactions $or history=%d%n",
+                shardsIn(accountPlan), shardsIn(historyPlan), shardsIn(legacyPlan));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int shardsIn(Document explain) {
+        Document planner = explain.get("queryPlanner", Document.class);
+        Document winning = planner == null ? null : planner.get("winningPlan", Document.class);
+        List<Document> shards = winning == null ? null : (List<Document>) winning.get("shards");
+        return shards == null ? 1 : shards.size();
+    }
+
+    private static int shardCount(MongoClient client) {
+        try {
+            Document shards = client.getDatabase("admin").runCommand(new Document("listShards", 1));
+            return shards.getList("shards", Document.class).size();
+        } catch (RuntimeException e) {
+            return 1;
+        }
+    }
+}
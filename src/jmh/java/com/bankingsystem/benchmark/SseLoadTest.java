@@ -0,0 +1,134 @@
+package com.bankingsystem.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds {@code subscribers} open event streams ({@code GET /api/accounts/{n}/events}) spread over
+ * {@code LOAD-0..LOAD-n} for {@code seconds}, and reports how many stayed connected, the events
+ * received and the push latency of transaction events (receipt time minus the transaction's
+ * timestamp, so run it on the server's host). Drive deposits alongside with {@link HttpLoadTest}:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.bankingsystem.benchmark.SseLoadTest \
+ *     -Dbench.args="http://localhost:8081 10000 60 100"
+ * </pre>
+ * Compare the server's Mongo command rate ({@code mongodb.driver.commands}) with the same number
+ * of dashboards polling once a second. Raise {@code ulimit -n} on both sides first.
+ */
+public class SseLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int subscribers = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Stats stats = new Stats();
+        for (int i = 0; i < subscribers; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/accounts/LOAD-" + (i % accounts) + "/events"))
+                    .header("Accept", "text/event-stream")
+                    .build();
+            http.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new EventReader(stats)))
+                    .whenComplete((res, ex) -> {
+                        if (ex != null || res.statusCode() != 200) stats.failed.incrementAndGet();
+                    });
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long previous = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            long events = stats.events.get();
+            System.out.printf("open %,d  failed %,d  closed %,d  events %,d (+%,d/s)  resets %,d%n",
+                    stats.open.get(), stats.failed.get(), stats.closed.get(), events, events - previous, stats.resets.get());
+            previous = events;
+        }
+        HttpLoadTest.LatencyHistogram latencies = stats.latencies;
+        System.out.printf("push latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f (%d transaction events)%n",
+                latencies.percentile(50) / 1e3, latencies.percentile(90) / 1e3, latencies.percentile(99) / 1e3,
+                latencies.percentile(99.9) / 1e3, latencies.max() / 1e3, latencies.count());
+        System.exit(0);
+    }
+
+    private static final class Stats {
+        final AtomicLong open = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong closed = new AtomicLong();
+        final AtomicLong events = new AtomicLong();
+        final AtomicLong resets = new AtomicLong();
+        final HttpLoadTest.LatencyHistogram latencies = new HttpLoadTest.LatencyHistogram();
+    }
+
+    // Parses just enough of the SSE framing: "event:" and "data:" lines, a blank line ends the event.
+    private static final class EventReader implements Flow.Subscriber<String> {
+        private final Stats stats;
+        private String name;
+        private String data;
+
+        EventReader(Stats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            stats.open.incrementAndGet();
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith("event:")) {
+                name = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                data = line.substring(5).trim();
+            } else if (line.isEmpty() && name != null) {
+                received(name, data);
+                name = null;
+                data = null;
+            }
+        }
+
+        private void received(String name, String data) {
+            stats.events.incrementAndGet();
+            if ("reset".equals(name)) stats.resets.incrementAndGet();
+            if (!"transaction".equals(name) || data == null) return;
+            try {
+                JsonNode timestamp = MAPPER.readTree(data).path("timestamp");
+                if (timestamp.isTextual()) {
+                    long micros = Duration.between(Instant.parse(timestamp.asText()), Instant.now()).toNanos() / 1000;
+                    stats.latencies.record(micros);
+                }
+            } catch (Exception ex) {
+                // Not the shape we expect; counted as an event only.
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            stats.open.decrementAndGet();
+            stats.closed.incrementAndGet();
+        }
+
+        @Override
+        public void onComplete() {
+            stats.open.decrementAndGet();
+            stats.closed.incrementAndGet();
+        }
+    }
+}
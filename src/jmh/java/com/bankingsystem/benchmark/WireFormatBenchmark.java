@@ -0,0 +1,121 @@
+package com.bankingsystem.benchmark;
+
+import com.bankingsystem.config.ApiSerializers;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.TransactionPage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding cost and size of the account and history page responses per wire format: the current
+ * reflective JSON, JSON with {@link ApiSerializers}, and Smile and CBOR (both with
+ * {@link ApiSerializers}, as served). History pages are also measured gzip- and zstd-compressed.
+ * The bytes each combination puts on the wire are printed at the start of every trial.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="WireFormat"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WireFormatBenchmark {
+
+    @Param({"json", "json-precomputed", "smile", "cbor"})
+    public String format;
+
+    @Param({"none", "gzip", "zstd"})
+    public String compression;
+
+    private ObjectMapper mapper;
+    private ApiResponse accountResponse;
+    private ApiResponse pageResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = mapper(format);
+
+        Instant now = Instant.now();
+        Account account = Account.builder()
+                .id("665f1c2ab4e0a93f5d1e7c21")
+                .accountNumber("3F-ALICE-1K8Z2QW9TXA")
+                .holderName("Alice Sharma")
+                .balance(1_234_567L)
+                .status("ACTIVE")
+                .createdAt(now)
+                .version(42L)
+                .sequence(318L)
+                .build();
+        accountResponse = new ApiResponse(true, "Success", account);
+
+        // A default-sized history page.
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(Transaction.builder()
+                    .id("665f1c2ab4e0a93f5d1e" + String.format("%04x", i))
+                    .transactionId("TXN-" + (7203094823190528000L + i))
+                    .type("TRANSFER")
+                    .amount(2500L + i)
+                    .timestamp(now.minusSeconds(i))
+                    .status("SUCCESS")
+                    .sourceAccount("3F-ALICE-1K8Z2QW9TXA")
+                    .destinationAccount("A0-BOB-1K8Z2QWA01B")
+                    .build());
+        }
+        pageResponse = new ApiResponse(true, "Transactions fetched", new TransactionPage(rows, "MTcxNzUwMDAwMDAwMDo2NjVm"));
+
+        System.out.printf("%nbytes on wire (%s, %s): account=%d page=%d%n",
+                format, compression, mapper.writeValueAsBytes(accountResponse).length, writePage().length);
+    }
+
+    static ObjectMapper mapper(String format) {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (!format.equals("json")) builder.modulesToInstall(new ApiSerializers());
+        return builder.build();
+    }
+
+    // Single responses are not compressed by the server, so only the plain variant is measured.
+    @Benchmark
+    public byte[] writeAccountResponse() throws IOException {
+        return mapper.writeValueAsBytes(accountResponse);
+    }
+
+    @Benchmark
+    public byte[] writeTransactionPage() throws IOException {
+        return writePage();
+    }
+
+    private byte[] writePage() throws IOException {
+        if (compression.equals("none")) return mapper.writeValueAsBytes(pageResponse);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (OutputStream out = compression.equals("zstd") ? new ZstdOutputStream(bytes, 3) : new GZIPOutputStream(bytes, 8192)) {
+            mapper.writeValue(out, pageResponse);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,110 @@
+package com.bankingsystem.config;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializers for the two types nearly every response carries. The field names are
+ * encoded once, up front, and the fields written straight from the getters, instead of going
+ * through the bean serializer's per-property writers. The output is the bean serializer's, field
+ * for field and in the same order, whether the generator writes JSON, Smile or CBOR; instants
+ * still go through the configured {@code Instant} serializer.
+ * <p>
+ * A field added to {@link Account} or {@link Transaction} has to be added here as well.
+ */
+public class ApiSerializers extends SimpleModule {
+
+    public ApiSerializers() {
+        super("banking-api-serializers");
+        addSerializer(Account.class, new AccountSerializer());
+        addSerializer(Transaction.class, new TransactionSerializer());
+    }
+
+    static final class AccountSerializer extends StdSerializer<Account> {
+
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString ACCOUNT_NUMBER = new SerializedString("accountNumber");
+        private static final SerializedString HOLDER_NAME = new SerializedString("holderName");
+        private static final SerializedString BALANCE = new SerializedString("balance");
+        private static final SerializedString STATUS = new SerializedString("status");
+        private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+        private static final SerializedString VERSION = new SerializedString("version");
+        private static final SerializedString SEQUENCE = new SerializedString("sequence");
+
+        AccountSerializer() {
+            super(Account.class);
+        }
+
+        @Override
+        public void serialize(Account acc, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(acc);
+            gen.writeFieldName(ID);
+            gen.writeString(acc.getId());
+            gen.writeFieldName(ACCOUNT_NUMBER);
+            gen.writeString(acc.getAccountNumber());
+            gen.writeFieldName(HOLDER_NAME);
+            gen.writeString(acc.getHolderName());
+            gen.writeFieldName(BALANCE);
+            gen.writeNumber(acc.getBalance());
+            gen.writeFieldName(STATUS);
+            gen.writeString(acc.getStatus());
+            gen.writeFieldName(CREATED_AT);
+            provider.defaultSerializeValue(acc.getCreatedAt(), gen);
+            gen.writeFieldName(VERSION);
+            writeNumber(gen, acc.getVersion());
+            gen.writeFieldName(SEQUENCE);
+            writeNumber(gen, acc.getSequence());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class TransactionSerializer extends StdSerializer<Transaction> {
+
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString TRANSACTION_ID = new SerializedString("transactionId");
+        private static final SerializedString TYPE = new SerializedString("type");
+        private static final SerializedString AMOUNT = new SerializedString("amount");
+        private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+        private static final SerializedString STATUS = new SerializedString("status");
+        private static final SerializedString SOURCE_ACCOUNT = new SerializedString("sourceAccount");
+        private static final SerializedString DESTINATION_ACCOUNT = new SerializedString("destinationAccount");
+
+        TransactionSerializer() {
+            super(Transaction.class);
+        }
+
+        @Override
+        public void serialize(Transaction txn, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(txn);
+            gen.writeFieldName(ID);
+            gen.writeString(txn.getId());
+            gen.writeFieldName(TRANSACTION_ID);
+            gen.writeString(txn.getTransactionId());
+            gen.writeFieldName(TYPE);
+            gen.writeString(txn.getType());
+            gen.writeFieldName(AMOUNT);
+            gen.writeNumber(txn.getAmount());
+            gen.writeFieldName(TIMESTAMP);
+            provider.defaultSerializeValue(txn.getTimestamp(), gen);
+            gen.writeFieldName(STATUS);
+            gen.writeString(txn.getStatus());
+            gen.writeFieldName(SOURCE_ACCOUNT);
+            gen.writeString(txn.getSourceAccount());
+            gen.writeFieldName(DESTINATION_ACCOUNT);
+            gen.writeString(txn.getDestinationAccount());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeNumber(value);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bankingsystem.config;
+
+import com.bankingsystem.util.IdGenerator;
+import com.bankingsystem.util.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    // Every running instance needs a distinct node id (0-1023). There is deliberately no default:
+    // two instances left on the same one would hand out the same transaction ids.
+    @Bean
+    @ConditionalOnMissingBean
+    public IdGenerator idGenerator(@Value("${banking.id.node-id:}") String nodeId) {
+        if (nodeId.isBlank()) {
+            throw new IllegalStateException("banking.id.node-id is not set; give every instance a distinct node id (0-"
+                    + SnowflakeIdGenerator.MAX_NODE_ID + "), e.g. BANKING_ID_NODE_ID=3");
+        }
+        return new SnowflakeIdGenerator(Integer.parseInt(nodeId.trim()));
+    }
+}
@@ -1,20 +1,112 @@
 package com.bankingsystem.config;
 
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class MongoConfig {
+
+    // Money lives here, and so do the outbox events written with it; everything else (idempotency
+    // keys, snapshots, reports) is rebuildable.
+    private static final Set<String> LEDGER_COLLECTIONS = Set.of("accounts", "transactions", "postings", "outbox");
+
+    // Boot builds the sync and reactive clients from spring.data.mongodb.uri and registers command and
+    // connection-pool metrics (mongodb.driver.commands, mongodb.driver.pool.*); this is applied on top.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientTuning(
+            @Value("${banking.mongo.pool.min-size:10}") int minPoolSize,
+            @Value("${banking.mongo.pool.max-size:100}") int maxPoolSize,
+            @Value("${banking.mongo.pool.max-wait-time:2s}") Duration maxWaitTime,
+            @Value("${banking.mongo.pool.max-idle-time:5m}") Duration maxIdleTime,
+            @Value("${banking.mongo.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${banking.mongo.compressors:}") List<String> compressors) {
+        List<MongoCompressor> compressorList = compressors(compressors);
+        return builder -> builder
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(minPoolSize)
+                        .maxSize(maxPoolSize)
+                        // Callers queue this long for a connection, then fail fast instead of piling up.
+                        .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(maxIdleTime.toMillis(), TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(socket -> socket.connectTimeout(connectTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                .compressorList(compressorList);
+    }
+
+    @Bean
+    public MongoDatabase database(MongoClient client, MongoProperties properties) {
+        return client.getDatabase(properties.getMongoClientDatabase());
+    }
+
+    // Writes to the ledger collections wait for the configured (durable) concern; auxiliary writes don't.
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter,
+                                       @Value("${banking.mongo.write-concern.ledger:majority}") String ledger,
+                                       @Value("${banking.mongo.write-concern.auxiliary:w1}") String auxiliary) {
+        WriteConcern ledgerConcern = writeConcern(ledger);
+        WriteConcern auxiliaryConcern = writeConcern(auxiliary);
+        MongoTemplate template = new MongoTemplate(factory, converter);
+        template.setWriteConcernResolver(action ->
+                LEDGER_COLLECTIONS.contains(action.getCollectionName()) ? ledgerConcern : auxiliaryConcern);
+        return template;
+    }
+
+    /**
+     * Read preference for the history reads (transaction history, balance-at). Anything other than
+     * {@code primary} may serve data up to {@code max-staleness} old. Account reads never use it.
+     */
     @Bean
-    public MongoClient mongoClient() {
-        return MongoClients.create("mongodb://localhost:27017");
+    public ReadPreference readOnlyReadPreference(
+            @Value("${banking.mongo.read-only.read-preference:primary}") String name,
+            @Value("${banking.mongo.read-only.max-staleness:90s}") Duration maxStaleness) {
+        if (name.equalsIgnoreCase("primary")) return ReadPreference.primary();
+        return ReadPreference.valueOf(name, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
     }
 
+    // Multi-document transactions need a replica set (a single-node one is fine for local dev).
+    // Operations inside a transaction take its write concern, so it is the ledger's.
     @Bean
-    public MongoDatabase database(MongoClient client) {
-        return client.getDatabase("bankingdb");
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory factory,
+                                                      @Value("${banking.mongo.write-concern.ledger:majority}") String ledger) {
+        return new MongoTransactionManager(factory, TransactionOptions.builder().writeConcern(writeConcern(ledger)).build());
+    }
+
+    private static WriteConcern writeConcern(String name) {
+        WriteConcern concern = WriteConcern.valueOf(name);
+        if (concern == null) throw new IllegalArgumentException("Unknown write concern: " + name);
+        return concern;
+    }
+
+    // zstd and snappy need zstd-jni and snappy-java at runtime; the server picks the first it also supports.
+    private static List<MongoCompressor> compressors(List<String> names) {
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String name : names) {
+            switch (name.trim().toLowerCase()) {
+                case "zstd" -> compressors.add(MongoCompressor.createZstdCompressor());
+                case "snappy" -> compressors.add(MongoCompressor.createSnappyCompressor());
+                case "zlib" -> compressors.add(MongoCompressor.createZlibCompressor());
+                case "", "none" -> { }
+                default -> throw new IllegalArgumentException("Unknown Mongo compressor: " + name);
+            }
+        }
+        return compressors;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.bankingsystem.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@code @Indexed}/{@code @CompoundIndex} indexes declared on the documents once, while
+ * the context starts and before the web server accepts requests. This replaces Spring Data's
+ * auto-index creation, which builds them as each entity is first touched and so ties constructing
+ * {@link MongoTemplate} to a reachable server. Existing indexes are left as they are.
+ * <p>
+ * Switch off with {@code banking.mongo.create-indexes=false}, e.g. in tests without a database or
+ * where indexes are managed outside the application.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.mongo.create-indexes", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class MongoIndexes implements InitializingBean {
+
+    private final MongoTemplate mongo;
+
+    public MongoIndexes(MongoTemplate mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        IndexResolver resolver = IndexResolver.create(mongo.getConverter().getMappingContext());
+        int created = 0;
+        for (MongoPersistentEntity<?> entity : mongo.getConverter().getMappingContext().getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) continue;
+            IndexOperations ops = mongo.indexOps(entity.getType());
+            for (var index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                ops.createIndex(index);
+                created++;
+            }
+        }
+        log.info("Ensured {} indexes", created);
+    }
+}
@@ -0,0 +1,61 @@
+package com.bankingsystem.config;
+
+import com.bankingsystem.controller.HistoryCompressionFilter;
+import com.bankingsystem.controller.RateLimitInterceptor;
+import com.bankingsystem.service.RequestRateLimiter;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "banking.stack", havingValue = "servlet", matchIfMissing = true)
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RequestRateLimiter rateLimiter;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter)).addPathPatterns("/api/accounts/**");
+    }
+
+    // Picked up by Boot's ObjectMapper builder, so JSON and the binary formats below all use it.
+    @Bean
+    public Module apiSerializers() {
+        return new ApiSerializers();
+    }
+
+    // Accept: application/x-jackson-smile and application/cbor. They replace Spring's default
+    // converters in place, after JSON, so clients asking for */* still get JSON.
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banking.compression.history.enabled", havingValue = "true")
+    public FilterRegistrationBean<HistoryCompressionFilter> historyCompression(
+            @Value("${banking.compression.history.zstd-level:3}") int zstdLevel,
+            @Value("${banking.compression.history.min-size:1024}") int minSize) {
+        FilterRegistrationBean<HistoryCompressionFilter> registration =
+                new FilterRegistrationBean<>(new HistoryCompressionFilter(zstdLevel, minSize));
+        registration.addUrlPatterns("/api/accounts/*");
+        return registration;
+    }
+}
@@ -4,25 +4,48 @@ import com.bankingsystem.model.Account;
 import com.bankingsystem.model.Transaction;
 import com.bankingsystem.model.dto.AccountRequest;
 import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.BalanceAt;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.Statement;
+import com.bankingsystem.model.dto.TransactionPage;
 import com.bankingsystem.model.dto.TransferRequest;
 import com.bankingsystem.service.AccountService;
+import com.bankingsystem.service.RequestRateLimiter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/accounts")
+@ConditionalOnProperty(name = "banking.stack", havingValue = "servlet", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 @Validated
 public class AccountController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final AccountService service;
+    private final ObjectMapper mapper;
+    private final RequestRateLimiter rateLimiter;
 
     @PostMapping
     public ResponseEntity<ApiResponse> create(@Valid @RequestBody AccountRequest req) {
@@ -37,24 +60,76 @@ public class AccountController {
     }
 
     @PutMapping("/{accountNumber}/deposit")
-    public ResponseEntity<ApiResponse> deposit(@PathVariable String accountNumber, @RequestParam double amount) {
-        return ResponseEntity.ok(service.deposit(accountNumber, amount));
+    public ResponseEntity<ApiResponse> deposit(@PathVariable String accountNumber, @RequestParam long amount,
+                                               @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        ApiResponse res = service.deposit(accountNumber, amount, idempotencyKey);
+        return ResponseEntity.ok(res);
     }
 
     @PutMapping("/{accountNumber}/withdraw")
-    public ResponseEntity<ApiResponse> withdraw(@PathVariable String accountNumber, @RequestParam double amount) {
-        return ResponseEntity.ok(service.withdraw(accountNumber, amount));
+    public ResponseEntity<ApiResponse> withdraw(@PathVariable String accountNumber, @RequestParam long amount,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        ApiResponse res = service.withdraw(accountNumber, amount, idempotencyKey);
+        return ResponseEntity.ok(res);
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<ApiResponse> transfer(@Valid @RequestBody TransferRequest req) {
-        ApiResponse res = service.transfer(req);
+    public ResponseEntity<ApiResponse> transfer(@Valid @RequestBody TransferRequest req,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        // The source account is only known from the body, so its bucket is checked here rather than in RateLimitInterceptor.
+        rateLimiter.acquireAccount(req.getFromAccount());
+        ApiResponse res = service.transfer(req, idempotencyKey);
         return ResponseEntity.ok(res);
     }
 
+    // Each item is validated and reported on its own; the HTTP status only reflects the batch as a whole.
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<ApiResponse> transferBatch(@RequestBody List<TransferRequest> reqs) {
+        List<BatchTransferResult> results = service.transferBatch(reqs);
+        long succeeded = results.stream().filter(BatchTransferResult::isSuccess).count();
+        return ResponseEntity.ok(new ApiResponse(true,
+                "Batch processed: " + succeeded + " of " + results.size() + " succeeded", results));
+    }
+
     @GetMapping("/{accountNumber}/transactions")
-    public ResponseEntity<ApiResponse> transactions(@PathVariable String accountNumber) {
-        List<Transaction> txns = service.getTransactions(accountNumber);
-        return ResponseEntity.ok(new ApiResponse(true, "Transactions fetched", txns));
+    public ResponseEntity<ApiResponse> transactions(@PathVariable String accountNumber,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int limit) {
+        TransactionPage page = service.getTransactions(accountNumber, cursor, limit);
+        return ResponseEntity.ok(new ApiResponse(true, "Transactions fetched", page));
+    }
+
+    // Daily opening/closing balances and totals for an inclusive range of UTC dates.
+    @GetMapping("/{accountNumber}/statement")
+    public ResponseEntity<ApiResponse> statement(@PathVariable String accountNumber,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Statement statement = service.getStatement(accountNumber, from, to);
+        return ResponseEntity.ok(new ApiResponse(true, "Statement generated", statement));
+    }
+
+    // Balance as of an instant, from the account's postings.
+    @GetMapping("/{accountNumber}/balance")
+    public ResponseEntity<ApiResponse> balanceAt(@PathVariable String accountNumber,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        BalanceAt balance = service.getBalanceAt(accountNumber, at);
+        return ResponseEntity.ok(new ApiResponse(true, "Balance fetched", balance));
+    }
+
+    // Newline-delimited JSON written straight from the Mongo cursor, one transaction per line.
+    @GetMapping(value = "/{accountNumber}/transactions/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamTransactions(@PathVariable String accountNumber) {
+        Stream<Transaction> txns = service.streamTransactions(accountNumber);
+        ObjectWriter writer = mapper.writerFor(Transaction.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (txns; JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+                Iterator<Transaction> it = txns.iterator();
+                while (it.hasNext()) {
+                    writer.writeValue(gen, it.next());
+                    gen.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.bankingsystem.controller;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.service.AccountService;
+import com.bankingsystem.stream.AccountEvent;
+import com.bankingsystem.stream.AccountEventHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * Pushes an account's balance and transactions as server-sent events, in place of polling
+ * {@code GET /api/accounts/{accountNumber}}. A new subscriber first gets the current balance;
+ * a reconnecting one gets what it missed since {@code Last-Event-ID} instead, or a {@code reset}
+ * event when that is no longer available.
+ * <p>
+ * Connections are closed after {@code banking.stream.timeout}; EventSource clients reconnect on
+ * their own and carry on from their last event.
+ */
+@RestController
+@RequestMapping("/api/accounts")
+@ConditionalOnProperty(name = "banking.stream.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "banking.stack", havingValue = "servlet", matchIfMissing = true)
+public class AccountStreamController {
+
+    private final AccountService service;
+    private final AccountEventHub hub;
+    private final long timeoutMillis;
+
+    public AccountStreamController(AccountService service, AccountEventHub hub,
+                                   @Value("${banking.stream.timeout:30m}") Duration timeout) {
+        this.service = service;
+        this.hub = hub;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @GetMapping(value = "/{accountNumber}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String accountNumber,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // Read before subscribing: an unknown account is a 404 rather than an empty stream.
+        AccountEvent snapshot = null;
+        if (!hub.canResume(lastEventId)) {
+            Account acc = service.getAccount(accountNumber);
+            snapshot = AccountEvent.balance(null, accountNumber, acc.getBalance());
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AccountEventHub.Subscription sub = hub.subscribe(accountNumber, lastEventId, snapshot, new AccountEventHub.Sink() {
+            @Override
+            public void send(AccountEvent event) throws Exception {
+                if (event.isHeartbeat()) {
+                    emitter.send(SseEmitter.event().comment(""));
+                    return;
+                }
+                SseEmitter.SseEventBuilder sse = SseEmitter.event().name(event.name());
+                if (event.id() != null) sse.id(event.id());
+                emitter.send(event.data() == null ? sse.data("") : sse.data(event.data(), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void complete() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(sub::close);
+        emitter.onTimeout(sub::close);
+        emitter.onError(ex -> sub.close());
+        return emitter;
+    }
+}
@@ -0,0 +1,232 @@
+package com.bankingsystem.controller;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.util.Native;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses transaction history pages ({@code GET /api/accounts/{n}/transactions}) for clients
+ * that accept it: zstd when the client lists it and the native library loaded, else gzip. A page
+ * of 50 transactions repeats the same field names and account numbers on every row, so it
+ * compresses several times over, in JSON and in the binary formats alike. A page smaller than
+ * {@code minSize} bytes (an empty or nearly empty history) is sent as it is, since compressing it
+ * costs more than it saves; the body is held back until it either reaches that size or ends.
+ * Other endpoints return a few hundred bytes and are left alone.
+ */
+@Slf4j
+public class HistoryCompressionFilter extends OncePerRequestFilter {
+
+    private static final Pattern HISTORY_PAGE = Pattern.compile("/api/accounts/[^/]+/transactions");
+
+    private final int zstdLevel;
+    private final int minSize;
+    private final boolean zstdAvailable;
+
+    public HistoryCompressionFilter(int zstdLevel, int minSize) {
+        this.zstdLevel = zstdLevel;
+        this.minSize = minSize;
+        this.zstdAvailable = loadZstd();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !HISTORY_PAGE.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressing = new CompressingResponse(response, encoding);
+        try {
+            chain.doFilter(request, compressing);
+        } finally {
+            compressing.finish();
+        }
+    }
+
+    // The first of zstd and gzip the client accepts, ignoring the ones it gives q=0; null for neither.
+    String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        boolean zstd = false;
+        boolean gzip = false;
+        for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            boolean refused = tokens.length > 1 && tokens[1].trim().matches("q=0(\\.0*)?");
+            if (refused) continue;
+            if (coding.equals("zstd")) zstd = true;
+            if (coding.equals("gzip") || coding.equals("*")) gzip = true;
+        }
+        if (zstd && zstdAvailable) return "zstd";
+        return gzip ? "gzip" : null;
+    }
+
+    private static boolean loadZstd() {
+        try {
+            Native.load();
+            return true;
+        } catch (UnsatisfiedLinkError | RuntimeException ex) {
+            log.warn("zstd native library unavailable, history pages fall back to gzip: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+        // Holds the start of the body until it reaches minSize; null once the body goes out.
+        private ByteArrayOutputStream held = new ByteArrayOutputStream();
+        private OutputStream out;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        // The compressed length is not known up front; the container falls back to chunked encoding.
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) throw new IllegalStateException("getWriter() has already been called");
+            if (stream == null) stream = new CompressedStream(body());
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (stream != null) throw new IllegalStateException("getOutputStream() has already been called");
+            if (writer == null) {
+                String charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+                writer = new PrintWriter(new OutputStreamWriter(body(), charset));
+            }
+            return writer;
+        }
+
+        // While the body is held back, flushing would commit the response before the encoding is settled.
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            if (held != null) return;
+            if (out != null) out.flush();
+            super.flushBuffer();
+        }
+
+        // A body that ended below minSize, or never started (e.g. an error page the container
+        // renders itself), is sent uncompressed.
+        void finish() throws IOException {
+            if (writer != null) writer.flush();
+            if (held != null) {
+                if (held.size() > 0) getResponse().getOutputStream().write(held.toByteArray());
+                held = null;
+            } else if (out != null) {
+                out.close();
+            }
+        }
+
+        private OutputStream body() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    if (held != null && held.size() + 1 < minSize) {
+                        held.write(b);
+                        return;
+                    }
+                    if (held != null) compress();
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    if (held != null && held.size() + len < minSize) {
+                        held.write(b, off, len);
+                        return;
+                    }
+                    if (held != null) compress();
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    if (out != null) out.flush();
+                }
+            };
+        }
+
+        private void compress() throws IOException {
+            setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            OutputStream raw = getResponse().getOutputStream();
+            out = encoding.equals("zstd") ? new ZstdOutputStream(raw, zstdLevel) : new GZIPOutputStream(raw, 8192, true);
+            held.writeTo(out);
+            held = null;
+        }
+    }
+
+    private static final class CompressedStream extends ServletOutputStream {
+
+        private final OutputStream out;
+
+        CompressedStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new IllegalStateException("History pages are written synchronously");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bankingsystem.controller;
+
+import com.bankingsystem.service.RequestRateLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * Applies {@link RequestRateLimiter} before a request reaches {@link AccountController} or
+ * {@link AccountStreamController}: the in-flight cap, then the client's bucket, then the bucket of
+ * the account in the path. Refusals are thrown so {@code GlobalExceptionHandler} turns them into 429s.
+ * <p>
+ * The client is the {@code X-Client-Id} header, set by the gateway in front of the service. A
+ * request without it has no client bucket: behind a proxy or NAT the remote address is shared by
+ * many callers, so limiting on it would throttle them together.
+ */
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String CLIENT_ID = "X-Client-Id";
+    private static final String ADMITTED = RateLimitInterceptor.class.getName() + ".admitted";
+
+    private final RequestRateLimiter limiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // A streamed response comes back through here on its async dispatch; it was admitted already.
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+
+        limiter.enter();
+        try {
+            String client = clientId(request);
+            if (client != null) limiter.acquireClient(client);
+            limiter.acquireAccount(accountNumber(request));
+        } catch (RuntimeException ex) {
+            limiter.exit();
+            throw ex;
+        }
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        return true;
+    }
+
+    // Runs once per request: after the initial dispatch, or after the async dispatch for streamed responses.
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            limiter.exit();
+        }
+    }
+
+    // An event stream stays open for minutes; it is rate limited on connecting but does not hold an in-flight slot.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method
+                && SseEmitter.class.isAssignableFrom(method.getReturnType().getParameterType())
+                && request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            limiter.exit();
+        }
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        String header = request.getHeader(CLIENT_ID);
+        return header == null || header.isBlank() ? null : header;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String accountNumber(HttpServletRequest request) {
+        Map<String, String> vars = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return vars == null ? null : vars.get("accountNumber");
+    }
+}
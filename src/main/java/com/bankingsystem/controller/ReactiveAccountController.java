@@ -0,0 +1,87 @@
+package com.bankingsystem.controller;
+
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.AccountRequest;
+import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.service.ReactiveAccountService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux twin of {@link AccountController}: same paths, same {@link ApiResponse} bodies.
+ * Active with {@code banking.stack=reactive} (see the {@code reactive} Spring profile).
+ */
+@RestController
+@RequestMapping("/api/accounts")
+@ConditionalOnProperty(name = "banking.stack", havingValue = "reactive")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveAccountController {
+
+    private final ReactiveAccountService service;
+
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse>> create(@Valid @RequestBody AccountRequest req) {
+        return service.createAccount(req)
+                .map(acc -> ResponseEntity.status(201).body(new ApiResponse(true, "Account created", acc)));
+    }
+
+    @GetMapping("/{accountNumber}")
+    public Mono<ResponseEntity<ApiResponse>> get(@PathVariable String accountNumber) {
+        return service.getAccount(accountNumber)
+                .map(acc -> ResponseEntity.ok(new ApiResponse(true, "Success", acc)));
+    }
+
+    @PutMapping("/{accountNumber}/deposit")
+    public Mono<ResponseEntity<ApiResponse>> deposit(@PathVariable String accountNumber, @RequestParam long amount) {
+        return service.deposit(accountNumber, amount)
+                .map(acc -> ResponseEntity.ok(new ApiResponse(true, "Deposit successful", acc)));
+    }
+
+    @PutMapping("/{accountNumber}/withdraw")
+    public Mono<ResponseEntity<ApiResponse>> withdraw(@PathVariable String accountNumber, @RequestParam long amount) {
+        return service.withdraw(accountNumber, amount)
+                .map(acc -> ResponseEntity.ok(new ApiResponse(true, "Withdrawal successful", acc)));
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<ApiResponse>> transfer(@Valid @RequestBody TransferRequest req) {
+        return service.transfer(req).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/transfers/batch")
+    public Mono<ResponseEntity<ApiResponse>> transferBatch(@RequestBody List<TransferRequest> reqs) {
+        return service.transferBatch(reqs).map(results -> {
+            long succeeded = results.stream().filter(BatchTransferResult::isSuccess).count();
+            return ResponseEntity.ok(new ApiResponse(true,
+                    "Batch processed: " + succeeded + " of " + results.size() + " succeeded", results));
+        });
+    }
+
+    @GetMapping("/{accountNumber}/transactions")
+    public Mono<ResponseEntity<ApiResponse>> transactions(@PathVariable String accountNumber,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int limit) {
+        return service.getTransactions(accountNumber, cursor, limit)
+                .map(page -> ResponseEntity.ok(new ApiResponse(true, "Transactions fetched", page)));
+    }
+
+    // NDJSON with backpressure: Mongo batches are only pulled as fast as the client reads.
+    @GetMapping(value = "/{accountNumber}/transactions/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamTransactions(@PathVariable String accountNumber) {
+        return service.streamTransactions(accountNumber);
+    }
+}
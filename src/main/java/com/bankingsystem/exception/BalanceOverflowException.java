@@ -0,0 +1,7 @@
+package com.bankingsystem.exception;
+
+public class BalanceOverflowException extends CustomException {
+    public BalanceOverflowException() {
+        super("Balance limit exceeded");
+    }
+}
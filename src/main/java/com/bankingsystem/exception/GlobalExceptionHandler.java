@@ -3,10 +3,16 @@ package com.bankingsystem.exception;
 import com.bankingsystem.model.dto.ApiResponse;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.mongodb.TransientMongoDbException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -16,18 +22,36 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(false, ex.getMessage(), null));
     }
 
-    @ExceptionHandler({InsufficientBalanceException.class, InvalidAmountException.class, IllegalArgumentException.class})
+    @ExceptionHandler({InsufficientBalanceException.class, InvalidAmountException.class, BalanceOverflowException.class, IllegalArgumentException.class})
     public ResponseEntity<ApiResponse> handleBadRequest(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(false, ex.getMessage(), null));
     }
 
+    // Unparseable bodies and parameters, e.g. a fractional amount where minor units are expected.
+    @ExceptionHandler({HttpMessageNotReadableException.class, MethodArgumentTypeMismatchException.class, ServerWebInputException.class})
+    public ResponseEntity<ApiResponse> handleMalformed(Exception ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(false, "Malformed request", null));
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiResponse> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, ex.getMessage(), null));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse> handleRateLimit(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiResponse(false, ex.getMessage(), null));
+    }
+
     @ExceptionHandler(DuplicateKeyException.class)
     public ResponseEntity<ApiResponse> handleDuplicate(DuplicateKeyException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, "Duplicate key error", null));
     }
 
-    @ExceptionHandler(OptimisticLockingFailureException.class)
-    public ResponseEntity<ApiResponse> handleOptimistic(OptimisticLockingFailureException ex) {
+    @ExceptionHandler({OptimisticLockingFailureException.class, TransientMongoDbException.class})
+    public ResponseEntity<ApiResponse> handleOptimistic(TransientDataAccessException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, "Concurrent modification detected, please retry", null));
     }
 
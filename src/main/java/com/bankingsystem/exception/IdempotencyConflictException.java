@@ -0,0 +1,7 @@
+package com.bankingsystem.exception;
+
+public class IdempotencyConflictException extends CustomException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
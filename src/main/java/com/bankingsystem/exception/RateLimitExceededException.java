@@ -0,0 +1,21 @@
+package com.bankingsystem.exception;
+
+public class RateLimitExceededException extends CustomException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // Thrown on every shed request under overload; the stack trace would only add cost.
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,117 @@
+package com.bankingsystem.ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open-addressing map from account number to balance and version, stored in parallel primitive
+ * arrays so applying a command allocates nothing. Owned by exactly one partition thread; not
+ * thread-safe.
+ */
+final class AccountBalances {
+
+    static final int MISSING = -1;
+
+    private String[] keys;
+    private long[] balances;
+    private long[] versions;
+    private boolean[] dirty;
+    private int size;
+    private int mask;
+
+    // Accounts changed since the last drainDirty(), in first-change order.
+    private final List<String> dirtyKeys = new ArrayList<>();
+
+    AccountBalances(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int slot(String accNum) {
+        int i = mix(accNum.hashCode()) & mask;
+        while (keys[i] != null) {
+            if (keys[i].equals(accNum)) return i;
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void put(String accNum, long balance, long version) {
+        int slot = slot(accNum);
+        if (slot == MISSING) {
+            if ((size + 1) * 2 > keys.length) grow();
+            slot = mix(accNum.hashCode()) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = accNum;
+            size++;
+        }
+        balances[slot] = balance;
+        versions[slot] = version;
+    }
+
+    long balance(int slot) {
+        return balances[slot];
+    }
+
+    long version(int slot) {
+        return versions[slot];
+    }
+
+    /** Adds {@code delta} to the balance, bumps the version and marks the account for write-behind. */
+    void apply(int slot, long delta) {
+        balances[slot] += delta;
+        versions[slot]++;
+        if (!dirty[slot]) {
+            dirty[slot] = true;
+            dirtyKeys.add(keys[slot]);
+        }
+    }
+
+    /** Current balance and version of every account changed since the previous call. */
+    List<Balance> drainDirty() {
+        if (dirtyKeys.isEmpty()) return List.of();
+        List<Balance> changed = new ArrayList<>(dirtyKeys.size());
+        for (String accNum : dirtyKeys) {
+            int slot = slot(accNum);
+            dirty[slot] = false;
+            changed.add(new Balance(accNum, balances[slot], versions[slot]));
+        }
+        dirtyKeys.clear();
+        return changed;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        long[] oldBalances = balances;
+        long[] oldVersions = versions;
+        boolean[] oldDirty = dirty;
+        allocate(keys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int slot = mix(oldKeys[i].hashCode()) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            balances[slot] = oldBalances[i];
+            versions[slot] = oldVersions[i];
+            dirty[slot] = oldDirty[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        balances = new long[capacity];
+        versions = new long[capacity];
+        dirty = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    // String hashes of similar account numbers cluster; spread them before masking.
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
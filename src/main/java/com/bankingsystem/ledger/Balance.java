@@ -0,0 +1,7 @@
+package com.bankingsystem.ledger;
+
+/**
+ * An account's balance as applied by the ledger, which may be ahead of what Mongo holds.
+ */
+public record Balance(String accountNumber, long balance, long version) {
+}
@@ -0,0 +1,82 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One journaled ledger step: the balances it left behind and, for money movements, the
+ * transaction it recorded. Balances are absolute (value and version), so replaying an entry is
+ * idempotent.
+ *
+ * @param kind     {@link Kind#DEBIT_PENDING} for the first half of a cross-partition transfer,
+ *                 {@link Kind#REFUNDED} when that debit was undone, otherwise {@link Kind#APPLIED}
+ * @param balances accounts changed by this step
+ * @param txn      the transaction this step belongs to
+ */
+record JournalEntry(Kind kind, List<Balance> balances, Transaction txn) {
+
+    enum Kind { APPLIED, DEBIT_PENDING, REFUNDED }
+
+    void encode(ByteBuffer out) {
+        out.put((byte) kind.ordinal());
+        out.putShort((short) balances.size());
+        for (Balance b : balances) {
+            putString(out, b.accountNumber());
+            out.putLong(b.balance());
+            out.putLong(b.version());
+        }
+        putString(out, txn.getTransactionId());
+        putString(out, txn.getType());
+        out.putLong(txn.getAmount());
+        out.putLong(txn.getTimestamp() == null ? Long.MIN_VALUE : txn.getTimestamp().toEpochMilli());
+        putString(out, txn.getStatus());
+        putString(out, txn.getSourceAccount());
+        putString(out, txn.getDestinationAccount());
+    }
+
+    static JournalEntry decode(ByteBuffer in) {
+        Kind kind = Kind.values()[in.get()];
+        int count = in.getShort();
+        List<Balance> balances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            balances.add(new Balance(getString(in), in.getLong(), in.getLong()));
+        }
+        String transactionId = getString(in);
+        String type = getString(in);
+        long amount = in.getLong();
+        long millis = in.getLong();
+        Transaction txn = Transaction.builder()
+                .transactionId(transactionId)
+                .type(type)
+                .amount(amount)
+                .timestamp(millis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(millis))
+                .status(getString(in))
+                .sourceAccount(getString(in))
+                .destinationAccount(getString(in))
+                .build();
+        return new JournalEntry(kind, balances, txn);
+    }
+
+    private static void putString(ByteBuffer out, String s) {
+        if (s == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
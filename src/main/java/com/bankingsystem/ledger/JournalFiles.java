@@ -0,0 +1,104 @@
+package com.bankingsystem.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Naming and reading of journal segments: {@code p<partition>-<seq>.journal}.
+ */
+@Slf4j
+final class JournalFiles {
+
+    private static final Pattern NAME = Pattern.compile("p(\\d+)-(\\d+)\\.journal");
+
+    private JournalFiles() {
+    }
+
+    static Path path(Path dir, int partition, long seq) {
+        return dir.resolve(String.format("p%03d-%012d.journal", partition, seq));
+    }
+
+    static long seq(Path segment) {
+        Matcher m = NAME.matcher(segment.getFileName().toString());
+        if (!m.matches()) throw new IllegalArgumentException("Not a journal segment: " + segment);
+        return Long.parseLong(m.group(2));
+    }
+
+    /** Segments of one partition, oldest first. */
+    static List<Path> segments(Path dir, int partition) {
+        return all(dir).getOrDefault(partition, List.of());
+    }
+
+    /** Every partition's segments, oldest first. */
+    static TreeMap<Integer, List<Path>> all(Path dir) {
+        TreeMap<Integer, List<Path>> byPartition = new TreeMap<>();
+        if (!Files.isDirectory(dir)) return byPartition;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                Matcher m = NAME.matcher(file.getFileName().toString());
+                if (m.matches()) byPartition.computeIfAbsent(Integer.parseInt(m.group(1)), p -> new ArrayList<>()).add(file);
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        byPartition.values().forEach(list -> list.sort(Comparator.comparingLong(JournalFiles::seq)));
+        return byPartition;
+    }
+
+    /**
+     * Feeds one partition's entries to {@code sink} in append order. Stops at the first frame that
+     * fails its checksum: that is a write torn by the crash, and nothing after it was acknowledged.
+     *
+     * @return the number of entries read
+     */
+    static long read(List<Path> segments, Consumer<JournalEntry> sink) {
+        long entries = 0;
+        CRC32C crc = new CRC32C();
+        for (Path segment : segments) {
+            ByteBuffer buf = map(segment);
+            while (buf.remaining() >= JournalWriter.HEADER_BYTES) {
+                int length = buf.getInt();
+                int checksum = buf.getInt();
+                if (length <= 0 || length > buf.remaining()) break;
+
+                ByteBuffer body = buf.slice(buf.position(), length);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Journal {} has a torn entry at offset {}; ignoring the rest of this partition",
+                            segment, buf.position() - JournalWriter.HEADER_BYTES);
+                    return entries;
+                }
+                sink.accept(JournalEntry.decode(body));
+                buf.position(buf.position() + length);
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    private static MappedByteBuffer map(Path segment) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read journal segment " + segment, ex);
+        }
+    }
+}
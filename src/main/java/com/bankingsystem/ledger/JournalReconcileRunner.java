@@ -0,0 +1,60 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.service.DailyBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Offline journal check: {@code banking.journal.reconcile=report} compares the journal in
+ * {@code banking.journal.dir} with Mongo, {@code =apply} also replays it, then the application
+ * exits with 0 when nothing was left unexplained. Run it with the ledger disabled; an enabled
+ * ledger already replays its journal on start-up.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.journal.reconcile")
+@RequiredArgsConstructor
+@Slf4j
+public class JournalReconcileRunner implements ApplicationRunner {
+
+    private final MongoOperations mongo;
+    private final TransactionOutbox outbox;
+    private final DailyBalanceService dailyBalances;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${banking.journal.dir:journal}")
+    private Path dir;
+
+    @Value("${banking.journal.reconcile}")
+    private String mode;
+
+    @Value("${banking.ledger.enabled:false}")
+    private boolean ledgerEnabled;
+
+    @Value("${banking.snapshots.enabled:true}")
+    private boolean snapshots;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (ledgerEnabled) throw new IllegalStateException("Journal reconcile must run with banking.ledger.enabled=false");
+        boolean apply = switch (mode) {
+            case "report" -> false;
+            case "apply" -> true;
+            default -> throw new IllegalArgumentException("banking.journal.reconcile must be 'report' or 'apply', not '" + mode + "'");
+        };
+
+        ReconcileReport report = new JournalRecovery(dir, mongo, outbox, snapshots ? dailyBalances : null).run(apply);
+        int status = report.discrepancies().isEmpty() ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
@@ -0,0 +1,156 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.service.DailyBalanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the journal into Mongo after a crash and reports what it could not explain.
+ * <ol>
+ *   <li>Every account's latest journaled balance is written where Mongo is behind, version-guarded
+ *       exactly like write-behind.</li>
+ *   <li>Completed transactions missing from Mongo are inserted.</li>
+ *   <li>A cross-partition debit with no credit and no refund belongs to a transfer that was never
+ *       acknowledged, so its amount goes back to the source account.</li>
+ * </ol>
+ * Applying moves the replayed segments to {@code archive/}; re-running it is harmless either way.
+ */
+@Slf4j
+final class JournalRecovery {
+
+    private static final int CHUNK = 1000;
+
+    private final Path dir;
+    private final MongoOperations mongo;
+    private final TransactionOutbox outbox;
+    // Null with snapshots off.
+    private final DailyBalanceService dailyBalances;
+
+    JournalRecovery(Path dir, MongoOperations mongo, TransactionOutbox outbox, DailyBalanceService dailyBalances) {
+        this.dir = dir;
+        this.mongo = mongo;
+        this.outbox = outbox;
+        this.dailyBalances = dailyBalances;
+    }
+
+    ReconcileReport run(boolean apply) {
+        Map<String, Balance> latest = new HashMap<>();
+        Map<String, Transaction> completed = new LinkedHashMap<>();
+        Map<String, Transaction> openDebits = new LinkedHashMap<>();
+        long entries = 0;
+
+        Map<Integer, List<Path>> segments = JournalFiles.all(dir);
+        for (List<Path> partition : segments.values()) {
+            entries += JournalFiles.read(partition, entry -> {
+                for (Balance b : entry.balances()) latest.merge(b.accountNumber(), b, (x, y) -> x.version() >= y.version() ? x : y);
+                String txnId = entry.txn().getTransactionId();
+                switch (entry.kind()) {
+                    case APPLIED -> {
+                        completed.put(txnId, entry.txn());
+                        openDebits.remove(txnId);
+                    }
+                    case DEBIT_PENDING -> {
+                        if (!completed.containsKey(txnId)) openDebits.put(txnId, entry.txn());
+                    }
+                    case REFUNDED -> openDebits.remove(txnId);
+                }
+            });
+        }
+        // A credit read from an earlier partition than its debit still completes the transfer, and so
+        // does one whose segment was already written behind and released.
+        openDebits.keySet().removeAll(completed.keySet());
+        openDebits.keySet().removeIf(txnId -> mongo.exists(Query.query(Criteria.where("transactionId").is(txnId)), Transaction.class));
+
+        List<Balance> behind = new ArrayList<>();
+        List<String> discrepancies = new ArrayList<>();
+        compare(latest, behind, discrepancies);
+
+        if (apply) {
+            WriteBehind.insertTransactions(mongo, new ArrayList<>(completed.values()), dailyBalances);
+            outbox.recordIdempotently(completed.values());
+            WriteBehind.updateBalances(mongo, behind);
+            for (Transaction debit : openDebits.values()) refund(debit, latest);
+            archive(segments);
+        }
+
+        ReconcileReport report = new ReconcileReport(entries, behind.size(), completed.size(), openDebits.size(), discrepancies, apply);
+        log.info("Journal reconcile: {} entries, {} accounts behind, {} transactions, {} unfinished debits, {} discrepancies{}",
+                entries, behind.size(), completed.size(), openDebits.size(), discrepancies.size(), apply ? " (applied)" : "");
+        discrepancies.forEach(d -> log.warn("Journal reconcile: {}", d));
+        return report;
+    }
+
+    private void compare(Map<String, Balance> latest, List<Balance> behind, List<String> discrepancies) {
+        List<String> accNums = new ArrayList<>(latest.keySet());
+        for (int from = 0; from < accNums.size(); from += CHUNK) {
+            List<String> chunk = accNums.subList(from, Math.min(from + CHUNK, accNums.size()));
+            Query query = Query.query(Criteria.where("accountNumber").in(chunk));
+            query.fields().include("accountNumber").include("balance").include("version");
+            Map<String, Account> stored = new HashMap<>();
+            for (Account acc : mongo.find(query, Account.class)) stored.put(acc.getAccountNumber(), acc);
+
+            for (String accNum : chunk) {
+                Balance journaled = latest.get(accNum);
+                Account acc = stored.get(accNum);
+                if (acc == null) {
+                    discrepancies.add(accNum + ": in the journal but not in Mongo");
+                    continue;
+                }
+                long version = acc.getVersion() == null ? -1 : acc.getVersion();
+                if (version < journaled.version()) {
+                    behind.add(journaled);
+                } else if (version > journaled.version()) {
+                    discrepancies.add(accNum + ": Mongo is at version " + version + ", journal only reaches " + journaled.version());
+                } else if (acc.getBalance() != journaled.balance()) {
+                    discrepancies.add(accNum + ": balance " + acc.getBalance() + " in Mongo but " + journaled.balance() + " in the journal at version " + version);
+                }
+            }
+        }
+    }
+
+    // Guarded on the version the replay left, so a second run finds nothing to refund.
+    private void refund(Transaction debit, Map<String, Balance> latest) {
+        Balance source = latest.get(debit.getSourceAccount());
+        long next = source.version() + 1;
+        Query query = Query.query(Criteria.where("accountNumber").is(source.accountNumber()).and("version").is(source.version()));
+        long matched = mongo.updateFirst(query, new Update().inc("balance", debit.getAmount()).set("version", next), Account.class).getMatchedCount();
+        if (matched == 0) {
+            log.warn("Journal reconcile: could not refund unfinished transfer {} to {}; account moved past version {}",
+                    debit.getTransactionId(), source.accountNumber(), source.version());
+            return;
+        }
+        latest.put(source.accountNumber(), new Balance(source.accountNumber(), source.balance() + debit.getAmount(), next));
+        log.info("Journal reconcile: refunded {} to {} for unfinished transfer {}", debit.getAmount(), source.accountNumber(), debit.getTransactionId());
+    }
+
+    private void archive(Map<Integer, List<Path>> segments) {
+        if (segments.isEmpty()) return;
+        Path archive = dir.resolve("archive").resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        try {
+            Files.createDirectories(archive);
+            for (List<Path> partition : segments.values()) {
+                for (Path segment : partition) Files.move(segment, archive.resolve(segment.getFileName()));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot archive replayed journal segments", ex);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.bankingsystem.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.zip.CRC32C;
+
+/**
+ * One partition's append-only journal: a sequence of pre-sized, memory-mapped segment files of
+ * {@code [length][crc32c][entry]} frames. A zero length marks the end of a segment, which is how a
+ * freshly mapped (zero-filled) file reads.
+ * <p>
+ * Only the owning partition thread appends. Durability is group-committed: a batch's
+ * acknowledgements are queued by {@link #commit} and run by {@link #sync} once the mapped range
+ * holding the batch has been forced to disk, either straight away or by the journal's flusher.
+ */
+final class JournalWriter {
+
+    static final int HEADER_BYTES = 8;
+    private static final int MAX_ENTRY_BYTES = 64 * 1024;
+
+    private static final class Segment {
+        final long seq;
+        final MappedByteBuffer buf;
+        // Position up to which the partition has finished a batch; written by the partition only.
+        volatile int committed;
+        private int forced;
+
+        Segment(long seq, MappedByteBuffer buf) {
+            this.seq = seq;
+            this.buf = buf;
+        }
+
+        synchronized void force() {
+            int upTo = committed;
+            if (upTo > forced) {
+                buf.force(forced, upTo - forced);
+                forced = upTo;
+            }
+        }
+    }
+
+    private final Path dir;
+    private final int partition;
+    private final int segmentBytes;
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_ENTRY_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private final Deque<Runnable> awaitingSync = new ConcurrentLinkedDeque<>();
+    private volatile Segment current;
+    // Oldest segment of this run still on disk; only touched by the write-behind thread.
+    private long retainedFrom;
+
+    JournalWriter(Path dir, int partition, int segmentBytes) {
+        this.dir = dir;
+        this.partition = partition;
+        this.segmentBytes = segmentBytes;
+        long next = JournalFiles.segments(dir, partition).stream().mapToLong(JournalFiles::seq).max().orElse(-1) + 1;
+        this.retainedFrom = next;
+        this.current = open(next);
+    }
+
+    /** Segment the next append goes to; everything in earlier segments was appended before. */
+    long segment() {
+        return current.seq;
+    }
+
+    void append(JournalEntry entry) {
+        scratch.clear();
+        try {
+            entry.encode(scratch);
+        } catch (BufferOverflowException ex) {
+            throw new IllegalStateException("Journal entry for " + entry.txn().getTransactionId() + " exceeds " + MAX_ENTRY_BYTES + " bytes");
+        }
+        scratch.flip();
+        crc.reset();
+        crc.update(scratch.array(), 0, scratch.limit());
+
+        Segment s = current;
+        // Always leave room for the zero-length end marker.
+        if (s.buf.remaining() < 2 * HEADER_BYTES + scratch.limit()) s = roll();
+        s.buf.putInt(scratch.limit()).putInt((int) crc.getValue()).put(scratch);
+    }
+
+    /**
+     * Ends a batch. {@code acks} runs once everything appended so far is on disk: immediately,
+     * on this thread, when {@code syncNow}; otherwise on the next {@link #sync}.
+     */
+    void commit(Runnable acks, boolean syncNow) {
+        Segment s = current;
+        s.committed = s.buf.position();
+        if (syncNow) {
+            s.force();
+            acks.run();
+        } else {
+            awaitingSync.add(acks);
+        }
+    }
+
+    /** Forces committed batches to disk and runs their acknowledgements, in commit order. */
+    void sync() {
+        if (awaitingSync.isEmpty()) return;
+        List<Runnable> ready = new ArrayList<>();
+        for (Runnable acks; (acks = awaitingSync.poll()) != null; ) ready.add(acks);
+        try {
+            // Read after draining: the segment and its committed mark cover every drained batch.
+            current.force();
+        } catch (RuntimeException ex) {
+            for (int i = ready.size() - 1; i >= 0; i--) awaitingSync.addFirst(ready.get(i));
+            throw ex;
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Deletes segments whose entries are all in Mongo. One extra segment is kept so the debit half
+     * of a transfer whose credit is still in flight is never dropped.
+     */
+    void release(long persistedSegment) {
+        while (retainedFrom < persistedSegment - 1) {
+            try {
+                Files.deleteIfExists(JournalFiles.path(dir, partition, retainedFrom));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            retainedFrom++;
+        }
+    }
+
+    private Segment roll() {
+        Segment old = current;
+        old.committed = old.buf.position();
+        old.force();
+        current = open(old.seq + 1);
+        return current;
+    }
+
+    private Segment open(long seq) {
+        Path path = JournalFiles.path(dir, partition, seq);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(seq, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, ex);
+        }
+    }
+}
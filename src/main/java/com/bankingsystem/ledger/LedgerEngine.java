@@ -0,0 +1,229 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.service.BatchTransferEngine;
+import com.bankingsystem.service.DailyBalanceService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory ledger ({@code banking.ledger.enabled=true}). Accounts are sharded by account
+ * number across single-threaded {@link LedgerPartition}s that own the authoritative balances, so
+ * hot accounts never hit optimistic-lock conflicts; Mongo is brought up to date by ordered,
+ * batched write-behind and is the source the ledger rebuilds from on start-up.
+ * <p>
+ * Without a {@link TransactionJournal}, movements are acknowledged once applied in memory and
+ * anything not yet written behind is lost if the process dies. With one, they are acknowledged
+ * once journaled to disk, and start-up replays the journal into Mongo before rebuilding. Either
+ * way nothing else may write balances while the ledger is enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.ledger.enabled", havingValue = "true")
+@Slf4j
+public class LedgerEngine {
+
+    private final MongoOperations mongo;
+    private final TransactionJournal journal;
+    private final LedgerPartition[] partitions;
+    // Caps accepted-but-unapplied commands; a caller waits here rather than growing the inboxes.
+    private final Semaphore admission;
+    // Commands queued or being applied, forwarded transfer legs included; zero means quiescent.
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean accepting = true;
+
+    public LedgerEngine(MongoOperations mongo, MeterRegistry registry, Optional<TransactionJournal> journal, TransactionOutbox outbox,
+                        DailyBalanceService dailyBalances,
+                        @Value("${banking.snapshots.enabled:true}") boolean snapshots,
+                        @Value("${banking.ledger.partitions:4}") int partitionCount,
+                        @Value("${banking.ledger.max-in-flight:65536}") int maxInFlight,
+                        @Value("${banking.ledger.write-behind.max-batch:1000}") int writeBehindBatch) {
+        this.mongo = mongo;
+        this.journal = journal.orElse(null);
+        this.admission = new Semaphore(maxInFlight);
+        this.partitions = new LedgerPartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            WriteBehind writeBehind = new WriteBehind("ledger-write-behind-" + i, mongo, outbox, snapshots ? dailyBalances : null,
+                    writeBehindBatch, writeBehindBatch);
+            LedgerPartition partition = new LedgerPartition(i, this, writeBehind, 1024);
+            partitions[i] = partition;
+            Gauge.builder("bank.ledger.queue.depth", partition, LedgerPartition::queued)
+                    .description("Commands waiting in a ledger partition's inbox")
+                    .tag("partition", String.valueOf(i))
+                    .register(registry);
+            Gauge.builder("bank.ledger.write-behind.pending", writeBehind, WriteBehind::pending)
+                    .description("Applied batches not yet written to Mongo")
+                    .tag("partition", String.valueOf(i))
+                    .register(registry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (journal != null) journal.reconcile(true);
+
+        Query all = new Query();
+        all.fields().include("accountNumber").include("balance").include("version");
+        try (Stream<Account> accounts = mongo.stream(all, Account.class)) {
+            accounts.forEach(acc -> partitionOf(acc.getAccountNumber()).preload(
+                    acc.getAccountNumber(), acc.getBalance(), acc.getVersion() == null ? 0 : acc.getVersion()));
+        }
+        for (int i = 0; i < partitions.length; i++) {
+            if (journal == null) {
+                partitions[i].start(null, false);
+            } else {
+                partitions[i].start(journal.writer(i), journal.syncEachBatch());
+            }
+        }
+        if (journal != null) journal.start();
+
+        int loaded = 0;
+        for (LedgerPartition partition : partitions) loaded += partition.accounts();
+        log.info("Ledger started with {} accounts across {} partitions", loaded, partitions.length);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        while (outstanding.get() > 0) Thread.sleep(5);
+        for (LedgerPartition partition : partitions) partition.stop();
+        if (journal != null) journal.stop();
+        log.info("Ledger stopped and flushed");
+    }
+
+    /** Registers a newly created account with the partition that will own it. */
+    public Balance open(Account account) {
+        long version = account.getVersion() == null ? 0 : account.getVersion();
+        CompletableFuture<Balance> done = new CompletableFuture<>();
+        submit(account.getAccountNumber(), new LedgerPartition.Open(account.getAccountNumber(), account.getBalance(), version, done));
+        return await(done);
+    }
+
+    public Balance balance(String accNum) {
+        CompletableFuture<Balance> done = new CompletableFuture<>();
+        submit(accNum, new LedgerPartition.Read(accNum, done));
+        return await(done);
+    }
+
+    /** Credits {@code txn.sourceAccount} and records {@code txn}. */
+    public Balance deposit(Transaction txn) {
+        CompletableFuture<Balance> done = new CompletableFuture<>();
+        submit(txn.getSourceAccount(), new LedgerPartition.Deposit(txn, done));
+        return await(done);
+    }
+
+    /** Debits {@code txn.sourceAccount} and records {@code txn}. */
+    public Balance withdraw(Transaction txn) {
+        CompletableFuture<Balance> done = new CompletableFuture<>();
+        submit(txn.getSourceAccount(), new LedgerPartition.Withdraw(txn, done));
+        return await(done);
+    }
+
+    public Transaction transfer(Transaction txn) {
+        return await(transferAsync(txn));
+    }
+
+    /**
+     * Queues a transfer without waiting for it. The future completes on a partition thread, so
+     * don't chain work onto it; join it instead.
+     */
+    public CompletableFuture<Transaction> transferAsync(Transaction txn) {
+        CompletableFuture<Transaction> done = new CompletableFuture<>();
+        submit(txn.getSourceAccount(), new LedgerPartition.Transfer(txn, done));
+        return done;
+    }
+
+    /**
+     * Same per-item contract as {@link BatchTransferEngine#transfer}: every transfer is queued
+     * before any is awaited, so the batch pipelines through the partitions.
+     */
+    public List<BatchTransferResult> transferBatch(List<TransferRequest> reqs, Supplier<String> txnIds) {
+        Instant now = Instant.now();
+        List<CompletableFuture<Transaction>> pending = new ArrayList<>(reqs.size());
+        for (TransferRequest req : reqs) {
+            String rejection = BatchTransferEngine.checkRequest(req);
+            if (rejection != null) {
+                pending.add(CompletableFuture.failedFuture(new IllegalArgumentException(rejection)));
+                continue;
+            }
+            pending.add(transferAsync(Transaction.builder()
+                    .transactionId(txnIds.get())
+                    .type("TRANSFER")
+                    .amount(req.getAmount())
+                    .timestamp(now)
+                    .status("SUCCESS")
+                    .sourceAccount(req.getFromAccount())
+                    .destinationAccount(req.getToAccount())
+                    .build()));
+        }
+
+        List<BatchTransferResult> results = new ArrayList<>(reqs.size());
+        for (int i = 0; i < pending.size(); i++) {
+            try {
+                Transaction txn = await(pending.get(i));
+                results.add(new BatchTransferResult(i, true, txn.getTransactionId(), "Transfer successful"));
+            } catch (RuntimeException ex) {
+                results.add(new BatchTransferResult(i, false, null, ex.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    LedgerPartition partitionOf(String accNum) {
+        return partitions[Math.floorMod(accNum.hashCode(), partitions.length)];
+    }
+
+    // Called from a partition thread; bypasses admission so partitions can never block on each other.
+    void forward(String accNum, LedgerPartition.Command cmd) {
+        outstanding.incrementAndGet();
+        partitionOf(accNum).enqueue(cmd);
+    }
+
+    void applied(LedgerPartition.Command cmd) {
+        if (!(cmd instanceof LedgerPartition.CreditLeg) && !(cmd instanceof LedgerPartition.Refund)) admission.release();
+        outstanding.decrementAndGet();
+    }
+
+    private void submit(String accNum, LedgerPartition.Command cmd) {
+        if (!accepting) throw new IllegalStateException("Ledger is shutting down");
+        try {
+            admission.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ledger capacity", ex);
+        }
+        outstanding.incrementAndGet();
+        partitionOf(accNum).enqueue(cmd);
+    }
+
+    private static <T> T await(CompletableFuture<T> done) {
+        try {
+            return done.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+}
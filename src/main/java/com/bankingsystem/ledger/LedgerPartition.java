@@ -0,0 +1,305 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One shard of the ledger: a single thread that owns its accounts' balances and applies commands
+ * from its inbox strictly one after another, so no command ever waits on a lock or retries a
+ * conflict. After each drained batch the changed balances and new ledger records are handed to
+ * the partition's {@link WriteBehind}.
+ * <p>
+ * With a {@link TransactionJournal} every applied step is appended to the partition's journal, and
+ * nothing the batch did becomes visible outside the partition (callers' futures, forwarded credit
+ * legs, write-behind) until the journal has the batch on disk. A journal that fails to write stops
+ * the partition: its in-memory state may be ahead of the disk, so every later command is refused
+ * and the next start recovers from the journal and Mongo.
+ * <p>
+ * A transfer whose destination lives on another partition is applied in two steps: the source
+ * partition debits and forwards a credit leg; if the credit is rejected the destination sends a
+ * refund back, and the transfer fails with the credit's error. The transfer is only recorded once
+ * both legs are applied.
+ */
+@Slf4j
+final class LedgerPartition implements Runnable {
+
+    private static final int DRAIN_BATCH = 256;
+
+    sealed interface Command permits Open, Read, Deposit, Withdraw, Transfer, CreditLeg, Refund {
+        CompletableFuture<?> done();
+    }
+
+    record Open(String accNum, long balance, long version, CompletableFuture<Balance> done) implements Command {
+    }
+
+    record Read(String accNum, CompletableFuture<Balance> done) implements Command {
+    }
+
+    record Deposit(Transaction txn, CompletableFuture<Balance> done) implements Command {
+    }
+
+    record Withdraw(Transaction txn, CompletableFuture<Balance> done) implements Command {
+    }
+
+    record Transfer(Transaction txn, CompletableFuture<Transaction> done) implements Command {
+    }
+
+    /** Second half of a cross-partition transfer, sent to the destination's partition. */
+    record CreditLeg(Transaction txn, CompletableFuture<Transaction> done) implements Command {
+    }
+
+    /** Undoes the debit of a transfer whose credit leg was rejected. */
+    record Refund(Transaction txn, RuntimeException cause, CompletableFuture<Transaction> done) implements Command {
+    }
+
+    private final int id;
+    private final LedgerEngine engine;
+    private final WriteBehind writeBehind;
+    private final AccountBalances balances;
+    private final BlockingQueue<Command> inbox = new LinkedBlockingQueue<>();
+    private final List<Transaction> recorded = new ArrayList<>();
+    // What the current batch may only do once it is durable, in order.
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private JournalWriter journal;
+    private boolean syncEachBatch;
+    private RuntimeException journalFailure;
+
+    LedgerPartition(int id, LedgerEngine engine, WriteBehind writeBehind, int expectedAccounts) {
+        this.id = id;
+        this.engine = engine;
+        this.writeBehind = writeBehind;
+        this.balances = new AccountBalances(expectedAccounts);
+        this.thread = new Thread(this, "ledger-" + id);
+    }
+
+    /** Loads an account before the partition starts; Thread.start() publishes it to the partition thread. */
+    void preload(String accNum, long balance, long version) {
+        balances.put(accNum, balance, version);
+    }
+
+    int accounts() {
+        return balances.size();
+    }
+
+    int queued() {
+        return inbox.size();
+    }
+
+    /** {@code journal} is null when the ledger runs without one. */
+    void start(JournalWriter journal, boolean syncEachBatch) {
+        this.journal = journal;
+        this.syncEachBatch = syncEachBatch;
+        writeBehind.start(journal);
+        thread.start();
+    }
+
+    void enqueue(Command cmd) {
+        inbox.add(cmd);
+    }
+
+    /** Applies whatever is queued, hands it to write-behind and stops. The engine must be quiescent. */
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+        writeBehind.stop();
+    }
+
+    @Override
+    public void run() {
+        List<Command> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running || !inbox.isEmpty()) {
+            try {
+                Command first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                inbox.drainTo(batch, DRAIN_BATCH - 1);
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            if (journalFailure != null) {
+                fail(batch, new IllegalStateException("Ledger partition " + id + " stopped after a journal failure", journalFailure));
+            } else {
+                try {
+                    applyBatch(batch);
+                } catch (JournalFailure ex) {
+                    log.error("Ledger partition {} cannot write its journal; refusing further commands", id, ex.getCause());
+                    journalFailure = ex.getCause();
+                    balances.drainDirty();
+                    recorded.clear();
+                    afterCommit.clear();
+                    fail(batch, ex.getCause());
+                }
+            }
+            batch.clear();
+        }
+        log.debug("Ledger partition {} stopped with {} accounts", id, balances.size());
+    }
+
+    private void applyBatch(List<Command> batch) {
+        for (Command cmd : batch) {
+            try {
+                apply(cmd);
+            } catch (JournalFailure ex) {
+                throw ex;
+            } catch (RuntimeException ex) {
+                afterCommit.add(() -> cmd.done().completeExceptionally(ex));
+            }
+            afterCommit.add(() -> engine.applied(cmd));
+        }
+
+        List<Balance> changed = balances.drainDirty();
+        List<Transaction> txns = recorded.isEmpty() ? List.of() : new ArrayList<>(recorded);
+        recorded.clear();
+        List<Runnable> actions = new ArrayList<>(afterCommit);
+        afterCommit.clear();
+        long segment = journal == null ? -1 : journal.segment();
+        Runnable commit = () -> {
+            if (!changed.isEmpty() || !txns.isEmpty()) writeBehind.submit(changed, txns, segment);
+            actions.forEach(Runnable::run);
+        };
+
+        if (journal == null) {
+            commit.run();
+            return;
+        }
+        try {
+            journal.commit(commit, syncEachBatch);
+        } catch (RuntimeException ex) {
+            throw new JournalFailure(ex);
+        }
+    }
+
+    private void fail(List<Command> batch, RuntimeException cause) {
+        for (Command cmd : batch) {
+            cmd.done().completeExceptionally(cause);
+            engine.applied(cmd);
+        }
+    }
+
+    private void apply(Command cmd) {
+        if (cmd instanceof Deposit d) {
+            Balance after = snapshot(d.txn().getSourceAccount(), credit(d.txn().getSourceAccount(), d.txn().getAmount()));
+            record(JournalEntry.Kind.APPLIED, List.of(after), d.txn());
+            afterCommit.add(() -> d.done().complete(after));
+        } else if (cmd instanceof Withdraw w) {
+            Balance after = snapshot(w.txn().getSourceAccount(), debit(w.txn().getSourceAccount(), w.txn().getAmount()));
+            record(JournalEntry.Kind.APPLIED, List.of(after), w.txn());
+            afterCommit.add(() -> w.done().complete(after));
+        } else if (cmd instanceof Transfer t) {
+            transfer(t);
+        } else if (cmd instanceof CreditLeg leg) {
+            String to = leg.txn().getDestinationAccount();
+            int slot;
+            try {
+                slot = credit(to, leg.txn().getAmount());
+            } catch (RuntimeException ex) {
+                // Nothing changed here, so the refund needn't wait for this batch to be durable.
+                engine.forward(leg.txn().getSourceAccount(), new Refund(leg.txn(), ex, leg.done()));
+                return;
+            }
+            record(JournalEntry.Kind.APPLIED, List.of(snapshot(to, slot)), leg.txn());
+            afterCommit.add(() -> leg.done().complete(leg.txn()));
+        } else if (cmd instanceof Refund r) {
+            String from = r.txn().getSourceAccount();
+            int slot = existing(from);
+            balances.apply(slot, r.txn().getAmount());
+            journal(JournalEntry.Kind.REFUNDED, List.of(snapshot(from, slot)), r.txn());
+            afterCommit.add(() -> r.done().completeExceptionally(r.cause()));
+        } else if (cmd instanceof Read r) {
+            Balance current = snapshot(r.accNum(), existing(r.accNum()));
+            afterCommit.add(() -> r.done().complete(current));
+        } else if (cmd instanceof Open o) {
+            // Not journaled: the account document is already in Mongo when it is opened here.
+            if (balances.slot(o.accNum()) == AccountBalances.MISSING) balances.put(o.accNum(), o.balance(), o.version());
+            Balance opened = snapshot(o.accNum(), balances.slot(o.accNum()));
+            afterCommit.add(() -> o.done().complete(opened));
+        }
+    }
+
+    private void transfer(Transfer t) {
+        String from = t.txn().getSourceAccount();
+        String to = t.txn().getDestinationAccount();
+        long amount = t.txn().getAmount();
+
+        if (engine.partitionOf(to) != this) {
+            int slot = debit(from, amount);
+            journal(JournalEntry.Kind.DEBIT_PENDING, List.of(snapshot(from, slot)), t.txn());
+            // Only once the debit is durable, so a crash can never leave a credit without its debit.
+            afterCommit.add(() -> engine.forward(to, new CreditLeg(t.txn(), t.done())));
+            return;
+        }
+
+        // Both accounts are ours: check everything first so the pair applies atomically.
+        int fromSlot = existing(from);
+        int toSlot = existing(to);
+        if (balances.balance(fromSlot) < amount) throw new InsufficientBalanceException();
+        if (balances.balance(toSlot) > Long.MAX_VALUE - amount) throw new BalanceOverflowException();
+        balances.apply(fromSlot, -amount);
+        balances.apply(toSlot, amount);
+        record(JournalEntry.Kind.APPLIED, List.of(snapshot(from, fromSlot), snapshot(to, toSlot)), t.txn());
+        afterCommit.add(() -> t.done().complete(t.txn()));
+    }
+
+    // A completed movement: written behind as a ledger record and journaled.
+    private void record(JournalEntry.Kind kind, List<Balance> after, Transaction txn) {
+        recorded.add(txn);
+        journal(kind, after, txn);
+    }
+
+    private void journal(JournalEntry.Kind kind, List<Balance> after, Transaction txn) {
+        if (journal == null) return;
+        try {
+            journal.append(new JournalEntry(kind, after, txn));
+        } catch (RuntimeException ex) {
+            throw new JournalFailure(ex);
+        }
+    }
+
+    private int credit(String accNum, long amount) {
+        int slot = existing(accNum);
+        if (balances.balance(slot) > Long.MAX_VALUE - amount) throw new BalanceOverflowException();
+        balances.apply(slot, amount);
+        return slot;
+    }
+
+    private int debit(String accNum, long amount) {
+        int slot = existing(accNum);
+        if (balances.balance(slot) < amount) throw new InsufficientBalanceException();
+        balances.apply(slot, -amount);
+        return slot;
+    }
+
+    private int existing(String accNum) {
+        int slot = balances.slot(accNum);
+        if (slot == AccountBalances.MISSING) throw new AccountNotFoundException(accNum);
+        return slot;
+    }
+
+    private Balance snapshot(String accNum, int slot) {
+        return new Balance(accNum, balances.balance(slot), balances.version(slot));
+    }
+
+    /** Marks a journal write failure so it is never mistaken for a rejected command. */
+    private static final class JournalFailure extends RuntimeException {
+        JournalFailure(RuntimeException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized RuntimeException getCause() {
+            return (RuntimeException) super.getCause();
+        }
+    }
+}
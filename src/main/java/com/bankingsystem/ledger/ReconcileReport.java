@@ -0,0 +1,18 @@
+package com.bankingsystem.ledger;
+
+import java.util.List;
+
+/**
+ * Outcome of checking the journal against the {@code accounts} collection.
+ *
+ * @param entries          journal entries read
+ * @param accountsBehind   accounts whose Mongo balance lags the journal (replayed when applying)
+ * @param transactions     completed transactions found in the journal (inserted when missing)
+ * @param unfinishedDebits cross-partition debits with neither a credit nor a refund (refunded when applying)
+ * @param discrepancies    accounts the journal cannot explain: missing, ahead of the journal, or a
+ *                         different balance at the same version
+ * @param applied          whether Mongo was updated
+ */
+public record ReconcileReport(long entries, int accountsBehind, int transactions, int unfinishedDebits,
+                              List<String> discrepancies, boolean applied) {
+}
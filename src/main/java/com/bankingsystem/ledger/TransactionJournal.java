@@ -0,0 +1,110 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.service.DailyBalanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Crash-safe acknowledgement for the ledger ({@code banking.journal.enabled=true}): every partition
+ * appends what it applies to its own memory-mapped journal, and callers are answered only once
+ * that is on disk, so a movement is durable at journal latency while Mongo catches up behind.
+ * <p>
+ * With a positive {@code fsync-interval} one flusher thread forces all partitions' journals on that
+ * cadence (group commit: one fsync covers every batch since the last); with zero each partition
+ * forces its own journal after every batch.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.journal.enabled", havingValue = "true")
+@Slf4j
+public class TransactionJournal {
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long fsyncIntervalNanos;
+    private final MongoOperations mongo;
+    private final TransactionOutbox outbox;
+    private final DailyBalanceService dailyBalances;
+    private final List<JournalWriter> writers = new CopyOnWriteArrayList<>();
+    private Thread flusher;
+    private volatile boolean running;
+
+    public TransactionJournal(@Value("${banking.journal.dir:journal}") Path dir,
+                              @Value("${banking.journal.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${banking.journal.fsync-interval:2ms}") Duration fsyncInterval,
+                              MongoOperations mongo, TransactionOutbox outbox, DailyBalanceService dailyBalances,
+                              @Value("${banking.snapshots.enabled:true}") boolean snapshots) {
+        this.dir = dir;
+        this.segmentBytes = Math.toIntExact(segmentSize.toBytes());
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.mongo = mongo;
+        this.outbox = outbox;
+        this.dailyBalances = snapshots ? dailyBalances : null;
+    }
+
+    /**
+     * Checks the journal left by the previous run against Mongo and, when {@code apply}, replays it.
+     */
+    public ReconcileReport reconcile(boolean apply) {
+        return new JournalRecovery(dir, mongo, outbox, dailyBalances).run(apply);
+    }
+
+    JournalWriter writer(int partition) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create journal directory " + dir, ex);
+        }
+        JournalWriter writer = new JournalWriter(dir, partition, segmentBytes);
+        writers.add(writer);
+        return writer;
+    }
+
+    boolean syncEachBatch() {
+        return fsyncIntervalNanos == 0;
+    }
+
+    void start() {
+        if (syncEachBatch()) return;
+        running = true;
+        flusher = new Thread(() -> {
+            while (running) {
+                LockSupport.parkNanos(fsyncIntervalNanos);
+                syncAll();
+            }
+            syncAll();
+        }, "ledger-journal-flusher");
+        flusher.start();
+    }
+
+    void stop() throws InterruptedException {
+        if (flusher == null) return;
+        running = false;
+        flusher.join();
+        log.info("Journal flushed to {}", dir.toAbsolutePath());
+    }
+
+    private void syncAll() {
+        for (JournalWriter writer : writers) {
+            try {
+                writer.sync();
+            } catch (RuntimeException ex) {
+                // Acks stay queued and the next round retries; callers wait rather than lose durability.
+                log.error("Journal sync failed", ex);
+            }
+        }
+    }
+}
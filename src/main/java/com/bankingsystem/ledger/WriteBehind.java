@@ -0,0 +1,157 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.service.DailyBalanceService;
+import com.bankingsystem.service.PostingWriter;
+import com.bankingsystem.util.BulkInserts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists one partition's applied changes to Mongo on its own thread, in the order the partition
+ * applied them. Queued flushes are coalesced so each account is written once per round trip with
+ * its latest balance. Writes are retried until they succeed: they are idempotent (balances only
+ * move forward by version, ledger records are unique by transactionId, outbox events by eventId),
+ * so a retry after a partial failure is harmless. A full queue blocks the partition, which is the engine's back-pressure.
+ */
+@Slf4j
+final class WriteBehind implements Runnable {
+
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private record Flush(List<Balance> balances, List<Transaction> txns, long journalSegment) {
+    }
+
+    private final MongoOperations mongo;
+    private final TransactionOutbox outbox;
+    // Null with snapshots off.
+    private final DailyBalanceService dailyBalances;
+    private final BlockingQueue<Flush> queue;
+    private final int maxBatch;
+    private final Thread thread;
+    private volatile boolean running = true;
+    // Told which journal segments are fully in Mongo; null without a journal.
+    private JournalWriter journal;
+
+    WriteBehind(String name, MongoOperations mongo, TransactionOutbox outbox, DailyBalanceService dailyBalances,
+                int capacity, int maxBatch) {
+        this.mongo = mongo;
+        this.outbox = outbox;
+        this.dailyBalances = dailyBalances;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.thread = new Thread(this, name);
+    }
+
+    void start(JournalWriter journal) {
+        this.journal = journal;
+        thread.start();
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    /** {@code journalSegment} is the journal segment the partition was appending to, or -1. */
+    void submit(List<Balance> balances, List<Transaction> txns, long journalSegment) {
+        try {
+            queue.put(new Flush(balances, txns, journalSegment));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing ledger write-behind", ex);
+        }
+    }
+
+    /** Writes everything already queued, then stops. */
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        List<Flush> drained = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Flush first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                drained.add(first);
+                queue.drainTo(drained, maxBatch - 1);
+            } catch (InterruptedException ex) {
+                // Shutdown goes through stop(); keep draining so nothing acknowledged is dropped.
+                continue;
+            }
+            write(drained);
+            JournalWriter journal = this.journal;
+            if (journal != null) journal.release(drained.get(drained.size() - 1).journalSegment());
+            drained.clear();
+        }
+    }
+
+    private void write(List<Flush> flushes) {
+        Map<String, Balance> latest = new LinkedHashMap<>();
+        List<Transaction> txns = new ArrayList<>();
+        for (Flush flush : flushes) {
+            for (Balance b : flush.balances()) latest.put(b.accountNumber(), b);
+            txns.addAll(flush.txns());
+        }
+
+        long backoff = 10;
+        while (true) {
+            try {
+                insertTransactions(mongo, txns, dailyBalances);
+                outbox.recordIdempotently(txns);
+                updateBalances(mongo, latest.values());
+                return;
+            } catch (DataAccessException ex) {
+                log.warn("Ledger write-behind of {} balances and {} transactions failed, retrying in {} ms",
+                        latest.size(), txns.size(), backoff, ex);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    // Keep retrying; giving up would lose acknowledged movements.
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    // The postings go unnumbered: a cross-partition transfer's debit happened on another
+    // partition, so no single flush knows both accounts' state after it.
+    static void insertTransactions(MongoOperations mongo, List<Transaction> txns, DailyBalanceService dailyBalances) {
+        if (txns.isEmpty()) return;
+        // Rows written by an earlier, partially failed attempt are skipped, and so are not counted
+        // into the snapshots a second time.
+        List<Transaction> inserted = BulkInserts.insertIgnoringDuplicates(mongo, Transaction.class, txns);
+        PostingWriter.insert(mongo, PostingWriter.postings(txns));
+        if (dailyBalances != null) dailyBalances.record(inserted);
+    }
+
+    static void updateBalances(MongoOperations mongo, Iterable<Balance> balances) {
+        BulkOperations bulk = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        boolean any = false;
+        for (Balance b : balances) {
+            // Version-guarded so a replayed or reordered write can never move a balance backwards.
+            Query query = Query.query(Criteria.where("accountNumber").is(b.accountNumber())
+                    .orOperator(Criteria.where("version").lt(b.version()), Criteria.where("version").is(null)));
+            bulk.updateOne(query, new Update().set("balance", b.balance()).set("version", b.version()));
+            any = true;
+        }
+        if (any) bulk.execute();
+    }
+}
@@ -0,0 +1,173 @@
+package com.bankingsystem.migration;
+
+import com.bankingsystem.model.DailyBalance;
+import com.bankingsystem.model.DailyBalanceBucket;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.service.DailyBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * One-shot rebuild of {@code daily_balances} for every day before today from the
+ * {@code transactions} collection. Enable with {@code banking.snapshots.backfill.enabled=true}
+ * for a single start-up; re-running it is safe.
+ * <ol>
+ *   <li>Snapshots and hot-account buckets before today are dropped. Today's are left to the live
+ *       updates.</li>
+ *   <li>Transactions are read in parallel chunks of one day of {@code _id} (ObjectIds carry their
+ *       insert time, so every chunk is a bounded scan of the primary index) and their per-account,
+ *       per-day totals are {@code $inc}ed in. Chunks may meet on a day, which the increments absorb.</li>
+ *   <li>One ordered pass over the snapshots chains each account's opening and closing balances.</li>
+ * </ol>
+ */
+@Component
+@ConditionalOnProperty(name = "banking.snapshots.backfill.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class DailyBalanceBackfill implements ApplicationRunner {
+
+    private static final int BULK_SIZE = 1000;
+
+    private final MongoTemplate mongo;
+
+    @Value("${banking.snapshots.backfill.parallelism:4}")
+    private int parallelism;
+
+    private record Key(String accountNumber, String day) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Instant until = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Query first = new Query().with(Sort.by("_id")).limit(1);
+        first.fields().include("_id");
+        Transaction oldest = mongo.findOne(first, Transaction.class);
+
+        Query stale = Query.query(Criteria.where("day").lt(DailyBalanceService.day(until)));
+        long removed = mongo.remove(stale, DailyBalance.class).getDeletedCount();
+        mongo.remove(stale, DailyBalanceBucket.class);
+        if (oldest == null || !ObjectId.isValid(oldest.getId())) {
+            log.info("Daily balance backfill: nothing to do ({} stale snapshots removed)", removed);
+            return;
+        }
+
+        Instant start = new ObjectId(oldest.getId()).getDate().toInstant().truncatedTo(ChronoUnit.DAYS);
+        List<Instant> chunkStarts = new ArrayList<>();
+        for (Instant day = start; day.isBefore(until); day = day.plus(1, ChronoUnit.DAYS)) chunkStarts.add(day);
+
+        AtomicLong txns = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int i = 0; i < chunkStarts.size(); i++) {
+                Instant from = chunkStarts.get(i);
+                // The last chunk is open-ended: a write from just before midnight may have been inserted after it.
+                Instant to = i == chunkStarts.size() - 1 ? null : chunkStarts.get(i + 1);
+                chunks.add(pool.submit(() -> txns.addAndGet(aggregate(from, to, until))));
+            }
+            for (Future<?> chunk : chunks) chunk.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long snapshots = chain();
+        log.info("Daily balance backfill: {} transactions over {} days into {} snapshots", txns.get(), chunkStarts.size(), snapshots);
+    }
+
+    private long aggregate(Instant from, Instant to, Instant until) {
+        Criteria ids = Criteria.where("_id").gte(ObjectId.getSmallestWithDate(Date.from(from)));
+        if (to != null) ids.lt(ObjectId.getSmallestWithDate(Date.from(to)));
+        Query query = Query.query(ids);
+        query.fields().include("type").include("amount").include("timestamp").include("sourceAccount").include("destinationAccount");
+
+        Map<Key, long[]> totals = new HashMap<>();
+        long count = 0;
+        try (Stream<Transaction> stream = mongo.stream(query, Transaction.class)) {
+            for (Transaction txn : (Iterable<Transaction>) stream::iterator) {
+                if (txn.getTimestamp() == null || !txn.getTimestamp().isBefore(until)) continue;
+                String day = DailyBalanceService.day(txn.getTimestamp());
+                for (DailyBalanceService.Leg leg : DailyBalanceService.legs(txn)) {
+                    long[] t = totals.computeIfAbsent(new Key(leg.accountNumber(), day), k -> new long[3]);
+                    t[0] += leg.credit();
+                    t[1] += leg.debit();
+                    t[2]++;
+                }
+                count++;
+            }
+        }
+
+        BulkOperations bulk = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyBalance.class);
+        int pending = 0;
+        for (Map.Entry<Key, long[]> e : totals.entrySet()) {
+            long[] t = e.getValue();
+            bulk.upsert(Query.query(Criteria.where("accountNumber").is(e.getKey().accountNumber()).and("day").is(e.getKey().day())),
+                    new Update().inc("credits", t[0]).inc("debits", t[1]).inc("count", t[2]));
+            if (++pending == BULK_SIZE) {
+                bulk.execute();
+                bulk = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyBalance.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) bulk.execute();
+        return count;
+    }
+
+    // Increments rather than sets, so a live update to today's snapshot during the pass is kept.
+    private long chain() {
+        Query all = new Query().with(Sort.by("accountNumber", "day"));
+        BulkOperations bulk = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyBalance.class);
+        int pending = 0;
+        long snapshots = 0;
+        String account = null;
+        long balance = 0;
+        try (Stream<DailyBalance> stream = mongo.stream(all, DailyBalance.class)) {
+            for (DailyBalance d : (Iterable<DailyBalance>) stream::iterator) {
+                if (!d.getAccountNumber().equals(account)) {
+                    account = d.getAccountNumber();
+                    balance = 0;
+                }
+                long opening = balance;
+                balance = opening + d.getCredits() - d.getDebits();
+                snapshots++;
+                if (d.getOpening() == opening && d.getClosing() == balance) continue;
+
+                bulk.updateOne(Query.query(Criteria.where("_id").is(d.getId())),
+                        new Update().inc("opening", opening - d.getOpening()).inc("closing", balance - d.getClosing()));
+                if (++pending == BULK_SIZE) {
+                    bulk.execute();
+                    bulk = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyBalance.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) bulk.execute();
+        return snapshots;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bankingsystem.migration;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-shot conversion of legacy {@code double} money fields to minor-unit {@code long}s.
+ * <p>
+ * Runs entirely server-side as a pipeline update per collection and only touches documents
+ * whose field is still stored as a double, so re-running it is a no-op. Enable with
+ * {@code banking.migration.minor-units.enabled=true} for a single start-up.
+ * <p>
+ * It runs as soon as the {@link MongoTemplate} is initialised, before any repository, cache or
+ * the ledger is handed the template and before the web server starts, so no request and no
+ * start-up preload ever sees a half-converted collection.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.migration.minor-units.enabled", havingValue = "true")
+@Slf4j
+public class MinorUnitsMigration implements BeanPostProcessor {
+
+    private final long scale;
+
+    public MinorUnitsMigration(@Value("${banking.migration.minor-units.scale:100}") long scale) {
+        this.scale = scale;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof MongoTemplate mongo) migrate(mongo);
+        return bean;
+    }
+
+    void migrate(MongoTemplate mongo) {
+        long accounts = convert(mongo, Account.class, "balance");
+        long txns = convert(mongo, Transaction.class, "amount");
+        log.info("Minor-units migration converted {} accounts and {} transactions (scale {})", accounts, txns, scale);
+    }
+
+    private long convert(MongoTemplate mongo, Class<?> type, String field) {
+        Query legacy = Query.query(Criteria.where(field).type(JsonSchemaObject.Type.doubleType()));
+        AggregationUpdate toMinorUnits = AggregationUpdate.update()
+                .set(field).toValue(ConvertOperators.valueOf(
+                        ArithmeticOperators.valueOf(
+                                ArithmeticOperators.valueOf(field).multiplyBy(scale)).round()).convertToLong());
+        return mongo.updateMulti(legacy, toMinorUnits, type).getModifiedCount();
+    }
+}
@@ -0,0 +1,107 @@
+package com.bankingsystem.migration;
+
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.service.PostingWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * One-shot fill of {@code postings} from the {@code transactions} written before the postings
+ * existed. Enable with {@code banking.postings.backfill.enabled=true} for a single start-up, with
+ * the application already writing postings; re-running it is safe, since postings already there
+ * are skipped.
+ * <p>
+ * Transactions are read in parallel chunks of one day of {@code _id}, as in
+ * {@link DailyBalanceBackfill}, and their postings inserted in unordered batches.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.postings.backfill.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PostingBackfill implements ApplicationRunner {
+
+    private static final int BULK_SIZE = 1000;
+
+    private final MongoTemplate mongo;
+
+    @Value("${banking.postings.backfill.parallelism:4}")
+    private int parallelism;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Query first = new Query().with(Sort.by("_id")).limit(1);
+        first.fields().include("_id");
+        Transaction oldest = mongo.findOne(first, Transaction.class);
+        if (oldest == null || !ObjectId.isValid(oldest.getId())) {
+            log.info("Posting backfill: nothing to do");
+            return;
+        }
+
+        Instant start = new ObjectId(oldest.getId()).getDate().toInstant().truncatedTo(ChronoUnit.DAYS);
+        Instant now = Instant.now();
+        List<Instant> chunkStarts = new ArrayList<>();
+        for (Instant day = start; day.isBefore(now); day = day.plus(1, ChronoUnit.DAYS)) chunkStarts.add(day);
+
+        AtomicLong txns = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int i = 0; i < chunkStarts.size(); i++) {
+                Instant from = chunkStarts.get(i);
+                Instant to = i == chunkStarts.size() - 1 ? null : chunkStarts.get(i + 1);
+                chunks.add(pool.submit(() -> txns.addAndGet(copy(from, to))));
+            }
+            for (Future<?> chunk : chunks) chunk.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Posting backfill: {} transactions over {} days", txns.get(), chunkStarts.size());
+    }
+
+    private long copy(Instant from, Instant to) {
+        Criteria ids = Criteria.where("_id").gte(ObjectId.getSmallestWithDate(Date.from(from)));
+        if (to != null) ids.lt(ObjectId.getSmallestWithDate(Date.from(to)));
+
+        List<Transaction> batch = new ArrayList<>(BULK_SIZE);
+        long count = 0;
+        try (Stream<Transaction> stream = mongo.stream(Query.query(ids), Transaction.class)) {
+            for (Transaction txn : (Iterable<Transaction>) stream::iterator) {
+                batch.add(txn);
+                count++;
+                if (batch.size() == BULK_SIZE) {
+                    insert(batch);
+                    batch.clear();
+                }
+            }
+        }
+        insert(batch);
+        return count;
+    }
+
+    private void insert(List<Transaction> txns) {
+        List<Posting> postings = PostingWriter.postings(txns);
+        PostingWriter.insert(mongo, postings);
+    }
+}
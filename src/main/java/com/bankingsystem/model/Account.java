@@ -15,7 +15,7 @@ import java.time.Instant;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Account {
     @Id
     private String id;
@@ -25,7 +25,8 @@ public class Account {
 
     private String holderName;
 
-    private double balance;
+    // Minor currency units (e.g. cents).
+    private long balance;
 
     private String status;
 
@@ -34,4 +35,8 @@ public class Account {
     @Version
     private Long version;
 
+    // Postings written for this account so far, which is also the sequence number of the latest one.
+    // Null until the first movement after postings were numbered.
+    private Long sequence;
+
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.bankingsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One slice of a hot account's balance. Credits land on a random bucket instead of the account
+ * document, so concurrent deposits update different documents. The account's balance is its
+ * document's balance plus all of its buckets.
+ */
+@Document(collection = "account_buckets")
+@CompoundIndex(name = "account_bucket", def = "{'accountNumber': 1, 'bucket': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountBucket {
+    @Id
+    private String id;
+
+    private String accountNumber;
+    private int bucket;
+
+    // Minor currency units, like Account.balance; never negative.
+    private long balance;
+}
@@ -0,0 +1,37 @@
+package com.bankingsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One account's activity on one UTC day. Only days with activity have a document; a day's
+ * opening is the closing of the account's previous document.
+ */
+@Document(collection = "daily_balances")
+@CompoundIndex(name = "account_day", def = "{'accountNumber': 1, 'day': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyBalance {
+    @Id
+    private String id;
+
+    private String accountNumber;
+
+    // ISO-8601 date (yyyy-MM-dd), so it sorts and range-queries as text.
+    private String day;
+
+    // Minor currency units, like Account.balance.
+    private long opening;
+    private long closing;
+    private long credits;
+    private long debits;
+
+    private long count;
+}
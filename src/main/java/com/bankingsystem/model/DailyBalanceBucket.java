@@ -0,0 +1,37 @@
+package com.bankingsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One slice of a hot account's activity on one UTC day. A hot account's movements increment a
+ * random bucket instead of its {@link DailyBalance}, so concurrent deposits update different
+ * documents. Buckets have no opening or closing: a statement adds every bucket's net up to a day
+ * to the snapshots' balances.
+ */
+@Document(collection = "daily_balance_buckets")
+@CompoundIndex(name = "account_day_bucket", def = "{'accountNumber': 1, 'day': 1, 'bucket': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyBalanceBucket {
+    @Id
+    private String id;
+
+    private String accountNumber;
+    // ISO-8601 date, like DailyBalance.day.
+    private String day;
+    private int bucket;
+
+    // Minor currency units.
+    private long credits;
+    private long debits;
+
+    private long count;
+}
@@ -0,0 +1,33 @@
+package com.bankingsystem.model;
+
+import com.bankingsystem.model.dto.ApiResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    // The client's Idempotency-Key.
+    @Id
+    private String key;
+
+    // Operation and arguments of the first request, so a key reused for something else is refused.
+    private String fingerprint;
+
+    // Null while the first request is still running.
+    private ApiResponse response;
+
+    // Mongo's TTL monitor removes the key a day after it was first seen.
+    @Indexed(expireAfter = "24h")
+    private Instant createdAt;
+}
@@ -0,0 +1,53 @@
+package com.bankingsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One account's side of a money movement, waiting in the outbox for the publisher. A transfer
+ * produces two: a debit on the source and a credit on the destination.
+ */
+@Document(collection = "outbox")
+@CompoundIndex(name = "pending", def = "{'publishedAt': 1, '_id': 1}")
+// The publisher pulls in an account's later pending events along with the first it delivers.
+@CompoundIndex(name = "account_pending", def = "{'accountNumber': 1, 'publishedAt': 1, 'sequence': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    // ObjectId; the publisher picks accounts to deliver in _id order.
+    @Id
+    private String id;
+
+    // transactionId:accountNumber. Unique, so replaying a movement cannot queue its event twice;
+    // consumers deduplicate redeliveries on it.
+    @Indexed(unique = true)
+    private String eventId;
+
+    private String accountNumber;
+    // The leg's posting sequence on the account, which the publisher delivers the account's events
+    // in. Null on events of hot accounts and the in-memory ledger, which go in _id order.
+    private Long sequence;
+    private String transactionId;
+    private String type;
+    // Minor currency units; exactly one of the two is non-zero.
+    private long credit;
+    private long debit;
+    // The other side of a transfer, null otherwise.
+    private String counterparty;
+    private Instant occurredAt;
+    private Instant createdAt;
+
+    // Null until delivered; published events are removed a week later.
+    @Indexed(expireAfter = "7d")
+    private Instant publishedAt;
+}
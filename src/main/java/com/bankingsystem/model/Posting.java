@@ -0,0 +1,67 @@
+package com.bankingsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One account's side of a transaction: a deposit or withdrawal has one, a transfer two. Every
+ * posting belongs to exactly one account, so {@code postings} can be sharded on
+ * {@code accountNumber} and an account's history is a range of one index on one shard, where the
+ * {@code transactions} collection needs an {@code $or} over source and destination.
+ * <p>
+ * Postings are never updated. Each carries the balance it left and the account's sequence number,
+ * so the balance at any instant is the newest posting before it, and a missing posting shows as
+ * a sequence count short of the account's {@link Account#getSequence() sequence}.
+ */
+@Document(collection = "postings")
+@CompoundIndex(name = "account_history", def = "{'accountNumber': 1, 'timestamp': -1, '_id': -1}")
+// Prefixed by the shard key, so it stays enforceable once the collection is sharded.
+@CompoundIndex(name = "account_transaction", def = "{'accountNumber': 1, 'transactionId': 1}", unique = true)
+// Postings written before numbering, or by the in-memory ledger, have no sequence and are left out.
+@CompoundIndex(name = "account_sequence", def = "{'accountNumber': 1, 'sequence': 1}", unique = true,
+        partialFilter = "{'sequence': {'$exists': true}}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Posting {
+    @Id
+    private String id;
+
+    private String accountNumber;
+    private String transactionId;
+    private String type;
+    // Minor currency units; exactly one of the two is non-zero.
+    private long credit;
+    private long debit;
+    // The other side of a transfer, null otherwise.
+    private String counterparty;
+    private Instant timestamp;
+    private String status;
+    // The account's balance after this posting, and the posting's place in the account's 1, 2, 3...
+    // sequence. Both null on postings written before numbering or by the in-memory ledger.
+    private Long balanceAfter;
+    private Long sequence;
+
+    /** The transaction as the history API shows it; the id is the posting's, which history cursors page on. */
+    public Transaction toTransaction() {
+        boolean incoming = credit > 0;
+        return Transaction.builder()
+                .id(id)
+                .transactionId(transactionId)
+                .type(type)
+                .amount(incoming ? credit : debit)
+                .timestamp(timestamp)
+                .status(status)
+                .sourceAccount(incoming && counterparty != null ? counterparty : accountNumber)
+                .destinationAccount(incoming ? (counterparty != null ? accountNumber : null) : counterparty)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.bankingsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+@Document(collection = "reconciliation_reports")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReport {
+    @Id
+    private String id;
+
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    private long accounts;
+    private long transactions;
+
+    // Every confirmed discrepancy is counted; only the first few thousand are listed.
+    private long discrepancyCount;
+    private List<Discrepancy> discrepancies;
+
+    // Accounts with fewer numbered postings than their sequence says were written.
+    private long sequenceGapCount;
+    private List<SequenceGap> sequenceGaps;
+
+    /**
+     * An account whose stored balance is not the sum of its transactions. {@code balance} is null
+     * when transactions reference an account that does not exist.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Discrepancy {
+        private String accountNumber;
+        private Long balance;
+        private long ledgerBalance;
+        private long transactions;
+    }
+
+    /**
+     * An account missing numbered postings: {@code sequence} were written, {@code postings} are
+     * there, and {@code missing} lists the first few absent sequence numbers.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SequenceGap {
+        private String accountNumber;
+        private long sequence;
+        private long postings;
+        private List<Long> missing;
+    }
+}
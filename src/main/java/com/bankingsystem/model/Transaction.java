@@ -5,12 +5,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "transactions")
+@CompoundIndex(name = "source_history", def = "{'sourceAccount': 1, 'timestamp': -1, '_id': -1}")
+@CompoundIndex(name = "destination_history", def = "{'destinationAccount': 1, 'timestamp': -1, '_id': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,7 +27,8 @@ public class Transaction {
 
     private String type;
 
-    private double amount;
+    // Minor currency units (e.g. cents).
+    private long amount;
 
     private Instant timestamp;
 
@@ -0,0 +1,18 @@
+package com.bankingsystem.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceAt {
+    private String accountNumber;
+    private Instant at;
+    private long balance;
+    // Sequence number of the last posting at or before the instant; null when that posting is unnumbered or there is none.
+    private Long sequence;
+}
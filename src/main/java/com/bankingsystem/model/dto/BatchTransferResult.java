@@ -0,0 +1,16 @@
+package com.bankingsystem.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResult {
+    // Position of the transfer in the submitted batch.
+    private int index;
+    private boolean success;
+    private String transactionId;
+    private String message;
+}
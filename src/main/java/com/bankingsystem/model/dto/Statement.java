@@ -0,0 +1,25 @@
+package com.bankingsystem.model.dto;
+
+import com.bankingsystem.model.DailyBalance;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Statement {
+    private String accountNumber;
+    private LocalDate from;
+    private LocalDate to;
+    private long opening;
+    private long closing;
+    private long credits;
+    private long debits;
+    private long count;
+    // Days with activity, oldest first.
+    private List<DailyBalance> days;
+}
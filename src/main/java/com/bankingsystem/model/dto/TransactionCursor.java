@@ -0,0 +1,39 @@
+package com.bankingsystem.model.dto;
+
+import com.bankingsystem.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in an account's history, ordered by (timestamp, id) descending.
+ * Clients only ever see the opaque {@link #encode() token}.
+ */
+@Data
+@AllArgsConstructor
+public class TransactionCursor {
+    private Instant timestamp;
+    private String id;
+
+    public static TransactionCursor after(Transaction txn) {
+        return new TransactionCursor(txn.getTimestamp(), txn.getId());
+    }
+
+    public String encode() {
+        String raw = timestamp.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new TransactionCursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))), raw.substring(sep + 1));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
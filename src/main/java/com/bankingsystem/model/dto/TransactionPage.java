@@ -0,0 +1,17 @@
+package com.bankingsystem.model.dto;
+
+import com.bankingsystem.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+    private List<Transaction> transactions;
+    // Null on the last page.
+    private String nextCursor;
+}
@@ -13,5 +13,5 @@ public class TransferRequest {
     private String toAccount;
 
     @Positive
-    private double amount;
+    private long amount;
 }
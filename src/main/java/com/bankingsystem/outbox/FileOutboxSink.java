@@ -0,0 +1,55 @@
+package com.bankingsystem.outbox;
+
+import com.bankingsystem.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each batch to a newline-delimited JSON file and forces it to disk before
+ * acknowledging, for consumers that tail the file or ship it elsewhere.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.outbox.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "banking.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final FileChannel channel;
+    private final ObjectWriter writer;
+
+    public FileOutboxSink(@Value("${banking.outbox.file.path:outbox/events.ndjson}") Path path, ObjectMapper mapper) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = mapper.writerFor(OutboxEvent.class);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() * 256);
+        for (OutboxEvent event : events) {
+            writer.writeValue(out, event);
+            out.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        while (buffer.hasRemaining()) channel.write(buffer);
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
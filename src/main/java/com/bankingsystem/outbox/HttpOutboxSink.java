@@ -0,0 +1,59 @@
+package com.bankingsystem.outbox;
+
+import com.bankingsystem.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts each batch as newline-delimited JSON to a broker's HTTP ingest endpoint (a REST proxy
+ * in front of the topic, or the local stub in the benchmarks). Any non-2xx answer fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.outbox.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "banking.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final HttpClient http;
+    private final URI url;
+    private final Duration timeout;
+    private final ObjectWriter writer;
+
+    public HttpOutboxSink(@Value("${banking.outbox.http.url}") URI url,
+                          @Value("${banking.outbox.http.timeout:5s}") Duration timeout,
+                          ObjectMapper mapper) {
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.url = url;
+        this.timeout = timeout;
+        this.writer = mapper.writerFor(OutboxEvent.class);
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException, InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() * 256);
+        for (OutboxEvent event : events) {
+            writer.writeValue(out, event);
+            out.write('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(out.toByteArray()))
+                .build();
+        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox endpoint answered " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.bankingsystem.outbox;
+
+import com.bankingsystem.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Drains the outbox into the configured {@link OutboxSink} on a background thread.
+ * <p>
+ * Each round reads the oldest undelivered events in {@code _id} order, hands them to the sink
+ * as one batch and only then marks them published. A crash or sink failure in between means
+ * the batch is delivered again: at least once, never skipped. The outbox is polled only while
+ * it is idle; a full batch is followed straight away by the next.
+ * <p>
+ * Only the instance holding the {@code outbox_lease} document publishes, so events leave in one
+ * stream. A batch is marked published only if the lease is still this instance's once the sink has
+ * acknowledged it; a publisher that stalled past its lease leaves the batch to the new holder. Within an account they leave in the order of its posting sequence, not {@code _id}
+ * order: ObjectIds minted on instances with skewed clocks can invert two movements on the same
+ * account. An event commits in the same transaction as its balance change, so a lower-numbered
+ * event of an account is always committed before a higher one; the batch therefore pulls in the
+ * account's pending events numbered below the highest it holds, wherever their {@code _id}s fall,
+ * and sorts each account's numbered events by sequence. Unnumbered events (hot accounts, the
+ * in-memory ledger) keep their {@code _id} order.
+ * <p>
+ * {@code bank.outbox.lag} is the age of the oldest undelivered event, in seconds.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.outbox.enabled", havingValue = "true")
+@Slf4j
+public class OutboxPublisher implements Runnable {
+
+    static final String LEASES = "outbox_lease";
+    private static final String LEASE_ID = "publisher";
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final MongoOperations mongo;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final Duration leaseTtl;
+    private final String owner = UUID.randomUUID().toString();
+    private final Thread thread = new Thread(this, "outbox-publisher");
+    private volatile boolean running = true;
+    private volatile double lagSeconds = Double.NaN;
+    private Instant leaseRenewAt = Instant.MIN;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Counter lostLeases;
+    private final DistributionSummary batches;
+    private final Timer delivery;
+
+    public OutboxPublisher(MongoOperations mongo, OutboxSink sink, MeterRegistry registry,
+                           @Value("${banking.outbox.batch-size:500}") int batchSize,
+                           @Value("${banking.outbox.poll-interval:200ms}") Duration pollInterval,
+                           @Value("${banking.outbox.lease-ttl:30s}") Duration leaseTtl) {
+        this.mongo = mongo;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.leaseTtl = leaseTtl;
+        this.published = Counter.builder("bank.outbox.published")
+                .description("Outbox events delivered to the sink")
+                .register(registry);
+        this.failures = Counter.builder("bank.outbox.failures")
+                .description("Outbox rounds that failed and will be retried")
+                .register(registry);
+        this.lostLeases = Counter.builder("bank.outbox.lease.lost")
+                .description("Delivered outbox batches left pending because the lease had passed to another instance")
+                .register(registry);
+        this.batches = DistributionSummary.builder("bank.outbox.batch.size")
+                .description("Events per delivered outbox batch")
+                .register(registry);
+        this.delivery = Timer.builder("bank.outbox.delivery")
+                .description("Time from an event entering the outbox to the sink acknowledging it")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("bank.outbox.lag", this, p -> p.lagSeconds)
+                .description("Age of the oldest undelivered outbox event, in seconds; NaN on instances not publishing")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        long backoff = pollIntervalMillis;
+        while (running) {
+            try {
+                if (!holdLease()) {
+                    lagSeconds = Double.NaN;
+                    Thread.sleep(leaseTtl.toMillis() / 3);
+                    continue;
+                }
+                int delivered = publishBatch();
+                backoff = pollIntervalMillis;
+                if (delivered < batchSize) Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException ex) {
+                // stop() interrupts; the loop condition decides.
+            } catch (Exception ex) {
+                if (!running) break;
+                failures.increment();
+                log.warn("Outbox publishing failed, retrying in {} ms", backoff, ex);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    // As above.
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    int publishBatch() throws Exception {
+        Query pending = Query.query(Criteria.where("publishedAt").is(null)).with(Sort.by("_id")).limit(batchSize);
+        List<OutboxEvent> oldest = mongo.find(pending, OutboxEvent.class);
+        Instant now = Instant.now();
+        lagSeconds = oldest.isEmpty() ? 0 : Duration.between(oldest.get(0).getCreatedAt(), now).toMillis() / 1000.0;
+        if (oldest.isEmpty()) return 0;
+
+        List<OutboxEvent> events = inAccountOrder(oldest);
+        sink.publish(events);
+
+        Instant acked = Instant.now();
+        if (!renewLease(acked)) {
+            lostLeases.increment();
+            leaseRenewAt = Instant.MIN;
+            log.warn("Outbox publisher {} lost its lease while delivering {} events; leaving them to the new holder", owner, events.size());
+            return 0;
+        }
+        List<String> ids = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ids.add(event.getId());
+            delivery.record(Duration.between(event.getCreatedAt(), acked));
+        }
+        mongo.updateMulti(Query.query(Criteria.where("_id").in(ids)), new Update().set("publishedAt", acked), OutboxEvent.class);
+        published.increment(events.size());
+        batches.record(events.size());
+        return events.size();
+    }
+
+    // The batch plus every pending event numbered below the highest the batch holds for its account,
+    // grouped by account in order of first appearance, each account's numbered events by sequence.
+    List<OutboxEvent> inAccountOrder(List<OutboxEvent> oldest) {
+        Map<String, Long> highest = new HashMap<>();
+        for (OutboxEvent event : oldest) {
+            if (event.getSequence() != null) highest.merge(event.getAccountNumber(), event.getSequence(), Math::max);
+        }
+
+        Map<String, List<OutboxEvent>> byAccount = new LinkedHashMap<>();
+        Set<String> ids = new HashSet<>();
+        for (OutboxEvent event : oldest) {
+            ids.add(event.getId());
+            byAccount.computeIfAbsent(event.getAccountNumber(), k -> new ArrayList<>()).add(event);
+        }
+        if (!highest.isEmpty()) {
+            List<Criteria> lower = new ArrayList<>(highest.size());
+            highest.forEach((accNum, seq) -> lower.add(Criteria.where("accountNumber").is(accNum).and("sequence").lt(seq)));
+            Query stragglers = Query.query(Criteria.where("publishedAt").is(null).orOperator(lower));
+            for (OutboxEvent event : mongo.find(stragglers, OutboxEvent.class)) {
+                if (ids.add(event.getId())) byAccount.get(event.getAccountNumber()).add(event);
+            }
+        }
+
+        List<OutboxEvent> ordered = new ArrayList<>(ids.size());
+        for (List<OutboxEvent> events : byAccount.values()) {
+            // Numbered events take the numbered slots in sequence order; unnumbered ones stay put.
+            Iterator<OutboxEvent> numbered = events.stream()
+                    .filter(e -> e.getSequence() != null)
+                    .sorted(Comparator.comparing(OutboxEvent::getSequence))
+                    .iterator();
+            for (OutboxEvent event : events) ordered.add(event.getSequence() == null ? event : numbered.next());
+        }
+        return ordered;
+    }
+
+    // Extends the lease only if this instance still holds it, unexpired.
+    private boolean renewLease(Instant now) {
+        Query ours = Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(owner).and("expiresAt").gt(now));
+        if (mongo.updateFirst(ours, new Update().set("expiresAt", now.plus(leaseTtl)), LEASES).getMatchedCount() == 0) return false;
+        leaseRenewAt = now.plus(leaseTtl.dividedBy(3));
+        return true;
+    }
+
+    // Takes the lease when it is free or expired and renews it well before it runs out.
+    boolean holdLease() {
+        Instant now = Instant.now();
+        if (now.isBefore(leaseRenewAt)) return true;
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        try {
+            mongo.upsert(query, new Update().set("owner", owner).set("expiresAt", now.plus(leaseTtl)), LEASES);
+        } catch (DuplicateKeyException ex) {
+            // Someone else holds an unexpired lease: the upsert tried to insert a second "publisher".
+            leaseRenewAt = Instant.MIN;
+            return false;
+        }
+        if (leaseRenewAt == Instant.MIN) log.info("Outbox publisher {} took the lease", owner);
+        leaseRenewAt = now.plus(leaseTtl.dividedBy(3));
+        return true;
+    }
+}
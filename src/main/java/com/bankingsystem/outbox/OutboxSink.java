@@ -0,0 +1,17 @@
+package com.bankingsystem.outbox;
+
+import com.bankingsystem.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Where {@link OutboxPublisher} delivers events; chosen with {@code banking.outbox.sink}.
+ * <p>
+ * {@link #publish} returns only once the sink holds the whole batch, and throws otherwise. The
+ * publisher then retries the same batch, so a sink sees every event at least once, each
+ * account's events in order, and possibly some of them again after a failure.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
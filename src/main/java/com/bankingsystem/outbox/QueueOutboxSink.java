@@ -0,0 +1,55 @@
+package com.bankingsystem.outbox;
+
+import com.bankingsystem.model.OutboxEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands events to consumers in the same JVM through a bounded queue. A full queue fails the
+ * batch after {@code offer-timeout}, which holds the publisher back instead of dropping events.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.outbox.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "banking.outbox.sink", havingValue = "queue", matchIfMissing = true)
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue;
+    private final long offerTimeoutNanos;
+
+    public QueueOutboxSink(@Value("${banking.outbox.queue.capacity:10000}") int capacity,
+                           @Value("${banking.outbox.queue.offer-timeout:1s}") Duration offerTimeout,
+                           MeterRegistry registry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        Gauge.builder("bank.outbox.queue.size", queue, BlockingQueue::size)
+                .description("Published events not yet taken by an in-process consumer")
+                .register(registry);
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws InterruptedException {
+        for (OutboxEvent event : events) {
+            if (!queue.offer(event, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Outbox queue is full");
+            }
+        }
+    }
+
+    /** The next event, waiting up to {@code timeout}; null if none arrived. */
+    public OutboxEvent poll(Duration timeout) throws InterruptedException {
+        return queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public int drainTo(List<OutboxEvent> into, int max) {
+        return queue.drainTo(into, max);
+    }
+}
@@ -0,0 +1,101 @@
+package com.bankingsystem.outbox;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.OutboxEvent;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.service.PostingWriter;
+import com.bankingsystem.util.BulkInserts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the outbox events for a money movement. Every movement written through Mongo writes its
+ * events in the same Mongo transaction as its balance change: transfers, batches, coalesced writes,
+ * and single deposits and withdrawals, which {@code AccountService} sends through
+ * {@code TransferEngine} while the outbox is enabled. The in-memory ledger writes them idempotently
+ * from its write-behind and journal replay. An event is therefore never written for a movement that
+ * did not happen nor lost while its movement survives, and {@link OutboxPublisher} delivers it at
+ * least once.
+ * <p>
+ * Events carry the account's posting sequence where the caller knows the accounts' state after the
+ * movement, which {@link OutboxPublisher} orders each account's events by.
+ * <p>
+ * With {@code banking.outbox.enabled=false} nothing is written.
+ */
+@Component
+public class TransactionOutbox {
+
+    private final MongoOperations mongo;
+    private final boolean enabled;
+
+    public TransactionOutbox(MongoOperations mongo, @Value("${banking.outbox.enabled:false}") boolean enabled) {
+        this.mongo = mongo;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inserts {@code txn}'s events, numbered from {@code after}, its accounts as its balance updates
+     * left them (see {@link PostingWriter#postings(List, Collection)}); inside a Mongo transaction
+     * they commit or abort with it.
+     */
+    public void record(Transaction txn, Account... after) {
+        record(List.of(txn), Arrays.asList(after));
+    }
+
+    /** Inserts the events of {@code txns}, applied in list order, which left their accounts as {@code after}. */
+    public void record(List<Transaction> txns, Collection<Account> after) {
+        if (!enabled || txns.isEmpty()) return;
+        mongo.insert(fromPostings(PostingWriter.postings(txns, after)), OutboxEvent.class);
+    }
+
+    /**
+     * Inserts the events of {@code txns}, skipping any already in the outbox, so a retried or
+     * replayed write is harmless. Not for use inside a transaction.
+     */
+    public void recordIdempotently(Collection<Transaction> txns) {
+        if (!enabled || txns.isEmpty()) return;
+        BulkInserts.insertIgnoringDuplicates(mongo, OutboxEvent.class, events(txns));
+    }
+
+    private static List<OutboxEvent> events(Collection<Transaction> txns) {
+        return fromPostings(PostingWriter.postings(txns));
+    }
+
+    /** {@code txn}'s events, unnumbered. */
+    public static List<OutboxEvent> events(Transaction txn) {
+        return events(List.of(txn));
+    }
+
+    // One event per posting, carrying its sequence when it has one.
+    private static List<OutboxEvent> fromPostings(List<Posting> postings) {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = new ArrayList<>(postings.size());
+        for (Posting posting : postings) {
+            events.add(OutboxEvent.builder()
+                    .eventId(posting.getTransactionId() + ":" + posting.getAccountNumber())
+                    .accountNumber(posting.getAccountNumber())
+                    .sequence(posting.getSequence())
+                    .transactionId(posting.getTransactionId())
+                    .type(posting.getType())
+                    .credit(posting.getCredit())
+                    .debit(posting.getDebit())
+                    .counterparty(posting.getCounterparty())
+                    .occurredAt(posting.getTimestamp())
+                    .createdAt(now)
+                    .build());
+        }
+        return events;
+    }
+}
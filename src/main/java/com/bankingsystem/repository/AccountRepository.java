@@ -4,11 +4,14 @@ import com.bankingsystem.model.Account;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends MongoRepository<Account, String> {
+public interface AccountRepository extends MongoRepository<Account, String>, AccountRepositoryCustom {
     Optional<Account> findByAccountNumber(String accountNumber);
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
     boolean existsByAccountNumber(String accountNumber);
     void deleteByAccountNumber(String accountNumber);
 }
\ No newline at end of file
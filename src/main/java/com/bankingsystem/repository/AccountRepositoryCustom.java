@@ -0,0 +1,46 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Account;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Server-side balance mutations. Each call is a single conditional findAndModify,
+ * so concurrent writers on the same account never have to re-read and retry. Every movement also
+ * advances the account's posting sequence in the same update.
+ */
+public interface AccountRepositoryCustom {
+
+    /**
+     * Adds {@code amount} to the balance only if the result still fits in a {@code long}.
+     *
+     * @return the updated account, or empty if the account does not exist or would overflow
+     */
+    Optional<Account> credit(String accountNumber, long amount);
+
+    /**
+     * Subtracts {@code amount} from the balance only if the balance covers it.
+     *
+     * @return the updated account, or empty if the account does not exist or has insufficient funds
+     */
+    Optional<Account> debit(String accountNumber, long amount);
+
+    /**
+     * Adds {@code delta} to the balance and advances the sequence by {@code postings}, only if the
+     * account is still at {@code version}: the caller has already checked the movements against
+     * the balance it read at that version.
+     *
+     * @return the updated account, or empty if the account does not exist or has changed since
+     */
+    Optional<Account> applyBalanceDelta(String accountNumber, Long version, long delta, int postings);
+
+    /**
+     * Applies net balance changes per account in one ordered bulk write and advances each account's
+     * sequence by its number of {@code postings} (none for an account missing from it). Negative
+     * deltas are guarded so the balance cannot go below zero, positive ones so it cannot overflow.
+     *
+     * @return true if every account matched; false if one is missing or its guard failed
+     */
+    boolean applyBalanceDeltas(Map<String, Long> deltas, Map<String, Integer> postings);
+}
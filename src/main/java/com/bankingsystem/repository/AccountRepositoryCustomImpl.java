@@ -0,0 +1,75 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoOperations mongo;
+
+    @Override
+    public Optional<Account> credit(String accountNumber, long amount) {
+        return Optional.ofNullable(mongo.findAndModify(creditQuery(accountNumber, amount), balanceDelta(amount), RETURN_NEW, Account.class));
+    }
+
+    @Override
+    public Optional<Account> debit(String accountNumber, long amount) {
+        return Optional.ofNullable(mongo.findAndModify(debitQuery(accountNumber, amount), balanceDelta(-amount), RETURN_NEW, Account.class));
+    }
+
+    @Override
+    public Optional<Account> applyBalanceDelta(String accountNumber, Long version, long delta, int postings) {
+        Query query = Query.query(Criteria.where("accountNumber").is(accountNumber).and("version").is(version));
+        return Optional.ofNullable(mongo.findAndModify(query, balanceDelta(delta, postings), RETURN_NEW, Account.class));
+    }
+
+    @Override
+    public boolean applyBalanceDeltas(Map<String, Long> deltas, Map<String, Integer> postings) {
+        if (deltas.isEmpty()) return true;
+
+        BulkOperations bulk = mongo.bulkOps(BulkOperations.BulkMode.ORDERED, Account.class);
+        deltas.forEach((accountNumber, delta) -> {
+            Criteria criteria = Criteria.where("accountNumber").is(accountNumber);
+            if (delta < 0) criteria = criteria.and("balance").gte(-delta);
+            if (delta > 0) criteria = criteria.and("balance").lte(Long.MAX_VALUE - delta);
+            bulk.updateOne(Query.query(criteria), balanceDelta(delta, postings.getOrDefault(accountNumber, 0)));
+        });
+        return bulk.execute().getMatchedCount() == deltas.size();
+    }
+
+    static Query creditQuery(String accountNumber, long amount) {
+        return Query.query(Criteria.where("accountNumber").is(accountNumber)
+                .and("balance").lte(Long.MAX_VALUE - amount));
+    }
+
+    static Query debitQuery(String accountNumber, long amount) {
+        return Query.query(Criteria.where("accountNumber").is(accountNumber)
+                .and("balance").gte(amount));
+    }
+
+    static Update balanceDelta(long delta) {
+        return balanceDelta(delta, 1);
+    }
+
+    // Bump the version too, so read-modify-write paths still using save() detect the change.
+    static Update balanceDelta(long delta, int postings) {
+        return new Update().inc("balance", delta).inc("version", 1).inc("sequence", postings);
+    }
+
+    // For writers that record no posting: a sequence number without one would read as a lost posting.
+    static Update unnumberedBalanceDelta(long delta) {
+        return new Update().inc("balance", delta).inc("version", 1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Posting;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Point reads on one account's postings, on indexes prefixed by the account number. They use the
+ * read-only read preference, like the history reads.
+ */
+public interface PostingRepositoryCustom {
+
+    /**
+     * The account's latest posting with {@code timestamp <= at}: the newest one on the history
+     * index, or, if that one is numbered, the numbered posting with the highest sequence at most a
+     * fixed distance above it, since concurrent writes can be stamped out of sequence order. Both
+     * reads scan a bounded range of one index.
+     */
+    Optional<Posting> findLatestAt(String accountNumber, Instant at);
+
+    /**
+     * Sum of credits minus debits over the postings with {@code timestamp <= at}, for accounts whose
+     * postings carry no running balance.
+     */
+    long sumUntil(String accountNumber, Instant at);
+}
@@ -0,0 +1,56 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Posting;
+import com.mongodb.ReadPreference;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PostingRepositoryCustomImpl implements PostingRepositoryCustom {
+
+    private static final Sort HIGHEST_SEQUENCE = Sort.by(Sort.Direction.DESC, "sequence");
+    // How far stamping order can run behind sequence order. Only writes in flight on one account at
+    // the same moment can swap, and per-account rate limits keep those far below this.
+    private static final long SEQUENCE_SKEW = 128;
+
+    private final MongoOperations mongo;
+    private final ReadPreference readOnlyReadPreference;
+
+    @Override
+    public Optional<Posting> findLatestAt(String accountNumber, Instant at) {
+        Query newest = Query.query(Criteria.where("accountNumber").is(accountNumber).and("timestamp").lte(at))
+                .with(TransactionRepositoryCustomImpl.NEWEST_FIRST).limit(1)
+                .withReadPreference(readOnlyReadPreference);
+        Posting posting = mongo.findOne(newest, Posting.class);
+        if (posting == null || posting.getSequence() == null) return Optional.ofNullable(posting);
+
+        // A posting is stamped before its balance update commits, so two concurrent ones can be
+        // stamped in the opposite order to their sequence; the highest sequence is the later balance.
+        // Only concurrent writes can swap, so the range past the newest posting's sequence is short.
+        Query highest = Query.query(Criteria.where("accountNumber").is(accountNumber)
+                        .and("sequence").gte(posting.getSequence()).lte(posting.getSequence() + SEQUENCE_SKEW)
+                        .and("timestamp").lte(at))
+                .with(HIGHEST_SEQUENCE).limit(1)
+                .withReadPreference(readOnlyReadPreference);
+        return Optional.ofNullable(mongo.findOne(highest, Posting.class)).or(() -> Optional.of(posting));
+    }
+
+    @Override
+    public long sumUntil(String accountNumber, Instant at) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("accountNumber").is(accountNumber).and("timestamp").lte(at)),
+                Aggregation.group("accountNumber").sum(ArithmeticOperators.valueOf("credit").subtract("debit")).as("net"))
+                .withOptions(Aggregation.newAggregationOptions().readPreference(readOnlyReadPreference).build());
+        Document row = mongo.aggregate(aggregation, Posting.class, Document.class).getUniqueMappedResult();
+        return row == null ? 0 : ((Number) row.get("net")).longValue();
+    }
+}
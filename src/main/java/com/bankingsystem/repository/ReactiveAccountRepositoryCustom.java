@@ -0,0 +1,14 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Account;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link AccountRepositoryCustom}; same single findAndModify per call.
+ * Each Mono completes empty where the blocking variant returns {@code Optional.empty()}. The
+ * reactive stack writes no postings, so these leave the account's sequence alone.
+ */
+public interface ReactiveAccountRepositoryCustom {
+    Mono<Account> credit(String accountNumber, long amount);
+    Mono<Account> debit(String accountNumber, long amount);
+}
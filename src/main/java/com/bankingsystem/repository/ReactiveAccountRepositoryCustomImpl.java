@@ -0,0 +1,24 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import reactor.core.publisher.Mono;
+
+import static com.bankingsystem.repository.AccountRepositoryCustomImpl.*;
+
+@RequiredArgsConstructor
+public class ReactiveAccountRepositoryCustomImpl implements ReactiveAccountRepositoryCustom {
+
+    private final ReactiveMongoOperations mongo;
+
+    @Override
+    public Mono<Account> credit(String accountNumber, long amount) {
+        return mongo.findAndModify(creditQuery(accountNumber, amount), unnumberedBalanceDelta(amount), RETURN_NEW, Account.class);
+    }
+
+    @Override
+    public Mono<Account> debit(String accountNumber, long amount) {
+        return mongo.findAndModify(debitQuery(accountNumber, amount), unnumberedBalanceDelta(-amount), RETURN_NEW, Account.class);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Transaction;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveTransactionRepository extends ReactiveMongoRepository<Transaction, String>, ReactiveTransactionRepositoryCustom {
+}
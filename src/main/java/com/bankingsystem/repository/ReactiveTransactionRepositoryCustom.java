@@ -0,0 +1,19 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.TransactionCursor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link TransactionRepositoryCustom}, over the same indexes.
+ */
+public interface ReactiveTransactionRepositoryCustom {
+
+    Flux<Transaction> findHistoryPage(String accountNumber, TransactionCursor after, int limit);
+
+    /**
+     * The whole history, newest first. Documents are requested from the cursor only as fast as
+     * the subscriber demands them.
+     */
+    Flux<Transaction> streamHistory(String accountNumber);
+}
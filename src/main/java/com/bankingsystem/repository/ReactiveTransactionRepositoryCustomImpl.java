@@ -0,0 +1,28 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.TransactionCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import static com.bankingsystem.repository.TransactionRepositoryCustomImpl.*;
+
+@RequiredArgsConstructor
+public class ReactiveTransactionRepositoryCustomImpl implements ReactiveTransactionRepositoryCustom {
+
+    private final ReactiveMongoOperations mongo;
+
+    @Override
+    public Flux<Transaction> findHistoryPage(String accountNumber, TransactionCursor after, int limit) {
+        Query query = Query.query(involving(accountNumber, after)).with(NEWEST_FIRST).limit(limit);
+        return mongo.find(query, Transaction.class);
+    }
+
+    @Override
+    public Flux<Transaction> streamHistory(String accountNumber) {
+        Query query = Query.query(involving(accountNumber, null)).with(NEWEST_FIRST).cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongo.find(query, Transaction.class);
+    }
+}
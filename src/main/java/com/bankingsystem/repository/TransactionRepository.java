@@ -7,6 +7,6 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
+public interface TransactionRepository extends MongoRepository<Transaction, String>, TransactionRepositoryCustom {
     List<Transaction> findBySourceAccountOrDestinationAccount(String source, String dest);
 }
\ No newline at end of file
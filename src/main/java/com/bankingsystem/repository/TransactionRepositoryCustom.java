@@ -0,0 +1,32 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.TransactionCursor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Account history reads. They are served from the account's postings, one range of the
+ * (accountNumber, timestamp, _id) index on the one shard holding the account, and returned as the
+ * transactions they belong to. The history reads use the read-only read preference, so they may
+ * lag the primary by up to the configured max staleness.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Up to {@code limit} transactions strictly older than {@code after}, or the newest ones when it is null.
+     */
+    List<Transaction> findHistoryPage(String accountNumber, TransactionCursor after, int limit);
+
+    /**
+     * The whole history backed by a live Mongo cursor. Callers must close the stream.
+     */
+    Stream<Transaction> streamHistory(String accountNumber);
+
+    /**
+     * Transactions with {@code from <= timestamp < until}, oldest first.
+     */
+    List<Transaction> findBetween(String accountNumber, Instant from, Instant until);
+}
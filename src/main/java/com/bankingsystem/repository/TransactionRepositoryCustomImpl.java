@@ -0,0 +1,73 @@
+package com.bankingsystem.repository;
+
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.TransactionCursor;
+import com.mongodb.ReadPreference;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp", "_id");
+    static final Sort OLDEST_FIRST = Sort.by(Sort.Direction.ASC, "timestamp", "_id");
+    static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoOperations mongo;
+    private final ReadPreference readOnlyReadPreference;
+
+    @Override
+    public List<Transaction> findHistoryPage(String accountNumber, TransactionCursor after, int limit) {
+        Query query = Query.query(postingsOf(accountNumber, after)).with(NEWEST_FIRST).limit(limit)
+                .withReadPreference(readOnlyReadPreference);
+        return mongo.find(query, Posting.class).stream().map(Posting::toTransaction).toList();
+    }
+
+    @Override
+    public Stream<Transaction> streamHistory(String accountNumber) {
+        Query query = Query.query(postingsOf(accountNumber, null)).with(NEWEST_FIRST).cursorBatchSize(STREAM_BATCH_SIZE)
+                .withReadPreference(readOnlyReadPreference);
+        return mongo.stream(query, Posting.class).map(Posting::toTransaction);
+    }
+
+    @Override
+    public List<Transaction> findBetween(String accountNumber, Instant from, Instant until) {
+        Query query = Query.query(Criteria.where("accountNumber").is(accountNumber).and("timestamp").gte(from).lt(until))
+                .with(OLDEST_FIRST);
+        return mongo.find(query, Posting.class).stream().map(Posting::toTransaction).toList();
+    }
+
+    static Criteria postingsOf(String accountNumber, TransactionCursor after) {
+        Criteria criteria = Criteria.where("accountNumber").is(accountNumber);
+        return after == null ? criteria : criteria.orOperator(olderThan(after));
+    }
+
+    // Used by the reactive repository, which still reads the transactions collection.
+    // The keyset bound is repeated inside each $or branch so every branch is a bounded scan of its own index.
+    static Criteria involving(String accountNumber, TransactionCursor after) {
+        Criteria source = Criteria.where("sourceAccount").is(accountNumber);
+        Criteria destination = Criteria.where("destinationAccount").is(accountNumber);
+        if (after != null) {
+            source.orOperator(olderThan(after));
+            destination.orOperator(olderThan(after));
+        }
+        return new Criteria().orOperator(source, destination);
+    }
+
+    private static Criteria[] olderThan(TransactionCursor after) {
+        Object id = ObjectId.isValid(after.getId()) ? new ObjectId(after.getId()) : after.getId();
+        return new Criteria[]{
+                Criteria.where("timestamp").lt(after.getTimestamp()),
+                Criteria.where("timestamp").is(after.getTimestamp()).and("_id").lt(id)
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of accounts keyed by account number.
+ * <p>
+ * Writers {@link #put} the account returned by their own update. Entries are merged by
+ * {@code @Version}, so a slow reader that loaded the account before a write can never
+ * overwrite the newer balance. Hit, miss and eviction counts are published as {@code cache.*}
+ * metrics tagged {@code cache=accounts}.
+ * <p>
+ * Misses are loaded outside the cache's per-key compute: that runs under a {@code synchronized}
+ * map bin, and a Mongo read inside it would pin the carrier thread when requests run on
+ * virtual threads. Concurrent misses on one key may both load; the version merge keeps the newest.
+ */
+@Component
+public class AccountCache {
+
+    private final Cache<String, Account> cache;
+
+    public AccountCache(@Value("${banking.cache.accounts.max-size:100000}") long maxSize,
+                        @Value("${banking.cache.accounts.ttl:30s}") Duration ttl,
+                        MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "accounts");
+    }
+
+    /**
+     * Returns the cached account, loading it on a miss. A loader returning null caches nothing.
+     */
+    public Account get(String accNum, Function<String, Account> loader) {
+        Account cached = cache.getIfPresent(accNum);
+        if (cached != null) return cached;
+
+        Account loaded = loader.apply(accNum);
+        if (loaded == null) return null;
+        return cache.asMap().merge(accNum, loaded, AccountCache::newer);
+    }
+
+    public void put(Account acc) {
+        cache.asMap().merge(acc.getAccountNumber(), acc, AccountCache::newer);
+    }
+
+    public void invalidate(String accNum) {
+        cache.invalidate(accNum);
+    }
+
+    private static Account newer(Account cached, Account fresh) {
+        if (cached.getVersion() == null || fresh.getVersion() == null) return fresh;
+        return fresh.getVersion() >= cached.getVersion() ? fresh : cached;
+    }
+}
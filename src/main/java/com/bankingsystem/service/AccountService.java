@@ -1,26 +1,38 @@
 package com.bankingsystem.service;
 
 import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
 import com.bankingsystem.exception.InsufficientBalanceException;
 import com.bankingsystem.exception.InvalidAmountException;
+import com.bankingsystem.ledger.Balance;
+import com.bankingsystem.ledger.LedgerEngine;
 import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Posting;
 import com.bankingsystem.model.Transaction;
 import com.bankingsystem.model.dto.AccountRequest;
 import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.BalanceAt;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.Statement;
+import com.bankingsystem.model.dto.TransactionCursor;
+import com.bankingsystem.model.dto.TransactionPage;
 import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
 import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.PostingRepository;
 import com.bankingsystem.repository.TransactionRepository;
+import com.bankingsystem.util.AccountPartitions;
+import com.bankingsystem.util.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Random;
-import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,14 +41,32 @@ public class AccountService {
 
     private final AccountRepository accountRepo;
     private final TransactionRepository txnRepo;
-    private static final int MAX_RETRIES = 3;
-    private static final Random RANDOM = new Random();
+    private final TransferEngine transferEngine;
+    private final BatchTransferEngine batchTransferEngine;
+    private final IdGenerator idGenerator;
+    private final AccountCache accountCache;
+    private final OperationMetrics metrics;
+    private final IdempotencyStore idempotency;
+    private final DailyBalanceService dailyBalances;
+    private final TransactionOutbox outbox;
+    private final PostingWriter postings;
+    private final PostingRepository postingRepo;
+    private final HotAccounts hotAccounts;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Value("${banking.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    // Present only with banking.ledger.enabled=true; money movement then goes through it instead of Mongo.
+    @Autowired(required = false)
+    private LedgerEngine ledger;
+
+    // Present only with banking.coalescing.enabled=true; deposits and withdrawals are then written in per-account batches.
+    @Autowired(required = false)
+    private AccountWriteCoalescer coalescer;
 
     public Account createAccount(AccountRequest req) {
-        String accNum;
-        do {
-            accNum = generateAccountNumber(req.getHolderName());
-        } while (accountRepo.existsByAccountNumber(accNum));
+        String accNum = generateAccountNumber(req.getHolderName());
 
         Account account = Account.builder()
                 .accountNumber(accNum)
@@ -46,128 +76,286 @@ public class AccountService {
                 .createdAt(Instant.now())
                 .build();
 
-        return accountRepo.save(account);
+        Account saved = accountRepo.save(account);
+        accountCache.put(saved);
+        if (ledger != null) ledger.open(saved);
+        return saved;
     }
 
     public Account getAccount(String accNum) {
-        return accountRepo.findByAccountNumber(accNum)
-                .orElseThrow(() -> new AccountNotFoundException(accNum));
+        return metrics.record("getAccount", () -> {
+            Account acc = findAccount(accNum);
+            if (ledger != null) return withBalance(acc, ledger.balance(accNum));
+            return hotAccounts.isHot(accNum) ? withHotBalance(acc) : acc;
+        });
     }
 
-    public ApiResponse deposit(String accNum, double amount) {
-        if (amount <= 0) throw new InvalidAmountException();
+    public Account deposit(String accNum, long amount) {
+        return metrics.record("deposit", () -> ledger == null ? applyDeposit(accNum, amount) : ledgerDeposit(accNum, amount));
+    }
 
-        int tries = 0;
-        while (true) {
-            tries++;
-            try {
-                Account acc = getAccount(accNum);
-                acc.setBalance(acc.getBalance() + amount);
-                accountRepo.save(acc);
+    public Account withdraw(String accNum, long amount) {
+        return metrics.record("withdraw", () -> ledger == null ? applyWithdrawal(accNum, amount) : ledgerWithdrawal(accNum, amount));
+    }
 
-                Transaction txn = Transaction.builder()
-                        .transactionId(generateTxnId())
-                        .type("DEPOSIT")
-                        .amount(amount)
-                        .timestamp(Instant.now())
-                        .status("SUCCESS")
-                        .sourceAccount(accNum)
-                        .build();
+    public ApiResponse transfer(TransferRequest req) {
+        return metrics.record("transfer", () -> applyTransfer(req));
+    }
 
-                txnRepo.save(txn);
+    // Idempotent variants: a retry carrying the same key gets the first response back instead of moving money again.
+    public ApiResponse deposit(String accNum, long amount, String idempotencyKey) {
+        return idempotency.execute(idempotencyKey, "deposit:" + accNum + ":" + amount,
+                () -> new ApiResponse(true, "Deposit successful", deposit(accNum, amount)));
+    }
 
-                return new ApiResponse(true, "Deposit successful", txn);
+    public ApiResponse withdraw(String accNum, long amount, String idempotencyKey) {
+        return idempotency.execute(idempotencyKey, "withdraw:" + accNum + ":" + amount,
+                () -> new ApiResponse(true, "Withdrawal successful", withdraw(accNum, amount)));
+    }
 
-            } catch (OptimisticLockingFailureException ex) {
-                if (tries >= MAX_RETRIES) throw ex;
-            }
-        }
+    public ApiResponse transfer(TransferRequest req, String idempotencyKey) {
+        return idempotency.execute(idempotencyKey,
+                "transfer:" + req.getFromAccount() + ":" + req.getToAccount() + ":" + req.getAmount(),
+                () -> transfer(req));
     }
 
+    public List<BatchTransferResult> transferBatch(List<TransferRequest> reqs) {
+        if (reqs == null || reqs.isEmpty()) throw new IllegalArgumentException("Batch must contain at least one transfer");
+        if (reqs.size() > maxBatchSize) throw new IllegalArgumentException("Batch exceeds " + maxBatchSize + " transfers");
+        if (ledger != null) return ledger.transferBatch(reqs, this::generateTxnId);
+        return batchTransferEngine.transfer(reqs, this::generateTxnId);
+    }
+
+    public TransactionPage getTransactions(String accNum, String cursor, int limit) {
+        return metrics.record("getTransactions", () -> historyPage(accNum, cursor, limit));
+    }
 
-    public ApiResponse withdraw(String accNum, double amount) {
+    public Statement getStatement(String accNum, LocalDate from, LocalDate to) {
+        return metrics.record("getStatement", () -> {
+            findAccount(accNum);
+            return dailyBalances.statement(accNum, from, to);
+        });
+    }
+
+    /**
+     * The balance as of {@code at}: the running balance on the newest posting at or before it, or,
+     * when that posting is unnumbered, the sum of every posting up to it.
+     */
+    public BalanceAt getBalanceAt(String accNum, Instant at) {
+        return metrics.record("getBalanceAt", () -> {
+            findAccount(accNum);
+            Posting latest = postingRepo.findLatestAt(accNum, at).orElse(null);
+            if (latest == null) return new BalanceAt(accNum, at, 0, null);
+            if (latest.getBalanceAfter() != null) return new BalanceAt(accNum, at, latest.getBalanceAfter(), latest.getSequence());
+            return new BalanceAt(accNum, at, postingRepo.sumUntil(accNum, at), null);
+        });
+    }
+
+    public Stream<Transaction> streamTransactions(String accNum) {
+        findAccount(accNum);
+        return txnRepo.streamHistory(accNum);
+    }
+
+    // getAccount serves the balance from the cache, so it is filled from the primary, never a secondary.
+    private Account findAccount(String accNum) {
+        Account acc = accountCache.get(accNum, n -> accountRepo.findByAccountNumber(n).orElse(null));
+        if (acc == null) throw new AccountNotFoundException(accNum);
+        return acc;
+    }
+
+    // Without the outbox, a deposit is a single-document update followed by its records; with it, the
+    // event has to commit together with the balance change, so the deposit takes a transaction.
+    private Account applyDeposit(String accNum, long amount) {
         if (amount <= 0) throw new InvalidAmountException();
+        boolean hot = hotAccounts.isHot(accNum);
+        if (!hot && coalescer != null) return coalescer.deposit(accNum, amount);
+        if (outbox.isEnabled()) return inTransaction(movement("DEPOSIT", accNum, amount));
+        if (hot) return hotDeposit(accNum, amount);
+
+        Account acc = accountRepo.credit(accNum, amount).orElseThrow(() -> {
+            if (!accountRepo.existsByAccountNumber(accNum)) return new AccountNotFoundException(accNum);
+            return new BalanceOverflowException();
+        });
+        accountCache.put(acc);
+
+        Transaction txn = Transaction.builder()
+                .transactionId(generateTxnId())
+                .type("DEPOSIT")
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build();
 
-        int tries = 0;
-        while (true) {
-            tries++;
-            try {
-                Account acc = getAccount(accNum);
-                if (acc.getBalance() < amount) throw new InsufficientBalanceException();
+        txnRepo.save(txn);
+        postings.record(txn, acc);
 
-                acc.setBalance(acc.getBalance() - amount);
-                accountRepo.save(acc);
+        return acc;
+    }
 
-                Transaction txn = Transaction.builder()
-                        .transactionId(generateTxnId())
-                        .type("WITHDRAW")
-                        .amount(amount)
-                        .timestamp(Instant.now())
-                        .status("SUCCESS")
-                        .sourceAccount(accNum)
-                        .build();
+    private Account applyWithdrawal(String accNum, long amount) {
+        if (amount <= 0) throw new InvalidAmountException();
+        boolean hot = hotAccounts.isHot(accNum);
+        if (!hot && coalescer != null) return coalescer.withdraw(accNum, amount);
+        if (outbox.isEnabled()) return inTransaction(movement("WITHDRAW", accNum, amount));
+        if (hot) return hotWithdrawal(accNum, amount);
+
+        Account acc = accountRepo.debit(accNum, amount).orElseThrow(() -> {
+            if (!accountRepo.existsByAccountNumber(accNum)) return new AccountNotFoundException(accNum);
+            return new InsufficientBalanceException();
+        });
+        accountCache.put(acc);
+
+        Transaction txn = Transaction.builder()
+                .transactionId(generateTxnId())
+                .type("WITHDRAW")
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build();
 
-                txnRepo.save(txn);
+        txnRepo.save(txn);
+        postings.record(txn, acc);
 
-                return new ApiResponse(true, "Withdrawal successful", txn);
+        return acc;
+    }
 
-            } catch (OptimisticLockingFailureException ex) {
-                if (tries >= MAX_RETRIES) throw ex;
-            }
-        }
+    private Account inTransaction(Transaction txn) {
+        Account acc = transferEngine.depositOrWithdraw(txn);
+        return acc != null ? acc : withHotBalance(findAccount(txn.getSourceAccount()));
     }
 
+    private Transaction movement(String type, String accNum, long amount) {
+        return Transaction.builder()
+                .transactionId(generateTxnId())
+                .type(type)
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build();
+    }
 
-    public ApiResponse transfer(TransferRequest req) {
-        if (req.getAmount() <= 0) throw new InvalidAmountException();
-        if (req.getFromAccount().equals(req.getToAccount())) throw new IllegalArgumentException("Cannot transfer to same account");
+    // Hot accounts move money in their buckets; the postings are unnumbered, see HotAccounts.
+    private Account hotDeposit(String accNum, long amount) {
+        if (!hotAccounts.credit(accNum, amount)) throw new BalanceOverflowException();
+        recordHot(Transaction.builder()
+                .transactionId(generateTxnId())
+                .type("DEPOSIT")
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build());
+        return withHotBalance(findAccount(accNum));
+    }
+
+    private Account hotWithdrawal(String accNum, long amount) {
+        if (!hotAccounts.debit(accNum, amount)) throw new InsufficientBalanceException();
+        recordHot(Transaction.builder()
+                .transactionId(generateTxnId())
+                .type("WITHDRAW")
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build());
+        return withHotBalance(findAccount(accNum));
+    }
 
-        int tries = 0;
-        while (true) {
-            tries++;
-            try {
-                Account from = getAccount(req.getFromAccount());
-                Account to = getAccount(req.getToAccount());
+    private void recordHot(Transaction txn) {
+        txnRepo.save(txn);
+        postings.record(txn);
+    }
+
+    private Account withHotBalance(Account acc) {
+        return acc.toBuilder().balance(hotAccounts.balance(acc.getAccountNumber())).build();
+    }
+
+    private Account ledgerDeposit(String accNum, long amount) {
+        if (amount <= 0) throw new InvalidAmountException();
+        Balance balance = ledger.deposit(Transaction.builder()
+                .transactionId(generateTxnId())
+                .type("DEPOSIT")
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build());
+        return withBalance(findAccount(accNum), balance);
+    }
 
-                if (from.getBalance() < req.getAmount()) throw new InsufficientBalanceException();
+    private Account ledgerWithdrawal(String accNum, long amount) {
+        if (amount <= 0) throw new InvalidAmountException();
+        Balance balance = ledger.withdraw(Transaction.builder()
+                .transactionId(generateTxnId())
+                .type("WITHDRAW")
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(accNum)
+                .build());
+        return withBalance(findAccount(accNum), balance);
+    }
 
-                from.setBalance(from.getBalance() - req.getAmount());
-                to.setBalance(to.getBalance() + req.getAmount());
+    // The cached document supplies the static fields; the ledger is authoritative for the balance.
+    private static Account withBalance(Account acc, Balance balance) {
+        return acc.toBuilder().balance(balance.balance()).version(balance.version()).build();
+    }
 
-                accountRepo.save(from);
-                accountRepo.save(to);
+    private ApiResponse applyTransfer(TransferRequest req) {
+        if (req.getAmount() <= 0) throw new InvalidAmountException();
+        if (req.getFromAccount().equals(req.getToAccount())) throw new IllegalArgumentException("Cannot transfer to same account");
 
-                Transaction txn = Transaction.builder()
-                        .transactionId(generateTxnId())
-                        .type("TRANSFER")
-                        .amount(req.getAmount())
-                        .timestamp(Instant.now())
-                        .status("SUCCESS")
-                        .sourceAccount(req.getFromAccount())
-                        .destinationAccount(req.getToAccount())
-                        .build();
+        Transaction txn = Transaction.builder()
+                .transactionId(generateTxnId())
+                .type("TRANSFER")
+                .amount(req.getAmount())
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(req.getFromAccount())
+                .destinationAccount(req.getToAccount())
+                .build();
 
-                Transaction savedTxn = txnRepo.save(txn);
+        Transaction savedTxn = ledger == null ? transferEngine.transfer(txn) : ledger.transfer(txn);
 
-                return new ApiResponse(true, "Transfer successful", savedTxn);
-            } catch (OptimisticLockingFailureException ex) {
-                if (tries >= MAX_RETRIES) throw ex;
-            }
-        }
+        return new ApiResponse(true, "Transfer successful", savedTxn);
     }
 
-    public List<Transaction> getTransactions(String accNum) {
-        getAccount(accNum);
-        return txnRepo.findBySourceAccountOrDestinationAccount(accNum, accNum);
+    private TransactionPage historyPage(String accNum, String cursor, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+        int size = Math.min(limit, MAX_PAGE_SIZE);
+        findAccount(accNum);
+
+        TransactionCursor after = cursor == null ? null : TransactionCursor.decode(cursor);
+        // One extra row tells us whether another page exists without a count query.
+        List<Transaction> rows = txnRepo.findHistoryPage(accNum, after, size + 1);
+        if (rows.size() <= size) return new TransactionPage(rows, null);
+
+        rows = rows.subList(0, size);
+        return new TransactionPage(rows, TransactionCursor.after(rows.get(size - 1)).encode());
     }
 
     private String generateTxnId() {
-        return "TXN-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-" +
-                String.format("%03d", RANDOM.nextInt(1000));
+        return txnId(idGenerator);
     }
 
     private String generateAccountNumber(String holderName) {
-        String init = holderName.trim().toUpperCase().split(" ")[0];
-        return init + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return accountNumber(idGenerator, holderName);
+    }
+
+    // Shared with ReactiveAccountService (and the id benchmarks) so every caller mints identical references.
+    public static String txnId(IdGenerator ids) {
+        return "TXN-" + ids.nextId();
+    }
+
+    // Prefixed with the account's partition (see AccountPartitions), e.g. 3F-ALICE-1ZK4R8Q2M0.
+    public static String accountNumber(IdGenerator ids, String holderName) {
+        String name = holderName.trim().toUpperCase();
+        int space = name.indexOf(' ');
+        String init = space < 0 ? name : name.substring(0, space);
+        long id = ids.nextId();
+        return AccountPartitions.prefix(id) + "-" + init + "-" + Long.toString(id, 36).toUpperCase();
     }
 }
\ No newline at end of file
@@ -0,0 +1,284 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.TransactionRepository;
+import com.bankingsystem.util.IdGenerator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces the deposits and withdrawals arriving on one account within {@code window}, or until
+ * {@code max-batch} are waiting, into a single write: one read of the account, one update of its
+ * balance guarded by the version that read returned, and one insertMany each of the transactions,
+ * their postings and their outbox events, all inside a Mongo transaction.
+ * <p>
+ * Movements are checked in arrival order against a running balance, as in
+ * {@link BatchTransferEngine}, so a withdrawal can spend a deposit queued before it. Each caller
+ * gets the account as its own movement left it, or its own exception; a rejected withdrawal does
+ * not affect the rest of the batch.
+ * <p>
+ * A movement on an account with nothing else queued or being written goes straight to Mongo as
+ * a batch of one, on the caller's thread, without waiting for a window: only movements that
+ * arrive while another is in progress wait up to {@code window} for company. The batch that fills
+ * up is written by the caller completing it; one whose window closes is handed from the timer to
+ * a pool of {@code threads} writers, so a slow write never delays other accounts' windows.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.coalescing.enabled", havingValue = "true")
+@Slf4j
+public class AccountWriteCoalescer {
+
+    private static final int MAX_RETRIES = 3;
+
+    // A signed amount: positive for a deposit, negative for a withdrawal.
+    private record Movement(long delta, CompletableFuture<Account> result) {
+    }
+
+    // Where one accepted movement left the account, or why it was refused.
+    private record Outcome(long balance, long sequence, RuntimeException rejection) {
+    }
+
+    private static final class Batch {
+        final List<Movement> movements = new ArrayList<>();
+    }
+
+    private final AccountRepository accountRepo;
+    private final TransactionRepository txnRepo;
+    private final TransactionTemplate txTemplate;
+    private final AccountCache accountCache;
+    private final TransactionOutbox outbox;
+    private final PostingWriter postings;
+    private final IdGenerator idGenerator;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Map<String, Batch> pending = new ConcurrentHashMap<>();
+    // Movements submitted and not yet answered, per account; an account without any is uncontended.
+    private final Map<String, Integer> inProgress = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService writers;
+
+    private final DistributionSummary batchSizes;
+
+    public AccountWriteCoalescer(AccountRepository accountRepo, TransactionRepository txnRepo, TransactionTemplate txTemplate,
+                                 AccountCache accountCache, TransactionOutbox outbox, PostingWriter postings,
+                                 IdGenerator idGenerator, MeterRegistry registry,
+                                 @Value("${banking.coalescing.window:1ms}") Duration window,
+                                 @Value("${banking.coalescing.max-batch:64}") int maxBatch,
+                                 @Value("${banking.coalescing.threads:4}") int threads) {
+        this.accountRepo = accountRepo;
+        this.txnRepo = txnRepo;
+        this.txTemplate = txTemplate;
+        this.accountCache = accountCache;
+        this.outbox = outbox;
+        this.postings = postings;
+        this.idGenerator = idGenerator;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemon("account-write-coalescer-timer", null));
+        this.writers = Executors.newFixedThreadPool(threads, daemon("account-write-coalescer-", new AtomicInteger()));
+        this.batchSizes = DistributionSummary.builder("bank.coalescing.batch.size")
+                .description("Deposits and withdrawals written together on one account")
+                .register(registry);
+    }
+
+    public Account deposit(String accNum, long amount) {
+        return await(submit(accNum, amount));
+    }
+
+    public Account withdraw(String accNum, long amount) {
+        return await(submit(accNum, -amount));
+    }
+
+    /**
+     * Queues a movement of {@code delta} on {@code accNum}. The future completes with the account
+     * as the movement left it, or with {@link InsufficientBalanceException},
+     * {@link BalanceOverflowException} or {@link AccountNotFoundException}.
+     */
+    public CompletableFuture<Account> submit(String accNum, long delta) {
+        Movement movement = new Movement(delta, new CompletableFuture<>());
+        boolean[] alone = new boolean[1];
+        Batch[] opened = new Batch[1];
+        Batch[] full = new Batch[1];
+        pending.compute(accNum, (k, open) -> {
+            // Counted under the account's lock, so of two concurrent first movements only one goes alone.
+            alone[0] = inProgress.merge(accNum, 1, Integer::sum) == 1;
+            if (alone[0]) return open;
+            Batch batch = open;
+            if (batch == null) {
+                batch = new Batch();
+                opened[0] = batch;
+            }
+            batch.movements.add(movement);
+            if (batch.movements.size() < maxBatch) return batch;
+            full[0] = batch;
+            return null;
+        });
+
+        if (alone[0]) {
+            write(accNum, List.of(movement));
+        } else if (full[0] != null) {
+            write(accNum, full[0].movements);
+        } else if (opened[0] != null) {
+            Batch batch = opened[0];
+            timer.schedule(() -> {
+                // Lost to the caller that filled it, which has already written it.
+                if (pending.remove(accNum, batch)) handOff(accNum, batch);
+            }, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return movement.result();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        writers.shutdown();
+        // Nothing may be left waiting on a window that will never close.
+        pending.forEach((accNum, batch) -> {
+            if (pending.remove(accNum, batch)) write(accNum, batch.movements);
+        });
+    }
+
+    private void handOff(String accNum, Batch batch) {
+        try {
+            writers.execute(() -> write(accNum, batch.movements));
+        } catch (RejectedExecutionException ex) {
+            // Stopping: the window closed just as the writers shut down.
+            write(accNum, batch.movements);
+        }
+    }
+
+    private static ThreadFactory daemon(String name, AtomicInteger counter) {
+        return r -> {
+            Thread t = new Thread(r, counter == null ? name : name + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private void write(String accNum, List<Movement> movements) {
+        try {
+            writeBatch(accNum, movements);
+        } finally {
+            inProgress.computeIfPresent(accNum, (k, n) -> n == movements.size() ? null : n - movements.size());
+        }
+    }
+
+    private void writeBatch(String accNum, List<Movement> movements) {
+        batchSizes.record(movements.size());
+        List<Outcome> outcomes = new ArrayList<>(movements.size());
+        // The account as the batch left it; only published to the cache once the transaction has committed.
+        List<Account> after = new ArrayList<>(1);
+        int tries = 0;
+        try {
+            while (true) {
+                tries++;
+                try {
+                    outcomes.clear();
+                    after.clear();
+                    txTemplate.executeWithoutResult(status -> apply(accNum, movements, outcomes, after));
+                    break;
+                } catch (TransientDataAccessException ex) {
+                    if (tries >= MAX_RETRIES) throw ex;
+                    log.debug("Coalesced write of {} movements on {} conflicted (attempt {}), retrying", movements.size(), accNum, tries);
+                }
+            }
+        } catch (RuntimeException ex) {
+            movements.forEach(m -> m.result().completeExceptionally(ex));
+            return;
+        }
+
+        Account account = after.isEmpty() ? null : after.get(0);
+        if (account != null) accountCache.put(account);
+        for (int i = 0; i < movements.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            CompletableFuture<Account> result = movements.get(i).result();
+            if (outcome.rejection() != null) {
+                result.completeExceptionally(outcome.rejection());
+            } else {
+                result.complete(account.toBuilder().balance(outcome.balance()).sequence(outcome.sequence()).build());
+            }
+        }
+    }
+
+    private void apply(String accNum, List<Movement> movements, List<Outcome> outcomes, List<Account> after) {
+        Account acc = accountRepo.findByAccountNumber(accNum).orElse(null);
+        if (acc == null) {
+            movements.forEach(m -> outcomes.add(new Outcome(0, 0, new AccountNotFoundException(accNum))));
+            return;
+        }
+
+        long balance = acc.getBalance();
+        long sequence = acc.getSequence() == null ? 0 : acc.getSequence();
+        List<Transaction> txns = new ArrayList<>(movements.size());
+        Instant now = Instant.now();
+        for (Movement movement : movements) {
+            long delta = movement.delta();
+            if (delta > 0 && balance > Long.MAX_VALUE - delta) {
+                outcomes.add(new Outcome(0, 0, new BalanceOverflowException()));
+                continue;
+            }
+            if (delta < 0 && balance < -delta) {
+                outcomes.add(new Outcome(0, 0, new InsufficientBalanceException()));
+                continue;
+            }
+            balance += delta;
+            sequence++;
+            outcomes.add(new Outcome(balance, sequence, null));
+            txns.add(Transaction.builder()
+                    .transactionId(AccountService.txnId(idGenerator))
+                    .type(delta > 0 ? "DEPOSIT" : "WITHDRAW")
+                    .amount(Math.abs(delta))
+                    .timestamp(now)
+                    .status("SUCCESS")
+                    .sourceAccount(accNum)
+                    .build());
+        }
+        if (txns.isEmpty()) return;
+
+        Account updated = accountRepo.applyBalanceDelta(accNum, acc.getVersion(), balance - acc.getBalance(), txns.size())
+                .orElseThrow(() -> new OptimisticLockingFailureException("Account " + accNum + " changed during a coalesced write"));
+        after.add(updated);
+        txnRepo.insert(txns);
+        postings.record(txns, after);
+        outbox.record(txns, after);
+    }
+
+    private static Account await(CompletableFuture<Account> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Applies a list of transfers with a fixed number of round trips regardless of its size:
+ * one read of every involved account, one bulk write of the net balance change per account,
+ * one re-read of the accounts it left, and one insertMany each of the ledger records, their
+ * postings and their outbox events, all inside a single MongoDB transaction.
+ * <p>
+ * Transfers are checked in submission order against a running in-memory balance, so a
+ * transfer can spend money credited by an earlier one in the same batch. Rejected transfers
+ * are reported per item and do not affect the rest.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchTransferEngine {
+
+    private static final int MAX_RETRIES = 3;
+
+    private final AccountRepository accountRepo;
+    private final TransactionRepository txnRepo;
+    private final TransactionTemplate txTemplate;
+    private final AccountCache accountCache;
+    private final TransactionOutbox outbox;
+    private final PostingWriter postings;
+
+    public List<BatchTransferResult> transfer(List<TransferRequest> reqs, Supplier<String> txnIds) {
+        Set<String> involved = new HashSet<>();
+        for (TransferRequest req : reqs) {
+            if (req == null) continue;
+            if (req.getFromAccount() != null) involved.add(req.getFromAccount());
+            if (req.getToAccount() != null) involved.add(req.getToAccount());
+        }
+
+        // The accounts as the batch left them; only published to the cache once the transaction has committed.
+        List<Account> after = new ArrayList<>();
+        int tries = 0;
+        while (true) {
+            tries++;
+            try {
+                after.clear();
+                List<BatchTransferResult> results = txTemplate.execute(status -> apply(reqs, involved, txnIds, after));
+                after.forEach(accountCache::put);
+                return results;
+            } catch (TransientDataAccessException ex) {
+                if (tries >= MAX_RETRIES) throw ex;
+                log.debug("Batch of {} transfers conflicted (attempt {}), retrying", reqs.size(), tries);
+            }
+        }
+    }
+
+    private List<BatchTransferResult> apply(List<TransferRequest> reqs, Set<String> involved, Supplier<String> txnIds,
+                                            List<Account> after) {
+        Map<String, Long> balances = new HashMap<>();
+        for (Account acc : accountRepo.findByAccountNumberIn(involved)) {
+            balances.put(acc.getAccountNumber(), acc.getBalance());
+        }
+
+        // Sorted, so the bulk write touches accounts in the same order as TransferEngine.
+        Map<String, Long> deltas = new TreeMap<>();
+        Map<String, Integer> legs = new HashMap<>();
+        List<Transaction> txns = new ArrayList<>();
+        List<BatchTransferResult> results = new ArrayList<>(reqs.size());
+        Instant now = Instant.now();
+
+        for (int i = 0; i < reqs.size(); i++) {
+            TransferRequest req = reqs.get(i);
+            String rejection = validate(req, balances);
+            if (rejection != null) {
+                results.add(new BatchTransferResult(i, false, null, rejection));
+                continue;
+            }
+
+            String from = req.getFromAccount();
+            String to = req.getToAccount();
+            long amount = req.getAmount();
+            balances.merge(from, -amount, Long::sum);
+            balances.merge(to, amount, Long::sum);
+            deltas.merge(from, -amount, Long::sum);
+            deltas.merge(to, amount, Long::sum);
+            legs.merge(from, 1, Integer::sum);
+            legs.merge(to, 1, Integer::sum);
+
+            Transaction txn = Transaction.builder()
+                    .transactionId(txnIds.get())
+                    .type("TRANSFER")
+                    .amount(amount)
+                    .timestamp(now)
+                    .status("SUCCESS")
+                    .sourceAccount(from)
+                    .destinationAccount(to)
+                    .build();
+            txns.add(txn);
+            results.add(new BatchTransferResult(i, true, txn.getTransactionId(), "Transfer successful"));
+        }
+
+        // Accounts whose movements net to zero are still written: their sequence advances.
+        if (!accountRepo.applyBalanceDeltas(deltas, legs)) {
+            throw new OptimisticLockingFailureException("Batch accounts changed concurrently");
+        }
+        if (!txns.isEmpty()) {
+            // The bulk write returns no documents; read back, inside the transaction, where it left the accounts.
+            after.addAll(accountRepo.findByAccountNumberIn(deltas.keySet()));
+            txnRepo.insert(txns);
+            postings.record(txns, after);
+            outbox.record(txns, after);
+        }
+        return results;
+    }
+
+    /**
+     * Why {@code req} can't be applied regardless of balances, or null if it is well-formed.
+     */
+    public static String checkRequest(TransferRequest req) {
+        if (req == null || isBlank(req.getFromAccount()) || isBlank(req.getToAccount())) {
+            return "fromAccount and toAccount are required";
+        }
+        if (req.getAmount() <= 0) return "Amount must be positive";
+        if (req.getFromAccount().equals(req.getToAccount())) return "Cannot transfer to same account";
+        return null;
+    }
+
+    private static String validate(TransferRequest req, Map<String, Long> balances) {
+        String malformed = checkRequest(req);
+        if (malformed != null) return malformed;
+
+        Long fromBalance = balances.get(req.getFromAccount());
+        if (fromBalance == null) return "Account not found: " + req.getFromAccount();
+        Long toBalance = balances.get(req.getToAccount());
+        if (toBalance == null) return "Account not found: " + req.getToAccount();
+
+        if (fromBalance < req.getAmount()) return "Insufficient balance";
+        if (toBalance > Long.MAX_VALUE - req.getAmount()) return "Balance limit exceeded";
+        return null;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
@@ -0,0 +1,37 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code daily_balances} current as transactions are written. Repository saves and inserts
+ * publish {@link AfterSaveEvent}; the update runs on the writing thread, and inside the writer's
+ * Mongo transaction when there is one, so a rolled-back transfer leaves no trace in the snapshots
+ * either.
+ * <p>
+ * Not used with the ledger or a journal reconcile: their duplicate-tolerant bulk inserts publish no
+ * events for a batch that was partly stored already, so they pass {@link DailyBalanceService} the
+ * rows they actually inserted instead.
+ * <p>
+ * Servlet stack only: the reactive template publishes the same events on event-loop threads,
+ * which must not block on Mongo.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.snapshots.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnProperty(name = "banking.stack", havingValue = "servlet", matchIfMissing = true)
+@ConditionalOnExpression("!${banking.ledger.enabled:false} and '${banking.journal.reconcile:}'.isEmpty()")
+@RequiredArgsConstructor
+public class DailyBalanceListener extends AbstractMongoEventListener<Transaction> {
+
+    private final DailyBalanceService dailyBalances;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        dailyBalances.record(event.getSource());
+    }
+}
@@ -0,0 +1,262 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.DailyBalance;
+import com.bankingsystem.model.DailyBalanceBucket;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.Statement;
+import com.bankingsystem.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Per-account daily balance snapshots ({@code daily_balances}) and the statements served from them.
+ * <p>
+ * Every stored transaction is folded into its accounts' snapshot for the transaction's UTC day as
+ * it is written. The usual case is one {@code $inc} on an existing document; the first movement of
+ * a day also looks up the previous closing balance to open the new one. A movement landing on a day
+ * before today (a late write-behind, or a write straddling midnight) also moves every later day.
+ * A batch is folded in per account and day, so a write-behind batch costs one update, and at most
+ * one shift of the later days, for each account and day it touches.
+ * {@code DailyBalanceBackfill} rebuilds the collection exactly from {@code transactions}.
+ * <p>
+ * A hot account's movements go to a random {@link DailyBalanceBucket} of the day instead, with no
+ * read and no later days to move, so its deposits do not all update one document. Statements add
+ * the buckets' nets to the snapshots' balances; the backfill folds them into the snapshots.
+ * <p>
+ * Statements read snapshots for complete days and only today's raw transactions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyBalanceService {
+
+    private final MongoOperations mongo;
+    private final TransactionRepository txnRepo;
+    private final HotAccounts hotAccounts;
+
+    /** One account's side of a transaction. */
+    public record Leg(String accountNumber, long credit, long debit) {
+    }
+
+    private record AccountDay(String accountNumber, String day) {
+    }
+
+    private record Movement(long credits, long debits, long count) {
+        Movement plus(Movement other) {
+            return new Movement(credits + other.credits, debits + other.debits, count + other.count);
+        }
+    }
+
+    public static List<Leg> legs(Transaction txn) {
+        long amount = txn.getAmount();
+        return switch (txn.getType()) {
+            case "DEPOSIT" -> List.of(new Leg(txn.getSourceAccount(), amount, 0));
+            case "WITHDRAW" -> List.of(new Leg(txn.getSourceAccount(), 0, amount));
+            case "TRANSFER" -> List.of(new Leg(txn.getSourceAccount(), 0, amount), new Leg(txn.getDestinationAccount(), amount, 0));
+            default -> List.of();
+        };
+    }
+
+    public static String day(Instant timestamp) {
+        return LocalDate.ofInstant(timestamp, ZoneOffset.UTC).toString();
+    }
+
+    public void record(Transaction txn) {
+        record(List.of(txn));
+    }
+
+    /** Folds in transactions that were just stored; each must be passed exactly once. */
+    public void record(List<Transaction> txns) {
+        Map<AccountDay, Movement> movements = new LinkedHashMap<>();
+        for (Transaction txn : txns) {
+            if (txn.getTimestamp() == null) {
+                log.warn("Transaction {} has no timestamp; not added to daily balances", txn.getTransactionId());
+                continue;
+            }
+            String day = day(txn.getTimestamp());
+            for (Leg leg : legs(txn)) {
+                movements.merge(new AccountDay(leg.accountNumber(), day), new Movement(leg.credit(), leg.debit(), 1), Movement::plus);
+            }
+        }
+        String today = day(Instant.now());
+        movements.forEach((key, movement) -> apply(key.accountNumber(), key.day(), movement, today));
+    }
+
+    public Statement statement(String accNum, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        Map<String, DailyBalance> snapshots = new LinkedHashMap<>();
+        LocalDate lastComplete = to.isBefore(today) ? to : today.minusDays(1);
+        if (!from.isAfter(lastComplete)) {
+            Query range = Query.query(Criteria.where("accountNumber").is(accNum)
+                    .and("day").gte(from.toString()).lte(lastComplete.toString())).with(Sort.by("day"));
+            for (DailyBalance d : mongo.find(range, DailyBalance.class)) snapshots.put(d.getDay(), d);
+        }
+
+        // Every complete day's bucket activity counts, since it carries into all the days after it.
+        String first = (from.isAfter(today) ? today : from).toString();
+        NavigableMap<String, Movement> buckets = bucketDays(accNum, today.toString());
+        long bucketNet = 0;
+        for (Movement m : buckets.headMap(first).values()) bucketNet += m.credits() - m.debits();
+
+        TreeSet<String> activeDays = new TreeSet<>(snapshots.keySet());
+        if (!from.isAfter(lastComplete)) activeDays.addAll(buckets.subMap(first, true, lastComplete.toString(), true).keySet());
+        long closing = snapshots.isEmpty() ? closingBefore(accNum, first) : snapshots.values().iterator().next().getOpening();
+        long opening = closing + bucketNet;
+
+        List<DailyBalance> days = new ArrayList<>();
+        for (String day : activeDays) {
+            DailyBalance snapshot = snapshots.get(day);
+            Movement bucket = buckets.get(day);
+            if (bucket == null && bucketNet == 0) {
+                days.add(snapshot);
+                closing = snapshot.getClosing();
+                continue;
+            }
+            Movement own = snapshot == null ? new Movement(0, 0, 0)
+                    : new Movement(snapshot.getCredits(), snapshot.getDebits(), snapshot.getCount());
+            Movement total = bucket == null ? own : own.plus(bucket);
+            long dayOpening = (snapshot == null ? closing : snapshot.getOpening()) + bucketNet;
+            if (snapshot != null) closing = snapshot.getClosing();
+            if (bucket != null) bucketNet += bucket.credits() - bucket.debits();
+            days.add(DailyBalance.builder()
+                    .id(snapshot == null ? null : snapshot.getId())
+                    .accountNumber(accNum)
+                    .day(day)
+                    .opening(dayOpening)
+                    .closing(closing + bucketNet)
+                    .credits(total.credits())
+                    .debits(total.debits())
+                    .count(total.count())
+                    .build());
+        }
+
+        if (!to.isBefore(today) && !from.isAfter(today)) {
+            DailyBalance tail = tail(accNum, today, closing + bucketNet);
+            if (tail.getCount() > 0) days.add(tail);
+        }
+
+        long credits = 0;
+        long debits = 0;
+        long count = 0;
+        for (DailyBalance d : days) {
+            credits += d.getCredits();
+            debits += d.getDebits();
+            count += d.getCount();
+        }
+        if (!days.isEmpty()) opening = days.get(0).getOpening();
+        closing = days.isEmpty() ? opening : days.get(days.size() - 1).getClosing();
+        return new Statement(accNum, from, to, opening, closing, credits, debits, count, days);
+    }
+
+    private void apply(String accNum, String day, Movement movement, String today) {
+        if (hotAccounts.isHot(accNum)) {
+            applyToBucket(accNum, day, movement);
+            return;
+        }
+        Query query = dayOf(accNum, day);
+        long net = movement.credits() - movement.debits();
+        Update inc = new Update().inc("credits", movement.credits()).inc("debits", movement.debits())
+                .inc("count", movement.count()).inc("closing", net);
+
+        if (mongo.updateFirst(query, inc, DailyBalance.class).getMatchedCount() == 0) {
+            long opening = closingBefore(accNum, day);
+            try {
+                mongo.upsert(query, new Update().setOnInsert("opening", opening).setOnInsert("closing", opening)
+                        .setOnInsert("credits", 0L).setOnInsert("debits", 0L).setOnInsert("count", 0L), DailyBalance.class);
+            } catch (DuplicateKeyException ex) {
+                // Another writer opened the day first; its opening is the same.
+            }
+            mongo.updateFirst(query, inc, DailyBalance.class);
+        }
+
+        if (net != 0 && day.compareTo(today) < 0) {
+            Query later = Query.query(Criteria.where("accountNumber").is(accNum).and("day").gt(day));
+            mongo.updateMulti(later, new Update().inc("opening", net).inc("closing", net), DailyBalance.class);
+        }
+    }
+
+    private void applyToBucket(String accNum, String day, Movement movement) {
+        Query query = Query.query(Criteria.where("accountNumber").is(accNum).and("day").is(day)
+                .and("bucket").is(hotAccounts.randomBucket()));
+        Update inc = new Update().inc("credits", movement.credits()).inc("debits", movement.debits()).inc("count", movement.count());
+        try {
+            mongo.upsert(query, inc, DailyBalanceBucket.class);
+        } catch (DuplicateKeyException ex) {
+            // Another writer created the bucket first; it exists now.
+            mongo.updateFirst(query, inc, DailyBalanceBucket.class);
+        }
+    }
+
+    // The account's bucket totals for each day before until.
+    private NavigableMap<String, Movement> bucketDays(String accNum, String until) {
+        Aggregation perDay = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("accountNumber").is(accNum).and("day").lt(until)),
+                Aggregation.group("day").sum("credits").as("credits").sum("debits").as("debits").sum("count").as("count"));
+        NavigableMap<String, Movement> days = new TreeMap<>();
+        for (Document row : mongo.aggregate(perDay, DailyBalanceBucket.class, Document.class)) {
+            days.put(row.getString("_id"), new Movement(((Number) row.get("credits")).longValue(),
+                    ((Number) row.get("debits")).longValue(), ((Number) row.get("count")).longValue()));
+        }
+        return days;
+    }
+
+    // Today is still being written, so it comes from the raw transactions rather than its snapshot.
+    private DailyBalance tail(String accNum, LocalDate today, long opening) {
+        Instant start = today.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = today.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        long credits = 0;
+        long debits = 0;
+        long count = 0;
+        for (Transaction txn : txnRepo.findBetween(accNum, start, end)) {
+            for (Leg leg : legs(txn)) {
+                if (!leg.accountNumber().equals(accNum)) continue;
+                credits += leg.credit();
+                debits += leg.debit();
+                count++;
+            }
+        }
+        return DailyBalance.builder()
+                .accountNumber(accNum)
+                .day(today.toString())
+                .opening(opening)
+                .closing(opening + credits - debits)
+                .credits(credits)
+                .debits(debits)
+                .count(count)
+                .build();
+    }
+
+    private long closingBefore(String accNum, String day) {
+        Query previous = Query.query(Criteria.where("accountNumber").is(accNum).and("day").lt(day))
+                .with(Sort.by(Sort.Direction.DESC, "day")).limit(1);
+        previous.fields().include("closing");
+        DailyBalance last = mongo.findOne(previous, DailyBalance.class);
+        return last == null ? 0 : last.getClosing();
+    }
+
+    private static Query dayOf(String accNum, String day) {
+        return Query.query(Criteria.where("accountNumber").is(accNum).and("day").is(day));
+    }
+}
@@ -0,0 +1,238 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.AccountBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sub-balance buckets for the accounts named in {@code banking.hot-accounts.accounts}, such as
+ * treasury and merchant settlement accounts taking thousands of deposits a second. Every movement
+ * on an ordinary account updates its one document, so those deposits queue on it, and a transfer
+ * touching it conflicts with all of them. For a hot account:
+ * <ul>
+ *   <li>a credit increments one of {@code buckets} {@link AccountBucket}s picked at random, so
+ *       deposit throughput grows with the bucket count;</li>
+ *   <li>a debit reserves the amount from one source that covers it, the account document or its
+ *       fullest bucket, with a conditional decrement. When the money is spread over several, it
+ *       draws from as many as needed inside one Mongo transaction, so it is never half taken;</li>
+ *   <li>the balance is the account document plus its buckets, aggregated at most once per
+ *       {@code balance-ttl} and otherwise served from memory. Movements made through this
+ *       instance are applied to the cached total straight away; other instances' show up when it
+ *       expires.</li>
+ * </ul>
+ * Buckets of an account that is no longer listed are folded back into its document at start-up.
+ * <p>
+ * Bucket movements leave the account's posting sequence alone, since that counter would be the one
+ * hot document again, so their postings are unnumbered. Batch transfers still see and move only
+ * the account document.
+ */
+@Component
+@Slf4j
+public class HotAccounts {
+
+    private static final int RESERVE_ATTEMPTS = 3;
+
+    private record Total(long balance, long expiresAt) {
+    }
+
+    private final MongoTemplate mongo;
+    private final TransactionTemplate txTemplate;
+    private final Set<String> configured;
+    private final int buckets;
+    private final long ttlNanos;
+    private final boolean foldOnStart;
+    // The configured accounts that exist; only these are treated as hot.
+    private final Set<String> hot = ConcurrentHashMap.newKeySet();
+    private final Map<String, Total> totals = new ConcurrentHashMap<>();
+
+    private final Counter sweeps;
+
+    public HotAccounts(MongoTemplate mongo, TransactionTemplate txTemplate,
+                       @Value("${banking.hot-accounts.accounts:}") Set<String> accounts,
+                       @Value("${banking.hot-accounts.buckets:16}") int buckets,
+                       @Value("${banking.hot-accounts.balance-ttl:1s}") Duration balanceTtl,
+                       @Value("${banking.hot-accounts.fold-on-start:true}") boolean foldOnStart,
+                       MeterRegistry registry) {
+        this.mongo = mongo;
+        this.txTemplate = txTemplate;
+        this.configured = accounts;
+        this.buckets = buckets;
+        this.ttlNanos = balanceTtl.toNanos();
+        this.foldOnStart = foldOnStart;
+        this.sweeps = Counter.builder("bank.hot.sweeps")
+                .description("Hot account debits no single bucket could cover")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void init() {
+        for (String accNum : configured) {
+            if (!mongo.exists(accountQuery(accNum), Account.class)) {
+                log.warn("Hot account {} does not exist; it is left as an ordinary account", accNum);
+                continue;
+            }
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                mongo.upsert(bucketQuery(accNum, bucket), new Update().setOnInsert("balance", 0L), AccountBucket.class);
+            }
+            hot.add(accNum);
+        }
+        if (foldOnStart) {
+            for (String accNum : mongo.findDistinct(new Query(), "accountNumber", AccountBucket.class, String.class)) {
+                if (!hot.contains(accNum)) fold(accNum);
+            }
+        }
+        if (!hot.isEmpty()) log.info("Hot accounts {} split over {} buckets", hot, buckets);
+    }
+
+    public boolean isHot(String accNum) {
+        return hot.contains(accNum);
+    }
+
+    /** A random bucket number, for spreading other per-account documents the way balances are. */
+    public int randomBucket() {
+        return ThreadLocalRandom.current().nextInt(buckets);
+    }
+
+    /**
+     * Adds {@code amount} to a random bucket.
+     *
+     * @return false if that bucket would overflow
+     */
+    public boolean credit(String accNum, long amount) {
+        Query query = bucketQuery(accNum, randomBucket()).addCriteria(Criteria.where("balance").lte(Long.MAX_VALUE - amount));
+        if (mongo.updateFirst(query, new Update().inc("balance", amount), AccountBucket.class).getMatchedCount() == 0) return false;
+        moved(accNum, amount);
+        return true;
+    }
+
+    /**
+     * Takes {@code amount} from the account document and its buckets. Joins the caller's Mongo
+     * transaction when there is one.
+     *
+     * @return false if they do not hold that much together
+     */
+    public boolean debit(String accNum, long amount) {
+        boolean drawn = reserve(accNum, amount);
+        if (!drawn) {
+            sweeps.increment();
+            drawn = Boolean.TRUE.equals(txTemplate.execute(status -> sweep(accNum, amount)));
+        }
+        if (drawn) moved(accNum, -amount);
+        return drawn;
+    }
+
+    /** The account document's balance plus its buckets', at most {@code balance-ttl} old. */
+    public long balance(String accNum) {
+        long now = System.nanoTime();
+        Total total = totals.get(accNum);
+        if (total != null && now - total.expiresAt() < 0) return total.balance();
+
+        Account acc = mongo.findOne(accountQuery(accNum), Account.class);
+        long balance = (acc == null ? 0 : acc.getBalance()) + bucketTotal(accNum);
+        totals.put(accNum, new Total(balance, now + ttlNanos));
+        return balance;
+    }
+
+    // The account document first, then the fullest bucket; a lost race re-reads the buckets.
+    private boolean reserve(String accNum, long amount) {
+        Query account = accountQuery(accNum).addCriteria(Criteria.where("balance").gte(amount));
+        if (mongo.updateFirst(account, new Update().inc("balance", -amount).inc("version", 1), Account.class).getMatchedCount() == 1) {
+            return true;
+        }
+        for (int attempt = 0; attempt < RESERVE_ATTEMPTS; attempt++) {
+            AccountBucket fullest = mongo.findOne(bucketsOf(accNum).with(Sort.by(Sort.Direction.DESC, "balance")).limit(1), AccountBucket.class);
+            if (fullest == null || fullest.getBalance() < amount) return false;
+            Query bucket = Query.query(Criteria.where("_id").is(fullest.getId()).and("balance").gte(amount));
+            if (mongo.updateFirst(bucket, new Update().inc("balance", -amount), AccountBucket.class).getMatchedCount() == 1) return true;
+        }
+        return false;
+    }
+
+    // Inside a transaction: a concurrent write to anything read here aborts it instead of overdrawing.
+    private boolean sweep(String accNum, long amount) {
+        Account acc = mongo.findOne(accountQuery(accNum), Account.class);
+        if (acc == null) return false;
+        List<AccountBucket> all = mongo.find(bucketsOf(accNum).with(Sort.by(Sort.Direction.DESC, "balance")), AccountBucket.class);
+        long available = acc.getBalance();
+        for (AccountBucket bucket : all) available += bucket.getBalance();
+        if (available < amount) return false;
+
+        long remaining = amount;
+        long fromAccount = Math.min(acc.getBalance(), remaining);
+        if (fromAccount > 0) {
+            take(accountQuery(accNum), fromAccount, new Update().inc("balance", -fromAccount).inc("version", 1), Account.class);
+            remaining -= fromAccount;
+        }
+        for (AccountBucket bucket : all) {
+            if (remaining == 0) break;
+            long fromBucket = Math.min(bucket.getBalance(), remaining);
+            if (fromBucket == 0) continue;
+            take(Query.query(Criteria.where("_id").is(bucket.getId())), fromBucket, new Update().inc("balance", -fromBucket), AccountBucket.class);
+            remaining -= fromBucket;
+        }
+        return true;
+    }
+
+    private void take(Query query, long amount, Update update, Class<?> type) {
+        query.addCriteria(Criteria.where("balance").gte(amount));
+        if (mongo.updateFirst(query, update, type).getMatchedCount() == 0) {
+            throw new OptimisticLockingFailureException("Hot account balance changed during a sweep");
+        }
+    }
+
+    // Moves the buckets' money back into the account document and drops them.
+    private void fold(String accNum) {
+        Long folded = txTemplate.execute(status -> {
+            long total = bucketTotal(accNum);
+            if (total != 0) mongo.updateFirst(accountQuery(accNum), new Update().inc("balance", total).inc("version", 1), Account.class);
+            mongo.remove(bucketsOf(accNum), AccountBucket.class);
+            return total;
+        });
+        log.info("Account {} is no longer hot; folded {} from its buckets back into it", accNum, folded);
+    }
+
+    private long bucketTotal(String accNum) {
+        Aggregation sum = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("accountNumber").is(accNum)),
+                Aggregation.group("accountNumber").sum("balance").as("balance"));
+        Document row = mongo.aggregate(sum, AccountBucket.class, Document.class).getUniqueMappedResult();
+        return row == null ? 0 : ((Number) row.get("balance")).longValue();
+    }
+
+    private void moved(String accNum, long delta) {
+        totals.computeIfPresent(accNum, (k, total) -> new Total(total.balance() + delta, total.expiresAt()));
+    }
+
+    private static Query accountQuery(String accNum) {
+        return Query.query(Criteria.where("accountNumber").is(accNum));
+    }
+
+    private static Query bucketsOf(String accNum) {
+        return Query.query(Criteria.where("accountNumber").is(accNum));
+    }
+
+    private static Query bucketQuery(String accNum, int bucket) {
+        return Query.query(Criteria.where("accountNumber").is(accNum).and("bucket").is(bucket));
+    }
+}
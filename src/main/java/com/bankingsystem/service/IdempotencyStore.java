@@ -0,0 +1,170 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
+import com.bankingsystem.exception.IdempotencyConflictException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.exception.InvalidAmountException;
+import com.bankingsystem.exception.RateLimitExceededException;
+import com.bankingsystem.model.IdempotencyRecord;
+import com.bankingsystem.model.dto.ApiResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a money movement at most once per client {@code Idempotency-Key} and replays its response
+ * to retries.
+ * <p>
+ * A bounded in-memory index sits in front of the TTL-indexed {@code idempotency_keys} collection.
+ * A retry this instance has seen recently is answered from memory; a concurrent duplicate joins the
+ * execution already in flight instead of starting its own. Anything else looks the key up in Mongo
+ * once. A new key is claimed there with an insert before the movement runs, so duplicates arriving
+ * at other instances are refused with a conflict rather than executed twice.
+ * <p>
+ * Only successful responses are kept. A request rejected before it could move money (invalid
+ * amount, unknown account, insufficient balance, overflow, rate limit) releases its key, so a retry
+ * runs again. Any other failure, a timeout for one, may have left the movement committed, so the
+ * key stays claimed without a response and retries are refused as in progress until it expires.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record Entry(String fingerprint, CompletableFuture<ApiResponse> result) {
+    }
+
+    private final MongoOperations mongo;
+    private final Cache<String, Entry> recent;
+
+    public IdempotencyStore(MongoOperations mongo,
+                            @Value("${banking.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${banking.idempotency.memory-ttl:10m}") Duration memoryTtl,
+                            MeterRegistry registry) {
+        this.mongo = mongo;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(memoryTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, recent, "idempotency");
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already used, in which case the first response is
+     * returned. {@code fingerprint} identifies the request; reusing a key with a different one is a
+     * conflict. A null key runs the action unconditionally.
+     */
+    public ApiResponse execute(String key, String fingerprint, Supplier<ApiResponse> action) {
+        if (key == null) return action.get();
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = recent.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint(), fingerprint);
+            return await(existing.result());
+        }
+
+        try {
+            ApiResponse response = claimOrReplay(key, fingerprint, action);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            recent.asMap().remove(key, mine);
+            mine.result().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private ApiResponse claimOrReplay(String key, String fingerprint, Supplier<ApiResponse> action) {
+        IdempotencyRecord stored = mongo.findById(key, IdempotencyRecord.class);
+        if (stored == null) {
+            try {
+                mongo.insert(IdempotencyRecord.builder().key(key).fingerprint(fingerprint).createdAt(Instant.now()).build());
+            } catch (DuplicateKeyException ex) {
+                // Claimed by another instance between our lookup and insert.
+                stored = mongo.findById(key, IdempotencyRecord.class);
+                if (stored == null) throw inProgress();
+            }
+        }
+        if (stored != null) {
+            checkFingerprint(stored.getFingerprint(), fingerprint);
+            if (stored.getResponse() == null) throw inProgress();
+            return stored.getResponse();
+        }
+
+        Query claim = Query.query(Criteria.where("_id").is(key));
+        ApiResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            if (!movedNoMoney(ex)) {
+                log.warn("Outcome of the request with idempotency key {} is unknown; the key stays in progress until it expires", key);
+                throw ex;
+            }
+            try {
+                mongo.remove(claim, IdempotencyRecord.class);
+            } catch (DataAccessException removeFailed) {
+                log.warn("Could not release idempotency key {}; it stays in progress until it expires", key, removeFailed);
+            }
+            throw ex;
+        }
+
+        try {
+            mongo.updateFirst(claim, new Update().set("response", response), IdempotencyRecord.class);
+        } catch (DataAccessException ex) {
+            // The money has moved, so the caller still gets its answer; retries here are served from memory.
+            log.warn("Could not store the response for idempotency key {}", key, ex);
+        }
+        return response;
+    }
+
+    // Rejections raised before anything is written; every other failure may follow a committed movement.
+    private static boolean movedNoMoney(RuntimeException ex) {
+        return ex instanceof InvalidAmountException
+                || ex instanceof AccountNotFoundException
+                || ex instanceof InsufficientBalanceException
+                || ex instanceof BalanceOverflowException
+                || ex instanceof RateLimitExceededException;
+    }
+
+    private static void checkFingerprint(String stored, String requested) {
+        if (!stored.equals(requested)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private static IdempotencyConflictException inProgress() {
+        return new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+    }
+
+    private static ApiResponse await(CompletableFuture<ApiResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+}
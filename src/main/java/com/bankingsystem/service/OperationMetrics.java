@@ -0,0 +1,66 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.exception.InvalidAmountException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Times account operations into {@code bank.operation}, tagged by operation and outcome, with a
+ * percentile histogram so latency can be sliced per outcome (e.g. conflicts vs. successes).
+ */
+@Component
+public class OperationMetrics {
+
+    static final String METRIC = "bank.operation";
+
+    private final MeterRegistry registry;
+    // operation -> outcome -> timer; avoids building a Meter.Id on every call.
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    public OperationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T record(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (RuntimeException ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(timer(operation, outcome));
+        }
+    }
+
+    static String outcome(Throwable ex) {
+        if (ex instanceof InsufficientBalanceException) return "insufficient_funds";
+        if (ex instanceof AccountNotFoundException) return "not_found";
+        if (ex instanceof TransientDataAccessException) return "conflict";
+        if (ex instanceof InvalidAmountException || ex instanceof BalanceOverflowException
+                || ex instanceof IllegalArgumentException) return "rejected";
+        return "error";
+    }
+
+    private Timer timer(String operation, String outcome) {
+        Map<String, Timer> byOutcome = timers.computeIfAbsent(operation, op -> new ConcurrentHashMap<>());
+        Timer timer = byOutcome.get(outcome);
+        if (timer != null) return timer;
+        return byOutcome.computeIfAbsent(outcome, o -> Timer.builder(METRIC)
+                .description("Latency of account operations by outcome")
+                .tag("operation", operation)
+                .tag("outcome", o)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
@@ -0,0 +1,92 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.util.BulkInserts;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the {@link Posting}s of the transactions that deposit, withdraw and the transfer engines
+ * apply, numbered from the accounts their balance updates returned: no account is read back to
+ * find a posting's running balance or sequence. Callers inside a Mongo transaction write the
+ * postings in it.
+ * <p>
+ * The in-memory ledger and the backfill write unnumbered postings through the static methods.
+ * The reactive stack writes none and still reads history from {@code transactions}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostingWriter {
+
+    private final MongoOperations mongo;
+
+    /** Writes {@code txn}'s postings; {@code after} are its accounts as its balance updates left them. */
+    public void record(Transaction txn, Account... after) {
+        insert(mongo, postings(List.of(txn), Arrays.asList(after)));
+    }
+
+    /** Writes the postings of {@code txns}, applied in list order, which left their accounts as {@code after}. */
+    public void record(List<Transaction> txns, Collection<Account> after) {
+        insert(mongo, postings(txns, after));
+    }
+
+    /**
+     * The postings of {@code txns}, numbered by walking back from the accounts' final state: the
+     * last leg on an account has its current balance and sequence, the one before it the balance
+     * before that leg and the sequence below, and so on. Legs on accounts missing from
+     * {@code after} stay unnumbered.
+     */
+    public static List<Posting> postings(List<Transaction> txns, Collection<Account> after) {
+        Map<String, long[]> state = new HashMap<>();
+        for (Account acc : after) {
+            state.put(acc.getAccountNumber(), new long[]{acc.getBalance(), acc.getSequence() == null ? 0 : acc.getSequence()});
+        }
+        List<Posting> postings = postings(txns);
+        for (int i = postings.size() - 1; i >= 0; i--) {
+            Posting posting = postings.get(i);
+            long[] account = state.get(posting.getAccountNumber());
+            if (account == null) continue;
+            posting.setBalanceAfter(account[0]);
+            posting.setSequence(account[1]);
+            account[0] -= posting.getCredit() - posting.getDebit();
+            account[1]--;
+        }
+        return postings;
+    }
+
+    /** Unnumbered postings, for writers that do not know the accounts' state. */
+    public static List<Posting> postings(Collection<Transaction> txns) {
+        List<Posting> postings = new ArrayList<>(txns.size() * 2);
+        for (Transaction txn : txns) {
+            for (DailyBalanceService.Leg leg : DailyBalanceService.legs(txn)) {
+                boolean source = leg.accountNumber().equals(txn.getSourceAccount());
+                postings.add(Posting.builder()
+                        .accountNumber(leg.accountNumber())
+                        .transactionId(txn.getTransactionId())
+                        .type(txn.getType())
+                        .credit(leg.credit())
+                        .debit(leg.debit())
+                        .counterparty(source ? txn.getDestinationAccount() : txn.getSourceAccount())
+                        .timestamp(txn.getTimestamp())
+                        .status(txn.getStatus())
+                        .build());
+            }
+        }
+        return postings;
+    }
+
+    // A transaction written again by a journal replay finds its postings already there, which is not an error.
+    public static void insert(MongoOperations mongo, List<Posting> postings) {
+        BulkInserts.insertIgnoringDuplicates(mongo, Posting.class, postings);
+    }
+}
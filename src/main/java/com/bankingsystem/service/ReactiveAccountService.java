@@ -0,0 +1,171 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.exception.InvalidAmountException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.AccountRequest;
+import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.TransactionCursor;
+import com.bankingsystem.model.dto.TransactionPage;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.repository.ReactiveAccountRepository;
+import com.bankingsystem.repository.ReactiveTransactionRepository;
+import com.bankingsystem.util.IdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking implementation of the {@link AccountService} operations for the reactive stack
+ * ({@code banking.stack=reactive}). Same Mongo commands, same results, same exceptions.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.stack", havingValue = "reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveAccountService {
+
+    private static final int MAX_RETRIES = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(2);
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ReactiveAccountRepository accountRepo;
+    private final ReactiveTransactionRepository txnRepo;
+    private final TransactionalOperator txOperator;
+    private final IdGenerator idGenerator;
+    private final AccountService blockingService;
+
+    public Mono<Account> createAccount(AccountRequest req) {
+        Account account = Account.builder()
+                .accountNumber(AccountService.accountNumber(idGenerator, req.getHolderName()))
+                .holderName(req.getHolderName())
+                .balance(0L)
+                .status("ACTIVE")
+                .createdAt(Instant.now())
+                .build();
+
+        return accountRepo.save(account);
+    }
+
+    public Mono<Account> getAccount(String accNum) {
+        return accountRepo.findByAccountNumber(accNum)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(accNum)));
+    }
+
+    public Mono<Account> deposit(String accNum, long amount) {
+        if (amount <= 0) return Mono.error(new InvalidAmountException());
+
+        return credit(accNum, amount)
+                .flatMap(acc -> txnRepo.save(txn("DEPOSIT", amount, accNum, null)).thenReturn(acc));
+    }
+
+    public Mono<Account> withdraw(String accNum, long amount) {
+        if (amount <= 0) return Mono.error(new InvalidAmountException());
+
+        return debit(accNum, amount)
+                .flatMap(acc -> txnRepo.save(txn("WITHDRAW", amount, accNum, null)).thenReturn(acc));
+    }
+
+    /**
+     * Same all-or-nothing, account-ordered transfer as {@link TransferEngine}, retried without
+     * blocking a thread while it backs off.
+     */
+    public Mono<ApiResponse> transfer(TransferRequest req) {
+        if (req.getAmount() <= 0) return Mono.error(new InvalidAmountException());
+        if (req.getFromAccount().equals(req.getToAccount())) return Mono.error(new IllegalArgumentException("Cannot transfer to same account"));
+
+        String from = req.getFromAccount();
+        String to = req.getToAccount();
+        long amount = req.getAmount();
+
+        return Mono.defer(() -> {
+                    // Deferred, so a failed first leg issues neither the second leg nor the insert.
+                    Transaction txn = txn("TRANSFER", amount, from, to);
+                    Mono<Account> legs = from.compareTo(to) < 0
+                            ? debit(from, amount).then(Mono.defer(() -> credit(to, amount)))
+                            : credit(to, amount).then(Mono.defer(() -> debit(from, amount)));
+                    return legs.then(Mono.defer(() -> txnRepo.save(txn)));
+                })
+                .as(txOperator::transactional)
+                .retryWhen(Retry.backoff(MAX_RETRIES - 1, RETRY_BACKOFF)
+                        .filter(TransientDataAccessException.class::isInstance)
+                        .doBeforeRetry(signal -> log.debug("Transfer {} -> {} conflicted, retrying", from, to))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .map(saved -> new ApiResponse(true, "Transfer successful", saved));
+    }
+
+    // Batches are bulk jobs rather than latency-sensitive calls, so they reuse the blocking engine off the event loop.
+    public Mono<List<BatchTransferResult>> transferBatch(List<TransferRequest> reqs) {
+        return Mono.fromCallable(() -> blockingService.transferBatch(reqs))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<TransactionPage> getTransactions(String accNum, String cursor, int limit) {
+        if (limit <= 0) return Mono.error(new IllegalArgumentException("Limit must be positive"));
+        int size = Math.min(limit, MAX_PAGE_SIZE);
+
+        TransactionCursor after;
+        try {
+            after = cursor == null ? null : TransactionCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            return Mono.error(ex);
+        }
+
+        return getAccount(accNum)
+                .thenMany(txnRepo.findHistoryPage(accNum, after, size + 1))
+                .collectList()
+                .map(rows -> {
+                    if (rows.size() <= size) return new TransactionPage(rows, null);
+                    List<Transaction> page = rows.subList(0, size);
+                    return new TransactionPage(page, TransactionCursor.after(page.get(size - 1)).encode());
+                });
+    }
+
+    public Flux<Transaction> streamTransactions(String accNum) {
+        return getAccount(accNum).thenMany(txnRepo.streamHistory(accNum));
+    }
+
+    private Mono<Account> credit(String accNum, long amount) {
+        return accountRepo.credit(accNum, amount)
+                .switchIfEmpty(Mono.defer(() -> missingOr(accNum, BalanceOverflowException::new)));
+    }
+
+    private Mono<Account> debit(String accNum, long amount) {
+        return accountRepo.debit(accNum, amount)
+                .switchIfEmpty(Mono.defer(() -> missingOr(accNum, InsufficientBalanceException::new)));
+    }
+
+    // Only reached when the conditional update matched nothing: tell a missing account apart from a failed guard.
+    private Mono<Account> missingOr(String accNum, Supplier<? extends RuntimeException> guardFailure) {
+        return accountRepo.existsByAccountNumber(accNum)
+                .flatMap(exists -> Mono.error(exists ? guardFailure.get() : new AccountNotFoundException(accNum)));
+    }
+
+    private Transaction txn(String type, long amount, String source, String destination) {
+        return Transaction.builder()
+                .transactionId(AccountService.txnId(idGenerator))
+                .type(type)
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(source)
+                .destinationAccount(destination)
+                .build();
+    }
+}
@@ -0,0 +1,378 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.AccountBucket;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.ReconciliationReport;
+import com.bankingsystem.model.ReconciliationReport.Discrepancy;
+import com.bankingsystem.model.ReconciliationReport.SequenceGap;
+import com.bankingsystem.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * End-of-day check that every account's stored balance, buckets included for a hot account,
+ * equals the sum of its transactions (deposits in, withdrawals out, transfers out of the source
+ * and into the destination), and that none of its numbered postings is missing.
+ * <p>
+ * The account-number space is cut into ranges of about {@code range-size} accounts, and a
+ * fork-join pool checks the ranges in parallel. Each range costs two server-side aggregations over
+ * the transaction history indexes (source side and destination side, grouped per account) and one
+ * projected scan of its accounts. Heap use is therefore bounded by the parallelism times the range
+ * size, however large the collections are.
+ * <p>
+ * The same pass counts each account's numbered postings, from a third aggregation over the
+ * posting sequence index; fewer than the account's sequence means postings are missing. A
+ * confirmed gap is located by bisecting the sequence range with counts.
+ * <p>
+ * Transfers are not atomic across the scan, so a mismatch or gap is only reported if it is still
+ * there when the account is checked again at the end. The report is saved to
+ * {@code reconciliation_reports}. Progress and throughput are published as
+ * {@code bank.reconciliation.*} metrics. Balances held by the in-memory ledger reach Mongo late,
+ * so run this with the ledger drained or disabled.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.reconciliation.enabled", havingValue = "true")
+@Slf4j
+public class ReconciliationJob {
+
+    private static final int MAX_LISTED = 5000;
+    private static final int MAX_MISSING_LISTED = 100;
+
+    private record Range(String from, String to) {
+    }
+
+    private final MongoTemplate mongo;
+    private final int parallelism;
+    private final int rangeSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong rangesDone = new AtomicLong();
+    private volatile long rangesTotal;
+
+    private final Counter accountsChecked;
+    private final Counter transactionsChecked;
+    private final Counter discrepanciesFound;
+    private final Timer duration;
+
+    public ReconciliationJob(MongoTemplate mongo, MeterRegistry registry,
+                             @Value("${banking.reconciliation.parallelism:8}") int parallelism,
+                             @Value("${banking.reconciliation.range-size:10000}") int rangeSize) {
+        this.mongo = mongo;
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.accountsChecked = Counter.builder("bank.reconciliation.accounts")
+                .description("Accounts checked by reconciliation")
+                .register(registry);
+        this.transactionsChecked = Counter.builder("bank.reconciliation.transactions")
+                .description("Transactions summed by reconciliation")
+                .register(registry);
+        this.discrepanciesFound = Counter.builder("bank.reconciliation.discrepancies")
+                .description("Accounts whose balance does not match their transactions")
+                .register(registry);
+        this.duration = Timer.builder("bank.reconciliation.duration")
+                .description("Wall time of a reconciliation run")
+                .register(registry);
+        Gauge.builder("bank.reconciliation.progress", this, ReconciliationJob::progress)
+                .description("Fraction of account ranges checked by the current or last run")
+                .register(registry);
+    }
+
+    @Scheduled(cron = "${banking.reconciliation.cron:0 30 0 * * *}", zone = "UTC")
+    public void scheduled() {
+        run();
+    }
+
+    public ReconciliationReport run() {
+        if (!running.compareAndSet(false, true)) throw new IllegalStateException("Reconciliation is already running");
+        try {
+            return duration.record(this::reconcile);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationReport reconcile() {
+        Instant startedAt = Instant.now();
+        List<Range> ranges = ranges();
+        rangesTotal = ranges.size();
+        rangesDone.set(0);
+
+        Run run = new Run(startedAt);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RangeTask(run, ranges, 0, ranges.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Re-check the listed suspects; anything a concurrent transfer explained drops out.
+        List<Discrepancy> confirmed = new ArrayList<>();
+        for (Discrepancy suspect : run.suspects) {
+            Discrepancy again = recheck(suspect.getAccountNumber());
+            if (again != null) confirmed.add(again);
+        }
+        long count = run.suspectCount.get() - (run.suspects.size() - confirmed.size());
+        discrepanciesFound.increment(count);
+
+        List<SequenceGap> gaps = new ArrayList<>();
+        for (String accNum : run.gapSuspects) {
+            SequenceGap gap = recheckSequence(accNum);
+            if (gap != null) gaps.add(gap);
+        }
+        long gapCount = run.gapSuspectCount.get() - (run.gapSuspects.size() - gaps.size());
+
+        ReconciliationReport report = mongo.insert(ReconciliationReport.builder()
+                .startedAt(startedAt)
+                .finishedAt(Instant.now())
+                .accounts(run.accounts.get())
+                .transactions(run.transactions.get())
+                .discrepancyCount(count)
+                .discrepancies(confirmed)
+                .sequenceGapCount(gapCount)
+                .sequenceGaps(gaps)
+                .build());
+        log.info("Reconciliation {} checked {} accounts and {} transactions in {}: {} discrepancies, {} sequence gaps",
+                report.getId(), report.getAccounts(), report.getTransactions(),
+                Duration.between(startedAt, report.getFinishedAt()), count, gapCount);
+        return report;
+    }
+
+    // Boundaries come from one covered scan of the accountNumber index; the outer ranges are open
+    // so transactions naming accounts outside the collection are still summed.
+    private List<Range> ranges() {
+        Query query = new Query().with(Sort.by("accountNumber"));
+        query.fields().include("accountNumber").exclude("_id");
+        List<Range> ranges = new ArrayList<>();
+        String from = null;
+        long seen = 0;
+        try (Stream<Account> accounts = mongo.stream(query, Account.class)) {
+            for (Account acc : (Iterable<Account>) accounts::iterator) {
+                if (++seen % rangeSize == 0) {
+                    ranges.add(new Range(from, acc.getAccountNumber()));
+                    from = acc.getAccountNumber();
+                }
+            }
+        }
+        ranges.add(new Range(from, null));
+        return ranges;
+    }
+
+    private void check(Run run, Range range) {
+        Map<String, long[]> ledger = new HashMap<>();
+        sum(ledger, Aggregation.newAggregation(
+                Aggregation.match(within("sourceAccount", range)),
+                Aggregation.group("sourceAccount").sum(signedAmount()).as("net").count().as("count")));
+        sum(ledger, Aggregation.newAggregation(
+                Aggregation.match(within("destinationAccount", range).and("type").is("TRANSFER")),
+                Aggregation.group("destinationAccount").sum("amount").as("net").count().as("count")));
+
+        Map<String, Long> bucketed = bucketBalances(within("accountNumber", range));
+        Map<String, Long> numbered = new HashMap<>();
+        for (Document row : mongo.aggregate(Aggregation.newAggregation(
+                Aggregation.match(within("accountNumber", range).and("sequence").exists(true)),
+                Aggregation.group("accountNumber").count().as("count")), Posting.class, Document.class)) {
+            numbered.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+
+        Query query = Query.query(within("accountNumber", range));
+        query.fields().include("accountNumber").include("balance").include("sequence");
+        long accounts = 0;
+        long transactions = 0;
+        try (Stream<Account> stream = mongo.stream(query, Account.class)) {
+            for (Account acc : (Iterable<Account>) stream::iterator) {
+                long[] sums = ledger.remove(acc.getAccountNumber());
+                long net = sums == null ? 0 : sums[0];
+                long count = sums == null ? 0 : sums[1];
+                long balance = acc.getBalance() + bucketed.getOrDefault(acc.getAccountNumber(), 0L);
+                if (balance != net) run.suspect(new Discrepancy(acc.getAccountNumber(), balance, net, count));
+                if (sequenceOf(acc) != numbered.getOrDefault(acc.getAccountNumber(), 0L)) run.gapSuspect(acc.getAccountNumber());
+                accounts++;
+                transactions += count;
+            }
+        }
+        for (Map.Entry<String, long[]> orphan : ledger.entrySet()) {
+            run.suspect(new Discrepancy(orphan.getKey(), null, orphan.getValue()[0], orphan.getValue()[1]));
+            transactions += orphan.getValue()[1];
+        }
+
+        run.accounts.addAndGet(accounts);
+        run.transactions.addAndGet(transactions);
+        accountsChecked.increment(accounts);
+        transactionsChecked.increment(transactions);
+        long done = rangesDone.incrementAndGet();
+        if (done % Math.max(1, rangesTotal / 20) == 0 || done == rangesTotal) {
+            double seconds = Math.max(1, Duration.between(run.startedAt, Instant.now()).toMillis()) / 1000.0;
+            log.info("Reconciliation {}/{} ranges, {} accounts ({}/s), {} transactions ({}/s)", done, rangesTotal,
+                    run.accounts.get(), Math.round(run.accounts.get() / seconds),
+                    run.transactions.get(), Math.round(run.transactions.get() / seconds));
+        }
+    }
+
+    private Discrepancy recheck(String accNum) {
+        Map<String, long[]> ledger = new HashMap<>();
+        sum(ledger, Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("sourceAccount").is(accNum)),
+                Aggregation.group("sourceAccount").sum(signedAmount()).as("net").count().as("count")));
+        sum(ledger, Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("destinationAccount").is(accNum).and("type").is("TRANSFER")),
+                Aggregation.group("destinationAccount").sum("amount").as("net").count().as("count")));
+        long[] sums = ledger.getOrDefault(accNum, new long[2]);
+
+        Query query = Query.query(Criteria.where("accountNumber").is(accNum));
+        query.fields().include("balance");
+        Account acc = mongo.findOne(query, Account.class);
+        Long balance = acc == null ? null : acc.getBalance() + bucketBalances(Criteria.where("accountNumber").is(accNum)).getOrDefault(accNum, 0L);
+        if (balance != null && balance == sums[0]) return null;
+        return new Discrepancy(accNum, balance, sums[0], sums[1]);
+    }
+
+    // Hot accounts keep part of their balance in buckets.
+    private Map<String, Long> bucketBalances(Criteria accounts) {
+        Map<String, Long> balances = new HashMap<>();
+        for (Document row : mongo.aggregate(Aggregation.newAggregation(
+                Aggregation.match(accounts),
+                Aggregation.group("accountNumber").sum("balance").as("balance")), AccountBucket.class, Document.class)) {
+            balances.put(row.getString("_id"), ((Number) row.get("balance")).longValue());
+        }
+        return balances;
+    }
+
+    private SequenceGap recheckSequence(String accNum) {
+        Query query = Query.query(Criteria.where("accountNumber").is(accNum));
+        query.fields().include("sequence");
+        Account acc = mongo.findOne(query, Account.class);
+        long sequence = acc == null ? 0 : sequenceOf(acc);
+        long postings = countNumbered(accNum, 1, Long.MAX_VALUE);
+        if (postings == sequence) return null;
+        List<Long> missing = new ArrayList<>();
+        if (sequence > 0) missing(accNum, 1, sequence, missing);
+        return new SequenceGap(accNum, sequence, postings, missing);
+    }
+
+    // Halves [from, to] until the ranges short of postings are single numbers; one count per step.
+    private void missing(String accNum, long from, long to, List<Long> missing) {
+        if (missing.size() >= MAX_MISSING_LISTED) return;
+        long present = countNumbered(accNum, from, to);
+        if (present == to - from + 1) return;
+        if (present == 0 || from == to) {
+            for (long seq = from; seq <= to && missing.size() < MAX_MISSING_LISTED; seq++) missing.add(seq);
+            return;
+        }
+        long mid = from + (to - from) / 2;
+        missing(accNum, from, mid, missing);
+        missing(accNum, mid + 1, to, missing);
+    }
+
+    private long countNumbered(String accNum, long from, long to) {
+        return mongo.count(Query.query(Criteria.where("accountNumber").is(accNum).and("sequence").gte(from).lte(to)), Posting.class);
+    }
+
+    private static long sequenceOf(Account acc) {
+        return acc.getSequence() == null ? 0 : acc.getSequence();
+    }
+
+    private void sum(Map<String, long[]> ledger, Aggregation aggregation) {
+        for (Document row : mongo.aggregate(aggregation, Transaction.class, Document.class)) {
+            long[] sums = ledger.computeIfAbsent(row.getString("_id"), k -> new long[2]);
+            sums[0] += ((Number) row.get("net")).longValue();
+            sums[1] += ((Number) row.get("count")).longValue();
+        }
+    }
+
+    // Deposits credit the source account; withdrawals and transfers debit it.
+    private static AggregationExpression signedAmount() {
+        return ConditionalOperators.when(Criteria.where("type").is("DEPOSIT"))
+                .thenValueOf("amount")
+                .otherwise(ArithmeticOperators.valueOf("amount").multiplyBy(-1));
+    }
+
+    private static Criteria within(String field, Range range) {
+        Criteria criteria = Criteria.where(field);
+        if (range.from() != null) criteria.gte(range.from());
+        if (range.to() != null) criteria.lt(range.to());
+        if (range.from() == null && range.to() == null) criteria.type(2);
+        return criteria;
+    }
+
+    private double progress() {
+        long total = rangesTotal;
+        return total == 0 ? 0 : (double) rangesDone.get() / total;
+    }
+
+    private static final class Run {
+        final Instant startedAt;
+        final AtomicLong accounts = new AtomicLong();
+        final AtomicLong transactions = new AtomicLong();
+        final AtomicLong suspectCount = new AtomicLong();
+        final Queue<Discrepancy> suspects = new ConcurrentLinkedQueue<>();
+        final AtomicLong gapSuspectCount = new AtomicLong();
+        final Queue<String> gapSuspects = new ConcurrentLinkedQueue<>();
+
+        Run(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        void suspect(Discrepancy d) {
+            // Only the first few thousand are kept for the re-check and the report.
+            if (suspectCount.incrementAndGet() <= MAX_LISTED) suspects.add(d);
+        }
+
+        void gapSuspect(String accountNumber) {
+            if (gapSuspectCount.incrementAndGet() <= MAX_LISTED) gapSuspects.add(accountNumber);
+        }
+    }
+
+    private final class RangeTask extends RecursiveAction {
+        private final Run run;
+        private final List<Range> ranges;
+        private final int from;
+        private final int to;
+
+        RangeTask(Run run, List<Range> ranges, int from, int to) {
+            this.run = run;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                check(run, ranges.get(from));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(run, ranges, from, mid), new RangeTask(run, ranges, mid, to));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.RateLimitExceededException;
+import com.bankingsystem.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the account API: a token bucket per API client, a token bucket per
+ * account number, and a cap on requests in progress. Hot accounts ({@link HotAccounts}) are built
+ * for thousands of movements a second and get buckets of their own, with a much higher limit. A hot client or account is refused with
+ * 429 straight away instead of queueing behind, and retrying against, everyone else's writes.
+ * <p>
+ * Rejections are counted in {@code bank.ratelimit.rejections}, tagged by reason.
+ */
+@Component
+public class RequestRateLimiter {
+
+    private final boolean enabled;
+    private final TokenBucketLimiter clients;
+    private final TokenBucketLimiter accounts;
+    private final TokenBucketLimiter hotAccountBuckets;
+    private final HotAccounts hotAccounts;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter clientRejections;
+    private final Counter accountRejections;
+    private final Counter hotAccountRejections;
+    private final Counter shed;
+
+    public RequestRateLimiter(@Value("${banking.rate-limit.enabled:true}") boolean enabled,
+                              @Value("${banking.rate-limit.client.permits-per-second:200}") double clientRate,
+                              @Value("${banking.rate-limit.client.burst:400}") int clientBurst,
+                              @Value("${banking.rate-limit.account.permits-per-second:50}") double accountRate,
+                              @Value("${banking.rate-limit.account.burst:100}") int accountBurst,
+                              @Value("${banking.rate-limit.hot-account.permits-per-second:5000}") double hotAccountRate,
+                              @Value("${banking.rate-limit.hot-account.burst:10000}") int hotAccountBurst,
+                              @Value("${banking.rate-limit.max-keys:100000}") long maxKeys,
+                              @Value("${banking.rate-limit.max-in-flight:1000}") int maxInFlight,
+                              HotAccounts hotAccounts,
+                              MeterRegistry registry) {
+        this.enabled = enabled;
+        this.clients = new TokenBucketLimiter(clientRate, clientBurst, maxKeys);
+        this.accounts = new TokenBucketLimiter(accountRate, accountBurst, maxKeys);
+        this.hotAccountBuckets = new TokenBucketLimiter(hotAccountRate, hotAccountBurst, maxKeys);
+        this.hotAccounts = hotAccounts;
+        this.maxInFlight = maxInFlight;
+        this.clientRejections = rejections(registry, "client");
+        this.accountRejections = rejections(registry, "account");
+        this.hotAccountRejections = rejections(registry, "hot-account");
+        this.shed = rejections(registry, "in-flight");
+        Gauge.builder("bank.ratelimit.in_flight", inFlight, AtomicInteger::get)
+                .description("Account API requests currently admitted")
+                .register(registry);
+    }
+
+    private static Counter rejections(MeterRegistry registry, String reason) {
+        return Counter.builder("bank.ratelimit.rejections")
+                .description("Requests refused with 429")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Admits one request, or throws if {@code max-in-flight} are already in progress. Every
+     * successful call must be paired with {@link #exit()}.
+     */
+    public void enter() {
+        if (!enabled || maxInFlight <= 0) return;
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            throw new RateLimitExceededException("Server is busy, please retry", 1);
+        }
+    }
+
+    public void exit() {
+        if (!enabled || maxInFlight <= 0) return;
+        inFlight.decrementAndGet();
+    }
+
+    public void acquireClient(String clientId) {
+        if (!enabled || clientId == null) return;
+        long wait = clients.tryAcquire(clientId);
+        if (wait > 0) {
+            clientRejections.increment();
+            throw new RateLimitExceededException("Too many requests from this client", retryAfter(wait));
+        }
+    }
+
+    public void acquireAccount(String accountNumber) {
+        if (!enabled || accountNumber == null) return;
+        boolean hot = hotAccounts.isHot(accountNumber);
+        long wait = (hot ? hotAccountBuckets : accounts).tryAcquire(accountNumber);
+        if (wait > 0) {
+            (hot ? hotAccountRejections : accountRejections).increment();
+            throw new RateLimitExceededException("Too many requests for account " + accountNumber, retryAfter(wait));
+        }
+    }
+
+    // Retry-After is in whole seconds; round up so a client honouring it finds a token.
+    private static long retryAfter(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,180 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies a transfer's debit, credit, ledger insert, postings and outbox events inside one MongoDB transaction,
+ * so a failure between the writes can never leave money debited but not credited. While the outbox is
+ * enabled, deposits and withdrawals take the same path, so their events commit with them too.
+ * <p>
+ * The two legs are always written in account-number order. Opposing A->B and B->A
+ * transfers therefore conflict on the same document first, and the loser aborts
+ * before it holds the other account, instead of the two repeatedly aborting each other.
+ */
+@Component
+@Slf4j
+public class TransferEngine {
+
+    private static final int MAX_RETRIES = 3;
+    private static final long BASE_BACKOFF_MILLIS = 2;
+
+    private final AccountRepository accountRepo;
+    private final TransactionRepository txnRepo;
+    private final TransactionTemplate txTemplate;
+    private final AccountCache accountCache;
+    private final TransactionOutbox outbox;
+    private final PostingWriter postings;
+    private final HotAccounts hotAccounts;
+
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+    private final DistributionSummary attempts;
+
+    public TransferEngine(AccountRepository accountRepo, TransactionRepository txnRepo,
+                          TransactionTemplate txTemplate, AccountCache accountCache, TransactionOutbox outbox,
+                          PostingWriter postings, HotAccounts hotAccounts, MeterRegistry registry) {
+        this.accountRepo = accountRepo;
+        this.txnRepo = txnRepo;
+        this.txTemplate = txTemplate;
+        this.accountCache = accountCache;
+        this.outbox = outbox;
+        this.postings = postings;
+        this.hotAccounts = hotAccounts;
+        this.conflicts = Counter.builder("bank.transfer.conflicts")
+                .description("Transfer transactions aborted by a write conflict")
+                .register(registry);
+        this.retries = Counter.builder("bank.transfer.retries")
+                .description("Transfer transactions re-attempted after a conflict")
+                .register(registry);
+        this.exhausted = Counter.builder("bank.transfer.retries.exhausted")
+                .description("Transfers rejected after running out of retries")
+                .register(registry);
+        this.attempts = DistributionSummary.builder("bank.transfer.attempts")
+                .description("Transaction attempts needed per transfer, whatever its outcome")
+                .serviceLevelObjectives(1, 2, 3)
+                .register(registry);
+    }
+
+    /**
+     * Moves {@code txn.amount} from {@code txn.sourceAccount} to {@code txn.destinationAccount}
+     * and records {@code txn}, all or nothing.
+     */
+    public Transaction transfer(Transaction txn) {
+        return execute(txn, new ArrayList<>(2));
+    }
+
+    /**
+     * Applies a deposit or withdrawal and records {@code txn}, all or nothing.
+     *
+     * @return the updated account, or null for a hot account, whose balance is in its buckets
+     */
+    public Account depositOrWithdraw(Transaction txn) {
+        List<Account> legs = new ArrayList<>(1);
+        execute(txn, legs);
+        return legs.isEmpty() ? null : legs.get(0);
+    }
+
+    // legs collects the updated accounts, hot ones aside; only published to the cache once the transaction has committed.
+    private Transaction execute(Transaction txn, List<Account> legs) {
+        int tries = 0;
+        try {
+            while (true) {
+                tries++;
+                try {
+                    legs.clear();
+                    Transaction saved = txTemplate.execute(status -> apply(txn, legs));
+                    legs.forEach(accountCache::put);
+                    return saved;
+                } catch (TransientDataAccessException ex) {
+                    conflicts.increment();
+                    if (tries >= MAX_RETRIES) {
+                        exhausted.increment();
+                        throw ex;
+                    }
+                    log.debug("Transfer {} conflicted (attempt {}), retrying", txn.getTransactionId(), tries);
+                    retries.increment();
+                    backoff(tries, ex);
+                }
+            }
+        } finally {
+            attempts.record(tries);
+        }
+    }
+
+    private Transaction apply(Transaction txn, List<Account> legs) {
+        String from = txn.getSourceAccount();
+        String to = txn.getDestinationAccount();
+        long amount = txn.getAmount();
+
+        switch (txn.getType()) {
+            case "DEPOSIT" -> credit(from, amount, legs);
+            case "WITHDRAW" -> debit(from, amount, legs);
+            default -> {
+                if (from.compareTo(to) < 0) {
+                    debit(from, amount, legs);
+                    credit(to, amount, legs);
+                } else {
+                    credit(to, amount, legs);
+                    debit(from, amount, legs);
+                }
+            }
+        }
+        Transaction saved = txnRepo.save(txn);
+        Account[] after = legs.toArray(new Account[0]);
+        postings.record(saved, after);
+        outbox.record(saved, after);
+        return saved;
+    }
+
+    // A hot account's leg goes to its buckets inside this transaction and returns no document.
+    private void debit(String accNum, long amount, List<Account> legs) {
+        if (hotAccounts.isHot(accNum)) {
+            if (!hotAccounts.debit(accNum, amount)) throw new InsufficientBalanceException();
+            return;
+        }
+        legs.add(accountRepo.debit(accNum, amount).orElseThrow(() -> {
+            if (!accountRepo.existsByAccountNumber(accNum)) return new AccountNotFoundException(accNum);
+            return new InsufficientBalanceException();
+        }));
+    }
+
+    private void credit(String accNum, long amount, List<Account> legs) {
+        if (hotAccounts.isHot(accNum)) {
+            if (!hotAccounts.credit(accNum, amount)) throw new BalanceOverflowException();
+            return;
+        }
+        legs.add(accountRepo.credit(accNum, amount).orElseThrow(() -> {
+            if (!accountRepo.existsByAccountNumber(accNum)) return new AccountNotFoundException(accNum);
+            return new BalanceOverflowException();
+        }));
+    }
+
+    // Jittered exponential backoff so retrying transfers don't collide in lockstep.
+    private static void backoff(int tries, TransientDataAccessException cause) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MILLIS << tries));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.bankingsystem.stream;
+
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.service.HotAccounts;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one change stream behind every account subscription: balance changes on {@code accounts}
+ * and new records on {@code transactions}, read on a background thread and handed to
+ * {@link AccountEventHub}. Ten thousand open dashboards cost this one cursor instead of ten
+ * thousand polls a second.
+ * <p>
+ * Account updates are $inc's, whose change events carry the new balance but not the account
+ * number, so the stream asks for the updated document and projects it down to the two fields.
+ * On a lost connection the stream resumes after the last event it handled; if the oplog no
+ * longer reaches back that far it starts again from now and the hub tells subscribers to re-read.
+ * <p>
+ * Needs a replica set, as the transfers already do.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.stream.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "banking.stack", havingValue = "servlet", matchIfMissing = true)
+@Slf4j
+public class AccountChangeStream implements Runnable {
+
+    // ChangeStreamHistoryLost, ChangeStreamFatalError: the resume token is no use any more.
+    private static final List<Integer> UNRESUMABLE = List.of(286, 280);
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final MongoDatabaseFactory factory;
+    private final MongoConverter converter;
+    private final AccountEventHub hub;
+    private final HotAccounts hotAccounts;
+    private final Thread thread = new Thread(this, "account-change-stream");
+    private volatile boolean running = true;
+    private BsonDocument resumeToken;
+
+    public AccountChangeStream(MongoDatabaseFactory factory, MongoConverter converter, AccountEventHub hub,
+                               HotAccounts hotAccounts) {
+        this.factory = factory;
+        this.converter = converter;
+        this.hub = hub;
+        this.hotAccounts = hotAccounts;
+    }
+
+    @PostConstruct
+    public void start() {
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void run() {
+        long backoff = 100;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = watch().cursor()) {
+                backoff = 100;
+                while (running) {
+                    // Returns null after maxAwaitTime so that stop() is noticed.
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change == null) continue;
+                    dispatch(change);
+                    resumeToken = change.getResumeToken();
+                }
+            } catch (MongoCommandException ex) {
+                if (UNRESUMABLE.contains(ex.getErrorCode())) {
+                    log.warn("Account change stream cannot resume ({}); restarting from now", ex.getErrorCodeName());
+                    resumeToken = null;
+                    hub.reset();
+                } else {
+                    backoff = pause(backoff, ex);
+                }
+            } catch (MongoException ex) {
+                backoff = pause(backoff, ex);
+            }
+        }
+    }
+
+    private ChangeStreamIterable<Document> watch() {
+        List<Bson> pipeline = List.of(
+                Aggregates.match(Filters.and(
+                        Filters.in("ns.coll", "accounts", "transactions"),
+                        Filters.in("operationType", "insert", "update", "replace"))),
+                Aggregates.project(Projections.include("ns", "operationType",
+                        "fullDocument.accountNumber", "fullDocument.balance",
+                        "fullDocument.transactionId", "fullDocument.type", "fullDocument.amount",
+                        "fullDocument.timestamp", "fullDocument.status",
+                        "fullDocument.sourceAccount", "fullDocument.destinationAccount")));
+        ChangeStreamIterable<Document> stream = factory.getMongoDatabase().watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        return resumeToken == null ? stream : stream.resumeAfter(resumeToken);
+    }
+
+    void dispatch(ChangeStreamDocument<Document> change) {
+        Document doc = change.getFullDocument();
+        // An update whose document was deleted before the lookup.
+        if (doc == null) return;
+        String id = change.getResumeToken().getString("_data").getValue();
+        if ("accounts".equals(change.getNamespace().getCollectionName())) {
+            Number balance = doc.get("balance", Number.class);
+            String accountNumber = doc.getString("accountNumber");
+            // A hot account's document holds only part of its balance; its subscribers get the transactions.
+            if (balance != null && !hotAccounts.isHot(accountNumber)) hub.publish(AccountEvent.balance(id, accountNumber, balance.longValue()));
+            return;
+        }
+        Transaction txn = converter.read(Transaction.class, doc);
+        if (txn.getSourceAccount() != null) hub.publish(AccountEvent.transaction(id, txn.getSourceAccount(), txn));
+        if (txn.getDestinationAccount() != null) hub.publish(AccountEvent.transaction(id, txn.getDestinationAccount(), txn));
+    }
+
+    private long pause(long backoff, Exception ex) {
+        if (!running) return backoff;
+        log.warn("Account change stream failed, resuming in {} ms", backoff, ex);
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException ie) {
+            // Nothing interrupts this thread; stop() clears running.
+        }
+        return Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bankingsystem.stream;
+
+import com.bankingsystem.model.Transaction;
+
+/**
+ * One server-sent event for an account's subscribers. {@code id} is the change stream's resume
+ * token, which clients send back as {@code Last-Event-ID} when they reconnect; it is null for
+ * events that do not come from the stream.
+ */
+public record AccountEvent(String id, String accountNumber, String name, Object data) {
+
+    public static final String BALANCE = "balance";
+    public static final String TRANSACTION = "transaction";
+    // Events may have been missed and cannot be replayed: the client should re-read the account.
+    public static final String RESET = "reset";
+
+    static final AccountEvent HEARTBEAT = new AccountEvent(null, null, null, null);
+
+    public record Balance(String accountNumber, long balance) {
+    }
+
+    public static AccountEvent balance(String id, String accountNumber, long balance) {
+        return new AccountEvent(id, accountNumber, BALANCE, new Balance(accountNumber, balance));
+    }
+
+    public static AccountEvent transaction(String id, String accountNumber, Transaction txn) {
+        return new AccountEvent(id, accountNumber, TRANSACTION, txn);
+    }
+
+    public static AccountEvent reset(String accountNumber) {
+        return new AccountEvent(null, accountNumber, RESET, null);
+    }
+
+    public boolean isHeartbeat() {
+        return this == HEARTBEAT;
+    }
+}
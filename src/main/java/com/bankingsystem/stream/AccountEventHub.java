@@ -0,0 +1,314 @@
+package com.bankingsystem.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans the shared change stream out to the subscribers of each account.
+ * <p>
+ * {@link #publish} only offers the event to each subscriber's bounded buffer and returns; a small
+ * pool of writer threads drains buffers into the connections. A subscriber whose buffer is full
+ * is too slow to keep up and is disconnected; its client reconnects with {@code Last-Event-ID}
+ * and gets the events it missed from the last {@code replay-size} events kept here, or a
+ * {@code reset} when they are gone. One slow dashboard therefore never holds up the stream or
+ * anyone else's events.
+ * <p>
+ * A send blocks its writer thread until the connection takes the bytes. One still blocked after
+ * {@code write-timeout} disconnects its subscriber, and the pool gets a thread in its place until
+ * the container fails the write, so stalled clients never take the writers from everyone else.
+ * <p>
+ * Idle connections get an SSE comment every {@code heartbeat}, which keeps proxies from closing
+ * them and finds clients that went away without saying so.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.stream.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "banking.stack", havingValue = "servlet", matchIfMissing = true)
+@Slf4j
+public class AccountEventHub {
+
+    /** Where a subscriber's events go; called from one writer thread at a time. */
+    public interface Sink {
+        void send(AccountEvent event) throws Exception;
+
+        void complete();
+    }
+
+    private final Map<String, Set<Subscription>> byAccount = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final int bufferSize;
+    private final ThreadPoolExecutor writers;
+    private final ScheduledExecutorService heartbeats;
+    // Subscriptions with a send in progress, watched for the write timeout.
+    private final Set<Subscription> sending = ConcurrentHashMap.newKeySet();
+    private final long writeTimeoutNanos;
+
+    // Recent events for replay, guarded by this; publish and subscribe hold it so that a new
+    // subscriber sees every event exactly once, either replayed or live.
+    private final AccountEvent[] recent;
+    private long published;
+
+    private final Counter events;
+    private final Counter dropped;
+    private final Counter stalled;
+
+    public AccountEventHub(@Value("${banking.stream.buffer-size:256}") int bufferSize,
+                           @Value("${banking.stream.replay-size:10000}") int replaySize,
+                           @Value("${banking.stream.writer-threads:8}") int writerThreads,
+                           @Value("${banking.stream.heartbeat:15s}") Duration heartbeat,
+                           @Value("${banking.stream.write-timeout:5s}") Duration writeTimeout,
+                           MeterRegistry registry) {
+        this.bufferSize = bufferSize;
+        this.recent = new AccountEvent[replaySize];
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemon("account-events-writer"));
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("account-events-heartbeat"));
+        this.heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        long watchMillis = Math.max(1, writeTimeout.toMillis() / 4);
+        this.heartbeats.scheduleWithFixedDelay(this::watchSends, watchMillis, watchMillis, TimeUnit.MILLISECONDS);
+        this.events = Counter.builder("bank.stream.events")
+                .description("Account events taken from the change stream")
+                .register(registry);
+        this.dropped = Counter.builder("bank.stream.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(registry);
+        this.stalled = Counter.builder("bank.stream.stalled")
+                .description("Subscribers disconnected because a send outlasted the write timeout")
+                .register(registry);
+        Gauge.builder("bank.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open account event subscriptions")
+                .register(registry);
+    }
+
+    /** Whether {@code lastEventId} is still recent enough to replay from. */
+    public synchronized boolean canResume(String lastEventId) {
+        return lastEventId != null && indexAfter(lastEventId) >= 0;
+    }
+
+    /**
+     * Starts delivering {@code accountNumber}'s events to {@code sink}. The first events are those
+     * after {@code lastEventId} when it can be resumed from, otherwise {@code snapshot}, otherwise
+     * a {@code reset}.
+     */
+    public synchronized Subscription subscribe(String accountNumber, String lastEventId, AccountEvent snapshot, Sink sink) {
+        Subscription sub = new Subscription(accountNumber, sink);
+        List<AccountEvent> missed = missed(accountNumber, lastEventId);
+        if (missed != null) {
+            missed.forEach(sub::offer);
+        } else {
+            sub.offer(snapshot != null ? snapshot : AccountEvent.reset(accountNumber));
+        }
+        byAccount.computeIfAbsent(accountNumber, k -> ConcurrentHashMap.newKeySet()).add(sub);
+        subscribers.incrementAndGet();
+        return sub;
+    }
+
+    /** Called by the change stream thread, in stream order. */
+    public synchronized void publish(AccountEvent event) {
+        recent[(int) (published++ % recent.length)] = event;
+        events.increment();
+        Set<Subscription> subs = byAccount.get(event.accountNumber());
+        if (subs == null) return;
+        for (Subscription sub : subs) sub.offer(event);
+    }
+
+    /** The stream lost its place; every subscriber is told to re-read and replay is no longer possible. */
+    public synchronized void reset() {
+        Arrays.fill(recent, null);
+        published = 0;
+        byAccount.values().forEach(subs -> subs.forEach(sub -> sub.offer(AccountEvent.reset(sub.accountNumber))));
+    }
+
+    public int subscribers() {
+        return subscribers.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        byAccount.values().forEach(subs -> subs.forEach(Subscription::close));
+        writers.shutdown();
+    }
+
+    // The account's events after lastEventId, or null when they cannot all be replayed.
+    private List<AccountEvent> missed(String accountNumber, String lastEventId) {
+        long from = lastEventId == null ? -1 : indexAfter(lastEventId);
+        if (from < 0) return null;
+        List<AccountEvent> missed = new ArrayList<>();
+        for (long i = from; i < published; i++) {
+            AccountEvent event = recent[(int) (i % recent.length)];
+            if (!event.accountNumber().equals(accountNumber)) continue;
+            if (missed.size() == bufferSize) return null;
+            missed.add(event);
+        }
+        return missed;
+    }
+
+    // First position after the newest event carrying lastEventId (a transfer's two legs share one),
+    // or -1 when it has left the buffer.
+    private long indexAfter(String lastEventId) {
+        long oldest = Math.max(0, published - recent.length);
+        for (long i = published - 1; i >= oldest; i--) {
+            if (lastEventId.equals(recent[(int) (i % recent.length)].id())) return i + 1;
+        }
+        return -1;
+    }
+
+    private void heartbeat() {
+        byAccount.values().forEach(subs -> subs.forEach(sub -> {
+            if (sub.buffer.isEmpty()) sub.offer(AccountEvent.HEARTBEAT);
+        }));
+    }
+
+    private void watchSends() {
+        long now = System.nanoTime();
+        for (Subscription sub : sending) {
+            if (sub.stall(now)) {
+                resizeWriters(1);
+                stalled.increment();
+                log.debug("Dropping stalled subscriber of {}", sub.accountNumber);
+                sub.close();
+            }
+        }
+    }
+
+    private void resizeWriters(int delta) {
+        synchronized (writers) {
+            int size = writers.getCorePoolSize() + delta;
+            if (delta > 0) {
+                writers.setMaximumPoolSize(size);
+                writers.setCorePoolSize(size);
+            } else {
+                writers.setCorePoolSize(size);
+                writers.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private synchronized void remove(Subscription sub) {
+        Set<Subscription> subs = byAccount.get(sub.accountNumber);
+        if (subs != null && subs.remove(sub)) {
+            subscribers.decrementAndGet();
+            byAccount.computeIfPresent(sub.accountNumber, (k, v) -> v.isEmpty() ? null : v);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** One client's connection. At most one drain runs at a time, so the sink is never called concurrently. */
+    public final class Subscription {
+
+        private static final long IDLE = Long.MIN_VALUE;
+        private static final long STALLED = Long.MAX_VALUE;
+
+        private final String accountNumber;
+        private final Sink sink;
+        private final ArrayBlockingQueue<AccountEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        // When the send in progress started, IDLE between sends, or STALLED once it outlasted the write timeout.
+        private final AtomicLong sendStart = new AtomicLong(IDLE);
+
+        private Subscription(String accountNumber, Sink sink) {
+            this.accountNumber = accountNumber;
+            this.sink = sink;
+        }
+
+        /** Stops delivery, e.g. because the client disconnected. */
+        public void close() {
+            if (closed) return;
+            closed = true;
+            remove(this);
+            signal();
+        }
+
+        private void offer(AccountEvent event) {
+            if (closed) return;
+            if (!buffer.offer(event)) {
+                dropped.increment();
+                log.debug("Dropping slow subscriber of {}", accountNumber);
+                close();
+                return;
+            }
+            signal();
+        }
+
+        private void signal() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    // Shutting down.
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                AccountEvent event;
+                while (!closed && (event = buffer.poll()) != null) send(event);
+            } catch (Exception ex) {
+                closed = true;
+                remove(this);
+            }
+            if (closed) {
+                // scheduled stays set: nothing is delivered after complete().
+                sink.complete();
+                return;
+            }
+            scheduled.set(false);
+            if (closed || !buffer.isEmpty()) signal();
+        }
+
+        private void send(AccountEvent event) throws Exception {
+            sendStart.set(System.nanoTime());
+            sending.add(this);
+            try {
+                sink.send(event);
+            } finally {
+                sending.remove(this);
+                // The pool ran a stand-in for this thread while it was stuck; it is free again.
+                if (sendStart.getAndSet(IDLE) == STALLED) resizeWriters(-1);
+            }
+        }
+
+        // Claims a send that has outlasted the write timeout, once.
+        private boolean stall(long now) {
+            long start = sendStart.get();
+            return start != IDLE && start != STALLED && now - start > writeTimeoutNanos
+                    && sendStart.compareAndSet(start, STALLED);
+        }
+    }
+}
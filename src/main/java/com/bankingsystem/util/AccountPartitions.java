@@ -0,0 +1,62 @@
+package com.bankingsystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The partition key embedded in account numbers. Every account number starts with two hex
+ * digits ({@code 00-FF}) taken from a hash of its id, so numbers minted in the same millisecond or
+ * for the same holder name still land all over the key space. With {@code accounts} and
+ * {@code postings} sharded on a range of {@code accountNumber}, each shard owns a contiguous run
+ * of prefixes, inserts spread evenly instead of piling onto the newest chunk, and every lookup by
+ * account number is routed to exactly one shard.
+ * <p>
+ * Account numbers minted before the prefix existed are still valid; they simply sort into
+ * whichever range their first two characters fall in.
+ */
+public final class AccountPartitions {
+
+    public static final int PARTITIONS = 256;
+
+    private AccountPartitions() {
+    }
+
+    /** The two-digit prefix for an account minted with {@code id}. */
+    public static String prefix(long id) {
+        int partition = (int) (mix(id) >>> 56);
+        return hex(partition);
+    }
+
+    /** The partition an account number belongs to: its prefix, or a hash of it when it has none. */
+    public static int partitionOf(String accountNumber) {
+        if (accountNumber.length() > 2 && accountNumber.charAt(2) == '-') {
+            int hi = Character.digit(accountNumber.charAt(0), 16);
+            int lo = Character.digit(accountNumber.charAt(1), 16);
+            if (hi >= 0 && lo >= 0) return hi << 4 | lo;
+        }
+        return (int) (mix(accountNumber.hashCode()) >>> 56);
+    }
+
+    /**
+     * The prefixes at which to pre-split {@code accountNumber} ranges so that {@code shards}
+     * shards start with an equal share, e.g. {@code [40, 80, C0]} for four.
+     */
+    public static List<String> splitPoints(int shards) {
+        if (shards < 1 || shards > PARTITIONS) throw new IllegalArgumentException("Shards must be between 1 and " + PARTITIONS);
+        List<String> points = new ArrayList<>(shards - 1);
+        for (int i = 1; i < shards; i++) points.add(hex(i * PARTITIONS / shards));
+        return points;
+    }
+
+    private static String hex(int partition) {
+        return Character.toString(Character.toUpperCase(Character.forDigit(partition >> 4, 16)))
+                + Character.toUpperCase(Character.forDigit(partition & 0xF, 16));
+    }
+
+    // SplitMix64 finaliser: consecutive snowflake ids differ only in their low bits.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
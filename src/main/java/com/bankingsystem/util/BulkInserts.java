@@ -0,0 +1,49 @@
+package com.bankingsystem.util;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Idempotent inserts for records with a unique key (transactions, postings, outbox events), used
+ * by writes that may be retried or replayed after a partial failure.
+ */
+public final class BulkInserts {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private BulkInserts() {
+    }
+
+    /**
+     * Inserts {@code docs} unordered, so on a sharded cluster each shard's share goes in one batch.
+     * Documents already present are skipped; any other write error is thrown.
+     * <p>
+     * Mongo's save events are only published when nothing was skipped, so a caller that derives
+     * data from what was stored must use the returned list rather than the events.
+     *
+     * @return the documents this call inserted, in order
+     */
+    public static <T> List<T> insertIgnoringDuplicates(MongoOperations mongo, Class<T> type, List<? extends T> docs) {
+        if (docs.isEmpty()) return List.of();
+        try {
+            mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(docs).execute();
+            return Collections.unmodifiableList(docs);
+        } catch (BulkOperationException ex) {
+            if (ex.getErrors().stream().anyMatch(e -> e.getCode() != DUPLICATE_KEY)) throw ex;
+            Set<Integer> skipped = ex.getErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+            List<T> inserted = new ArrayList<>();
+            for (int i = 0; i < docs.size(); i++) {
+                if (!skipped.contains(i)) inserted.add(docs.get(i));
+            }
+            return inserted;
+        }
+    }
+}
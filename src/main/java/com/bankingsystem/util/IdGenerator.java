@@ -0,0 +1,9 @@
+package com.bankingsystem.util;
+
+/**
+ * Source of unique, roughly time-ordered ids for transactions and account numbers.
+ * Implementations must be thread-safe and must not need a database round trip.
+ */
+public interface IdGenerator {
+    long nextId();
+}
@@ -0,0 +1,55 @@
+package com.bankingsystem.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 63-bit ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id
+ * and a 12-bit per-millisecond sequence. Ids are unique across nodes as long as every
+ * instance gets its own node id, and strictly increasing within a node.
+ * <p>
+ * Lock-free: the last (millis, sequence) pair lives in one {@link AtomicLong} and is advanced
+ * with CAS. When a millisecond's 4096 sequence values run out the sequence carries into the
+ * millisecond field, so the generator borrows from the next millisecond instead of spinning.
+ * A clock that steps backwards is handled the same way.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    public static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    // (millis since EPOCH) << SEQUENCE_BITS | sequence
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = now > prev ? now : prev + 1;
+        } while (!last.compareAndSet(prev, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+}
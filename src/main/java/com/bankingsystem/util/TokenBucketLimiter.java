@@ -0,0 +1,67 @@
+package com.bankingsystem.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an open-ended set of keys (clients, account numbers), one bucket per key.
+ * Buckets live in a bounded Caffeine map: a bucket idle long enough to have refilled completely
+ * is dropped, which loses nothing since a new bucket starts full. Only when more than
+ * {@code maxKeys} keys are active within one refill period are buckets evicted early, and those
+ * keys get a fresh burst.
+ * <p>
+ * Each bucket is a single long, its theoretical arrival time (GCRA): taking a token pushes it
+ * {@code 1/rate} into the future, and a request is refused when it is already more than
+ * {@code burst} tokens ahead of now. Once the bucket exists that is one CAS per request with no
+ * lock, and an idle bucket refills without any timer.
+ */
+public class TokenBucketLimiter {
+
+    private final Cache<Object, AtomicLong> arrival;
+    private final long interval;
+    private final long tolerance;
+    private final LongSupplier clock;
+    private final long origin;
+
+    public TokenBucketLimiter(double permitsPerSecond, int burst, long maxKeys) {
+        this(permitsPerSecond, burst, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketLimiter(double permitsPerSecond, int burst, long maxKeys, LongSupplier clock) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("Rate must be positive: " + permitsPerSecond);
+        if (burst < 1) throw new IllegalArgumentException("Burst must be at least 1: " + burst);
+        if (maxKeys < 1) throw new IllegalArgumentException("Max keys must be at least 1: " + maxKeys);
+        this.interval = Math.max(1, Math.round(1e9 / permitsPerSecond));
+        this.tolerance = (burst - 1) * interval;
+        this.clock = clock;
+        // Times are kept relative to construction so a new bucket (0) is never in the future.
+        this.origin = clock.getAsLong();
+        long refill = tolerance + interval;
+        this.arrival = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(refill < 0 ? Long.MAX_VALUE : refill))
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire(Object key) {
+        AtomicLong bucket = arrival.get(key, k -> new AtomicLong());
+        long now = clock.getAsLong() - origin;
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, now);
+            long wait = base - now - tolerance;
+            if (wait > 0) return wait;
+            if (bucket.compareAndSet(tat, base + interval)) return 0;
+        }
+    }
+}
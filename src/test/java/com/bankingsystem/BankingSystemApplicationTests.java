@@ -3,7 +3,9 @@ package com.bankingsystem;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// No database here: nothing may touch Mongo while the context starts.
+@SpringBootTest(properties = {"banking.id.node-id=0", "banking.mongo.create-indexes=false",
+		"banking.hot-accounts.fold-on-start=false"})
 class BankingSystemApplicationTests {
 
 	@Test
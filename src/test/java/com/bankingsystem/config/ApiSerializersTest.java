@@ -0,0 +1,56 @@
+package com.bankingsystem.config;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.TransactionPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiSerializersTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-04T10:15:30.123456Z");
+
+    private final ObjectMapper reflective = builder().build();
+    private final ObjectMapper precomputed = builder().modulesToInstall(new ApiSerializers()).build();
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static Account account() {
+        return Account.builder().id("665f1c2a").accountNumber("3F-ALICE-1").holderName("Alice \"Al\" Sharma")
+                .balance(1_234_567L).status("ACTIVE").createdAt(NOW).version(42L).build();
+    }
+
+    private static Transaction transaction() {
+        return Transaction.builder().id("665f1c2b").transactionId("TXN-1").type("DEPOSIT").amount(2500L)
+                .timestamp(NOW).status("SUCCESS").sourceAccount("3F-ALICE-1").build();
+    }
+
+    @Test
+    void writesTheSameJsonAsTheBeanSerializer() throws Exception {
+        for (Object value : List.of(account(), transaction(), new Account(), new Transaction(),
+                new ApiResponse(true, "Transactions fetched", new TransactionPage(List.of(transaction()), "abc")))) {
+            assertEquals(reflective.writeValueAsString(value), precomputed.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    void smileDecodesToTheJsonTree() throws Exception {
+        ObjectMapper smile = builder().factory(new SmileFactory()).modulesToInstall(new ApiSerializers()).build();
+        ApiResponse response = new ApiResponse(true, "Success", account());
+
+        byte[] bytes = smile.writeValueAsBytes(response);
+
+        assertEquals(reflective.readTree(reflective.writeValueAsBytes(response)), smile.readTree(bytes));
+    }
+}
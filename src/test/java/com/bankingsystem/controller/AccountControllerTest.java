@@ -1,39 +1,59 @@
 package com.bankingsystem.controller;
 
+import com.bankingsystem.exception.RateLimitExceededException;
 import com.bankingsystem.model.Account;
 import com.bankingsystem.model.Transaction;
 import com.bankingsystem.model.dto.AccountRequest;
 import com.bankingsystem.model.dto.ApiResponse;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.Statement;
+import com.bankingsystem.model.dto.TransactionPage;
 import com.bankingsystem.model.dto.TransferRequest;
 import com.bankingsystem.service.AccountService;
+import com.bankingsystem.service.RequestRateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = AccountController.class)
 class AccountControllerTest {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mvc;
 
     @MockBean
     private AccountService service;
 
+    @MockBean
+    private RequestRateLimiter rateLimiter;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -77,6 +97,28 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.data.balance", is(100)));
     }
 
+    @Test
+    void getEndpoint_answersSmileWhenAsked() throws Exception {
+        Account acc = Account.builder()
+                .accountNumber("ALICE-1")
+                .holderName("Alice")
+                .balance(100L)
+                .status("ACTIVE")
+                .createdAt(Instant.now())
+                .build();
+
+        when(service.getAccount("ALICE-1")).thenReturn(acc);
+
+        MvcResult result = mvc.perform(get("/api/accounts/ALICE-1").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn();
+
+        JsonNode body = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertEquals(100L, body.path("data").path("balance").asLong());
+        assertEquals("ALICE-1", body.path("data").path("accountNumber").asText());
+    }
+
     @Test
     void depositEndpoint_returnsOk() throws Exception {
         Account acc = Account.builder()
@@ -87,7 +129,7 @@ class AccountControllerTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(service.deposit("ALICE-1", 500L)).thenReturn(acc);
+        when(service.deposit("ALICE-1", 500L, null)).thenReturn(new ApiResponse(true, "Deposit successful", acc));
 
         mvc.perform(put("/api/accounts/ALICE-1/deposit")
                         .param("amount", "500"))
@@ -95,6 +137,32 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.data.balance", is(500)));
     }
 
+    @Test
+    void depositEndpoint_passesIdempotencyKey() throws Exception {
+        when(service.deposit("ALICE-1", 500L, "retry-1")).thenReturn(new ApiResponse(true, "Deposit successful", null));
+
+        mvc.perform(put("/api/accounts/ALICE-1/deposit")
+                        .header("Idempotency-Key", "retry-1")
+                        .param("amount", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message", is("Deposit successful")));
+    }
+
+    @Test
+    void statementEndpoint_parsesDates() throws Exception {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        when(service.getStatement("ALICE-1", from, to))
+                .thenReturn(new Statement("ALICE-1", from, to, 100L, 250L, 200L, 50L, 3L, List.of()));
+
+        mvc.perform(get("/api/accounts/ALICE-1/statement")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.closing", is(250)))
+                .andExpect(jsonPath("$.data.from", is("2025-01-01")));
+    }
+
     @Test
     void transferEndpoint_returnsOk() throws Exception {
         TransferRequest req = new TransferRequest();
@@ -102,7 +170,7 @@ class AccountControllerTest {
         req.setToAccount("ANJALI-1");
         req.setAmount(150L);
 
-        when(service.transfer(any(TransferRequest.class))).thenReturn(new ApiResponse(true, "Transfer successful", null));
+        when(service.transfer(any(TransferRequest.class), isNull())).thenReturn(new ApiResponse(true, "Transfer successful", null));
 
         mvc.perform(post("/api/accounts/transfer")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -111,11 +179,115 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.success", is(true)));
     }
 
+    @Test
+    void transferEndpoint_rejectsFractionalAmount() throws Exception {
+        mvc.perform(post("/api/accounts/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccount\":\"ALICE-1\",\"toAccount\":\"ANJALI-1\",\"amount\":150.5}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success", is(false)));
+
+        verify(service, never()).transfer(any(), any());
+    }
+
+    @Test
+    void depositEndpoint_rejectsFractionalAmount() throws Exception {
+        mvc.perform(put("/api/accounts/ALICE-1/deposit")
+                        .param("amount", "5.25"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).deposit(any(), anyLong(), any());
+    }
+
+    @Test
+    void batchTransferEndpoint_reportsPerItem() throws Exception {
+        TransferRequest req = new TransferRequest();
+        req.setFromAccount("ALICE-1");
+        req.setToAccount("ANJALI-1");
+        req.setAmount(150L);
+
+        when(service.transferBatch(any())).thenReturn(List.of(
+                new BatchTransferResult(0, true, "TXN-1", "Transfer successful"),
+                new BatchTransferResult(1, false, null, "Insufficient balance")));
+
+        mvc.perform(post("/api/accounts/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(req, req))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message", is("Batch processed: 1 of 2 succeeded")))
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.data[1].message", is("Insufficient balance")));
+    }
+
     @Test
     void transactionsEndpoint_returnsList() throws Exception {
-        when(service.getTransactions("ALICE-1")).thenReturn(List.of(new Transaction()));
+        when(service.getTransactions("ALICE-1", null, 50)).thenReturn(new TransactionPage(List.of(new Transaction()), "next"));
         mvc.perform(get("/api/accounts/ALICE-1/transactions"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.data", hasSize(1)));
+                .andExpect(jsonPath("$.data.transactions", hasSize(1)))
+                .andExpect(jsonPath("$.data.nextCursor", is("next")));
+    }
+
+    @Test
+    void transactionsEndpoint_passesCursor() throws Exception {
+        when(service.getTransactions("ALICE-1", "abc", 10)).thenReturn(new TransactionPage(List.of(), null));
+        mvc.perform(get("/api/accounts/ALICE-1/transactions").param("cursor", "abc").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.transactions", hasSize(0)));
+    }
+
+    @Test
+    void transactionStreamEndpoint_writesNdjson() throws Exception {
+        Transaction t1 = Transaction.builder().transactionId("TXN-1").amount(100L).build();
+        Transaction t2 = Transaction.builder().transactionId("TXN-2").amount(200L).build();
+        when(service.streamTransactions("ALICE-1")).thenReturn(Stream.of(t1, t2));
+
+        MvcResult started = mvc.perform(get("/api/accounts/ALICE-1/transactions/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("TXN-2", mapper.readValue(lines[1], Transaction.class).getTransactionId());
+    }
+
+    @Test
+    void rateLimitedClient_gets429WithRetryAfter() throws Exception {
+        doThrow(new RateLimitExceededException("Too many requests from this client", 2))
+                .when(rateLimiter).acquireClient("mobile-app");
+
+        mvc.perform(get("/api/accounts/ALICE-1").header("X-Client-Id", "mobile-app"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success", is(false)));
+        verify(rateLimiter).exit();
+    }
+
+    @Test
+    void requestWithoutClientId_isOnlyLimitedPerAccount() throws Exception {
+        when(service.getAccount("ALICE-1")).thenReturn(Account.builder().accountNumber("ALICE-1").build());
+
+        mvc.perform(get("/api/accounts/ALICE-1"))
+                .andExpect(status().isOk());
+        verify(rateLimiter, never()).acquireClient(any());
+        verify(rateLimiter).acquireAccount("ALICE-1");
+    }
+
+    @Test
+    void transferEndpoint_limitsSourceAccount() throws Exception {
+        TransferRequest req = new TransferRequest();
+        req.setFromAccount("ALICE-1");
+        req.setToAccount("ANJALI-1");
+        req.setAmount(100L);
+        doThrow(new RateLimitExceededException("Too many requests for account ALICE-1", 1))
+                .when(rateLimiter).acquireAccount("ALICE-1");
+
+        mvc.perform(post("/api/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isTooManyRequests());
     }
 }
@@ -0,0 +1,87 @@
+package com.bankingsystem.controller;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryCompressionFilterTest {
+
+    private static final String PAGE = "{\"success\":true,\"data\":{\"transactions\":[]}}";
+
+    private final HistoryCompressionFilter filter = new HistoryCompressionFilter(3, 16);
+
+    private static MockFilterChain chain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                res.setContentType("application/json");
+                res.setContentLength(PAGE.length());
+                res.getOutputStream().write(PAGE.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    private static MockHttpServletRequest request(String uri, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) request.addHeader("Accept-Encoding", acceptEncoding);
+        return request;
+    }
+
+    @Test
+    void gzipsHistoryPages() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/accounts/ALICE-1/transactions", "gzip, deflate"), response, chain());
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(PAGE, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void sendsPagesBelowTheMinimumSizeUncompressed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new HistoryCompressionFilter(3, PAGE.length() + 1)
+                .doFilter(request("/api/accounts/ALICE-1/transactions", "gzip"), response, chain());
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(PAGE, response.getContentAsString());
+    }
+
+    @Test
+    void leavesOtherEndpointsAndPlainClientsAlone() throws Exception {
+        MockHttpServletResponse account = new MockHttpServletResponse();
+        filter.doFilter(request("/api/accounts/ALICE-1", "gzip"), account, chain());
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        filter.doFilter(request("/api/accounts/ALICE-1/transactions", null), plain, chain());
+
+        assertNull(account.getHeader("Content-Encoding"));
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals(PAGE, plain.getContentAsString());
+    }
+
+    @Test
+    void negotiate_prefersZstdAndHonoursRefusals() {
+        assertEquals("gzip", filter.negotiate("gzip;q=0.5, br"));
+        assertEquals("gzip", filter.negotiate("*"));
+        assertNull(filter.negotiate("gzip;q=0, br"));
+        assertNull(filter.negotiate("identity"));
+        // zstd-jni ships the native library for the platforms we build on.
+        assertEquals("zstd", filter.negotiate("gzip, zstd"));
+    }
+}
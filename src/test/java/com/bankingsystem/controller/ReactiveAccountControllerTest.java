@@ -0,0 +1,82 @@
+package com.bankingsystem.controller;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.service.ReactiveAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = ReactiveAccountController.class, properties = "banking.stack=reactive")
+class ReactiveAccountControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    private ReactiveAccountService service;
+
+    @Test
+    void getEndpoint_returnsSameContractAsServletStack() {
+        Account acc = Account.builder()
+                .accountNumber("ALICE-1")
+                .holderName("Alice")
+                .balance(100L)
+                .status("ACTIVE")
+                .createdAt(Instant.now())
+                .build();
+        when(service.getAccount("ALICE-1")).thenReturn(Mono.just(acc));
+
+        client.get().uri("/api/accounts/ALICE-1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.message").isEqualTo("Success")
+                .jsonPath("$.data.balance").isEqualTo(100);
+    }
+
+    @Test
+    void getEndpoint_notFoundGoesThroughExceptionHandler() {
+        when(service.getAccount("NOPE")).thenReturn(Mono.error(new AccountNotFoundException("NOPE")));
+
+        client.get().uri("/api/accounts/NOPE").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(false)
+                .jsonPath("$.message").isEqualTo("Account not found: NOPE");
+    }
+
+    @Test
+    void depositEndpoint_returnsOk() {
+        Account acc = Account.builder().accountNumber("ALICE-1").balance(500L).build();
+        when(service.deposit("ALICE-1", 500L)).thenReturn(Mono.just(acc));
+
+        client.put().uri("/api/accounts/ALICE-1/deposit?amount=500").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Deposit successful")
+                .jsonPath("$.data.balance").isEqualTo(500);
+    }
+
+    @Test
+    void streamEndpoint_writesNdjson() {
+        when(service.streamTransactions("ALICE-1")).thenReturn(Flux.just(
+                Transaction.builder().transactionId("TXN-1").build(),
+                Transaction.builder().transactionId("TXN-2").build()));
+
+        client.get().uri("/api/accounts/ALICE-1/transactions/stream").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Transaction.class).hasSize(2);
+    }
+}
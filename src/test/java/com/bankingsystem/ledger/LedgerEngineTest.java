@@ -0,0 +1,165 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerEngineTest {
+
+    private MongoOperations mongo;
+    private BulkOperations bulk;
+    private LedgerEngine engine;
+    private final AtomicLong ids = new AtomicLong();
+
+    private String alice;
+    private String bob;
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoOperations.class);
+        bulk = mock(BulkOperations.class, RETURNS_SELF);
+        when(mongo.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulk);
+
+        engine = new LedgerEngine(mongo, new SimpleMeterRegistry(), Optional.empty(), new TransactionOutbox(mongo, false), null, false, 2, 1024, 100);
+        alice = "ALICE-1";
+        // An account owned by the other partition, so transfers between the two cross partitions.
+        int n = 0;
+        do bob = "BOB-" + n++; while (engine.partitionOf(bob) == engine.partitionOf(alice));
+
+        when(mongo.stream(any(Query.class), eq(Account.class))).thenReturn(Stream.of(
+                account(alice, 1_000L), account(bob, Long.MAX_VALUE - 10)));
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    private static Account account(String accNum, long balance) {
+        return Account.builder().accountNumber(accNum).balance(balance).version(3L).build();
+    }
+
+    private Transaction txn(String type, String from, String to, long amount) {
+        return Transaction.builder()
+                .transactionId("TXN-" + ids.incrementAndGet())
+                .type(type)
+                .amount(amount)
+                .timestamp(Instant.now())
+                .status("SUCCESS")
+                .sourceAccount(from)
+                .destinationAccount(to)
+                .build();
+    }
+
+    @Test
+    void startup_rebuildsBalancesFromMongo() {
+        Balance balance = engine.balance(alice);
+        assertEquals(1_000L, balance.balance());
+        assertEquals(3L, balance.version());
+    }
+
+    @Test
+    void depositAndWithdraw_applyInMemory() {
+        assertEquals(1_500L, engine.deposit(txn("DEPOSIT", alice, null, 500L)).balance());
+        Balance after = engine.withdraw(txn("WITHDRAW", alice, null, 200L));
+        assertEquals(1_300L, after.balance());
+        assertEquals(5L, after.version());
+    }
+
+    @Test
+    void withdraw_rejectsOverdraftAndUnknownAccounts() {
+        assertThrows(InsufficientBalanceException.class, () -> engine.withdraw(txn("WITHDRAW", alice, null, 5_000L)));
+        assertThrows(AccountNotFoundException.class, () -> engine.withdraw(txn("WITHDRAW", "NOPE", null, 1L)));
+        assertEquals(1_000L, engine.balance(alice).balance());
+    }
+
+    @Test
+    void open_registersNewAccounts() {
+        engine.open(Account.builder().accountNumber("CAROL-1").balance(0L).version(0L).build());
+        assertEquals(50L, engine.deposit(txn("DEPOSIT", "CAROL-1", null, 50L)).balance());
+    }
+
+    @Test
+    void transfer_acrossPartitions() {
+        engine.transfer(txn("TRANSFER", bob, alice, 10L));
+        assertEquals(1_010L, engine.balance(alice).balance());
+        assertEquals(Long.MAX_VALUE - 20, engine.balance(bob).balance());
+    }
+
+    @Test
+    void transfer_refundsWhenCreditLegIsRejected() {
+        assertThrows(BalanceOverflowException.class, () -> engine.transfer(txn("TRANSFER", alice, bob, 100L)));
+        assertEquals(1_000L, engine.balance(alice).balance());
+    }
+
+    @Test
+    void concurrentDeposits_toHotAccountAreAllApplied() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                futures.add(pool.submit(() -> engine.deposit(txn("DEPOSIT", alice, null, 1L))));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(2_000L, engine.balance(alice).balance());
+    }
+
+    @Test
+    void transferBatch_reportsEachItem() {
+        TransferRequest ok = new TransferRequest();
+        ok.setFromAccount(bob);
+        ok.setToAccount(alice);
+        ok.setAmount(5L);
+        TransferRequest broke = new TransferRequest();
+        broke.setFromAccount(alice);
+        broke.setToAccount(alice);
+        broke.setAmount(5L);
+
+        List<BatchTransferResult> results = engine.transferBatch(List.of(ok, broke), () -> "TXN-" + ids.incrementAndGet());
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Cannot transfer to same account", results.get(1).getMessage());
+    }
+
+    @Test
+    void stop_writesAppliedChangesBehind() throws InterruptedException {
+        engine.deposit(txn("DEPOSIT", alice, null, 1L));
+        engine.stop();
+
+        verify(bulk, atLeastOnce()).insert(anyList());
+        verify(bulk, atLeastOnce()).updateOne(any(Query.class), any(Update.class));
+        verify(bulk, atLeastOnce()).execute();
+    }
+}
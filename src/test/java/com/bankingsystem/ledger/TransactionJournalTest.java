@@ -0,0 +1,222 @@
+package com.bankingsystem.ledger;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.service.DailyBalanceService;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionJournalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    private MongoOperations mongo;
+    private BulkOperations bulk;
+    private BulkOperations txnBulk;
+    private BulkOperations postingBulk;
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoOperations.class);
+        bulk = mock(BulkOperations.class, RETURNS_SELF);
+        txnBulk = mock(BulkOperations.class, RETURNS_SELF);
+        postingBulk = mock(BulkOperations.class, RETURNS_SELF);
+        when(mongo.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulk);
+        when(mongo.bulkOps(any(BulkOperations.BulkMode.class), eq(Transaction.class))).thenReturn(txnBulk);
+        when(mongo.bulkOps(any(BulkOperations.BulkMode.class), eq(Posting.class))).thenReturn(postingBulk);
+    }
+
+    private static Transaction txn(String id, String type, long amount, String from, String to) {
+        return Transaction.builder()
+                .transactionId(id).type(type).amount(amount).timestamp(Instant.ofEpochMilli(1_700_000_000_000L))
+                .status("SUCCESS").sourceAccount(from).destinationAccount(to).build();
+    }
+
+    private static JournalEntry applied(String id, String acc, long balance, long version) {
+        return new JournalEntry(JournalEntry.Kind.APPLIED, List.of(new Balance(acc, balance, version)),
+                txn(id, "DEPOSIT", 100, acc, null));
+    }
+
+    private static Account account(String accNum, long balance, long version) {
+        return Account.builder().accountNumber(accNum).balance(balance).version(version).build();
+    }
+
+    private List<JournalEntry> readBack() {
+        List<JournalEntry> entries = new ArrayList<>();
+        JournalFiles.read(JournalFiles.segments(dir, 0), entries::add);
+        return entries;
+    }
+
+    @Test
+    void appendedEntries_readBackInOrderAcrossSegments() {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        for (int i = 1; i <= 200; i++) writer.append(applied("T" + i, "ACC-1", i * 100L, i));
+        writer.commit(() -> { }, true);
+
+        List<JournalEntry> entries = readBack();
+
+        assertTrue(JournalFiles.segments(dir, 0).size() > 1);
+        assertEquals(200, entries.size());
+        assertEquals("T1", entries.get(0).txn().getTransactionId());
+        assertEquals(new Balance("ACC-1", 20_000, 200), entries.get(199).balances().get(0));
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), entries.get(199).txn().getTimestamp());
+        assertNull(entries.get(199).txn().getDestinationAccount());
+    }
+
+    @Test
+    void commit_runsAcknowledgementsOnlyAfterSync() {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        AtomicInteger acked = new AtomicInteger();
+
+        writer.append(applied("T1", "ACC-1", 100, 1));
+        writer.commit(acked::incrementAndGet, false);
+        writer.append(applied("T2", "ACC-1", 200, 2));
+        writer.commit(acked::incrementAndGet, false);
+        assertEquals(0, acked.get());
+
+        writer.sync();
+
+        assertEquals(2, acked.get());
+    }
+
+    @Test
+    void read_stopsAtTornEntry() throws IOException {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        writer.append(applied("T1", "ACC-1", 100, 1));
+        writer.append(applied("T2", "ACC-1", 200, 2));
+        writer.commit(() -> { }, true);
+
+        // Corrupt the last byte of the second entry's body.
+        Path segment = JournalFiles.segments(dir, 0).get(0);
+        int firstFrame;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            firstFrame = JournalWriter.HEADER_BYTES + file.readInt();
+            file.seek(firstFrame);
+            int secondLength = file.readInt();
+            long last = firstFrame + JournalWriter.HEADER_BYTES + secondLength - 1;
+            file.seek(last);
+            int b = file.read();
+            file.seek(last);
+            file.write(b ^ 0xFF);
+        }
+
+        List<JournalEntry> entries = readBack();
+
+        assertEquals(1, entries.size());
+        assertEquals("T1", entries.get(0).txn().getTransactionId());
+    }
+
+    @Test
+    void release_keepsTheSegmentBeforeThePersistedOne() {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        while (writer.segment() < 3) writer.append(applied("T", "ACC-1", 100, 1));
+
+        writer.release(3);
+
+        assertEquals(List.of(2L, 3L), JournalFiles.segments(dir, 0).stream().map(JournalFiles::seq).toList());
+    }
+
+    @Test
+    void reconcile_reportsWithoutTouchingMongo() {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        writer.append(applied("T1", "ACC-1", 1100, 1));
+        writer.commit(() -> { }, true);
+        when(mongo.find(any(Query.class), eq(Account.class))).thenReturn(List.of(account("ACC-1", 1000, 0)));
+
+        ReconcileReport report = new JournalRecovery(dir, mongo, new TransactionOutbox(mongo, false), null).run(false);
+
+        assertEquals(1, report.entries());
+        assertEquals(1, report.accountsBehind());
+        assertEquals(1, report.transactions());
+        assertFalse(report.applied());
+        verify(mongo, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+        assertEquals(1, JournalFiles.segments(dir, 0).size());
+    }
+
+    @Test
+    void reconcile_replaysBalancesAndRefundsUnfinishedDebits() {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        writer.append(applied("T1", "ACC-1", 1100, 1));
+        writer.append(new JournalEntry(JournalEntry.Kind.DEBIT_PENDING, List.of(new Balance("ACC-1", 800, 2)),
+                txn("T2", "TRANSFER", 300, "ACC-1", "ACC-2")));
+        writer.commit(() -> { }, true);
+        when(mongo.find(any(Query.class), eq(Account.class))).thenReturn(List.of(account("ACC-1", 1000, 0)));
+        when(mongo.exists(any(Query.class), eq(Transaction.class))).thenReturn(false);
+        when(mongo.updateFirst(any(Query.class), any(Update.class), eq(Account.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        ReconcileReport report = new JournalRecovery(dir, mongo, new TransactionOutbox(mongo, false), null).run(true);
+
+        assertEquals(1, report.accountsBehind());
+        assertEquals(1, report.unfinishedDebits());
+        assertTrue(report.discrepancies().isEmpty());
+        verify(txnBulk).insert(argThat((List<?> txns) -> txns.size() == 1));
+        verify(postingBulk).insert(argThat((List<?> postings) -> postings.size() == 1));
+        verify(bulk).updateOne(any(Query.class), eq(new Update().set("balance", 800L).set("version", 2L)));
+        verify(mongo).updateFirst(any(Query.class), eq(new Update().inc("balance", 300L).set("version", 3L)), eq(Account.class));
+        assertTrue(JournalFiles.segments(dir, 0).isEmpty());
+        assertTrue(Files.isDirectory(dir.resolve("archive")));
+    }
+
+    @Test
+    void reconcile_doesNotRefundADebitWhoseCreditReachedMongo() {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        writer.append(new JournalEntry(JournalEntry.Kind.DEBIT_PENDING, List.of(new Balance("ACC-1", 700, 1)),
+                txn("T1", "TRANSFER", 300, "ACC-1", "ACC-2")));
+        writer.commit(() -> { }, true);
+        when(mongo.find(any(Query.class), eq(Account.class))).thenReturn(List.of(account("ACC-1", 700, 1)));
+        when(mongo.exists(any(Query.class), eq(Transaction.class))).thenReturn(true);
+
+        ReconcileReport report = new JournalRecovery(dir, mongo, new TransactionOutbox(mongo, false), null).run(true);
+
+        assertEquals(0, report.unfinishedDebits());
+        assertEquals(0, report.accountsBehind());
+        verify(mongo, never()).updateFirst(any(Query.class), any(Update.class), eq(Account.class));
+    }
+
+    @Test
+    void reconcile_snapshotsOnlyTheTransactionsItInserted() {
+        JournalWriter writer = new JournalWriter(dir, 0, SEGMENT_BYTES);
+        writer.append(applied("T1", "ACC-1", 1100, 1));
+        writer.append(applied("T2", "ACC-1", 1200, 2));
+        writer.commit(() -> { }, true);
+        when(mongo.find(any(Query.class), eq(Account.class))).thenReturn(List.of(account("ACC-1", 1200, 2)));
+        // T1 reached Mongo before the crash; T2 did not.
+        BulkOperationException partlyStored = mock(BulkOperationException.class);
+        when(partlyStored.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)));
+        when(txnBulk.execute()).thenThrow(partlyStored);
+        DailyBalanceService dailyBalances = mock(DailyBalanceService.class);
+
+        new JournalRecovery(dir, mongo, new TransactionOutbox(mongo, false), dailyBalances).run(true);
+
+        verify(dailyBalances).record(argThat((List<Transaction> txns) ->
+                txns.stream().map(Transaction::getTransactionId).toList().equals(List.of("T2"))));
+    }
+}
@@ -0,0 +1,164 @@
+package com.bankingsystem.outbox;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.OutboxEvent;
+import com.bankingsystem.model.Transaction;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxPublisherTest {
+
+    private MongoOperations mongo;
+    private OutboxSink sink;
+    private SimpleMeterRegistry registry;
+    private OutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoOperations.class);
+        sink = mock(OutboxSink.class);
+        registry = new SimpleMeterRegistry();
+        publisher = new OutboxPublisher(mongo, sink, registry, 500,
+                Duration.ofMillis(200), Duration.ofSeconds(30));
+        leaseHeld(true);
+    }
+
+    private void leaseHeld(boolean held) {
+        when(mongo.updateFirst(any(Query.class), any(Update.class), eq(OutboxPublisher.LEASES)))
+                .thenReturn(UpdateResult.acknowledged(held ? 1 : 0, held ? 1L : 0L, null));
+    }
+
+    @Test
+    void transferProducesADebitAndACreditEvent() {
+        Transaction txn = Transaction.builder()
+                .transactionId("TXN-1")
+                .type("TRANSFER")
+                .amount(250L)
+                .sourceAccount("ALICE-1")
+                .destinationAccount("ANJALI-1")
+                .timestamp(Instant.now())
+                .build();
+
+        List<OutboxEvent> events = TransactionOutbox.events(txn);
+
+        assertEquals(2, events.size());
+        assertEquals("TXN-1:ALICE-1", events.get(0).getEventId());
+        assertEquals(250L, events.get(0).getDebit());
+        assertEquals("ANJALI-1", events.get(0).getCounterparty());
+        assertEquals("TXN-1:ANJALI-1", events.get(1).getEventId());
+        assertEquals(250L, events.get(1).getCredit());
+        assertEquals("ALICE-1", events.get(1).getCounterparty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eventsCarryTheAccountsPostingSequence() {
+        Transaction txn = Transaction.builder()
+                .transactionId("TXN-1")
+                .type("TRANSFER")
+                .amount(250L)
+                .sourceAccount("ALICE-1")
+                .destinationAccount("ANJALI-1")
+                .timestamp(Instant.now())
+                .build();
+
+        // ANJALI-1 is a hot account here: its leg returned no document, so its event is unnumbered.
+        new TransactionOutbox(mongo, true).record(txn, Account.builder().accountNumber("ALICE-1").balance(750L).sequence(12L).build());
+
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(mongo).insert(events.capture(), eq(OutboxEvent.class));
+        assertEquals(12L, events.getValue().get(0).getSequence());
+        assertNull(events.getValue().get(1).getSequence());
+    }
+
+    @Test
+    void disabledOutboxWritesNothing() {
+        new TransactionOutbox(mongo, false).record(Transaction.builder().type("DEPOSIT").build());
+        verifyNoInteractions(mongo);
+    }
+
+    @Test
+    void batchIsMarkedPublishedOnlyAfterTheSinkAcknowledges() throws Exception {
+        List<OutboxEvent> pending = List.of(event("1"), event("2"));
+        when(mongo.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(pending);
+
+        assertEquals(2, publisher.publishBatch());
+
+        var order = inOrder(sink, mongo);
+        order.verify(sink).publish(pending);
+        order.verify(mongo).updateMulti(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    void batchDeliveredAfterTheLeaseWasLostStaysPending() throws Exception {
+        when(mongo.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(event("1")));
+        leaseHeld(false);
+
+        assertEquals(0, publisher.publishBatch());
+
+        verify(mongo).updateFirst(argThat((Query q) -> q.getQueryObject().containsKey("owner") && q.getQueryObject().containsKey("expiresAt")),
+                any(Update.class), eq(OutboxPublisher.LEASES));
+        verify(mongo, never()).updateMulti(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+        assertEquals(1, registry.get("bank.outbox.lease.lost").counter().count());
+    }
+
+    @Test
+    void accountEventsLeaveInSequenceOrderWhateverTheirIds() throws Exception {
+        // Sequence 5 was minted on an instance whose clock runs ahead, so its ObjectId sorts after
+        // sequence 6 and falls outside the batch.
+        OutboxEvent six = event("1", "ALICE-1", 6L);
+        OutboxEvent other = event("2", "BOB-1", 1L);
+        OutboxEvent five = event("3", "ALICE-1", 5L);
+        when(mongo.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(six, other), List.of(five));
+
+        assertEquals(3, publisher.publishBatch());
+
+        verify(sink).publish(List.of(five, six, other));
+    }
+
+    @Test
+    void failedDeliveryLeavesTheBatchPending() throws Exception {
+        when(mongo.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(event("1")));
+        doThrow(new IOException("broker down")).when(sink).publish(anyList());
+
+        assertThrows(IOException.class, () -> publisher.publishBatch());
+        verify(mongo, never()).updateMulti(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    void emptyOutboxSkipsTheSink() throws Exception {
+        when(mongo.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+
+        assertEquals(0, publisher.publishBatch());
+        verifyNoInteractions(sink);
+    }
+
+    private static OutboxEvent event(String id) {
+        return event(id, "ALICE-1", null);
+    }
+
+    private static OutboxEvent event(String id, String accNum, Long sequence) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventId("TXN-" + id + ":" + accNum)
+                .accountNumber(accNum)
+                .sequence(sequence)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private AccountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new AccountCache(100, Duration.ofMinutes(1), registry);
+    }
+
+    private static Account account(long balance, long version) {
+        return Account.builder().accountNumber("ALICE-1").balance(balance).version(version).build();
+    }
+
+    @Test
+    void put_olderVersionNeverReplacesNewer() {
+        cache.put(account(500L, 2L));
+        cache.put(account(100L, 1L));
+        assertEquals(500L, cache.get("ALICE-1", n -> null).getBalance());
+    }
+
+    @Test
+    void put_newerVersionWins() {
+        cache.put(account(100L, 1L));
+        cache.put(account(500L, 2L));
+        assertEquals(500L, cache.get("ALICE-1", n -> null).getBalance());
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        cache.put(account(100L, 1L));
+        cache.invalidate("ALICE-1");
+        assertEquals(700L, cache.get("ALICE-1", n -> account(700L, 3L)).getBalance());
+    }
+
+    @Test
+    void get_missDoesNotCacheNull() {
+        assertNull(cache.get("ALICE-1", n -> null));
+        assertEquals(100L, cache.get("ALICE-1", n -> account(100L, 1L)).getBalance());
+    }
+
+    @Test
+    void get_staleLoadDoesNotReplaceNewerWrite() {
+        Account loaded = cache.get("ALICE-1", n -> {
+            cache.put(account(500L, 2L));   // a write lands while the read is in flight
+            return account(100L, 1L);
+        });
+        assertEquals(500L, loaded.getBalance());
+    }
+
+    // Blocking loads must not run under a monitor, or they pin the carrier of a virtual thread.
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void get_blockingLoadDoesNotPinVirtualThreads() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+            recording.start();
+
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            for (int i = 0; i < 50; i++) {
+                String accNum = "ACC-" + (i % 5);
+                executor.submit(() -> cache.get(accNum, n -> {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Account.builder().accountNumber(n).version(1L).build();
+                }));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+            recording.stop();
+            Path file = Files.createTempFile("pinning", ".jfr");
+            recording.dump(file);
+            long pinned = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                    .count();
+            Files.delete(file);
+            assertEquals(0, pinned);
+        }
+    }
+
+    @Test
+    void metrics_recordHitsAndMisses() {
+        cache.get("ALICE-1", n -> account(100L, 1L));
+        cache.get("ALICE-1", n -> account(100L, 1L));
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "accounts").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "accounts").tag("result", "miss").functionCounter().count());
+    }
+}
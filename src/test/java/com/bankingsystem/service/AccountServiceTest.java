@@ -1,20 +1,36 @@
 package com.bankingsystem.service;
 
 import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.BalanceOverflowException;
 import com.bankingsystem.exception.InsufficientBalanceException;
 import com.bankingsystem.exception.InvalidAmountException;
+import com.bankingsystem.ledger.Balance;
+import com.bankingsystem.ledger.LedgerEngine;
 import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Posting;
 import com.bankingsystem.model.Transaction;
 import com.bankingsystem.model.dto.AccountRequest;
+import com.bankingsystem.model.dto.BalanceAt;
+import com.bankingsystem.model.dto.TransactionCursor;
+import com.bankingsystem.model.dto.TransactionPage;
 import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
 import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.PostingRepository;
 import com.bankingsystem.repository.TransactionRepository;
+import com.bankingsystem.util.AccountPartitions;
+import com.bankingsystem.util.IdGenerator;
+import com.bankingsystem.util.SnowflakeIdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +47,35 @@ class AccountServiceTest {
     @Mock
     private TransactionRepository txnRepo;
 
+    @Mock
+    private TransferEngine transferEngine;
+
+    @Mock
+    private BatchTransferEngine batchTransferEngine;
+
+    @Spy
+    private IdGenerator idGenerator = new SnowflakeIdGenerator(1);
+
+    @Spy
+    private AccountCache accountCache = new AccountCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Spy
+    private OperationMetrics metrics = new OperationMetrics(registry);
+
+    @Mock
+    private TransactionOutbox outbox;
+
+    @Mock
+    private PostingWriter postings;
+
+    @Mock
+    private PostingRepository postingRepo;
+
+    @Mock
+    private HotAccounts hotAccounts;
+
     @InjectMocks
     private AccountService service;
 
@@ -58,21 +103,26 @@ class AccountServiceTest {
                 .createdAt(Instant.now())
                 .version(0L)
                 .build();
+
+        ReflectionTestUtils.setField(service, "maxBatchSize", 2);
     }
 
     @Test
     void createAccount_success() {
         AccountRequest req = new AccountRequest();
         req.setHolderName("New User");
-        when(accountRepo.existsByAccountNumber(anyString())).thenReturn(false);
         when(accountRepo.save(any(Account.class))).thenAnswer(i -> i.getArguments()[0]);
 
         Account created = service.createAccount(req);
 
         assertNotNull(created.getAccountNumber());
+        assertTrue(created.getAccountNumber().matches("[0-9A-F]{2}-NEW-[0-9A-Z]+"), created.getAccountNumber());
+        assertEquals(AccountPartitions.partitionOf(created.getAccountNumber()),
+                Integer.parseInt(created.getAccountNumber().substring(0, 2), 16));
         assertEquals("New User", created.getHolderName());
         assertEquals(0L, created.getBalance());
         verify(accountRepo, times(1)).save(any(Account.class));
+        verify(accountRepo, never()).existsByAccountNumber(anyString());
     }
 
     @Test
@@ -86,17 +136,104 @@ class AccountServiceTest {
     void getAccount_notFound() {
         when(accountRepo.findByAccountNumber("NOPE")).thenReturn(Optional.empty());
         assertThrows(AccountNotFoundException.class, () -> service.getAccount("NOPE"));
+        assertThrows(AccountNotFoundException.class, () -> service.getAccount("NOPE"));
+        verify(accountRepo, times(2)).findByAccountNumber("NOPE");
     }
 
     @Test
-    void deposit_success() {
+    void getAccount_servedFromCache() {
         when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
-        when(accountRepo.save(any(Account.class))).thenAnswer(i -> i.getArguments()[0]);
+        service.getAccount("ALICE-1");
+        service.getAccount("ALICE-1");
+        verify(accountRepo, times(1)).findByAccountNumber("ALICE-1");
+    }
+
+    @Test
+    void deposit_refreshesCachedAccount() {
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+        assertEquals(0L, service.getAccount("ALICE-1").getBalance());
+
+        Account updated = Account.builder()
+                .id("1")
+                .accountNumber("ALICE-1")
+                .holderName("Alice Sharma")
+                .balance(500L)
+                .status("ACTIVE")
+                .version(1L)
+                .build();
+        when(accountRepo.credit("ALICE-1", 500L)).thenReturn(Optional.of(updated));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+        service.deposit("ALICE-1", 500L);
+
+        assertEquals(500L, service.getAccount("ALICE-1").getBalance());
+        verify(accountRepo, times(1)).findByAccountNumber("ALICE-1");
+    }
+
+    @Test
+    void deposit_success() {
+        alice.setBalance(500L);
+        when(accountRepo.credit("ALICE-1", 500L)).thenReturn(Optional.of(alice));
         when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
 
         Account result = service.deposit("ALICE-1", 500L);
         assertEquals(500L, result.getBalance());
         verify(txnRepo, times(1)).save(any(Transaction.class));
+        verify(postings).record(any(Transaction.class), eq(alice));
+        verify(accountRepo, never()).save(any(Account.class));
+    }
+
+    @Test
+    void withdraw_withOutboxCommitsInOneTransaction() {
+        when(outbox.isEnabled()).thenReturn(true);
+        alice.setBalance(300L);
+        when(transferEngine.depositOrWithdraw(any(Transaction.class))).thenReturn(alice);
+
+        Account result = service.withdraw("ALICE-1", 200L);
+
+        assertSame(alice, result);
+        verify(transferEngine).depositOrWithdraw(argThat(t ->
+                t.getType().equals("WITHDRAW") && t.getAmount() == 200L && t.getSourceAccount().equals("ALICE-1")));
+        verify(accountRepo, never()).debit(anyString(), anyLong());
+        verifyNoInteractions(txnRepo, postings);
+    }
+
+    @Test
+    void deposit_hotAccountGoesToBuckets() {
+        when(hotAccounts.isHot("ALICE-1")).thenReturn(true);
+        when(hotAccounts.credit("ALICE-1", 500L)).thenReturn(true);
+        when(hotAccounts.balance("ALICE-1")).thenReturn(12_500L);
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+
+        Account result = service.deposit("ALICE-1", 500L);
+
+        assertEquals(12_500L, result.getBalance());
+        verify(accountRepo, never()).credit(anyString(), anyLong());
+        verify(txnRepo).save(argThat(t -> t.getType().equals("DEPOSIT") && t.getAmount() == 500L));
+        verify(postings).record(any(Transaction.class));
+    }
+
+    @Test
+    void withdraw_hotAccountInsufficient() {
+        when(hotAccounts.isHot("ALICE-1")).thenReturn(true);
+        when(hotAccounts.debit("ALICE-1", 500L)).thenReturn(false);
+
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw("ALICE-1", 500L));
+        verify(txnRepo, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void deposit_accountNotFound() {
+        when(accountRepo.credit("NOPE", 500L)).thenReturn(Optional.empty());
+        assertThrows(AccountNotFoundException.class, () -> service.deposit("NOPE", 500L));
+        verify(txnRepo, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void deposit_overflow() {
+        when(accountRepo.credit("ALICE-1", Long.MAX_VALUE)).thenReturn(Optional.empty());
+        when(accountRepo.existsByAccountNumber("ALICE-1")).thenReturn(true);
+        assertThrows(BalanceOverflowException.class, () -> service.deposit("ALICE-1", Long.MAX_VALUE));
+        verify(txnRepo, never()).save(any(Transaction.class));
     }
 
     @Test
@@ -107,9 +244,8 @@ class AccountServiceTest {
 
     @Test
     void withdraw_success() {
-        alice.setBalance(1000L);
-        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
-        when(accountRepo.save(any(Account.class))).thenAnswer(i -> i.getArguments()[0]);
+        alice.setBalance(600L);
+        when(accountRepo.debit("ALICE-1", 400L)).thenReturn(Optional.of(alice));
         when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
 
         Account result = service.withdraw("ALICE-1", 400L);
@@ -119,19 +255,78 @@ class AccountServiceTest {
 
     @Test
     void withdraw_insufficient() {
-        alice.setBalance(100L);
+        when(accountRepo.debit("ALICE-1", 200L)).thenReturn(Optional.empty());
+        when(accountRepo.existsByAccountNumber("ALICE-1")).thenReturn(true);
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw("ALICE-1", 200L));
+        verify(txnRepo, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void operations_areTimedByOutcome() {
+        when(accountRepo.credit("ALICE-1", 500L)).thenReturn(Optional.of(alice));
+        when(accountRepo.debit("ALICE-1", 900L)).thenReturn(Optional.empty());
+        when(accountRepo.existsByAccountNumber("ALICE-1")).thenReturn(true);
+
+        service.deposit("ALICE-1", 500L);
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw("ALICE-1", 900L));
+        assertThrows(InvalidAmountException.class, () -> service.withdraw("ALICE-1", -1L));
+
+        assertEquals(1, timer("deposit", "success").count());
+        assertEquals(1, timer("withdraw", "insufficient_funds").count());
+        assertEquals(1, timer("withdraw", "rejected").count());
+    }
+
+    @Test
+    void getTransactions_lookupIsNotTimedAsGetAccount() {
+        when(accountRepo.findByAccountNumber("NOPE")).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> service.getTransactions("NOPE", null, 10));
+        assertEquals(1, timer("getTransactions", "not_found").count());
+        assertNull(registry.find("bank.operation").tag("operation", "getAccount").timer());
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return registry.get("bank.operation").tag("operation", operation).tag("outcome", outcome).timer();
+    }
+
+    @Test
+    void deposit_routesThroughLedgerWhenEnabled() {
+        LedgerEngine ledger = mock(LedgerEngine.class);
+        ReflectionTestUtils.setField(service, "ledger", ledger);
+        when(ledger.deposit(any(Transaction.class))).thenReturn(new Balance("ALICE-1", 500L, 7L));
         when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+
+        Account result = service.deposit("ALICE-1", 500L);
+
+        assertEquals(500L, result.getBalance());
+        assertEquals(7L, result.getVersion());
+        assertEquals(0L, alice.getBalance());
+        verify(ledger).deposit(argThat(t -> t.getType().equals("DEPOSIT") && t.getAmount() == 500L));
+        verify(accountRepo, never()).credit(anyString(), anyLong());
+        verify(txnRepo, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void withdraw_routesThroughCoalescerWhenEnabled() {
+        AccountWriteCoalescer coalescer = mock(AccountWriteCoalescer.class);
+        ReflectionTestUtils.setField(service, "coalescer", coalescer);
+        when(coalescer.withdraw("ALICE-1", 200L)).thenThrow(new InsufficientBalanceException());
+
         assertThrows(InsufficientBalanceException.class, () -> service.withdraw("ALICE-1", 200L));
+        verify(accountRepo, never()).debit(anyString(), anyLong());
+        verify(txnRepo, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void withdraw_accountNotFound() {
+        when(accountRepo.debit("NOPE", 200L)).thenReturn(Optional.empty());
+        when(accountRepo.existsByAccountNumber("NOPE")).thenReturn(false);
+        assertThrows(AccountNotFoundException.class, () -> service.withdraw("NOPE", 200L));
     }
 
     @Test
     void transfer_success() {
-        alice.setBalance(1000L);
-        anjali.setBalance(200L);
-        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
-        when(accountRepo.findByAccountNumber("ANJALI-1")).thenReturn(Optional.of(anjali));
-        when(accountRepo.save(any(Account.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(transferEngine.transfer(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
 
         TransferRequest req = new TransferRequest();
         req.setFromAccount("ALICE-1");
@@ -140,16 +335,18 @@ class AccountServiceTest {
 
         var res = service.transfer(req);
         assertTrue(res.isSuccess());
-        assertEquals(700L, alice.getBalance());
-        assertEquals(500L, anjali.getBalance());
-        verify(txnRepo, times(1)).save(any(Transaction.class));
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transferEngine, times(1)).transfer(captor.capture());
+        assertEquals("TRANSFER", captor.getValue().getType());
+        assertEquals("ALICE-1", captor.getValue().getSourceAccount());
+        assertEquals("ANJALI-1", captor.getValue().getDestinationAccount());
+        assertEquals(300L, captor.getValue().getAmount());
     }
 
     @Test
     void transfer_insufficient() {
-        alice.setBalance(100L);
-        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
-        when(accountRepo.findByAccountNumber("ANJALI-1")).thenReturn(Optional.of(anjali));
+        when(transferEngine.transfer(any(Transaction.class))).thenThrow(new InsufficientBalanceException());
 
         TransferRequest req = new TransferRequest();
         req.setFromAccount("ALICE-1");
@@ -159,12 +356,113 @@ class AccountServiceTest {
         assertThrows(InsufficientBalanceException.class, () -> service.transfer(req));
     }
 
+    @Test
+    void transfer_sameAccount() {
+        TransferRequest req = new TransferRequest();
+        req.setFromAccount("ALICE-1");
+        req.setToAccount("ALICE-1");
+        req.setAmount(200L);
+
+        assertThrows(IllegalArgumentException.class, () -> service.transfer(req));
+        verifyNoInteractions(transferEngine);
+    }
+
+    @Test
+    void transferBatch_delegatesToEngine() {
+        List<TransferRequest> reqs = List.of(new TransferRequest(), new TransferRequest());
+        when(batchTransferEngine.transfer(eq(reqs), any())).thenReturn(List.of());
+        assertNotNull(service.transferBatch(reqs));
+        verify(batchTransferEngine).transfer(eq(reqs), any());
+    }
+
+    @Test
+    void transferBatch_rejectsEmptyAndOversized() {
+        assertThrows(IllegalArgumentException.class, () -> service.transferBatch(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> service.transferBatch(
+                List.of(new TransferRequest(), new TransferRequest(), new TransferRequest())));
+        verifyNoInteractions(batchTransferEngine);
+    }
+
     @Test
     void getTransactions_returnsList() {
         when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
-        when(txnRepo.findBySourceAccountOrDestinationAccount("ALICE-1", "ALICE-1")).thenReturn(List.of());
-        List<?> list = service.getTransactions("ALICE-1");
-        assertNotNull(list);
-        verify(txnRepo, times(1)).findBySourceAccountOrDestinationAccount("ALICE-1","ALICE-1");
+        when(txnRepo.findHistoryPage("ALICE-1", null, 51)).thenReturn(List.of());
+        TransactionPage page = service.getTransactions("ALICE-1", null, 50);
+        assertNotNull(page.getTransactions());
+        assertNull(page.getNextCursor());
+        verify(txnRepo, times(1)).findHistoryPage("ALICE-1", null, 51);
+    }
+
+    @Test
+    void getTransactions_returnsCursorWhenMoreRowsExist() {
+        Instant ts = Instant.ofEpochMilli(1_700_000_000_000L);
+        List<Transaction> rows = List.of(
+                Transaction.builder().id("a").timestamp(ts.plusSeconds(2)).build(),
+                Transaction.builder().id("b").timestamp(ts.plusSeconds(1)).build(),
+                Transaction.builder().id("c").timestamp(ts).build());
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+        when(txnRepo.findHistoryPage("ALICE-1", null, 3)).thenReturn(rows);
+
+        TransactionPage page = service.getTransactions("ALICE-1", null, 2);
+
+        assertEquals(2, page.getTransactions().size());
+        TransactionCursor next = TransactionCursor.decode(page.getNextCursor());
+        assertEquals("b", next.getId());
+        assertEquals(ts.plusSeconds(1), next.getTimestamp());
+    }
+
+    @Test
+    void getTransactions_followsCursor() {
+        TransactionCursor cursor = new TransactionCursor(Instant.ofEpochMilli(1_700_000_000_000L), "b");
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+        when(txnRepo.findHistoryPage("ALICE-1", cursor, 11)).thenReturn(List.of());
+
+        service.getTransactions("ALICE-1", cursor.encode(), 10);
+
+        verify(txnRepo).findHistoryPage("ALICE-1", cursor, 11);
+    }
+
+    @Test
+    void getTransactions_rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> service.getTransactions("ALICE-1", null, 0));
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+        assertThrows(IllegalArgumentException.class, () -> service.getTransactions("ALICE-1", "%%%", 10));
+    }
+
+    @Test
+    void getBalanceAt_readsRunningBalanceOfLatestPosting() {
+        Instant at = Instant.parse("2025-03-01T10:00:00Z");
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+        when(postingRepo.findLatestAt("ALICE-1", at)).thenReturn(Optional.of(
+                Posting.builder().accountNumber("ALICE-1").credit(100L).balanceAfter(700L).sequence(4L).build()));
+
+        BalanceAt balance = service.getBalanceAt("ALICE-1", at);
+
+        assertEquals(700L, balance.getBalance());
+        assertEquals(4L, balance.getSequence());
+        verify(postingRepo, never()).sumUntil(anyString(), any());
+    }
+
+    @Test
+    void getBalanceAt_sumsPostingsWithoutRunningBalance() {
+        Instant at = Instant.parse("2025-03-01T10:00:00Z");
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+        when(postingRepo.findLatestAt("ALICE-1", at)).thenReturn(Optional.of(
+                Posting.builder().accountNumber("ALICE-1").credit(100L).build()));
+        when(postingRepo.sumUntil("ALICE-1", at)).thenReturn(300L);
+
+        BalanceAt balance = service.getBalanceAt("ALICE-1", at);
+
+        assertEquals(300L, balance.getBalance());
+        assertNull(balance.getSequence());
+    }
+
+    @Test
+    void getBalanceAt_isZeroBeforeTheFirstPosting() {
+        Instant at = Instant.parse("2025-03-01T10:00:00Z");
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Optional.of(alice));
+        when(postingRepo.findLatestAt("ALICE-1", at)).thenReturn(Optional.empty());
+
+        assertEquals(0L, service.getBalanceAt("ALICE-1", at).getBalance());
     }
 }
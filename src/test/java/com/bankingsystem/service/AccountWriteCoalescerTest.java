@@ -0,0 +1,186 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.TransactionRepository;
+import com.bankingsystem.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountWriteCoalescerTest {
+
+    @Mock
+    private AccountRepository accountRepo;
+
+    @Mock
+    private TransactionRepository txnRepo;
+
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    @Mock
+    private TransactionOutbox outbox;
+
+    @Mock
+    private PostingWriter postings;
+
+    private AccountCache accountCache;
+    private AccountWriteCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        accountCache = new AccountCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.stop();
+    }
+
+    // A window of minutes means only a batch that fills up is written during the test.
+    private AccountWriteCoalescer coalescer(int maxBatch, Duration window) {
+        coalescer = new AccountWriteCoalescer(accountRepo, txnRepo, new TransactionTemplate(txManager), accountCache,
+                outbox, postings, new SnowflakeIdGenerator(1), new SimpleMeterRegistry(), window, maxBatch, 1);
+        return coalescer;
+    }
+
+    private static Account account(long balance, long version, long sequence) {
+        return Account.builder().accountNumber("ACC-1").balance(balance).version(version).sequence(sequence).build();
+    }
+
+    // Keeps the account busy with a withdrawal that will be refused, held in its read until released,
+    // so movements submitted meanwhile are coalesced. Every read returns {@code acc}.
+    private CountDownLatch occupy(Account acc) throws InterruptedException {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(accountRepo.findByAccountNumber("ACC-1")).thenAnswer(inv -> {
+            if (first.compareAndSet(true, false)) {
+                reading.countDown();
+                release.await();
+            }
+            return Optional.of(acc);
+        });
+        CompletableFuture.runAsync(() -> assertThrows(InsufficientBalanceException.class,
+                () -> coalescer.withdraw("ACC-1", Long.MAX_VALUE)));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_writesAFullBatchOnceAndAnswersEachCaller() throws Exception {
+        coalescer(3, Duration.ofMinutes(1));
+        Account updated = account(120L, 5L, 9L);
+        CountDownLatch release = occupy(account(100L, 4L, 7L));
+        when(accountRepo.applyBalanceDelta("ACC-1", 4L, 20L, 2)).thenReturn(Optional.of(updated));
+
+        CompletableFuture<Account> deposit = coalescer.submit("ACC-1", 50L);
+        CompletableFuture<Account> overdraft = coalescer.submit("ACC-1", -200L);
+        CompletableFuture<Account> withdrawal = coalescer.submit("ACC-1", -30L);
+
+        assertEquals(150L, deposit.get().getBalance());
+        assertEquals(8L, deposit.get().getSequence());
+        ExecutionException rejected = assertThrows(ExecutionException.class, overdraft::get);
+        assertInstanceOf(InsufficientBalanceException.class, rejected.getCause());
+        assertEquals(120L, withdrawal.get().getBalance());
+        assertEquals(9L, withdrawal.get().getSequence());
+
+        ArgumentCaptor<List<Transaction>> txns = ArgumentCaptor.forClass(List.class);
+        verify(txnRepo, times(1)).insert(txns.capture());
+        assertEquals(List.of("DEPOSIT", "WITHDRAW"), txns.getValue().stream().map(Transaction::getType).toList());
+        verify(postings).record(txns.getValue(), List.of(updated));
+        verify(outbox).record(txns.getValue(), List.of(updated));
+        assertEquals(120L, accountCache.get("ACC-1", n -> null).getBalance());
+        release.countDown();
+    }
+
+    @Test
+    void submit_writesAnUncontendedMovementAtOnce() throws Exception {
+        coalescer(64, Duration.ofMinutes(1));
+        when(accountRepo.findByAccountNumber("ACC-1")).thenReturn(Optional.of(account(0L, 0L, 0L)));
+        when(accountRepo.applyBalanceDelta("ACC-1", 0L, 10L, 1)).thenReturn(Optional.of(account(10L, 1L, 1L)));
+
+        CompletableFuture<Account> deposit = coalescer.submit("ACC-1", 10L);
+
+        assertTrue(deposit.isDone());
+        assertEquals(10L, deposit.get().getBalance());
+    }
+
+    @Test
+    void submit_rereadsWhenTheAccountChangedUnderneath() throws Exception {
+        coalescer(1, Duration.ofMinutes(1));
+        when(accountRepo.findByAccountNumber("ACC-1"))
+                .thenReturn(Optional.of(account(100L, 4L, 7L)))
+                .thenReturn(Optional.of(account(60L, 5L, 8L)));
+        when(accountRepo.applyBalanceDelta("ACC-1", 4L, -50L, 1)).thenReturn(Optional.empty());
+        when(accountRepo.applyBalanceDelta("ACC-1", 5L, -50L, 1)).thenReturn(Optional.of(account(10L, 6L, 9L)));
+
+        assertEquals(10L, coalescer.submit("ACC-1", -50L).get().getBalance());
+        verify(txManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void submit_failsEveryCallerOnAMissingAccount() {
+        coalescer(2, Duration.ofMinutes(1));
+        when(accountRepo.findByAccountNumber("ACC-1")).thenReturn(Optional.empty());
+
+        CompletableFuture<Account> first = coalescer.submit("ACC-1", 10L);
+        CompletableFuture<Account> second = coalescer.submit("ACC-1", -10L);
+
+        assertInstanceOf(AccountNotFoundException.class, assertThrows(ExecutionException.class, first::get).getCause());
+        assertInstanceOf(AccountNotFoundException.class, assertThrows(ExecutionException.class, second::get).getCause());
+        verify(txnRepo, never()).insert(anyList());
+    }
+
+    @Test
+    void submit_writesAPartialBatchWhenTheWindowCloses() throws Exception {
+        coalescer(64, Duration.ofMillis(5));
+        CountDownLatch release = occupy(account(0L, 0L, 0L));
+        AtomicReference<String> writer = new AtomicReference<>();
+        when(accountRepo.applyBalanceDelta("ACC-1", 0L, 10L, 1)).thenAnswer(inv -> {
+            writer.set(Thread.currentThread().getName());
+            return Optional.of(account(10L, 1L, 1L));
+        });
+
+        assertEquals(10L, coalescer.submit("ACC-1", 10L).get(5, TimeUnit.SECONDS).getBalance());
+        // Written by the writer pool, not the timer thread, while the first write is still held.
+        assertEquals("account-write-coalescer-1", writer.get());
+        release.countDown();
+    }
+
+    @Test
+    void withdraw_rethrowsTheCallersOwnException() {
+        coalescer(1, Duration.ofMinutes(1));
+        when(accountRepo.findByAccountNumber("ACC-1")).thenReturn(Optional.of(account(5L, 0L, 0L)));
+
+        assertThrows(InsufficientBalanceException.class, () -> coalescer.withdraw("ACC-1", 10L));
+    }
+}
@@ -0,0 +1,181 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.BatchTransferResult;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransferEngineTest {
+
+    @Mock
+    private AccountRepository accountRepo;
+
+    @Mock
+    private TransactionRepository txnRepo;
+
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    @Mock
+    private TransactionOutbox outbox;
+
+    @Mock
+    private PostingWriter postings;
+
+    private AccountCache accountCache;
+    private BatchTransferEngine engine;
+    private final AtomicInteger ids = new AtomicInteger();
+    private final Supplier<String> txnIds = () -> "TXN-" + ids.incrementAndGet();
+
+    @BeforeEach
+    void setUp() {
+        accountCache = new AccountCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        engine = new BatchTransferEngine(accountRepo, txnRepo, new TransactionTemplate(txManager), accountCache, outbox, postings);
+    }
+
+    private static Account account(String accNum, long balance) {
+        return Account.builder().accountNumber(accNum).balance(balance).version(0L).build();
+    }
+
+    private static TransferRequest req(String from, String to, long amount) {
+        TransferRequest req = new TransferRequest();
+        req.setFromAccount(from);
+        req.setToAccount(to);
+        req.setAmount(amount);
+        return req;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transfer_netsMovementsAndWritesOnce() {
+        when(accountRepo.findByAccountNumberIn(any())).thenReturn(List.of(account("A", 100L), account("B", 0L), account("C", 0L)));
+        when(accountRepo.applyBalanceDeltas(any(), any())).thenReturn(true);
+
+        List<BatchTransferResult> results = engine.transfer(List.of(
+                req("A", "B", 100L),
+                req("B", "C", 60L),    // spends money credited by the previous item
+                req("C", "A", 10L)), txnIds);
+
+        assertTrue(results.stream().allMatch(BatchTransferResult::isSuccess));
+        ArgumentCaptor<Map<String, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Map<String, Integer>> legs = ArgumentCaptor.forClass(Map.class);
+        verify(accountRepo, times(1)).applyBalanceDeltas(deltas.capture(), legs.capture());
+        assertEquals(Map.of("A", -90L, "B", 40L, "C", 50L), deltas.getValue());
+        assertEquals(List.of("A", "B", "C"), new ArrayList<>(deltas.getValue().keySet()));
+        assertEquals(Map.of("A", 2, "B", 2, "C", 2), legs.getValue());
+
+        ArgumentCaptor<List<Transaction>> txns = ArgumentCaptor.forClass(List.class);
+        verify(txnRepo, times(1)).insert(txns.capture());
+        assertEquals(3, txns.getValue().size());
+        verify(postings).record(eq(txns.getValue()), anyList());
+        verify(outbox).record(eq(txns.getValue()), anyList());
+    }
+
+    @Test
+    void transfer_rejectsInvalidItemsIndividually() {
+        when(accountRepo.findByAccountNumberIn(any())).thenReturn(List.of(account("A", 50L), account("B", 0L)));
+        when(accountRepo.applyBalanceDeltas(any(), any())).thenReturn(true);
+
+        List<BatchTransferResult> results = engine.transfer(Arrays.asList(
+                req("A", "B", 30L),
+                req("A", "B", 30L),
+                req("A", "A", 1L),
+                req("A", "NOPE", 1L),
+                req("A", "B", 0L),
+                null), txnIds);
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Insufficient balance", results.get(1).getMessage());
+        assertEquals("Cannot transfer to same account", results.get(2).getMessage());
+        assertEquals("Account not found: NOPE", results.get(3).getMessage());
+        assertEquals("Amount must be positive", results.get(4).getMessage());
+        assertFalse(results.get(5).isSuccess());
+        assertEquals(5, results.get(5).getIndex());
+    }
+
+    @Test
+    void transfer_skipsWritesWhenNothingSucceeds() {
+        when(accountRepo.findByAccountNumberIn(any())).thenReturn(List.of(account("A", 0L), account("B", 0L)));
+        when(accountRepo.applyBalanceDeltas(any(), any())).thenReturn(true);
+
+        List<BatchTransferResult> results = engine.transfer(List.of(req("A", "B", 10L)), txnIds);
+
+        assertFalse(results.get(0).isSuccess());
+        verify(accountRepo).applyBalanceDeltas(Map.of(), Map.of());
+        verify(txnRepo, never()).insert(anyList());
+    }
+
+    @Test
+    void transfer_retriesWhenBalancesChangeUnderneath() {
+        when(accountRepo.findByAccountNumberIn(any()))
+                .thenReturn(List.of(account("A", 100L), account("B", 0L)))
+                .thenReturn(List.of(account("A", 20L), account("B", 0L)));
+        when(accountRepo.applyBalanceDeltas(any(), any())).thenReturn(false).thenReturn(true);
+
+        List<BatchTransferResult> results = engine.transfer(List.of(req("A", "B", 50L)), txnIds);
+
+        assertEquals("Insufficient balance", results.get(0).getMessage());
+        verify(txManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void transfer_givesUpAfterMaxRetries() {
+        when(accountRepo.findByAccountNumberIn(any())).thenReturn(List.of(account("A", 100L), account("B", 0L)));
+        when(accountRepo.applyBalanceDeltas(any(), any())).thenReturn(false);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> engine.transfer(List.of(req("A", "B", 50L)), txnIds));
+        verify(txnRepo, never()).insert(anyList());
+    }
+
+    @Test
+    void transfer_refreshesCachedAccountsAfterCommit() {
+        accountCache.put(account("A", 100L));
+        Account committed = Account.builder().accountNumber("A").balance(50L).version(1L).build();
+        when(accountRepo.findByAccountNumberIn(any()))
+                .thenReturn(List.of(account("A", 100L), account("B", 0L)))
+                .thenReturn(List.of(committed));
+        when(accountRepo.applyBalanceDeltas(any(), any())).thenReturn(true);
+
+        engine.transfer(List.of(req("A", "B", 50L)), txnIds);
+
+        assertEquals(50L, accountCache.get("A", n -> null).getBalance());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transfer_advancesSequenceOfAccountsThatNetToZero() {
+        when(accountRepo.findByAccountNumberIn(any())).thenReturn(List.of(account("A", 100L), account("B", 0L)));
+        when(accountRepo.applyBalanceDeltas(any(), any())).thenReturn(true);
+
+        engine.transfer(List.of(req("A", "B", 40L), req("B", "A", 40L)), txnIds);
+
+        ArgumentCaptor<Map<String, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Map<String, Integer>> legs = ArgumentCaptor.forClass(Map.class);
+        verify(accountRepo).applyBalanceDeltas(deltas.capture(), legs.capture());
+        assertEquals(Map.of("A", 0L, "B", 0L), deltas.getValue());
+        assertEquals(Map.of("A", 2, "B", 2), legs.getValue());
+    }
+}
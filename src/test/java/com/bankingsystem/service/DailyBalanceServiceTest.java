@@ -0,0 +1,198 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.DailyBalance;
+import com.bankingsystem.model.DailyBalanceBucket;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.Statement;
+import com.bankingsystem.repository.TransactionRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DailyBalanceServiceTest {
+
+    private MongoOperations mongo;
+    private TransactionRepository txnRepo;
+    private HotAccounts hotAccounts;
+    private DailyBalanceService service;
+
+    private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoOperations.class);
+        txnRepo = mock(TransactionRepository.class);
+        hotAccounts = mock(HotAccounts.class);
+        service = new DailyBalanceService(mongo, txnRepo, hotAccounts);
+        bucketDays();
+    }
+
+    private static Transaction txn(String type, long amount, String from, String to, Instant at) {
+        return Transaction.builder().transactionId("TXN-1").type(type).amount(amount).timestamp(at)
+                .status("SUCCESS").sourceAccount(from).destinationAccount(to).build();
+    }
+
+    private void dayExists(boolean exists) {
+        when(mongo.updateFirst(any(Query.class), any(Update.class), eq(DailyBalance.class)))
+                .thenReturn(UpdateResult.acknowledged(exists ? 1 : 0, exists ? 1L : 0L, null));
+    }
+
+    private void bucketDays(Document... rows) {
+        when(mongo.aggregate(any(Aggregation.class), eq(DailyBalanceBucket.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(rows), new Document()));
+    }
+
+    private static Document bucketDay(LocalDate day, long credits, long debits, long count) {
+        return new Document("_id", day.toString()).append("credits", credits).append("debits", debits).append("count", count);
+    }
+
+    private static DailyBalance snapshot(LocalDate day, long opening, long credits, long debits, long count) {
+        return DailyBalance.builder().accountNumber("ALICE-1").day(day.toString())
+                .opening(opening).closing(opening + credits - debits).credits(credits).debits(debits).count(count).build();
+    }
+
+    @Test
+    void deposit_incrementsExistingDay() {
+        dayExists(true);
+
+        service.record(txn("DEPOSIT", 500, "ALICE-1", null, Instant.now()));
+
+        verify(mongo).updateFirst(any(Query.class),
+                eq(new Update().inc("credits", 500L).inc("debits", 0L).inc("count", 1L).inc("closing", 500L)), eq(DailyBalance.class));
+        verify(mongo, never()).upsert(any(Query.class), any(Update.class), eq(DailyBalance.class));
+        verify(mongo, never()).updateMulti(any(Query.class), any(Update.class), eq(DailyBalance.class));
+    }
+
+    @Test
+    void firstMovementOfDay_opensAtPreviousClosing() {
+        dayExists(false);
+        when(mongo.findOne(any(Query.class), eq(DailyBalance.class))).thenReturn(snapshot(today.minusDays(3), 0, 1200, 0, 1));
+
+        service.record(txn("WITHDRAW", 200, "ALICE-1", null, Instant.now()));
+
+        verify(mongo).upsert(any(Query.class), eq(new Update().setOnInsert("opening", 1200L).setOnInsert("closing", 1200L)
+                .setOnInsert("credits", 0L).setOnInsert("debits", 0L).setOnInsert("count", 0L)), eq(DailyBalance.class));
+        verify(mongo, times(2)).updateFirst(any(Query.class),
+                eq(new Update().inc("credits", 0L).inc("debits", 200L).inc("count", 1L).inc("closing", -200L)), eq(DailyBalance.class));
+    }
+
+    @Test
+    void transfer_updatesBothAccounts() {
+        dayExists(true);
+
+        service.record(txn("TRANSFER", 150, "ALICE-1", "ANJALI-1", Instant.now()));
+
+        verify(mongo).updateFirst(any(Query.class), eq(new Update().inc("credits", 0L).inc("debits", 150L).inc("count", 1L).inc("closing", -150L)), eq(DailyBalance.class));
+        verify(mongo).updateFirst(any(Query.class), eq(new Update().inc("credits", 150L).inc("debits", 0L).inc("count", 1L).inc("closing", 150L)), eq(DailyBalance.class));
+    }
+
+    @Test
+    void lateMovement_shiftsLaterDays() {
+        dayExists(true);
+
+        service.record(txn("DEPOSIT", 300, "ALICE-1", null, Instant.now().minus(2, ChronoUnit.DAYS)));
+
+        verify(mongo).updateMulti(any(Query.class), eq(new Update().inc("opening", 300L).inc("closing", 300L)), eq(DailyBalance.class));
+    }
+
+    @Test
+    void lateBatch_updatesEachAccountAndDayOnce() {
+        dayExists(true);
+        Instant late = Instant.now().minus(2, ChronoUnit.DAYS);
+
+        service.record(List.of(
+                txn("DEPOSIT", 300, "ALICE-1", null, late),
+                txn("WITHDRAW", 100, "ALICE-1", null, late),
+                txn("DEPOSIT", 50, "ALICE-1", null, Instant.now())));
+
+        verify(mongo).updateFirst(any(Query.class),
+                eq(new Update().inc("credits", 300L).inc("debits", 100L).inc("count", 2L).inc("closing", 200L)), eq(DailyBalance.class));
+        verify(mongo).updateMulti(any(Query.class), eq(new Update().inc("opening", 200L).inc("closing", 200L)), eq(DailyBalance.class));
+        verify(mongo, times(2)).updateFirst(any(Query.class), any(Update.class), eq(DailyBalance.class));
+    }
+
+    @Test
+    void hotAccount_incrementsARandomDayBucket() {
+        when(hotAccounts.isHot("TREASURY-1")).thenReturn(true);
+        when(hotAccounts.randomBucket()).thenReturn(3);
+
+        service.record(txn("DEPOSIT", 500, "TREASURY-1", null, Instant.now().minus(2, ChronoUnit.DAYS)));
+
+        verify(mongo).upsert(argThat((Query q) -> q.getQueryObject().get("bucket").equals(3)),
+                eq(new Update().inc("credits", 500L).inc("debits", 0L).inc("count", 1L)), eq(DailyBalanceBucket.class));
+        verify(mongo, never()).updateFirst(any(Query.class), any(Update.class), eq(DailyBalance.class));
+        verify(mongo, never()).updateMulti(any(Query.class), any(Update.class), eq(DailyBalance.class));
+    }
+
+    @Test
+    void statement_addsBucketActivityToLaterDays() {
+        when(mongo.find(any(Query.class), eq(DailyBalance.class))).thenReturn(List.of(snapshot(today.minusDays(2), 1000, 0, 400, 2)));
+        bucketDays(bucketDay(today.minusDays(9), 200, 0, 1), bucketDay(today.minusDays(4), 300, 50, 3));
+
+        Statement statement = service.statement("ALICE-1", today.minusDays(7), today.minusDays(1));
+
+        assertEquals(1200, statement.getOpening());
+        assertEquals(1050, statement.getClosing());
+        assertEquals(300, statement.getCredits());
+        assertEquals(450, statement.getDebits());
+        assertEquals(5, statement.getCount());
+        assertEquals(2, statement.getDays().size());
+        assertEquals(1450, statement.getDays().get(0).getClosing());
+        assertEquals(1450, statement.getDays().get(1).getOpening());
+    }
+
+    @Test
+    void statement_combinesSnapshotsWithTodaysTransactions() {
+        when(mongo.find(any(Query.class), eq(DailyBalance.class))).thenReturn(List.of(
+                snapshot(today.minusDays(5), 0, 1000, 0, 1),
+                snapshot(today.minusDays(2), 1000, 0, 400, 2)));
+        when(mongo.findOne(any(Query.class), eq(DailyBalance.class))).thenReturn(snapshot(today.minusDays(2), 1000, 0, 400, 2));
+        when(txnRepo.findBetween(eq("ALICE-1"), any(Instant.class), any(Instant.class))).thenReturn(List.of(
+                txn("DEPOSIT", 50, "ALICE-1", null, Instant.now()),
+                txn("TRANSFER", 20, "ANJALI-1", "ALICE-1", Instant.now())));
+
+        Statement statement = service.statement("ALICE-1", today.minusDays(7), today);
+
+        assertEquals(0, statement.getOpening());
+        assertEquals(670, statement.getClosing());
+        assertEquals(1070, statement.getCredits());
+        assertEquals(400, statement.getDebits());
+        assertEquals(5, statement.getCount());
+        assertEquals(3, statement.getDays().size());
+        assertEquals(600, statement.getDays().get(2).getOpening());
+    }
+
+    @Test
+    void statement_withoutActivityCarriesPreviousClosing() {
+        when(mongo.find(any(Query.class), eq(DailyBalance.class))).thenReturn(List.of());
+        when(mongo.findOne(any(Query.class), eq(DailyBalance.class))).thenReturn(snapshot(today.minusDays(30), 0, 900, 0, 1));
+
+        Statement statement = service.statement("ALICE-1", today.minusDays(10), today.minusDays(1));
+
+        assertEquals(900, statement.getOpening());
+        assertEquals(900, statement.getClosing());
+        assertTrue(statement.getDays().isEmpty());
+        verifyNoInteractions(txnRepo);
+    }
+
+    @Test
+    void statement_rejectsInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.statement("ALICE-1", today, today.minusDays(1)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.AccountBucket;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HotAccountsTest {
+
+    private MongoTemplate mongo;
+    private PlatformTransactionManager txManager;
+    private SimpleMeterRegistry registry;
+    private HotAccounts hot;
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoTemplate.class);
+        txManager = mock(PlatformTransactionManager.class);
+        registry = new SimpleMeterRegistry();
+        hot = new HotAccounts(mongo, new TransactionTemplate(txManager), Set.of("TREASURY-1"), 4, Duration.ofMinutes(1), true, registry);
+        when(mongo.exists(any(Query.class), eq(Account.class))).thenReturn(true);
+        when(mongo.findDistinct(any(Query.class), eq("accountNumber"), eq(AccountBucket.class), eq(String.class)))
+                .thenReturn(List.of("TREASURY-1"));
+        hot.init();
+    }
+
+    private static UpdateResult matched(long count) {
+        return UpdateResult.acknowledged(count, count, null);
+    }
+
+    private static AggregationResults<Document> bucketTotal(long balance) {
+        return new AggregationResults<>(List.of(new Document("_id", "TREASURY-1").append("balance", balance)), new Document());
+    }
+
+    private static AccountBucket bucket(int bucket, long balance) {
+        return AccountBucket.builder().id("B" + bucket).accountNumber("TREASURY-1").bucket(bucket).balance(balance).build();
+    }
+
+    @Test
+    void init_createsTheBucketsOfExistingHotAccounts() {
+        verify(mongo, times(4)).upsert(any(Query.class), any(), eq(AccountBucket.class));
+        assertTrue(hot.isHot("TREASURY-1"));
+        assertFalse(hot.isHot("ALICE-1"));
+    }
+
+    @Test
+    void credit_incrementsOneBucketAndTheCachedTotal() {
+        when(mongo.findOne(any(Query.class), eq(Account.class))).thenReturn(Account.builder().accountNumber("TREASURY-1").balance(100L).build());
+        when(mongo.aggregate(any(Aggregation.class), eq(AccountBucket.class), eq(Document.class))).thenReturn(bucketTotal(50L));
+        when(mongo.updateFirst(any(Query.class), any(), eq(AccountBucket.class))).thenReturn(matched(1));
+
+        assertEquals(150L, hot.balance("TREASURY-1"));
+        assertTrue(hot.credit("TREASURY-1", 10L));
+
+        assertEquals(160L, hot.balance("TREASURY-1"));
+        verify(mongo, times(1)).findOne(any(Query.class), eq(Account.class));
+        verify(mongo, never()).updateFirst(any(Query.class), any(), eq(Account.class));
+    }
+
+    @Test
+    void debit_reservesFromTheFullestBucketWithoutATransaction() {
+        when(mongo.updateFirst(any(Query.class), any(), eq(Account.class))).thenReturn(matched(0));
+        when(mongo.findOne(any(Query.class), eq(AccountBucket.class))).thenReturn(bucket(2, 500L));
+        when(mongo.updateFirst(any(Query.class), any(), eq(AccountBucket.class))).thenReturn(matched(1));
+
+        assertTrue(hot.debit("TREASURY-1", 200L));
+
+        verifyNoInteractions(txManager);
+        assertEquals(0.0, registry.get("bank.hot.sweeps").counter().count());
+    }
+
+    @Test
+    void debit_sweepsSeveralSourcesWhenNoneCoversIt() {
+        when(mongo.updateFirst(any(Query.class), any(), eq(Account.class))).thenReturn(matched(0)).thenReturn(matched(1));
+        when(mongo.findOne(any(Query.class), eq(AccountBucket.class))).thenReturn(bucket(0, 30L));
+        when(mongo.findOne(any(Query.class), eq(Account.class))).thenReturn(Account.builder().accountNumber("TREASURY-1").balance(20L).build());
+        when(mongo.find(any(Query.class), eq(AccountBucket.class))).thenReturn(List.of(bucket(0, 30L), bucket(1, 10L)));
+        when(mongo.updateFirst(any(Query.class), any(), eq(AccountBucket.class))).thenReturn(matched(1));
+
+        assertTrue(hot.debit("TREASURY-1", 50L));
+
+        // 20 from the account document, then 30 from the fullest bucket; the last bucket is untouched.
+        verify(mongo, times(2)).updateFirst(any(Query.class), any(), eq(Account.class));
+        verify(mongo, times(1)).updateFirst(any(Query.class), any(), eq(AccountBucket.class));
+        verify(txManager).commit(any());
+        assertEquals(1.0, registry.get("bank.hot.sweeps").counter().count());
+    }
+
+    @Test
+    void debit_failsWhenAllSourcesTogetherFallShort() {
+        when(mongo.updateFirst(any(Query.class), any(), eq(Account.class))).thenReturn(matched(0));
+        when(mongo.findOne(any(Query.class), eq(AccountBucket.class))).thenReturn(bucket(0, 30L));
+        when(mongo.findOne(any(Query.class), eq(Account.class))).thenReturn(Account.builder().accountNumber("TREASURY-1").balance(20L).build());
+        when(mongo.find(any(Query.class), eq(AccountBucket.class))).thenReturn(List.of(bucket(0, 30L), bucket(1, 10L)));
+
+        assertFalse(hot.debit("TREASURY-1", 100L));
+
+        verify(mongo, never()).updateFirst(any(Query.class), any(), eq(AccountBucket.class));
+    }
+
+    @Test
+    void init_foldsBucketsOfAccountsNoLongerHot() {
+        HotAccounts none = new HotAccounts(mongo, new TransactionTemplate(txManager), Set.of(), 4, Duration.ofMinutes(1), true, registry);
+        when(mongo.aggregate(any(Aggregation.class), eq(AccountBucket.class), eq(Document.class))).thenReturn(bucketTotal(70L));
+
+        none.init();
+
+        assertFalse(none.isHot("TREASURY-1"));
+        verify(mongo).updateFirst(any(Query.class), any(), eq(Account.class));
+        verify(mongo).remove(any(Query.class), eq(AccountBucket.class));
+    }
+}
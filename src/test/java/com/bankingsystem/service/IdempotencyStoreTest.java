@@ -0,0 +1,153 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.IdempotencyConflictException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.IdempotencyRecord;
+import com.bankingsystem.model.dto.ApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    private MongoOperations mongo;
+    private IdempotencyStore store;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoOperations.class);
+        store = new IdempotencyStore(mongo, 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    }
+
+    private ApiResponse deposit() {
+        return new ApiResponse(true, "Deposit successful", executions.incrementAndGet());
+    }
+
+    @Test
+    void noKey_alwaysExecutes() {
+        store.execute(null, "deposit:ALICE-1:500", this::deposit);
+        store.execute(null, "deposit:ALICE-1:500", this::deposit);
+
+        assertEquals(2, executions.get());
+        verifyNoInteractions(mongo);
+    }
+
+    @Test
+    void retry_returnsFirstResponseWithoutExecuting() {
+        ApiResponse first = store.execute("k1", "deposit:ALICE-1:500", this::deposit);
+        ApiResponse retry = store.execute("k1", "deposit:ALICE-1:500", this::deposit);
+
+        assertSame(first, retry);
+        assertEquals(1, executions.get());
+        verify(mongo).insert(any(IdempotencyRecord.class));
+        verify(mongo).updateFirst(any(Query.class), eq(new Update().set("response", first)), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void storedResponse_isReplayedFromMongo() {
+        ApiResponse stored = new ApiResponse(true, "Deposit successful", 42);
+        when(mongo.findById("k1", IdempotencyRecord.class)).thenReturn(
+                new IdempotencyRecord("k1", "deposit:ALICE-1:500", stored, Instant.now()));
+
+        ApiResponse res = store.execute("k1", "deposit:ALICE-1:500", this::deposit);
+
+        assertSame(stored, res);
+        assertEquals(0, executions.get());
+        verify(mongo, never()).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void keyReusedForDifferentRequest_isConflict() {
+        store.execute("k1", "deposit:ALICE-1:500", this::deposit);
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> store.execute("k1", "withdraw:ALICE-1:500", this::deposit));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void keyClaimedByAnotherInstance_isConflict() {
+        when(mongo.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(mongo.findById("k1", IdempotencyRecord.class)).thenReturn(
+                null, new IdempotencyRecord("k1", "deposit:ALICE-1:500", null, Instant.now()));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> store.execute("k1", "deposit:ALICE-1:500", this::deposit));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void failedRequest_releasesKeySoRetryRuns() {
+        assertThrows(InsufficientBalanceException.class, () -> store.execute("k1", "withdraw:ALICE-1:500", () -> {
+            throw new InsufficientBalanceException();
+        }));
+        verify(mongo).remove(any(Query.class), eq(IdempotencyRecord.class));
+
+        store.execute("k1", "withdraw:ALICE-1:500", this::deposit);
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failureWithUnknownOutcome_keepsKeyInProgress() {
+        assertThrows(QueryTimeoutException.class, () -> store.execute("k1", "withdraw:ALICE-1:500", () -> {
+            throw new QueryTimeoutException("timed out waiting for the commit");
+        }));
+        verify(mongo, never()).remove(any(Query.class), eq(IdempotencyRecord.class));
+
+        when(mongo.findById("k1", IdempotencyRecord.class)).thenReturn(
+                new IdempotencyRecord("k1", "withdraw:ALICE-1:500", null, Instant.now()));
+        assertThrows(IdempotencyConflictException.class,
+                () -> store.execute("k1", "withdraw:ALICE-1:500", this::deposit));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicates_shareOneExecution() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<ApiResponse> first = pool.submit(() -> store.execute("k1", "deposit:ALICE-1:500", () -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return deposit();
+            }));
+            running.await();
+
+            Future<?>[] duplicates = new Future<?>[8];
+            for (int i = 0; i < duplicates.length; i++) {
+                duplicates[i] = pool.submit(() -> store.execute("k1", "deposit:ALICE-1:500", this::deposit));
+            }
+            release.countDown();
+
+            ApiResponse res = first.get();
+            for (Future<?> duplicate : duplicates) assertSame(res, duplicate.get());
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingWriterTest {
+
+    private final Instant now = Instant.parse("2025-03-01T10:00:00Z");
+
+    @Test
+    void transferHasADebitAndACreditPosting() {
+        Transaction txn = txn("TRANSFER", "ALICE-1", "ANJALI-1");
+
+        List<Posting> postings = PostingWriter.postings(List.of(txn));
+
+        assertEquals(2, postings.size());
+        Posting debit = postings.get(0);
+        assertEquals("ALICE-1", debit.getAccountNumber());
+        assertEquals(250L, debit.getDebit());
+        assertEquals("ANJALI-1", debit.getCounterparty());
+        Posting credit = postings.get(1);
+        assertEquals("ANJALI-1", credit.getAccountNumber());
+        assertEquals(250L, credit.getCredit());
+        assertEquals("ALICE-1", credit.getCounterparty());
+    }
+
+    @Test
+    void eachPostingReadsBackAsItsTransaction() {
+        for (Transaction txn : List.of(txn("TRANSFER", "ALICE-1", "ANJALI-1"), txn("DEPOSIT", "ALICE-1", null),
+                txn("WITHDRAW", "ALICE-1", null))) {
+            for (Posting posting : PostingWriter.postings(List.of(txn))) {
+                Transaction read = posting.toTransaction();
+                assertEquals(txn.getTransactionId(), read.getTransactionId());
+                assertEquals(txn.getType(), read.getType());
+                assertEquals(txn.getAmount(), read.getAmount());
+                assertEquals(txn.getSourceAccount(), read.getSourceAccount());
+                assertEquals(txn.getDestinationAccount(), read.getDestinationAccount());
+                assertEquals(txn.getTimestamp(), read.getTimestamp());
+            }
+        }
+    }
+
+    @Test
+    void postingsAreNumberedBackFromTheAccountsFinalState() {
+        // ALICE-1 ends at 350 after sequence 7: +250 deposit, -250 transfer out, +100 deposit.
+        List<Transaction> txns = List.of(
+                txn("TXN-1", "DEPOSIT", 250L, "ALICE-1", null),
+                txn("TXN-2", "TRANSFER", 250L, "ALICE-1", "ANJALI-1"),
+                txn("TXN-3", "DEPOSIT", 100L, "ALICE-1", null));
+        List<Account> after = List.of(
+                Account.builder().accountNumber("ALICE-1").balance(350L).sequence(7L).build(),
+                Account.builder().accountNumber("ANJALI-1").balance(250L).sequence(1L).build());
+
+        List<Posting> postings = PostingWriter.postings(txns, after);
+
+        assertEquals(List.of("ALICE-1", "ALICE-1", "ANJALI-1", "ALICE-1"), postings.stream().map(Posting::getAccountNumber).toList());
+        assertEquals(List.of(500L, 250L, 250L, 350L), postings.stream().map(Posting::getBalanceAfter).toList());
+        assertEquals(List.of(5L, 6L, 1L, 7L), postings.stream().map(Posting::getSequence).toList());
+    }
+
+    @Test
+    void legsOnAccountsWithoutStateStayUnnumbered() {
+        List<Posting> postings = PostingWriter.postings(List.of(txn("TRANSFER", "ALICE-1", "ANJALI-1")),
+                List.of(Account.builder().accountNumber("ANJALI-1").balance(250L).sequence(1L).build()));
+
+        assertNull(postings.get(0).getSequence());
+        assertNull(postings.get(0).getBalanceAfter());
+        assertEquals(1L, postings.get(1).getSequence());
+    }
+
+    private Transaction txn(String type, String source, String destination) {
+        return txn("TXN-1", type, 250L, source, destination);
+    }
+
+    private Transaction txn(String id, String type, long amount, String source, String destination) {
+        return Transaction.builder()
+                .transactionId(id)
+                .type(type)
+                .amount(amount)
+                .timestamp(now)
+                .status("SUCCESS")
+                .sourceAccount(source)
+                .destinationAccount(destination)
+                .build();
+    }
+}
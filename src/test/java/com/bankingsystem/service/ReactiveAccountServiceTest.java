@@ -0,0 +1,205 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.exception.InvalidAmountException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.model.dto.TransferRequest;
+import com.bankingsystem.repository.ReactiveAccountRepository;
+import com.bankingsystem.repository.ReactiveTransactionRepository;
+import com.bankingsystem.util.IdGenerator;
+import com.bankingsystem.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAccountServiceTest {
+
+    @Mock
+    private ReactiveAccountRepository accountRepo;
+
+    @Mock
+    private ReactiveTransactionRepository txnRepo;
+
+    @Mock
+    private TransactionalOperator txOperator;
+
+    @Mock
+    private AccountService blockingService;
+
+    @Spy
+    private IdGenerator idGenerator = new SnowflakeIdGenerator(1);
+
+    @InjectMocks
+    private ReactiveAccountService service;
+
+    private Account alice;
+
+    @BeforeEach
+    void setUp() {
+        alice = Account.builder()
+                .id("1")
+                .accountNumber("ALICE-1")
+                .holderName("Alice Sharma")
+                .balance(500L)
+                .status("ACTIVE")
+                .createdAt(Instant.now())
+                .version(1L)
+                .build();
+    }
+
+    private static TransferRequest req(String from, String to, long amount) {
+        TransferRequest req = new TransferRequest();
+        req.setFromAccount(from);
+        req.setToAccount(to);
+        req.setAmount(amount);
+        return req;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void passThroughTransactions() {
+        when(txOperator.transactional(any(Mono.class))).thenAnswer(i -> i.getArgument(0));
+    }
+
+    @Test
+    void getAccount_notFound() {
+        when(accountRepo.findByAccountNumber("NOPE")).thenReturn(Mono.empty());
+        StepVerifier.create(service.getAccount("NOPE"))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void deposit_success() {
+        when(accountRepo.credit("ALICE-1", 500L)).thenReturn(Mono.just(alice));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+        StepVerifier.create(service.deposit("ALICE-1", 500L))
+                .expectNext(alice)
+                .verifyComplete();
+        verify(txnRepo).save(argThat(t -> t.getType().equals("DEPOSIT") && t.getAmount() == 500L));
+    }
+
+    @Test
+    void deposit_invalidAmount() {
+        StepVerifier.create(service.deposit("ALICE-1", 0L))
+                .expectError(InvalidAmountException.class)
+                .verify();
+        verifyNoInteractions(accountRepo);
+    }
+
+    @Test
+    void withdraw_insufficient() {
+        when(accountRepo.debit("ALICE-1", 900L)).thenReturn(Mono.empty());
+        when(accountRepo.existsByAccountNumber("ALICE-1")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.withdraw("ALICE-1", 900L))
+                .expectError(InsufficientBalanceException.class)
+                .verify();
+        verify(txnRepo, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void withdraw_accountNotFound() {
+        when(accountRepo.debit("NOPE", 100L)).thenReturn(Mono.empty());
+        when(accountRepo.existsByAccountNumber("NOPE")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.withdraw("NOPE", 100L))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void transfer_appliesLegsInAccountOrder() {
+        passThroughTransactions();
+        when(accountRepo.credit("ALICE-1", 100L)).thenReturn(Mono.just(alice));
+        when(accountRepo.debit("ZED-1", 100L)).thenReturn(Mono.just(new Account()));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+        StepVerifier.create(service.transfer(req("ZED-1", "ALICE-1", 100L)))
+                .assertNext(res -> {
+                    assertTrue(res.isSuccess());
+                    assertEquals("ZED-1", ((Transaction) res.getData()).getSourceAccount());
+                })
+                .verifyComplete();
+
+        InOrder order = inOrder(accountRepo);
+        order.verify(accountRepo).credit("ALICE-1", 100L);
+        order.verify(accountRepo).debit("ZED-1", 100L);
+    }
+
+    @Test
+    void transfer_retriesConflicts() {
+        passThroughTransactions();
+        when(accountRepo.debit("ALICE-1", 100L))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("write conflict")))
+                .thenReturn(Mono.just(alice));
+        when(accountRepo.credit("ZED-1", 100L)).thenReturn(Mono.just(new Account()));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+        StepVerifier.create(service.transfer(req("ALICE-1", "ZED-1", 100L)))
+                .assertNext(res -> assertTrue(res.isSuccess()))
+                .verifyComplete();
+        verify(accountRepo, times(2)).debit("ALICE-1", 100L);
+    }
+
+    @Test
+    void transfer_givesUpAfterMaxRetries() {
+        passThroughTransactions();
+        when(accountRepo.debit("ALICE-1", 100L)).thenReturn(Mono.error(new OptimisticLockingFailureException("write conflict")));
+
+        StepVerifier.create(service.transfer(req("ALICE-1", "ZED-1", 100L)))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        verify(accountRepo, times(3)).debit("ALICE-1", 100L);
+        verify(accountRepo, never()).credit(anyString(), anyLong());
+        verify(txnRepo, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void transfer_sameAccount() {
+        StepVerifier.create(service.transfer(req("ALICE-1", "ALICE-1", 100L)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void getTransactions_returnsCursorWhenMoreRowsExist() {
+        Instant ts = Instant.ofEpochMilli(1_700_000_000_000L);
+        when(accountRepo.findByAccountNumber("ALICE-1")).thenReturn(Mono.just(alice));
+        when(txnRepo.findHistoryPage("ALICE-1", null, 2)).thenReturn(Flux.just(
+                Transaction.builder().id("a").timestamp(ts.plusSeconds(1)).build(),
+                Transaction.builder().id("b").timestamp(ts).build()));
+
+        StepVerifier.create(service.getTransactions("ALICE-1", null, 1))
+                .assertNext(page -> {
+                    assertEquals(1, page.getTransactions().size());
+                    assertNotNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void streamTransactions_requiresAccount() {
+        when(accountRepo.findByAccountNumber("NOPE")).thenReturn(Mono.empty());
+        when(txnRepo.streamHistory("NOPE")).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.streamTransactions("NOPE"))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+}
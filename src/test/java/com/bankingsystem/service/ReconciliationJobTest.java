@@ -0,0 +1,138 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.AccountBucket;
+import com.bankingsystem.model.Posting;
+import com.bankingsystem.model.ReconciliationReport;
+import com.bankingsystem.model.ReconciliationReport.Discrepancy;
+import com.bankingsystem.model.ReconciliationReport.SequenceGap;
+import com.bankingsystem.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReconciliationJobTest {
+
+    private MongoTemplate mongo;
+    private SimpleMeterRegistry registry;
+    private ReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoTemplate.class);
+        registry = new SimpleMeterRegistry();
+        job = new ReconciliationJob(mongo, registry, 2, 10_000);
+        when(mongo.insert(any(ReconciliationReport.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(mongo.stream(any(Query.class), eq(Account.class))).thenAnswer(inv -> Stream.of(
+                account("ALICE-1", 500), account("ANJALI-1", 300)));
+        when(mongo.aggregate(any(Aggregation.class), eq(Posting.class), eq(Document.class))).thenReturn(rows());
+        when(mongo.aggregate(any(Aggregation.class), eq(AccountBucket.class), eq(Document.class))).thenReturn(rows());
+    }
+
+    private static Account account(String accNum, long balance) {
+        return Account.builder().accountNumber(accNum).balance(balance).build();
+    }
+
+    private static AggregationResults<Document> rows(Document... rows) {
+        return new AggregationResults<>(List.of(rows), new Document());
+    }
+
+    private static Document row(String accNum, long net, long count) {
+        return new Document("_id", accNum).append("net", net).append("count", count);
+    }
+
+    @Test
+    void matchingBalances_reportNoDiscrepancies() {
+        when(mongo.aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class)))
+                .thenReturn(rows(row("ALICE-1", 500, 2), row("ANJALI-1", -150, 1)))
+                .thenReturn(rows(row("ANJALI-1", 450, 2)));
+
+        ReconciliationReport report = job.run();
+
+        assertEquals(2, report.getAccounts());
+        assertEquals(5, report.getTransactions());
+        assertEquals(0, report.getDiscrepancyCount());
+        assertTrue(report.getDiscrepancies().isEmpty());
+        assertEquals(2.0, registry.get("bank.reconciliation.accounts").counter().count());
+        assertEquals(1.0, registry.get("bank.reconciliation.progress").gauge().value());
+        verify(mongo).insert(any(ReconciliationReport.class));
+    }
+
+    @Test
+    void onlyMismatchesThatSurviveTheRecheckAreReported() {
+        when(mongo.aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class)))
+                // Range scan: ALICE-1 looks short (a transfer in flight), ANJALI-1 has no history, GHOST-1 does not exist.
+                .thenReturn(rows(row("ALICE-1", 400, 2), row("GHOST-1", 100, 1)))
+                .thenReturn(rows())
+                // Re-checks, in the same order.
+                .thenReturn(rows(row("ALICE-1", 500, 3))).thenReturn(rows())
+                .thenReturn(rows()).thenReturn(rows())
+                .thenReturn(rows(row("GHOST-1", 100, 1))).thenReturn(rows());
+        when(mongo.findOne(any(Query.class), eq(Account.class))).thenAnswer(inv -> {
+            String accNum = inv.getArgument(0, Query.class).getQueryObject().getString("accountNumber");
+            return switch (accNum) {
+                case "ALICE-1" -> account("ALICE-1", 500);
+                case "ANJALI-1" -> account("ANJALI-1", 300);
+                default -> null;
+            };
+        });
+
+        ReconciliationReport report = job.run();
+
+        assertEquals(2, report.getDiscrepancyCount());
+        assertEquals(List.of(
+                new Discrepancy("ANJALI-1", 300L, 0, 0),
+                new Discrepancy("GHOST-1", null, 100, 1)), report.getDiscrepancies());
+        assertEquals(2.0, registry.get("bank.reconciliation.discrepancies").counter().count());
+    }
+
+    @Test
+    void missingPostingsAreLocatedBySequence() {
+        when(mongo.stream(any(Query.class), eq(Account.class))).thenAnswer(inv -> Stream.of(
+                account("ALICE-1", 500).toBuilder().sequence(6L).build()));
+        when(mongo.aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class)))
+                .thenReturn(rows(row("ALICE-1", 500, 6))).thenReturn(rows());
+        // Postings 2 and 5 never made it.
+        List<Long> present = List.of(1L, 3L, 4L, 6L);
+        when(mongo.aggregate(any(Aggregation.class), eq(Posting.class), eq(Document.class)))
+                .thenReturn(rows(new Document("_id", "ALICE-1").append("count", 4)));
+        when(mongo.findOne(any(Query.class), eq(Account.class))).thenReturn(account("ALICE-1", 500).toBuilder().sequence(6L).build());
+        when(mongo.count(any(Query.class), eq(Posting.class))).thenAnswer(inv -> {
+            Document range = inv.getArgument(0, Query.class).getQueryObject().get("sequence", Document.class);
+            long from = range.get("$gte", Number.class).longValue();
+            long to = range.get("$lte", Number.class).longValue();
+            return present.stream().filter(seq -> seq >= from && seq <= to).count();
+        });
+
+        ReconciliationReport report = job.run();
+
+        assertEquals(0, report.getDiscrepancyCount());
+        assertEquals(1, report.getSequenceGapCount());
+        assertEquals(List.of(new SequenceGap("ALICE-1", 6, 4, List.of(2L, 5L))), report.getSequenceGaps());
+    }
+
+    @Test
+    void hotAccountBucketsCountTowardsTheBalance() {
+        when(mongo.stream(any(Query.class), eq(Account.class))).thenAnswer(inv -> Stream.of(account("HOT-1", 100)));
+        when(mongo.aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class)))
+                .thenReturn(rows(row("HOT-1", 900, 9))).thenReturn(rows());
+        when(mongo.aggregate(any(Aggregation.class), eq(AccountBucket.class), eq(Document.class)))
+                .thenReturn(rows(new Document("_id", "HOT-1").append("balance", 800L)));
+
+        ReconciliationReport report = job.run();
+
+        assertEquals(0, report.getDiscrepancyCount());
+    }
+}
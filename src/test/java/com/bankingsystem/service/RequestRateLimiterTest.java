@@ -0,0 +1,44 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RequestRateLimiterTest {
+
+    private SimpleMeterRegistry registry;
+    private RequestRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        HotAccounts hotAccounts = mock(HotAccounts.class);
+        when(hotAccounts.isHot("TREASURY-1")).thenReturn(true);
+        // Rates low enough that nothing refills during the test.
+        limiter = new RequestRateLimiter(true, 1e-3, 100, 1e-3, 2, 1e-3, 10, 1024, 0, hotAccounts, registry);
+    }
+
+    @Test
+    void ordinaryAccountIsLimitedToItsBurst() {
+        limiter.acquireAccount("ALICE-1");
+        limiter.acquireAccount("ALICE-1");
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquireAccount("ALICE-1"));
+        assertEquals(1, rejections("account"));
+    }
+
+    @Test
+    void hotAccountHasItsOwnHigherLimit() {
+        for (int i = 0; i < 10; i++) limiter.acquireAccount("TREASURY-1");
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquireAccount("TREASURY-1"));
+        assertEquals(1, rejections("hot-account"));
+        assertEquals(0, rejections("account"));
+    }
+
+    private double rejections(String reason) {
+        return registry.get("bank.ratelimit.rejections").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,189 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.exception.AccountNotFoundException;
+import com.bankingsystem.exception.InsufficientBalanceException;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Transaction;
+import com.bankingsystem.outbox.TransactionOutbox;
+import com.bankingsystem.repository.AccountRepository;
+import com.bankingsystem.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferEngineTest {
+
+    @Mock
+    private AccountRepository accountRepo;
+
+    @Mock
+    private TransactionRepository txnRepo;
+
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    @Mock
+    private TransactionOutbox outbox;
+
+    @Mock
+    private PostingWriter postings;
+
+    @Mock
+    private HotAccounts hotAccounts;
+
+    private SimpleMeterRegistry registry;
+    private AccountCache accountCache;
+    private TransferEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        accountCache = new AccountCache(100, Duration.ofMinutes(1), registry);
+        engine = new TransferEngine(accountRepo, txnRepo, new TransactionTemplate(txManager), accountCache, outbox, postings, hotAccounts, registry);
+    }
+
+    private static Account account(String accNum, long balance, long version) {
+        return Account.builder().accountNumber(accNum).balance(balance).version(version).build();
+    }
+
+    private static Transaction transfer(String from, String to, long amount) {
+        return Transaction.builder()
+                .transactionId("TXN-1")
+                .type("TRANSFER")
+                .amount(amount)
+                .sourceAccount(from)
+                .destinationAccount(to)
+                .build();
+    }
+
+    @Test
+    void transfer_appliesLegsInAccountOrder() {
+        when(accountRepo.debit("ZED-1", 100L)).thenReturn(Optional.of(account("ZED-1", 0L, 1L)));
+        when(accountRepo.credit("ALICE-1", 100L)).thenReturn(Optional.of(account("ALICE-1", 100L, 1L)));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        Transaction txn = engine.transfer(transfer("ZED-1", "ALICE-1", 100L));
+
+        assertEquals("TXN-1", txn.getTransactionId());
+        InOrder order = inOrder(accountRepo, txnRepo, postings, outbox);
+        order.verify(accountRepo).credit("ALICE-1", 100L);
+        order.verify(accountRepo).debit("ZED-1", 100L);
+        order.verify(txnRepo).save(any(Transaction.class));
+        order.verify(postings).record(any(Transaction.class),
+                argThat(acc -> acc.getAccountNumber().equals("ALICE-1")),
+                argThat(acc -> acc.getAccountNumber().equals("ZED-1")));
+        order.verify(outbox).record(any(Transaction.class),
+                argThat(acc -> acc.getAccountNumber().equals("ALICE-1")),
+                argThat(acc -> acc.getAccountNumber().equals("ZED-1")));
+        verify(txManager).commit(any());
+    }
+
+    @Test
+    void depositOrWithdraw_writesTheEventInTheSameTransaction() {
+        Transaction deposit = Transaction.builder().transactionId("TXN-2").type("DEPOSIT").amount(100L).sourceAccount("ALICE-1").build();
+        when(accountRepo.credit("ALICE-1", 100L)).thenReturn(Optional.of(account("ALICE-1", 600L, 4L)));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        Account acc = engine.depositOrWithdraw(deposit);
+
+        assertEquals(600L, acc.getBalance());
+        InOrder order = inOrder(accountRepo, txnRepo, outbox, txManager);
+        order.verify(accountRepo).credit("ALICE-1", 100L);
+        order.verify(txnRepo).save(deposit);
+        order.verify(outbox).record(eq(deposit), argThat((Account a) -> a.getBalance() == 600L));
+        order.verify(txManager).commit(any());
+        assertEquals(600L, accountCache.get("ALICE-1", n -> null).getBalance());
+    }
+
+    @Test
+    void transfer_insufficientRollsBack() {
+        when(accountRepo.debit("ALICE-1", 100L)).thenReturn(Optional.empty());
+        when(accountRepo.existsByAccountNumber("ALICE-1")).thenReturn(true);
+
+        assertThrows(InsufficientBalanceException.class, () -> engine.transfer(transfer("ALICE-1", "ZED-1", 100L)));
+
+        verify(accountRepo, never()).credit(anyString(), anyLong());
+        verify(txnRepo, never()).save(any(Transaction.class));
+        verify(txManager).rollback(any());
+    }
+
+    @Test
+    void transfer_missingDestinationRollsBack() {
+        when(accountRepo.debit("ALICE-1", 100L)).thenReturn(Optional.of(account("ALICE-1", 0L, 1L)));
+        when(accountRepo.credit("ZED-1", 100L)).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> engine.transfer(transfer("ALICE-1", "ZED-1", 100L)));
+
+        verify(txnRepo, never()).save(any(Transaction.class));
+        verify(txManager).rollback(any());
+        assertNull(accountCache.get("ALICE-1", n -> null));
+    }
+
+    @Test
+    void transfer_publishesCommittedBalancesToCache() {
+        when(accountRepo.debit("ALICE-1", 100L)).thenReturn(Optional.of(account("ALICE-1", 400L, 3L)));
+        when(accountRepo.credit("ZED-1", 100L)).thenReturn(Optional.of(account("ZED-1", 100L, 1L)));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        engine.transfer(transfer("ALICE-1", "ZED-1", 100L));
+
+        assertEquals(400L, accountCache.get("ALICE-1", n -> null).getBalance());
+        assertEquals(100L, accountCache.get("ZED-1", n -> null).getBalance());
+    }
+
+    @Test
+    void transfer_retriesConflictsAndCountsThem() {
+        when(accountRepo.debit("ALICE-1", 100L))
+                .thenThrow(new OptimisticLockingFailureException("write conflict"))
+                .thenReturn(Optional.of(account("ALICE-1", 0L, 1L)));
+        when(accountRepo.credit("ZED-1", 100L)).thenReturn(Optional.of(account("ZED-1", 100L, 1L)));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        engine.transfer(transfer("ALICE-1", "ZED-1", 100L));
+
+        assertEquals(1.0, registry.counter("bank.transfer.conflicts").count());
+        assertEquals(1.0, registry.counter("bank.transfer.retries").count());
+        assertEquals(0.0, registry.counter("bank.transfer.retries.exhausted").count());
+        assertEquals(2.0, registry.get("bank.transfer.attempts").summary().totalAmount());
+    }
+
+    @Test
+    void transfer_givesUpAfterMaxRetries() {
+        when(accountRepo.debit("ALICE-1", 100L)).thenThrow(new OptimisticLockingFailureException("write conflict"));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> engine.transfer(transfer("ALICE-1", "ZED-1", 100L)));
+
+        assertEquals(3.0, registry.counter("bank.transfer.conflicts").count());
+        assertEquals(1.0, registry.counter("bank.transfer.retries.exhausted").count());
+    }
+
+    @Test
+    void transfer_creditsHotAccountBuckets() {
+        when(hotAccounts.isHot("ALICE-1")).thenReturn(false);
+        when(hotAccounts.isHot("TREASURY-1")).thenReturn(true);
+        when(hotAccounts.credit("TREASURY-1", 100L)).thenReturn(true);
+        when(accountRepo.debit("ALICE-1", 100L)).thenReturn(Optional.of(account("ALICE-1", 0L, 1L)));
+        when(txnRepo.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        engine.transfer(transfer("ALICE-1", "TREASURY-1", 100L));
+
+        verify(accountRepo, never()).credit(anyString(), anyLong());
+        verify(postings).record(any(Transaction.class), argThat((Account acc) -> acc.getAccountNumber().equals("ALICE-1")));
+        assertNull(accountCache.get("TREASURY-1", n -> null));
+    }
+}
@@ -0,0 +1,139 @@
+package com.bankingsystem.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountEventHubTest {
+
+    private AccountEventHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new AccountEventHub(4, 100, 2, Duration.ofHours(1), Duration.ofMillis(200), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    void eventsReachOnlyTheAccountsSubscribers() throws Exception {
+        RecordingSink alice = new RecordingSink(2);
+        RecordingSink anjali = new RecordingSink(1);
+        hub.subscribe("ALICE-1", null, AccountEvent.balance(null, "ALICE-1", 100), alice);
+        hub.subscribe("ANJALI-1", null, AccountEvent.balance(null, "ANJALI-1", 50), anjali);
+
+        hub.publish(AccountEvent.balance("t1", "ALICE-1", 150));
+
+        alice.await();
+        anjali.await();
+        assertEquals(List.of(100L, 150L), alice.balances());
+        assertEquals(List.of(50L), anjali.balances());
+    }
+
+    @Test
+    void reconnectReplaysWhatWasMissed() throws Exception {
+        hub.publish(AccountEvent.balance("t1", "ALICE-1", 100));
+        hub.publish(AccountEvent.balance("t2", "ANJALI-1", 10));
+        hub.publish(AccountEvent.balance("t3", "ALICE-1", 200));
+        hub.publish(AccountEvent.balance("t4", "ALICE-1", 300));
+
+        assertTrue(hub.canResume("t1"));
+        RecordingSink alice = new RecordingSink(2);
+        hub.subscribe("ALICE-1", "t1", null, alice);
+
+        alice.await();
+        assertEquals(List.of(200L, 300L), alice.balances());
+        assertEquals("t4", alice.events.get(1).id());
+    }
+
+    @Test
+    void unknownLastEventIdGetsAReset() throws Exception {
+        assertFalse(hub.canResume("gone"));
+        RecordingSink alice = new RecordingSink(1);
+        hub.subscribe("ALICE-1", "gone", null, alice);
+
+        alice.await();
+        assertEquals(AccountEvent.RESET, alice.events.get(0).name());
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWithoutHoldingUpOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // More stalled connections than writer threads.
+        List<RecordingSink> slow = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RecordingSink sink = new RecordingSink(1) {
+                @Override
+                public void send(AccountEvent event) throws Exception {
+                    release.await();
+                    super.send(event);
+                }
+            };
+            slow.add(sink);
+            hub.subscribe("ALICE-1", null, AccountEvent.balance(null, "ALICE-1", 0), sink);
+        }
+        RecordingSink fast = new RecordingSink(10);
+        hub.subscribe("ALICE-1", null, AccountEvent.balance(null, "ALICE-1", 0), fast);
+
+        // Paced by the fast subscriber, so only the slow one can fall a buffer behind.
+        for (int i = 1; i <= 9; i++) {
+            hub.publish(AccountEvent.balance("t" + i, "ALICE-1", i));
+            fast.awaitCount(i + 1);
+        }
+
+        fast.await();
+        assertEquals(1, hub.subscribers());
+        release.countDown();
+        for (RecordingSink sink : slow) assertTrue(sink.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    static class RecordingSink implements AccountEventHub.Sink {
+        final List<AccountEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingSink(int expected) {
+            received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(AccountEvent event) throws Exception {
+            events.add(event);
+            received.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+        }
+
+        void awaitCount(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count) {
+                assertTrue(System.nanoTime() < deadline, "received " + events.size() + " of " + count);
+                Thread.sleep(1);
+            }
+        }
+
+        List<Long> balances() {
+            return events.stream().map(e -> ((AccountEvent.Balance) e.data()).balance()).toList();
+        }
+    }
+}
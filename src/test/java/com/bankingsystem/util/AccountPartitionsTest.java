@@ -0,0 +1,46 @@
+package com.bankingsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountPartitionsTest {
+
+    @Test
+    void consecutiveIdsSpreadOverAllPartitions() {
+        SnowflakeIdGenerator ids = new SnowflakeIdGenerator(1);
+        int[] counts = new int[AccountPartitions.PARTITIONS];
+        int n = AccountPartitions.PARTITIONS * 1000;
+        for (int i = 0; i < n; i++) {
+            counts[AccountPartitions.partitionOf(AccountPartitions.prefix(ids.nextId()) + "-X")]++;
+        }
+        for (int count : counts) {
+            // Within 20% of the 1000 a perfectly even spread would give.
+            assertTrue(count > 800 && count < 1200, "partition count " + count);
+        }
+    }
+
+    @Test
+    void partitionIsReadFromThePrefix() {
+        assertEquals(0x3F, AccountPartitions.partitionOf("3F-ALICE-1ZK4R8Q2M0"));
+        assertEquals(0, AccountPartitions.partitionOf("00-BOB-1"));
+        assertEquals(255, AccountPartitions.partitionOf("FF-BOB-1"));
+    }
+
+    @Test
+    void legacyNumbersStillHaveAPartition() {
+        int p = AccountPartitions.partitionOf("ALICE-1");
+        assertTrue(p >= 0 && p < AccountPartitions.PARTITIONS);
+        assertEquals(p, AccountPartitions.partitionOf("ALICE-1"));
+    }
+
+    @Test
+    void splitPointsDivideThePrefixRangeEvenly() {
+        assertEquals(List.of(), AccountPartitions.splitPoints(1));
+        assertEquals(List.of("40", "80", "C0"), AccountPartitions.splitPoints(4));
+        assertEquals(255, AccountPartitions.splitPoints(256).size());
+        assertThrows(IllegalArgumentException.class, () -> AccountPartitions.splitPoints(0));
+    }
+}
@@ -0,0 +1,66 @@
+package com.bankingsystem.util;
+
+import com.bankingsystem.model.Posting;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BulkInsertsTest {
+
+    private final MongoOperations mongo = mock(MongoOperations.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final List<Posting> postings = List.of(posting("TXN-1"));
+
+    private static Posting posting(String txnId) {
+        return Posting.builder().transactionId(txnId).accountNumber("ALICE-1").build();
+    }
+
+    @Test
+    void duplicatesAreSkipped() {
+        failWith(11000, 11000);
+        assertDoesNotThrow(() -> BulkInserts.insertIgnoringDuplicates(mongo, Posting.class, postings));
+        verify(bulk).insert(postings);
+    }
+
+    @Test
+    void returnsOnlyTheDocumentsItInserted() {
+        List<Posting> batch = List.of(posting("TXN-1"), posting("TXN-2"), posting("TXN-3"));
+        failWith(11000);
+
+        assertEquals(batch.subList(1, 3), BulkInserts.insertIgnoringDuplicates(mongo, Posting.class, batch));
+    }
+
+    @Test
+    void otherErrorsAreThrown() {
+        BulkOperationException ex = failWith(11000, 121);
+        assertSame(ex, assertThrows(BulkOperationException.class,
+                () -> BulkInserts.insertIgnoringDuplicates(mongo, Posting.class, postings)));
+    }
+
+    @Test
+    void nothingToInsertSkipsTheRoundTrip() {
+        BulkInserts.insertIgnoringDuplicates(mongo, Posting.class, List.of());
+        verifyNoInteractions(mongo);
+    }
+
+    private BulkOperationException failWith(int... codes) {
+        BulkOperationException ex = mock(BulkOperationException.class);
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) errors.add(new BulkWriteError(codes[i], "error", new BsonDocument(), i));
+        when(ex.getErrors()).thenReturn(errors);
+        when(mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Posting.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(ex);
+        return ex;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bankingsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void ids_increaseWithinTheSameMillisecond() {
+        SnowflakeIdGenerator gen = new SnowflakeIdGenerator(7, () -> SnowflakeIdGenerator.EPOCH + 1000);
+        long prev = gen.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = gen.nextId();
+            assertTrue(next > prev);
+            prev = next;
+        }
+    }
+
+    @Test
+    void ids_stayMonotonicWhenClockGoesBackwards() {
+        AtomicLong now = new AtomicLong(SnowflakeIdGenerator.EPOCH + 5000);
+        SnowflakeIdGenerator gen = new SnowflakeIdGenerator(7, now::get);
+        long before = gen.nextId();
+        now.addAndGet(-2000);
+        assertTrue(gen.nextId() > before);
+    }
+
+    @Test
+    void ids_carryNodeId() {
+        SnowflakeIdGenerator gen = new SnowflakeIdGenerator(513, () -> SnowflakeIdGenerator.EPOCH + 1);
+        assertEquals(513, (gen.nextId() >>> 12) & SnowflakeIdGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    void ids_areUniqueAcrossThreads() throws InterruptedException {
+        SnowflakeIdGenerator gen = new SnowflakeIdGenerator(1);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) seen.add(gen.nextId());
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(160_000, seen.size());
+    }
+
+    @Test
+    void invalidNodeId_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+}
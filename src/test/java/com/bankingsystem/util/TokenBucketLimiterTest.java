@@ -0,0 +1,101 @@
+package com.bankingsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void burstIsAllowedThenRefused() {
+        AtomicLong now = new AtomicLong(123_456_789L);
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 5, 1024, now::get);
+
+        for (int i = 0; i < 5; i++) assertEquals(0, limiter.tryAcquire("client-a"));
+        long wait = limiter.tryAcquire("client-a");
+        assertEquals(10 * MS, wait);
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRate() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 2, 1024, now::get);
+        assertEquals(0, limiter.tryAcquire("client-a"));
+        assertEquals(0, limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-a") > 0);
+
+        now.addAndGet(10 * MS);
+        assertEquals(0, limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-a") > 0);
+
+        // A long idle period refills to the burst, not beyond it.
+        now.addAndGet(10_000 * MS);
+        assertEquals(0, limiter.tryAcquire("client-a"));
+        assertEquals(0, limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-a") > 0);
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1 << 16, now::get);
+        assertEquals(0, limiter.tryAcquire("ALICE-1"));
+        assertTrue(limiter.tryAcquire("ALICE-1") > 0);
+        assertEquals(0, limiter.tryAcquire("ANJALI-1"));
+    }
+
+    @Test
+    void keysWithTheSameHashDoNotShareABucket() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1 << 16, now::get);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals(0, limiter.tryAcquire("Aa"));
+        assertTrue(limiter.tryAcquire("Aa") > 0);
+        assertEquals(0, limiter.tryAcquire("BB"));
+    }
+
+    @Test
+    void idleBucketComesBackFull() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 3, 1024, now::get);
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-a") > 0);
+
+        // Past the refill period the bucket may have been dropped; either way the full burst is back.
+        now.addAndGet(60_000 * MS);
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-a") > 0);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1000, 16, now::get);
+        AtomicLong granted = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (limiter.tryAcquire("hot") == 0) granted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1000, granted.get());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(0, 1, 16));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(10, 0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(10, 1, 0));
+    }
+}